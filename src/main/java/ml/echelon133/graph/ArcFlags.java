@@ -0,0 +1,273 @@
+package ml.echelon133.graph;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Arc flags of an {@link IndexedGraph}, which let point-to-point searches skip edges that do not lead towards the
+ * target. Vertexes are divided into regions, and every edge has one flag per region. The flag of a region is set if
+ * the edge is the first edge of a shortest path to some vertex of that region, so a search towards a target only
+ * follows edges whose flag for the region of the target is set (see
+ * {@link ShortestPathSolver#shortestPath(Vertex, Vertex)}).
+ *
+ * Flags of a region are found by backward searches from its boundary vertexes (vertexes with an incoming edge from
+ * another region): every edge that lies on a shortest path to a boundary vertex gets the flag. Edges between two
+ * vertexes of the region always have it. Regions are computed in parallel on the common
+ * {@link java.util.concurrent.ForkJoinPool}.
+ *
+ * Flags of every region are stored in a separate bitset indexed by edge ids, so a search reads a single bitset. The
+ * flags describe the graph they were computed from, they have to be computed again after the graph changes.
+ * @param <T> type of the value that represents weights of edges in the graph
+ */
+public class ArcFlags<T extends Number & Comparable<T>> {
+
+    // distances that differ only by rounding errors are treated as equal, setting a flag too many is always safe
+    private static final double RELATIVE_TOLERANCE = 1e-9;
+
+    private IndexedGraph<T> graph;
+    private int[] regions;
+    private int regionCount;
+    private int wordsPerRegion;
+    private long[] flags;
+
+    private ArcFlags(IndexedGraph<T> graph, int[] regions, int regionCount, int wordsPerRegion) {
+        this.graph = graph;
+        this.regions = regions;
+        this.regionCount = regionCount;
+        this.wordsPerRegion = wordsPerRegion;
+        // the size was checked, so offsets of regions (region * wordsPerRegion) never overflow
+        this.flags = new long[regionCount * wordsPerRegion];
+    }
+
+    /**
+     * A method that computes arc flags of a {@link CompactGraph} snapshot of the graph.
+     * @param graph graph whose edges are flagged
+     * @param regionCount the number of regions
+     * @return The arc flags
+     * @throws IllegalArgumentException if {@code regionCount} is not positive
+     */
+    public static <T extends Number & Comparable<T>> ArcFlags<T> of(Graph<T> graph, int regionCount)
+            throws IllegalArgumentException {
+        return of(CompactGraph.of(graph), regionCount);
+    }
+
+    /**
+     * A method that computes arc flags of a graph, whose vertexes are divided into regions of the same size in
+     * breadth-first order, so that regions consist of vertexes that are close to each other.
+     * @param graph graph whose edges are flagged
+     * @param regionCount the number of regions. There are never more regions than vertexes
+     * @return The arc flags
+     * @throws IllegalArgumentException if {@code regionCount} is not positive
+     */
+    public static <T extends Number & Comparable<T>> ArcFlags<T> of(IndexedGraph<T> graph, int regionCount)
+            throws IllegalArgumentException {
+        if (regionCount <= 0) {
+            throw new IllegalArgumentException("Number of regions must be positive");
+        }
+        int vertexCount = graph.getVertexCount();
+        int regionSize = Math.max(1, (vertexCount + regionCount - 1) / regionCount);
+        int[] order = VertexOrderings.breadthFirst(graph);
+        int[] regions = new int[vertexCount];
+        for (int i = 0; i < vertexCount; i++) {
+            regions[order[i]] = i / regionSize;
+        }
+        return of(graph, regions);
+    }
+
+    /**
+     * A method that computes arc flags of a graph whose vertexes are already divided into regions.
+     * @param graph graph whose edges are flagged
+     * @param regions the region of every vertex, indexed by vertex ids. Regions are numbered from {@code 0}
+     * @return The arc flags
+     * @throws IllegalArgumentException if there is not exactly one region per vertex, a region is negative or the
+     * flags of all regions are too large to be stored
+     */
+    public static <T extends Number & Comparable<T>> ArcFlags<T> of(IndexedGraph<T> graph, int[] regions)
+            throws IllegalArgumentException {
+        if (regions.length != graph.getVertexCount()) {
+            throw new IllegalArgumentException("Every vertex of the graph must belong to exactly one region");
+        }
+        long regionCount = 0;
+        for (int region : regions) {
+            if (region < 0) {
+                throw new IllegalArgumentException("Region number cannot be negative");
+            }
+            regionCount = Math.max(regionCount, region + 1L);
+        }
+        long wordsPerRegion = (graph.getEdgeCount() + (long) Long.SIZE - 1) / Long.SIZE;
+        if (regionCount * wordsPerRegion > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Flags of the graph are too large to be stored");
+        }
+
+        ArcFlags<T> arcFlags = new ArcFlags<>(graph, regions.clone(), (int) regionCount, (int) wordsPerRegion);
+        ReverseAdjacency reverse = new ReverseAdjacency(graph);
+        // every worker owns one search, which is reused by its regions and released when the flags are computed
+        int workers = Math.min(arcFlags.regionCount, ForkJoinPool.getCommonPoolParallelism());
+        // every region writes only to its own bitset, so regions do not need any synchronization
+        IntStream.range(0, workers).parallel().forEach(worker -> {
+            BackwardSearch search = new BackwardSearch(reverse);
+            for (int region = worker; region < arcFlags.regionCount; region += workers) {
+                arcFlags.flagRegion(region, reverse, search);
+            }
+        });
+        return arcFlags;
+    }
+
+    /**
+     * Incoming edges of every vertex, with the ids they have in the graph.
+     */
+    private static class ReverseAdjacency {
+        private int[] offsets;
+        private int[] sources;
+        private int[] edgeIds;
+        private double[] weights;
+
+        ReverseAdjacency(IndexedGraph<?> graph) {
+            int vertexCount = graph.getVertexCount();
+            int edgeCount = graph.getEdgeCount();
+            int[] offsets = new int[vertexCount + 1];
+            int[] sources = new int[edgeCount];
+            int[] edgeIds = new int[edgeCount];
+            double[] weights = new double[edgeCount];
+
+            // edges are read per vertex, because reading a single edge of some graphs (e.g. a CompressedGraph)
+            // decodes all edges of its vertex
+            for (int v = 0; v < vertexCount; v++) {
+                graph.forEachEdge(v, (e, destination, weight) -> offsets[destination + 1]++);
+            }
+            for (int v = 0; v < vertexCount; v++) {
+                offsets[v + 1] += offsets[v];
+            }
+            int[] positions = Arrays.copyOf(offsets, vertexCount);
+            for (int v = 0; v < vertexCount; v++) {
+                int source = v;
+                graph.forEachEdge(v, (e, destination, weight) -> {
+                    int position = positions[destination]++;
+                    sources[position] = source;
+                    edgeIds[position] = e;
+                    weights[position] = weight;
+                });
+            }
+            this.offsets = offsets;
+            this.sources = sources;
+            this.edgeIds = edgeIds;
+            this.weights = weights;
+        }
+    }
+
+    /**
+     * Dijkstra's algorithm that follows incoming edges, so it finds distances from every vertex to the start vertex.
+     */
+    private static class BackwardSearch {
+        private ReverseAdjacency reverse;
+        private double[] distances;
+        private int[] touched;
+        private int touchedCount;
+        private IndexedMinHeap queue;
+
+        BackwardSearch(ReverseAdjacency reverse) {
+            int vertexCount = reverse.offsets.length - 1;
+            this.reverse = reverse;
+            this.distances = new double[vertexCount];
+            this.touched = new int[vertexCount];
+            this.queue = new IndexedMinHeap(vertexCount);
+            Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        }
+
+        void run(int start) {
+            for (int i = 0; i < touchedCount; i++) {
+                distances[touched[i]] = Double.POSITIVE_INFINITY;
+            }
+            touchedCount = 0;
+
+            distances[start] = 0.0;
+            touched[touchedCount++] = start;
+            queue.insertOrDecrease(start, 0.0);
+            while (!queue.isEmpty()) {
+                int v = queue.poll();
+                for (int i = reverse.offsets[v]; i < reverse.offsets[v + 1]; i++) {
+                    int u = reverse.sources[i];
+                    double newDistance = distances[v] + reverse.weights[i];
+                    if (newDistance < distances[u]) {
+                        if (distances[u] == Double.POSITIVE_INFINITY) {
+                            touched[touchedCount++] = u;
+                        }
+                        distances[u] = newDistance;
+                        queue.insertOrDecrease(u, newDistance);
+                    }
+                }
+            }
+        }
+    }
+
+    private void flagRegion(int region, ReverseAdjacency reverse, BackwardSearch search) {
+        int offset = region * wordsPerRegion;
+        for (int v = 0; v < regions.length; v++) {
+            if (regions[v] != region) {
+                continue;
+            }
+            boolean boundary = false;
+            for (int i = reverse.offsets[v]; i < reverse.offsets[v + 1]; i++) {
+                if (regions[reverse.sources[i]] == region) {
+                    setFlag(offset, reverse.edgeIds[i]);
+                } else {
+                    boundary = true;
+                }
+            }
+            if (!boundary) {
+                continue;
+            }
+
+            // an edge u -> w lies on a shortest path to v if it does not make the distance from u longer
+            search.run(v);
+            for (int t = 0; t < search.touchedCount; t++) {
+                int w = search.touched[t];
+                double distanceFromW = search.distances[w];
+                for (int i = reverse.offsets[w]; i < reverse.offsets[w + 1]; i++) {
+                    double distanceFromU = search.distances[reverse.sources[i]];
+                    double difference = distanceFromW + reverse.weights[i] - distanceFromU;
+                    if (difference <= RELATIVE_TOLERANCE * Math.max(1.0, distanceFromU)) {
+                        setFlag(offset, reverse.edgeIds[i]);
+                    }
+                }
+            }
+        }
+    }
+
+    private void setFlag(int regionOffset, int edgeId) {
+        flags[regionOffset + (edgeId >>> 6)] |= 1L << edgeId;
+    }
+
+    /**
+     * @return The graph whose edges are flagged
+     */
+    public IndexedGraph<T> getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return The number of regions
+     */
+    public int getRegionCount() {
+        return regionCount;
+    }
+
+    /**
+     * @param vertexId The id of the vertex
+     * @return The region of that vertex
+     */
+    public int getRegion(int vertexId) {
+        return regions[vertexId];
+    }
+
+    /**
+     * A method that checks whether the edge can be the first edge of a shortest path to a vertex of the region.
+     * @param edgeId The id of the edge
+     * @param region The region
+     * @return {@code true} if the flag of the region is set
+     */
+    public boolean isFlagged(int edgeId, int region) {
+        return (flags[region * wordsPerRegion + (edgeId >>> 6)] & (1L << edgeId)) != 0;
+    }
+}
@@ -0,0 +1,26 @@
+package ml.echelon133.graph;
+
+/**
+ * A flag that lets one thread ask searches that run in other threads to stop (see {@link SolveOptions}). Searches
+ * check the flag between visits of vertexes, so they stop soon after {@link #cancel()} is called, but not at once.
+ *
+ * A token cannot be reset. Every group of searches that can be cancelled together needs its own token.
+ */
+public final class CancellationToken {
+
+    private volatile boolean cancelled;
+
+    /**
+     * Asks every search that uses this token to stop.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * @return {@code true} if {@link #cancel()} was called
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+}
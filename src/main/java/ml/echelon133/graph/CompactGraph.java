@@ -0,0 +1,223 @@
+package ml.echelon133.graph;
+
+import java.util.*;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Read-only snapshot of a {@link Graph} that stores its edges in compressed sparse row (CSR) arrays.
+ *
+ * Weights are stored as {@code double} values. Changes made to the source graph after the snapshot was taken are
+ * not visible in the snapshot. An undirected {@link Edge} is stored as two arcs, one in each direction, and
+ * {@link #getEdge(int)} returns the same edge for both of them.
+ *
+ * Initially vertex ids follow the order of {@link Graph#getVertexes()}, which usually has nothing to do with the
+ * structure of the graph. Reordering methods return a snapshot in which vertexes that are close to each other in the
+ * graph also get close ids, so their data is close to each other in memory while the graph is searched.
+ * @param <T> type of the value that represents weights of edges in the graph
+ */
+public class CompactGraph<T extends Number & Comparable<T>> implements IndexedGraph<T> {
+
+    private List<Vertex<T>> vertexes;
+    private Map<Vertex<T>, Integer> vertexIds;
+    private int[] edgeOffsets;
+    private int[] edgeDestinations;
+    private double[] edgeWeights;
+    private List<Edge<T>> edges;
+    private int[] originalVertexIds;
+
+    CompactGraph(List<Vertex<T>> vertexes, Map<Vertex<T>, Integer> vertexIds, int[] edgeOffsets,
+                 int[] edgeDestinations, double[] edgeWeights, List<Edge<T>> edges, int[] originalVertexIds) {
+        this.vertexes = vertexes;
+        this.vertexIds = vertexIds;
+        this.edgeOffsets = edgeOffsets;
+        this.edgeDestinations = edgeDestinations;
+        this.edgeWeights = edgeWeights;
+        this.edges = edges;
+        this.originalVertexIds = originalVertexIds;
+    }
+
+    /**
+     * A method that takes a snapshot of the graph given as an argument. Vertex ids follow the order of
+     * {@link Graph#getVertexes()}.
+     * @param graph The graph to take the snapshot of
+     * @param <T> type of the value that represents weights of edges in the graph
+     * @return The snapshot of the graph
+     */
+    public static <T extends Number & Comparable<T>> CompactGraph<T> of(Graph<T> graph) {
+        List<Vertex<T>> vertexes = new ArrayList<>(graph.getVertexes());
+        Map<Vertex<T>, Integer> vertexIds = new HashMap<>(vertexes.size() * 2);
+        for (int i = 0; i < vertexes.size(); i++) {
+            vertexIds.put(vertexes.get(i), i);
+        }
+
+        int[] edgeOffsets = new int[vertexes.size() + 1];
+        List<Edge<T>> edges = new ArrayList<>();
+        List<Integer> destinations = new ArrayList<>();
+        for (int i = 0; i < vertexes.size(); i++) {
+            Vertex<T> v = vertexes.get(i);
+            for (Edge<T> e : v.getEdges()) {
+                // an undirected edge becomes an arc in each direction, because it is in the edge lists of both vertexes
+                Integer destination = vertexIds.get(e.getOppositeVertex(v));
+
+                // skip edges that lead to a vertex which does not belong to the graph anymore
+                if (destination != null) {
+                    edges.add(e);
+                    destinations.add(destination);
+                }
+            }
+            edgeOffsets[i + 1] = edges.size();
+        }
+
+        int[] edgeDestinations = new int[edges.size()];
+        double[] edgeWeights = new double[edges.size()];
+        for (int i = 0; i < edges.size(); i++) {
+            edgeDestinations[i] = destinations.get(i);
+            edgeWeights[i] = edges.get(i).getWeight().doubleValue();
+        }
+
+        int[] originalVertexIds = new int[vertexes.size()];
+        Arrays.setAll(originalVertexIds, i -> i);
+
+        return new CompactGraph<>(vertexes, vertexIds, edgeOffsets, edgeDestinations, edgeWeights, edges, originalVertexIds);
+    }
+
+    /**
+     * A method that returns a copy of this snapshot in which vertex ids follow the breadth-first order of the graph.
+     * @return The reordered snapshot
+     */
+    public CompactGraph<T> reorderBreadthFirst() {
+        return reorder(VertexOrderings.breadthFirst(this));
+    }
+
+    /**
+     * A method that returns a copy of this snapshot in which vertex ids follow the Reverse Cuthill-McKee order, which
+     * keeps the ids of neighboring vertexes close to each other.
+     * @return The reordered snapshot
+     */
+    public CompactGraph<T> reorderReverseCuthillMcKee() {
+        return reorder(VertexOrderings.reverseCuthillMcKee(this));
+    }
+
+    /**
+     * A method that returns a copy of this snapshot in which vertex ids follow the order of vertexes along the
+     * Hilbert space-filling curve. It is useful for graphs whose vertexes have coordinates (e.g. road graphs).
+     * @param x function that returns the x coordinate of a vertex
+     * @param y function that returns the y coordinate of a vertex
+     * @return The reordered snapshot
+     */
+    public CompactGraph<T> reorderByHilbertCurve(ToDoubleFunction<Vertex<T>> x, ToDoubleFunction<Vertex<T>> y) {
+        return reorder(VertexOrderings.hilbertCurve(this, x, y));
+    }
+
+    /**
+     * A method that returns a copy of this snapshot with renumbered vertexes.
+     * @param order array in which element {@code i} is the current id of the vertex that should get id {@code i}
+     * @return The reordered snapshot
+     * @throws IllegalArgumentException if the order is not a permutation of vertex ids
+     */
+    public CompactGraph<T> reorder(int[] order) throws IllegalArgumentException {
+        int vertexCount = getVertexCount();
+        if (order.length != vertexCount) {
+            throw new IllegalArgumentException("Order must contain every vertex exactly once");
+        }
+        int[] newIds = new int[vertexCount];
+        Arrays.fill(newIds, -1);
+        for (int i = 0; i < vertexCount; i++) {
+            if (order[i] < 0 || order[i] >= vertexCount || newIds[order[i]] != -1) {
+                throw new IllegalArgumentException("Order must contain every vertex exactly once");
+            }
+            newIds[order[i]] = i;
+        }
+
+        List<Vertex<T>> newVertexes = new ArrayList<>(vertexCount);
+        Map<Vertex<T>, Integer> newVertexIds = new HashMap<>(vertexCount * 2);
+        int[] newOriginalVertexIds = new int[vertexCount];
+        int[] newEdgeOffsets = new int[vertexCount + 1];
+        int[] newEdgeDestinations = new int[getEdgeCount()];
+        double[] newEdgeWeights = new double[getEdgeCount()];
+        List<Edge<T>> newEdges = new ArrayList<>(getEdgeCount());
+
+        for (int i = 0; i < vertexCount; i++) {
+            int oldId = order[i];
+            Vertex<T> v = vertexes.get(oldId);
+            newVertexes.add(v);
+            newVertexIds.put(v, i);
+            newOriginalVertexIds[i] = originalVertexIds[oldId];
+
+            for (int e = getEdgesStart(oldId); e < getEdgesEnd(oldId); e++) {
+                int newEdgeId = newEdges.size();
+                newEdgeDestinations[newEdgeId] = newIds[edgeDestinations[e]];
+                newEdgeWeights[newEdgeId] = edgeWeights[e];
+                newEdges.add(edges.get(e));
+            }
+            newEdgeOffsets[i + 1] = newEdges.size();
+        }
+
+        return new CompactGraph<>(newVertexes, newVertexIds, newEdgeOffsets, newEdgeDestinations, newEdgeWeights,
+                newEdges, newOriginalVertexIds);
+    }
+
+    @Override
+    public int getVertexCount() {
+        return vertexes.size();
+    }
+
+    @Override
+    public int getEdgeCount() {
+        return edgeDestinations.length;
+    }
+
+    @Override
+    public Vertex<T> getVertex(int vertexId) {
+        return vertexes.get(vertexId);
+    }
+
+    @Override
+    public int getVertexId(Vertex<T> v) {
+        Integer id = vertexIds.get(v);
+        return (id == null) ? -1 : id;
+    }
+
+    /**
+     * A method that maps the id of a vertex back to the id that the vertex had in the snapshot created by
+     * {@link #of(Graph)}, before any reordering. That id is also the index of the vertex in {@link Graph#getVertexes()}
+     * at the moment of taking the snapshot.
+     * @param vertexId The id of the vertex in this snapshot
+     * @return The original id of the vertex
+     */
+    public int getOriginalVertexId(int vertexId) {
+        return originalVertexIds[vertexId];
+    }
+
+    @Override
+    public int getEdgesStart(int vertexId) {
+        return edgeOffsets[vertexId];
+    }
+
+    @Override
+    public int getEdgesEnd(int vertexId) {
+        return edgeOffsets[vertexId + 1];
+    }
+
+    @Override
+    public void forEachEdge(int vertexId, EdgeVisitor visitor) {
+        for (int e = edgeOffsets[vertexId], end = edgeOffsets[vertexId + 1]; e < end; e++) {
+            visitor.visit(e, edgeDestinations[e], edgeWeights[e]);
+        }
+    }
+
+    @Override
+    public int getEdgeDestination(int edgeId) {
+        return edgeDestinations[edgeId];
+    }
+
+    @Override
+    public double getEdgeWeight(int edgeId) {
+        return edgeWeights[edgeId];
+    }
+
+    @Override
+    public Edge<T> getEdge(int edgeId) {
+        return edges.get(edgeId);
+    }
+}
@@ -0,0 +1,351 @@
+package ml.echelon133.graph;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.*;
+
+/**
+ * Read-only {@link IndexedGraph} that stores the edges of every vertex in a compressed form. Edges of a vertex are
+ * sorted by destination id and destinations are stored as gaps between consecutive ids, encoded as variable-length
+ * integers (7 bits per byte). Weights are stored as indexes into a dictionary of distinct weights if there are at most
+ * {@value #MAX_DICTIONARY_SIZE} of them, otherwise as raw 8-byte values.
+ *
+ * The compression works best when neighboring vertexes have close ids, which is why it should be applied to a
+ * {@link CompactGraph} that was reordered (e.g. {@link CompactGraph#reorderReverseCuthillMcKee()}). Edges are decoded
+ * on the fly by {@link #forEachEdge(int, EdgeVisitor)}. Methods that read a single edge by its id have to decode the
+ * edges of its source vertex, so they are meant for the boundary of the API, not for searches.
+ *
+ * Vertex ids are the same as in the source graph. Edge ids follow the sorted order, so they might differ.
+ * @param <T> type of the value that represents weights of edges in the graph
+ */
+public class CompressedGraph<T extends Number & Comparable<T>> implements IndexedGraph<T> {
+
+    static final int MAX_DICTIONARY_SIZE = 1 << 16;
+
+    private List<Vertex<T>> vertexes;
+    private Map<Vertex<T>, Integer> vertexIds;
+    private int[] edgeOffsets;
+    private int[] byteOffsets;
+    private byte[] encodedEdges;
+    // null if weights are not dictionary coded
+    private double[] weightDictionary;
+    // weight values of the source graph that match the dictionary, used by edges created by getEdge
+    private Map<Double, T> weightValues;
+    // a weight of the source graph, whose type is used by getEdge if weights are not dictionary coded
+    private T sampleWeight;
+
+    private CompressedGraph() {
+    }
+
+    /**
+     * A method that creates a compressed copy of the graph given as an argument.
+     * @param graph The graph to compress
+     * @param <T> type of the value that represents weights of edges in the graph
+     * @return The compressed copy of the graph
+     */
+    public static <T extends Number & Comparable<T>> CompressedGraph<T> of(IndexedGraph<T> graph) {
+        int vertexCount = graph.getVertexCount();
+        CompressedGraph<T> compressedGraph = new CompressedGraph<>();
+        compressedGraph.vertexes = new ArrayList<>(vertexCount);
+        compressedGraph.vertexIds = new HashMap<>(vertexCount * 2);
+        for (int v = 0; v < vertexCount; v++) {
+            Vertex<T> vertex = graph.getVertex(v);
+            compressedGraph.vertexes.add(vertex);
+            compressedGraph.vertexIds.put(vertex, v);
+        }
+
+        // weights are dictionary coded only if there are few distinct values
+        Map<Double, Integer> dictionaryIndexes = new HashMap<>();
+        Map<Double, T> weightValues = new HashMap<>();
+        for (int v = 0; v < vertexCount && dictionaryIndexes.size() <= MAX_DICTIONARY_SIZE; v++) {
+            graph.forEachEdge(v, (edgeId, dest, weight) -> {
+                if (dictionaryIndexes.putIfAbsent(weight, dictionaryIndexes.size()) == null) {
+                    weightValues.put(weight, graph.getEdge(edgeId).getWeight());
+                }
+            });
+        }
+        boolean useDictionary = dictionaryIndexes.size() <= MAX_DICTIONARY_SIZE;
+        if (useDictionary) {
+            compressedGraph.weightDictionary = new double[dictionaryIndexes.size()];
+            dictionaryIndexes.forEach((weight, index) -> compressedGraph.weightDictionary[index] = weight);
+            compressedGraph.weightValues = weightValues;
+        } else {
+            compressedGraph.sampleWeight = weightValues.values().iterator().next();
+        }
+
+        ByteWriter writer = new ByteWriter(graph.getEdgeCount() * 2 + 16);
+        compressedGraph.edgeOffsets = new int[vertexCount + 1];
+        compressedGraph.byteOffsets = new int[vertexCount + 1];
+        for (int v = 0; v < vertexCount; v++) {
+            int edgesOfVertex = graph.getEdgesEnd(v) - graph.getEdgesStart(v);
+            int[] destinations = new int[edgesOfVertex];
+            double[] weights = new double[edgesOfVertex];
+            int[] filled = new int[1];
+            graph.forEachEdge(v, (edgeId, dest, weight) -> {
+                destinations[filled[0]] = dest;
+                weights[filled[0]] = weight;
+                filled[0]++;
+            });
+
+            Integer[] sortedOrder = new Integer[edgesOfVertex];
+            Arrays.setAll(sortedOrder, i -> i);
+            Arrays.sort(sortedOrder, Comparator.comparingInt((Integer i) -> destinations[i]).thenComparingDouble(i -> weights[i]));
+
+            // the first destination is stored relative to the vertex itself, the next ones relative to the previous one
+            int previousDestination = v;
+            for (int i = 0; i < edgesOfVertex; i++) {
+                int dest = destinations[sortedOrder[i]];
+                double weight = weights[sortedOrder[i]];
+                if (i == 0) {
+                    writer.writeVarInt(zigZagEncode(dest - v));
+                } else {
+                    writer.writeVarInt(dest - previousDestination);
+                }
+                previousDestination = dest;
+
+                if (useDictionary) {
+                    writer.writeVarInt(dictionaryIndexes.get(weight));
+                } else {
+                    writer.writeLong(Double.doubleToRawLongBits(weight));
+                }
+            }
+            compressedGraph.edgeOffsets[v + 1] = compressedGraph.edgeOffsets[v] + edgesOfVertex;
+            compressedGraph.byteOffsets[v + 1] = writer.size();
+        }
+        compressedGraph.encodedEdges = writer.toByteArray();
+
+        return compressedGraph;
+    }
+
+    private static int zigZagEncode(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int zigZagDecode(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * @return The number of bytes used by encoded edges (without vertex offsets and the weight dictionary)
+     */
+    public int getEncodedEdgesSize() {
+        return encodedEdges.length;
+    }
+
+    @Override
+    public int getVertexCount() {
+        return vertexes.size();
+    }
+
+    @Override
+    public int getEdgeCount() {
+        return edgeOffsets[edgeOffsets.length - 1];
+    }
+
+    @Override
+    public Vertex<T> getVertex(int vertexId) {
+        return vertexes.get(vertexId);
+    }
+
+    @Override
+    public int getVertexId(Vertex<T> v) {
+        Integer id = vertexIds.get(v);
+        return (id == null) ? -1 : id;
+    }
+
+    @Override
+    public int getEdgesStart(int vertexId) {
+        return edgeOffsets[vertexId];
+    }
+
+    @Override
+    public int getEdgesEnd(int vertexId) {
+        return edgeOffsets[vertexId + 1];
+    }
+
+    @Override
+    public void forEachEdge(int vertexId, EdgeVisitor visitor) {
+        byte[] bytes = encodedEdges;
+        int position = byteOffsets[vertexId];
+        int end = byteOffsets[vertexId + 1];
+        int edgeId = edgeOffsets[vertexId];
+        int destination = vertexId;
+        boolean first = true;
+
+        while (position < end) {
+            // varint of the destination
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[position++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            destination = first ? vertexId + zigZagDecode(value) : destination + value;
+            first = false;
+
+            double weight;
+            if (weightDictionary != null) {
+                int index = 0;
+                shift = 0;
+                do {
+                    b = bytes[position++];
+                    index |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                weight = weightDictionary[index];
+            } else {
+                long bits = 0;
+                for (int i = 0; i < Long.BYTES; i++) {
+                    bits |= (bytes[position++] & 0xFFL) << (8 * i);
+                }
+                weight = Double.longBitsToDouble(bits);
+            }
+
+            visitor.visit(edgeId++, destination, weight);
+        }
+    }
+
+    /**
+     * Decodes the edges of the source vertex of the edge, until the edge is found.
+     * @return The destination id (first element) and the weight (second element) of the edge
+     */
+    private double[] decodeEdge(int edgeId) {
+        int source = getEdgeSource(edgeId);
+        double[] edge = new double[2];
+        forEachEdge(source, (id, dest, weight) -> {
+            if (id == edgeId) {
+                edge[0] = dest;
+                edge[1] = weight;
+            }
+        });
+        return edge;
+    }
+
+    /**
+     * Finds the source vertex of the edge, which is the last vertex whose edges start at or before the edge.
+     */
+    private int getEdgeSource(int edgeId) {
+        int low = 0;
+        int high = vertexes.size() - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (edgeOffsets[middle] <= edgeId) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    @Override
+    public int getEdgeDestination(int edgeId) {
+        return (int) decodeEdge(edgeId)[0];
+    }
+
+    @Override
+    public double getEdgeWeight(int edgeId) {
+        return decodeEdge(edgeId)[1];
+    }
+
+    /**
+     * A method that finds the edge of the source vertex that matches the compressed edge with the given id. Parallel
+     * edges with equal weights are indistinguishable, so any of them might be returned. If vertexes of the source
+     * graph have no edges (e.g. vertexes of an {@link OffHeapGraph} or of {@link GraphBuilder#buildCompact()}), a new
+     * directed edge with the decoded weight is created.
+     * @param edgeId The id of the edge
+     * @return The matching edge of the source graph or a new edge
+     * @throws UnsupportedOperationException if a new edge is needed, weights are not dictionary coded and their type
+     * is not one of the standard {@link Number} types
+     */
+    @Override
+    public Edge<T> getEdge(int edgeId) throws UnsupportedOperationException {
+        double[] edge = decodeEdge(edgeId);
+        Vertex<T> source = vertexes.get(getEdgeSource(edgeId));
+        Vertex<T> destination = vertexes.get((int) edge[0]);
+
+        for (Edge<T> e : source.getEdges()) {
+            if (e.getOppositeVertex(source) == destination && e.getWeight().doubleValue() == edge[1]) {
+                return e;
+            }
+        }
+        return new Edge<>(source, destination, toWeight(edge[1]));
+    }
+
+    /**
+     * Restores the weight value of the source graph. Dictionary coded weights are exact, other weights are converted
+     * from the stored {@code double} to the type of the weights of the source graph.
+     */
+    @SuppressWarnings("unchecked")
+    private T toWeight(double weight) throws UnsupportedOperationException {
+        if (weightValues != null) {
+            return weightValues.get(weight);
+        }
+        Number converted;
+        if (sampleWeight instanceof Double) {
+            converted = weight;
+        } else if (sampleWeight instanceof Float) {
+            converted = (float) weight;
+        } else if (sampleWeight instanceof Long) {
+            converted = (long) weight;
+        } else if (sampleWeight instanceof Integer) {
+            converted = (int) weight;
+        } else if (sampleWeight instanceof Short) {
+            converted = (short) weight;
+        } else if (sampleWeight instanceof Byte) {
+            converted = (byte) weight;
+        } else if (sampleWeight instanceof BigDecimal) {
+            converted = BigDecimal.valueOf(weight);
+        } else if (sampleWeight instanceof BigInteger) {
+            converted = BigDecimal.valueOf(weight).toBigInteger();
+        } else {
+            String msg = String.format("Weights of type %s cannot be restored", sampleWeight.getClass().getName());
+            throw new UnsupportedOperationException(msg);
+        }
+        return (T) converted;
+    }
+
+    /**
+     * Growable byte buffer used while encoding edges.
+     */
+    private static class ByteWriter {
+        private byte[] bytes;
+        private int size;
+
+        ByteWriter(int initialCapacity) {
+            this.bytes = new byte[Math.max(initialCapacity, 16)];
+        }
+
+        void writeVarInt(int value) {
+            ensureCapacity(5);
+            while ((value & ~0x7F) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        void writeLong(long value) {
+            ensureCapacity(Long.BYTES);
+            for (int i = 0; i < Long.BYTES; i++) {
+                bytes[size++] = (byte) (value >>> (8 * i));
+            }
+        }
+
+        private void ensureCapacity(int additionalBytes) {
+            if (size + additionalBytes > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + additionalBytes));
+            }
+        }
+
+        int size() {
+            return size;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+    }
+}
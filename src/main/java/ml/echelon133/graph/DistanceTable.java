@@ -0,0 +1,84 @@
+package ml.echelon133.graph;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Matrix of shortest path distances between every source and every target vertex, computed by
+ * {@link ShortestPathSolver#distanceTable(List, List)}. Distances are stored in a single {@code double} array in
+ * row-major order (one row per source vertex, one column per target vertex).
+ * @param <T> type of the value that represents weights of edges in the graph
+ */
+public class DistanceTable<T extends Number & Comparable<T>> {
+
+    private List<Vertex<T>> sources;
+    private List<Vertex<T>> targets;
+    private double[] distances;
+
+    DistanceTable(List<Vertex<T>> sources, List<Vertex<T>> targets, double[] distances) {
+        this.sources = sources;
+        this.targets = targets;
+        this.distances = distances;
+    }
+
+    /**
+     * @return The source vertexes (rows of the table)
+     */
+    public List<Vertex<T>> getSources() {
+        return sources;
+    }
+
+    /**
+     * @return The target vertexes (columns of the table)
+     */
+    public List<Vertex<T>> getTargets() {
+        return targets;
+    }
+
+    /**
+     * A method that returns the distance between a source and a target vertex.
+     * @param sourceIndex The index of the source vertex in {@link #getSources()}
+     * @param targetIndex The index of the target vertex in {@link #getTargets()}
+     * @return The sum of weights of the shortest path or {@code Double.POSITIVE_INFINITY} if the target is not
+     * reachable from the source
+     * @throws IllegalArgumentException if any of the indexes is outside of the table
+     */
+    public double getDistance(int sourceIndex, int targetIndex) throws IllegalArgumentException {
+        // a target index that is too large would otherwise read a distance from the next row
+        if (sourceIndex < 0 || sourceIndex >= sources.size()) {
+            throw new IllegalArgumentException("Index of the source vertex is outside of the table");
+        }
+        if (targetIndex < 0 || targetIndex >= targets.size()) {
+            throw new IllegalArgumentException("Index of the target vertex is outside of the table");
+        }
+        return distances[sourceIndex * targets.size() + targetIndex];
+    }
+
+    /**
+     * A method that returns all distances of the table without copying them.
+     * @return The row-major array of distances with {@code getSources().size() * getTargets().size()} elements
+     */
+    public double[] getDistances() {
+        return distances;
+    }
+
+    /**
+     * A method that writes the table to the output stream in a binary format: the number of rows ({@code int}),
+     * the number of columns ({@code int}) and then every distance ({@code double}) in row-major order. All values are
+     * big-endian, as written by {@link DataOutputStream}. The stream is flushed but not closed.
+     * @param out The stream to write the table to
+     * @throws IOException if writing to the stream fails
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        DataOutputStream dataOut = new DataOutputStream(new BufferedOutputStream(out));
+        dataOut.writeInt(sources.size());
+        dataOut.writeInt(targets.size());
+        for (double distance : distances) {
+            dataOut.writeDouble(distance);
+        }
+        dataOut.flush();
+    }
+}
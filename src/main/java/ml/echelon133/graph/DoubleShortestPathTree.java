@@ -0,0 +1,37 @@
+package ml.echelon133.graph;
+
+import java.math.BigDecimal;
+
+/**
+ * Result of a search on a {@link DoubleWeightedGraph}. Distances are sums computed in {@code double} precision, so
+ * they might differ in the last bits from the exact sums computed by {@link ShortestPathSolver}.
+ */
+public final class DoubleShortestPathTree extends PrimitiveShortestPathTree {
+
+    private double[] distances;
+
+    DoubleShortestPathTree(PrimitiveGraph graph, int source, double[] distances, int[] previousVertexes,
+                           int[] visitOrder, int visitedCount) {
+        super(graph, source, previousVertexes, visitOrder, visitedCount);
+        this.distances = distances;
+    }
+
+    /**
+     * @param vertexId id of the vertex
+     * @return sum of weights of the shortest path from the source to the vertex, or
+     * {@code Double.POSITIVE_INFINITY} if the vertex cannot be reached
+     */
+    public double getDistance(int vertexId) {
+        return distances[vertexId];
+    }
+
+    @Override
+    public boolean isReachable(int vertexId) {
+        return distances[vertexId] != Double.POSITIVE_INFINITY;
+    }
+
+    @Override
+    BigDecimal getDistanceAsBigDecimal(int vertexId) {
+        return new BigDecimal(distances[vertexId]);
+    }
+}
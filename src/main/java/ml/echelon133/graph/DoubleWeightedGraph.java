@@ -0,0 +1,143 @@
+package ml.echelon133.graph;
+
+import java.util.Arrays;
+
+/**
+ * Graph with {@code double} weights, stored in a primitive array, so edges need neither {@link Edge} objects nor boxed
+ * weights. Distances found by {@link #solveStartingFrom(int)} are computed in {@code double} precision.
+ *
+ * Graphs can be converted from and to a generic {@link Graph} ({@link #of(Graph)} and {@link #toGraph()}), and
+ * results can be converted to the map returned by {@link ShortestPathSolver} (see
+ * {@link PrimitiveShortestPathTree#toResultMap(Graph)}).
+ */
+public class DoubleWeightedGraph extends PrimitiveGraph {
+
+    private double[] weights = new double[0];
+
+    /**
+     * A method that copies a generic graph. Ids of vertexes are their indexes in {@link Graph#getVertexes()}.
+     * @param graph graph to copy
+     * @return The copy of the graph
+     */
+    public static DoubleWeightedGraph of(Graph<Double> graph) {
+        DoubleWeightedGraph copy = new DoubleWeightedGraph();
+        copy.addVertexes(graph);
+        for (Edge<Double> e : graph.getEdges()) {
+            int source = copy.getVertexId(e.getSource().getName());
+            int destination = copy.getVertexId(e.getDestination().getName());
+            if (e.isDirected()) {
+                copy.addEdge(source, destination, e.getWeight());
+            } else {
+                copy.addUndirectedEdge(source, destination, e.getWeight());
+            }
+        }
+        return copy;
+    }
+
+    @Override
+    void growWeights(int capacity) {
+        if (weights.length < capacity) {
+            weights = Arrays.copyOf(weights, capacity);
+        }
+    }
+
+    /**
+     * A method that adds a directed edge.
+     * @param source id of the vertex at which the edge starts
+     * @param destination id of the vertex at which the edge ends
+     * @param weight weight of the edge
+     * @return id of the edge
+     * @throws IllegalArgumentException if the weight is negative or NaN, or any of the vertexes does not belong to the graph
+     */
+    public int addEdge(int source, int destination, double weight) throws IllegalArgumentException {
+        return addEdge(source, destination, weight, true);
+    }
+
+    /**
+     * A method that adds an edge that can be traversed in both directions. It is stored as two directed edges.
+     * @param v1 id of the first vertex
+     * @param v2 id of the second vertex
+     * @param weight weight of the edge
+     * @return id of the edge from {@code v1} to {@code v2}, the edge from {@code v2} to {@code v1} has the next id
+     * @throws IllegalArgumentException if the weight is negative or NaN, or any of the vertexes does not belong to the graph
+     */
+    public int addUndirectedEdge(int v1, int v2, double weight) throws IllegalArgumentException {
+        return addEdge(v1, v2, weight, false);
+    }
+
+    private int addEdge(int source, int destination, double weight, boolean directed) throws IllegalArgumentException {
+        if (!(weight >= 0)) {
+            throw new IllegalArgumentException("Edge weight cannot be negative");
+        }
+        int edgeId = addEdges(source, destination, directed);
+        weights[edgeId] = weight;
+        if (!directed) {
+            weights[edgeId + 1] = weight;
+        }
+        return edgeId;
+    }
+
+    /**
+     * @param edgeId id of the edge
+     * @return weight of the edge
+     */
+    public double getEdgeWeight(int edgeId) {
+        return weights[edgeId];
+    }
+
+    /**
+     * Find the shortest paths from the vertex given as an argument to every vertex that is reachable from it.
+     * @param source id of the vertex from which the paths start
+     * @return distances and previous vertexes of every vertex
+     * @throws IllegalArgumentException if the vertex does not belong to the graph
+     */
+    public DoubleShortestPathTree solveStartingFrom(int source) throws IllegalArgumentException {
+        checkVertexId(source);
+        int vertexCount = getVertexCount();
+        double[] distances = new double[vertexCount];
+        int[] previousVertexes = new int[vertexCount];
+        int[] visitOrder = new int[vertexCount];
+        int visitedCount = 0;
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        Arrays.fill(previousVertexes, -1);
+
+        IndexedMinHeap queue = new IndexedMinHeap(vertexCount);
+        distances[source] = 0.0;
+        queue.insertOrDecrease(source, 0.0);
+        while (!queue.isEmpty()) {
+            // weights are not negative, so a visited vertex never gets a shorter path and is never queued again
+            int v = queue.poll();
+            visitOrder[visitedCount++] = v;
+            double distance = distances[v];
+            for (int e = getFirstEdge(v); e != -1; e = getNextEdge(e)) {
+                int destination = getEdgeDestination(e);
+                double newDistance = distance + weights[e];
+                if (newDistance < distances[destination]) {
+                    distances[destination] = newDistance;
+                    previousVertexes[destination] = v;
+                    queue.insertOrDecrease(destination, newDistance);
+                }
+            }
+        }
+        return new DoubleShortestPathTree(this, source, distances, previousVertexes, visitOrder, visitedCount);
+    }
+
+    /**
+     * A method that copies this graph into a generic graph. Vertexes of the copy are in the order of ids.
+     * @return The copy of the graph
+     */
+    public Graph<Double> toGraph() {
+        GraphBuilder<Double> builder = toGraphBuilder();
+        int[] sources = getEdgeSources();
+        for (int e = 0; e < getEdgeCount(); e++) {
+            if (isUndirected(e)) {
+                builder.addUndirectedEdge(sources[e], getEdgeDestination(e), weights[e]);
+                // the second edge of the pair is a part of the same undirected edge
+                e++;
+            } else {
+                builder.addEdge(sources[e], getEdgeDestination(e), weights[e]);
+            }
+        }
+        return builder.build();
+    }
+}
@@ -12,6 +12,10 @@ public class Edge<T extends Number & Comparable<T>> {
     private Vertex<T> source;
     private Vertex<T> destination;
     private T weight;
+    private boolean directed;
+    // positions of the edge in the edge arrays of its vertexes (see Vertex), -1 if the edge is not in such an array
+    int sourcePosition = -1;
+    int destinationPosition = -1;
 
     /**
      * @param source The source vertex (base of the arrow in a directed graph)
@@ -20,6 +24,18 @@ public class Edge<T extends Number & Comparable<T>> {
      * @throws IllegalArgumentException if weight value is negative
      */
     public Edge(Vertex<T> source, Vertex<T> destination, T weight) throws IllegalArgumentException {
+        this(source, destination, weight, true);
+    }
+
+    /**
+     * @param source The source vertex (base of the arrow in a directed graph)
+     * @param destination The destination vertex (tip of the arrow in a directed graph)
+     * @param weight The weight value of the edge (only non-negative values are accepted)
+     * @param directed {@code false} if the edge can be traversed in both directions. An undirected edge is a single
+     *                 object that belongs to the edge lists of both of its vertexes
+     * @throws IllegalArgumentException if weight value is negative
+     */
+    public Edge(Vertex<T> source, Vertex<T> destination, T weight, boolean directed) throws IllegalArgumentException {
 
         // For now converting every T to double to check for negative value works fine
         if (weight.doubleValue() < 0) {
@@ -29,6 +45,7 @@ public class Edge<T extends Number & Comparable<T>> {
         this.source = source;
         this.destination = destination;
         this.weight = weight;
+        this.directed = directed;
     }
 
     /**
@@ -52,6 +69,27 @@ public class Edge<T extends Number & Comparable<T>> {
         return weight;
     }
 
+    /**
+     * @return {@code true} if the edge can only be traversed from its source to its destination
+     */
+    public boolean isDirected() {
+        return directed;
+    }
+
+    /**
+     * A method that returns the vertex that is reached by traversing this edge from the vertex given as an argument.
+     * For directed edges it is always the destination vertex.
+     * @param from The vertex from which the edge is traversed
+     * @return The destination vertex, or the source vertex if this edge is undirected and is traversed from its
+     * destination
+     */
+    public Vertex<T> getOppositeVertex(Vertex<T> from) {
+        if (!directed && from == destination) {
+            return source;
+        }
+        return destination;
+    }
+
     /** A method that returns this edge value in {@code BigDecimal} representation.
      * @return {@code BigDecimal} with a value that is equal to this edge {@link #getWeight()}
      */
@@ -51,6 +51,20 @@ public interface Graph<T extends Number & Comparable<T>> {
      */
     void addEdge(Vertex<T> source, Vertex<T> destination, T weight) throws IllegalArgumentException;
 
+    /**
+     * A method that constructs a new undirected edge from parameters passed in and adds it to the graph. The edge is
+     * stored once, but it can be traversed in both directions.
+     * @param v1 The first vertex of the edge
+     * @param v2 The second vertex of the edge
+     * @param weight The weight value of the new edge
+     * @throws IllegalArgumentException if a vertex of the edge does not belong to the graph
+     * @throws UnsupportedOperationException if the graph does not support undirected edges (the default)
+     */
+    default void addUndirectedEdge(Vertex<T> v1, Vertex<T> v2, T weight)
+            throws IllegalArgumentException, UnsupportedOperationException {
+        throw new UnsupportedOperationException("This graph does not support undirected edges");
+    }
+
     /**
      * A method that removes the edge from the graph.
      * @param e The edge to remove
@@ -63,4 +77,25 @@ public interface Graph<T extends Number & Comparable<T>> {
      * @return The found vertex or {@code null} value if searched vertex not found
      */
     Vertex<T> findVertex(String vName);
+
+    /**
+     * Version of graphs that do not track their changes (see {@link #getVersion()}).
+     */
+    long UNVERSIONED = -1;
+
+    /**
+     * A method that returns the version of the graph. The version changes every time a vertex or an edge is added to
+     * or removed from the graph through this interface, so anything computed for one version of the graph stays valid
+     * as long as the version does not change.
+     *
+     * Edges that are added to or removed from a vertex of the graph directly ({@link Vertex#addEdge(Edge)} and
+     * {@link Vertex#removeEdge(Edge)}) bypass the graph and do not change its version. Such changes are not supported,
+     * results cached for the version of the graph (e.g. by {@link ShortestPathSolver}) do not see them.
+     *
+     * Graphs that do not track their changes return {@link #UNVERSIONED}, and nothing is cached for them.
+     * @return The current version of the graph, never negative unless it is {@link #UNVERSIONED}
+     */
+    default long getVersion() {
+        return UNVERSIONED;
+    }
 }
@@ -0,0 +1,340 @@
+package ml.echelon133.graph;
+
+import java.util.*;
+
+/**
+ * Builder that creates large graphs faster than {@link Graph#addVertex(Vertex)} and {@link Graph#addEdge(Edge)}.
+ * Vertexes and edges are collected in arrays that are sized up front, and they are validated only once, by
+ * {@link #build()} or {@link #buildCompact()}. Edges can refer to vertexes by names or by ids, where the id of a vertex
+ * is the number of vertexes added before it. An edge can refer by name to a vertex that is added after the edge.
+ *
+ * A builder can be used to build many graphs. Every built graph has its own vertexes and edges.
+ * @param <T> type of the value that represents weights of edges in the graph
+ */
+public class GraphBuilder<T extends Number & Comparable<T>> {
+
+    private String[] vertexNames;
+    private int vertexCount;
+    private Map<String, Integer> vertexIds;
+    // names of vertexes that were used by edges before they were added, index is (-id - 2)
+    private List<String> unresolvedNames;
+    private Map<String, Integer> unresolvedIds;
+
+    private int[] edgeSources;
+    private int[] edgeDestinations;
+    private Object[] edgeWeights;
+    private BitSet undirectedEdges;
+    private int edgeCount;
+
+    /**
+     * @param expectedVertexCount number of vertexes for which the storage is allocated up front
+     * @param expectedEdgeCount number of edges for which the storage is allocated up front
+     * @throws IllegalArgumentException if any of the counts is negative
+     */
+    public GraphBuilder(int expectedVertexCount, int expectedEdgeCount) throws IllegalArgumentException {
+        if (expectedVertexCount < 0 || expectedEdgeCount < 0) {
+            throw new IllegalArgumentException("Expected number of vertexes and edges cannot be negative");
+        }
+        this.vertexNames = new String[expectedVertexCount];
+        this.vertexIds = new HashMap<>(Math.max(16, (int) (expectedVertexCount / 0.75f) + 1));
+        this.unresolvedNames = new ArrayList<>();
+        this.unresolvedIds = new HashMap<>();
+        this.edgeSources = new int[expectedEdgeCount];
+        this.edgeDestinations = new int[expectedEdgeCount];
+        this.edgeWeights = new Object[expectedEdgeCount];
+        this.undirectedEdges = new BitSet();
+    }
+
+    /**
+     * A method that adds a vertex. Names are checked for duplicates by the build methods.
+     * @param name The name of the vertex
+     * @return The id of the vertex
+     */
+    public int addVertex(String name) {
+        if (vertexCount == vertexNames.length) {
+            vertexNames = Arrays.copyOf(vertexNames, Math.max(16, vertexCount * 2));
+        }
+        int id = vertexCount++;
+        vertexNames[id] = name;
+        // the first vertex with the name is the one that edges refer to, duplicates are rejected later
+        vertexIds.putIfAbsent(name, id);
+        return id;
+    }
+
+    /**
+     * A method that adds a vertex, unless a vertex with the same name was already added.
+     * @param name The name of the vertex
+     * @return The id of the new vertex or of the vertex that was already added
+     */
+    public int addVertexIfAbsent(String name) {
+        Integer id = vertexIds.get(name);
+        return (id != null) ? id : addVertex(name);
+    }
+
+    /**
+     * A method that adds a directed edge between vertexes with given ids.
+     * @param sourceId The id of the source vertex
+     * @param destinationId The id of the destination vertex
+     * @param weight The weight value of the edge
+     * @return this builder
+     */
+    public GraphBuilder<T> addEdge(int sourceId, int destinationId, T weight) {
+        appendEdge(toInvalidIfNegative(sourceId), toInvalidIfNegative(destinationId), weight);
+        return this;
+    }
+
+    /**
+     * A method that adds a directed edge between vertexes with given names.
+     * @param sourceName The name of the source vertex
+     * @param destinationName The name of the destination vertex
+     * @param weight The weight value of the edge
+     * @return this builder
+     */
+    public GraphBuilder<T> addEdge(String sourceName, String destinationName, T weight) {
+        appendEdge(getIdOrPlaceholder(sourceName), getIdOrPlaceholder(destinationName), weight);
+        return this;
+    }
+
+    /**
+     * A method that adds an undirected edge between vertexes with given ids (see {@link Graph#addUndirectedEdge}).
+     * @param v1Id The id of the first vertex
+     * @param v2Id The id of the second vertex
+     * @param weight The weight value of the edge
+     * @return this builder
+     */
+    public GraphBuilder<T> addUndirectedEdge(int v1Id, int v2Id, T weight) {
+        undirectedEdges.set(appendEdge(toInvalidIfNegative(v1Id), toInvalidIfNegative(v2Id), weight));
+        return this;
+    }
+
+    /**
+     * A method that adds an undirected edge between vertexes with given names (see {@link Graph#addUndirectedEdge}).
+     * @param v1Name The name of the first vertex
+     * @param v2Name The name of the second vertex
+     * @param weight The weight value of the edge
+     * @return this builder
+     */
+    public GraphBuilder<T> addUndirectedEdge(String v1Name, String v2Name, T weight) {
+        undirectedEdges.set(appendEdge(getIdOrPlaceholder(v1Name), getIdOrPlaceholder(v2Name), weight));
+        return this;
+    }
+
+    /**
+     * A method that adds many directed edges at once. Edge {@code i} goes from {@code sourceIds[i]} to
+     * {@code destinationIds[i]} and has weight {@code weights.get(i)}.
+     * @param sourceIds The ids of source vertexes
+     * @param destinationIds The ids of destination vertexes
+     * @param weights The weight values of edges
+     * @return this builder
+     * @throws IllegalArgumentException if the arguments have different lengths
+     */
+    public GraphBuilder<T> addEdges(int[] sourceIds, int[] destinationIds, List<T> weights) throws IllegalArgumentException {
+        if (sourceIds.length != destinationIds.length || sourceIds.length != weights.size()) {
+            throw new IllegalArgumentException("Sources, destinations and weights must have the same length");
+        }
+        ensureEdgeCapacity(edgeCount + sourceIds.length);
+        for (int i = 0; i < sourceIds.length; i++) {
+            edgeSources[edgeCount + i] = toInvalidIfNegative(sourceIds[i]);
+            edgeDestinations[edgeCount + i] = toInvalidIfNegative(destinationIds[i]);
+        }
+        for (T weight : weights) {
+            edgeWeights[edgeCount++] = weight;
+        }
+        return this;
+    }
+
+    /**
+     * @return Number of vertexes added so far
+     */
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    /**
+     * @return Number of edges added so far
+     */
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Ids given by callers are never treated as placeholders of names, a negative id is replaced by {@code -1}, which
+     * is rejected by the build methods.
+     */
+    private static int toInvalidIfNegative(int id) {
+        return (id < 0) ? -1 : id;
+    }
+
+    private int getIdOrPlaceholder(String name) {
+        Integer id = vertexIds.get(name);
+        if (id != null) {
+            return id;
+        }
+        // negative placeholders are resolved by the build methods, after all vertexes are known
+        return -2 - unresolvedIds.computeIfAbsent(name, n -> {
+            unresolvedNames.add(n);
+            return unresolvedNames.size() - 1;
+        });
+    }
+
+    private int appendEdge(int sourceId, int destinationId, T weight) {
+        ensureEdgeCapacity(edgeCount + 1);
+        edgeSources[edgeCount] = sourceId;
+        edgeDestinations[edgeCount] = destinationId;
+        edgeWeights[edgeCount] = weight;
+        return edgeCount++;
+    }
+
+    private void ensureEdgeCapacity(int capacity) {
+        if (capacity > edgeSources.length) {
+            int newCapacity = Math.max(capacity, Math.max(16, edgeSources.length * 2));
+            edgeSources = Arrays.copyOf(edgeSources, newCapacity);
+            edgeDestinations = Arrays.copyOf(edgeDestinations, newCapacity);
+            edgeWeights = Arrays.copyOf(edgeWeights, newCapacity);
+        }
+    }
+
+    /**
+     * Checks every vertex and edge, and replaces placeholders of vertexes that were referred to by name before they
+     * were added.
+     * @throws IllegalArgumentException if the builder contains invalid vertexes or edges
+     */
+    private void validate() throws IllegalArgumentException {
+        if (vertexIds.size() != vertexCount) {
+            throw new IllegalArgumentException("Vertex with that name already belongs to this graph");
+        }
+        for (int e = 0; e < edgeCount; e++) {
+            int source = resolve(edgeSources[e]);
+            int destination = resolve(edgeDestinations[e]);
+            if (source < 0 || source >= vertexCount || destination < 0 || destination >= vertexCount) {
+                throw new IllegalArgumentException("Edge contains a vertex that does not belong to the graph");
+            }
+            edgeSources[e] = source;
+            edgeDestinations[e] = destination;
+            if (getWeight(e).doubleValue() < 0) {
+                throw new IllegalArgumentException("Edge weight cannot be negative");
+            }
+        }
+        unresolvedNames.clear();
+        unresolvedIds.clear();
+    }
+
+    private int resolve(int id) {
+        if (id > -2 || -2 - id >= unresolvedNames.size()) {
+            return id;
+        }
+        Integer resolvedId = vertexIds.get(unresolvedNames.get(-2 - id));
+        return (resolvedId == null) ? -1 : resolvedId;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T getWeight(int edgeId) {
+        return (T) edgeWeights[edgeId];
+    }
+
+    /**
+     * Creates vertexes whose edge lists have the exact capacity and fills them with new edges.
+     */
+    private List<Vertex<T>> createVertexes(List<Edge<T>> edges, boolean fillEdgeLists) {
+        int[] degrees = new int[vertexCount];
+        if (fillEdgeLists) {
+            for (int e = 0; e < edgeCount; e++) {
+                degrees[edgeSources[e]]++;
+                if (undirectedEdges.get(e) && edgeSources[e] != edgeDestinations[e]) {
+                    degrees[edgeDestinations[e]]++;
+                }
+            }
+        }
+
+        List<Vertex<T>> vertexes = new ArrayList<>(vertexCount);
+        for (int v = 0; v < vertexCount; v++) {
+            vertexes.add(new Vertex<>(vertexNames[v], degrees[v]));
+        }
+        for (int e = 0; e < edgeCount; e++) {
+            Vertex<T> source = vertexes.get(edgeSources[e]);
+            Vertex<T> destination = vertexes.get(edgeDestinations[e]);
+            Edge<T> edge = new Edge<>(source, destination, getWeight(e), !undirectedEdges.get(e));
+            edges.add(edge);
+            if (fillEdgeLists) {
+                source.addEdge(edge);
+                if (!edge.isDirected() && source != destination) {
+                    destination.addEdge(edge);
+                }
+            }
+        }
+        return vertexes;
+    }
+
+    /**
+     * A method that creates a graph that contains all added vertexes and edges.
+     * @return The new graph
+     * @throws IllegalArgumentException if two vertexes have the same name, an edge refers to a vertex that was not
+     * added, or an edge has a negative weight
+     */
+    public WeightedGraph<T> build() throws IllegalArgumentException {
+        validate();
+        List<Edge<T>> edges = new ArrayList<>(edgeCount);
+        List<Vertex<T>> vertexes = createVertexes(edges, true);
+        return new WeightedGraph<>(vertexes, edges);
+    }
+
+    /**
+     * A method that creates a {@link CompactGraph} that contains all added vertexes and edges, without creating a
+     * {@link Graph} first. Vertex ids of the snapshot are the ids of this builder. Vertexes of the snapshot have empty
+     * edge lists, so the snapshot is meant for methods that work on an {@link IndexedGraph} (e.g.
+     * {@link ShortestPathSolver#ShortestPathSolver(IndexedGraph)}).
+     * @return The new snapshot
+     * @throws IllegalArgumentException if two vertexes have the same name, an edge refers to a vertex that was not
+     * added, or an edge has a negative weight
+     */
+    public CompactGraph<T> buildCompact() throws IllegalArgumentException {
+        validate();
+        List<Edge<T>> edges = new ArrayList<>(edgeCount);
+        List<Vertex<T>> vertexes = createVertexes(edges, false);
+
+        Map<Vertex<T>, Integer> compactVertexIds = new HashMap<>(vertexCount * 2);
+        for (int v = 0; v < vertexCount; v++) {
+            compactVertexIds.put(vertexes.get(v), v);
+        }
+
+        // counting sort of arcs by their source, an undirected edge becomes an arc in each direction
+        int[] edgeOffsets = new int[vertexCount + 1];
+        for (int e = 0; e < edgeCount; e++) {
+            edgeOffsets[edgeSources[e] + 1]++;
+            if (undirectedEdges.get(e) && edgeSources[e] != edgeDestinations[e]) {
+                edgeOffsets[edgeDestinations[e] + 1]++;
+            }
+        }
+        for (int v = 0; v < vertexCount; v++) {
+            edgeOffsets[v + 1] += edgeOffsets[v];
+        }
+
+        int arcCount = edgeOffsets[vertexCount];
+        int[] arcDestinations = new int[arcCount];
+        double[] arcWeights = new double[arcCount];
+        Edge<T>[] arcEdges = newEdgeArray(arcCount);
+        int[] filled = Arrays.copyOf(edgeOffsets, vertexCount);
+        for (int e = 0; e < edgeCount; e++) {
+            int arc = filled[edgeSources[e]]++;
+            arcDestinations[arc] = edgeDestinations[e];
+            arcWeights[arc] = getWeight(e).doubleValue();
+            arcEdges[arc] = edges.get(e);
+            if (undirectedEdges.get(e) && edgeSources[e] != edgeDestinations[e]) {
+                arc = filled[edgeDestinations[e]]++;
+                arcDestinations[arc] = edgeSources[e];
+                arcWeights[arc] = arcWeights[filled[edgeSources[e]] - 1];
+                arcEdges[arc] = edges.get(e);
+            }
+        }
+
+        int[] originalVertexIds = new int[vertexCount];
+        Arrays.setAll(originalVertexIds, i -> i);
+        return new CompactGraph<>(vertexes, compactVertexIds, edgeOffsets, arcDestinations, arcWeights,
+                Arrays.asList(arcEdges), originalVertexIds);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Number & Comparable<T>> Edge<T>[] newEdgeArray(int length) {
+        return (Edge<T>[]) new Edge[length];
+    }
+}
@@ -0,0 +1,48 @@
+package ml.echelon133.graph;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * A single path in a graph, described by the vertexes it visits and the edges it uses.
+ * @param <T> type of the value that represents weights of edges in the graph
+ */
+public class GraphPath<T extends Number & Comparable<T>> {
+    private List<Vertex<T>> vertexes;
+    private List<Edge<T>> edges;
+    private BigDecimal sumOfWeights;
+
+    /**
+     * @param vertexes All vertexes of the path in the order they are visited in (including the first and the last one)
+     * @param edges All edges of the path in the order they are used in
+     */
+    public GraphPath(List<Vertex<T>> vertexes, List<Edge<T>> edges) {
+        this.vertexes = List.copyOf(vertexes);
+        this.edges = List.copyOf(edges);
+        this.sumOfWeights = new BigDecimal(0);
+        for (Edge<T> e : edges) {
+            this.sumOfWeights = this.sumOfWeights.add(e.getWeightAsBigDecimal());
+        }
+    }
+
+    /**
+     * @return All vertexes of the path in the order they are visited in (including the first and the last one)
+     */
+    public List<Vertex<T>> getVertexes() {
+        return vertexes;
+    }
+
+    /**
+     * @return All edges of the path in the order they are used in
+     */
+    public List<Edge<T>> getEdges() {
+        return edges;
+    }
+
+    /**
+     * @return Sum of weights of all edges of the path
+     */
+    public BigDecimal getSumOfWeights() {
+        return sumOfWeights;
+    }
+}
@@ -0,0 +1,480 @@
+package ml.echelon133.graph;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+/**
+ * Distance oracle that answers shortest path distance queries from precomputed hub labels (pruned landmark
+ * labeling). Every vertex has an out-label and an in-label, which are lists of (hub, distance) pairs, such that for
+ * any two vertexes the shortest path between them passes through a hub that is in the out-label of the source and in
+ * the in-label of the target. A query is a single merge of two sorted labels, it does not search the graph at all.
+ *
+ * Labels are computed by running a pruned Dijkstra's algorithm from every vertex, in the order given by a vertex
+ * ordering. Important vertexes (by default the ones with the most edges) should come first, because the labels of
+ * vertexes that are processed later become very short. Hubs are identified by their position in that ordering, so
+ * the labels are sorted by hub as they are created.
+ *
+ * Labels of all vertexes are stored in a few primitive buffers (offsets, hubs and distances, separately for out-labels
+ * and in-labels). A labeling can be saved to a file and loaded back with {@link #load(Path)}, which maps the file into
+ * memory instead of reading it. Instances are immutable and can be queried by many threads.
+ *
+ * Distances are computed in {@code double} precision. Vertex ids are the ids of the {@link IndexedGraph} the labeling
+ * was computed from (for a {@link Graph}, indexes in {@link Graph#getVertexes()}).
+ */
+public class HubLabeling {
+
+    // 'HUBL' in ASCII
+    private static final int MAGIC = 0x4855424C;
+    private static final int HEADER_BYTES = 4 * Integer.BYTES;
+
+    private int vertexCount;
+    private IntBuffer outOffsets;
+    private IntBuffer outHubs;
+    private DoubleBuffer outDistances;
+    private IntBuffer inOffsets;
+    private IntBuffer inHubs;
+    private DoubleBuffer inDistances;
+
+    private HubLabeling(int vertexCount) {
+        this.vertexCount = vertexCount;
+    }
+
+    /**
+     * Labels of all vertexes that are being computed. Labels only grow, at the end they are copied into buffers.
+     */
+    private static class LabelBuilder {
+        private int[][] hubs;
+        private double[][] distances;
+        private int[] sizes;
+        private long totalSize;
+
+        LabelBuilder(int vertexCount) {
+            this.hubs = new int[vertexCount][];
+            this.distances = new double[vertexCount][];
+            this.sizes = new int[vertexCount];
+            for (int v = 0; v < vertexCount; v++) {
+                hubs[v] = new int[4];
+                distances[v] = new double[4];
+            }
+        }
+
+        void add(int vertex, int hub, double distance) {
+            int size = sizes[vertex];
+            if (size == hubs[vertex].length) {
+                hubs[vertex] = Arrays.copyOf(hubs[vertex], size * 2);
+                distances[vertex] = Arrays.copyOf(distances[vertex], size * 2);
+            }
+            hubs[vertex][size] = hub;
+            distances[vertex][size] = distance;
+            sizes[vertex]++;
+            totalSize++;
+        }
+
+        /**
+         * @return The shortest distance through the hubs of the label whose distances were placed in hubDistances
+         * and the hubs of the label of the vertex
+         */
+        double query(double[] hubDistances, int vertex) {
+            double best = Double.POSITIVE_INFINITY;
+            int[] vertexHubs = hubs[vertex];
+            double[] vertexDistances = distances[vertex];
+            for (int i = 0; i < sizes[vertex]; i++) {
+                best = Math.min(best, hubDistances[vertexHubs[i]] + vertexDistances[i]);
+            }
+            return best;
+        }
+
+        /**
+         * Places the distances of the label of the vertex in hubDistances, at the indexes of their hubs.
+         */
+        void scatter(double[] hubDistances, int vertex) {
+            for (int i = 0; i < sizes[vertex]; i++) {
+                hubDistances[hubs[vertex][i]] = distances[vertex][i];
+            }
+        }
+
+        void clear(double[] hubDistances, int vertex) {
+            for (int i = 0; i < sizes[vertex]; i++) {
+                hubDistances[hubs[vertex][i]] = Double.POSITIVE_INFINITY;
+            }
+        }
+    }
+
+    /**
+     * Adjacency of the graph (or of the reversed graph) copied into arrays, so both directions are read the same way.
+     */
+    private static class Adjacency {
+        private int[] offsets;
+        private int[] neighbors;
+        private double[] weights;
+
+        Adjacency(IndexedGraph<?> graph, boolean reversed) {
+            int vertexCount = graph.getVertexCount();
+            int edgeCount = graph.getEdgeCount();
+            int[] offsets = new int[vertexCount + 1];
+            int[] neighbors = new int[edgeCount];
+            double[] weights = new double[edgeCount];
+            this.offsets = offsets;
+            this.neighbors = neighbors;
+            this.weights = weights;
+
+            // edges are read per vertex, because reading a single edge of some graphs (e.g. a CompressedGraph)
+            // decodes all edges of its vertex
+            if (!reversed) {
+                for (int v = 0; v < vertexCount; v++) {
+                    offsets[v] = graph.getEdgesStart(v);
+                    graph.forEachEdge(v, (e, destination, weight) -> {
+                        neighbors[e] = destination;
+                        weights[e] = weight;
+                    });
+                }
+                offsets[vertexCount] = edgeCount;
+                return;
+            }
+
+            // counting sort of the edges by their destination
+            for (int v = 0; v < vertexCount; v++) {
+                graph.forEachEdge(v, (e, destination, weight) -> offsets[destination + 1]++);
+            }
+            for (int v = 0; v < vertexCount; v++) {
+                offsets[v + 1] += offsets[v];
+            }
+            int[] positions = Arrays.copyOf(offsets, vertexCount);
+            for (int v = 0; v < vertexCount; v++) {
+                int source = v;
+                graph.forEachEdge(v, (e, destination, weight) -> {
+                    int position = positions[destination]++;
+                    neighbors[position] = source;
+                    weights[position] = weight;
+                });
+            }
+        }
+    }
+
+    /**
+     * A method that computes the labeling of a graph, with vertexes ordered by their number of edges.
+     * @param graph graph whose distances are labeled
+     * @return The labeling
+     * @throws IllegalArgumentException if the labels are too large to be stored
+     */
+    public static HubLabeling of(Graph<?> graph) throws IllegalArgumentException {
+        return of(CompactGraph.of(graph));
+    }
+
+    /**
+     * A method that computes the labeling of a graph, with vertexes ordered by their number of edges (in both
+     * directions).
+     * @param graph graph whose distances are labeled
+     * @return The labeling
+     * @throws IllegalArgumentException if the labels are too large to be stored
+     */
+    public static HubLabeling of(IndexedGraph<?> graph) throws IllegalArgumentException {
+        int[] degrees = new int[graph.getVertexCount()];
+        for (int v = 0; v < degrees.length; v++) {
+            degrees[v] += graph.getEdgesEnd(v) - graph.getEdgesStart(v);
+            graph.forEachEdge(v, (e, destination, weight) -> degrees[destination]++);
+        }
+        int[] vertexOrder = IntStream.range(0, degrees.length).boxed()
+                .sorted(Comparator.comparingInt((Integer v) -> degrees[v]).reversed())
+                .mapToInt(Integer::intValue)
+                .toArray();
+        return of(graph, vertexOrder);
+    }
+
+    /**
+     * A method that computes the labeling of a graph with the given vertex ordering.
+     * @param graph graph whose distances are labeled
+     * @param vertexOrder ids of all vertexes of the graph, the most important first
+     * @return The labeling
+     * @throws IllegalArgumentException if {@code vertexOrder} does not contain every vertex exactly once or the labels
+     * are too large to be stored
+     */
+    public static HubLabeling of(IndexedGraph<?> graph, int[] vertexOrder) throws IllegalArgumentException {
+        int vertexCount = graph.getVertexCount();
+        boolean[] ordered = new boolean[vertexCount];
+        for (int v : vertexOrder) {
+            if (v < 0 || v >= vertexCount || ordered[v]) {
+                throw new IllegalArgumentException("Vertex order must contain every vertex of the graph exactly once");
+            }
+            ordered[v] = true;
+        }
+        if (vertexOrder.length != vertexCount) {
+            throw new IllegalArgumentException("Vertex order must contain every vertex of the graph exactly once");
+        }
+
+        Adjacency forward = new Adjacency(graph, false);
+        Adjacency backward = new Adjacency(graph, true);
+        LabelBuilder outLabels = new LabelBuilder(vertexCount);
+        LabelBuilder inLabels = new LabelBuilder(vertexCount);
+        PrunedSearch search = new PrunedSearch(vertexCount);
+
+        for (int rank = 0; rank < vertexCount; rank++) {
+            int hub = vertexOrder[rank];
+            // paths that start at the hub become parts of in-labels, paths that end at it parts of out-labels
+            search.run(hub, rank, forward, outLabels, inLabels);
+            search.run(hub, rank, backward, inLabels, outLabels);
+        }
+
+        if (outLabels.totalSize > Integer.MAX_VALUE - 8 || inLabels.totalSize > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Labels of the graph are too large to be stored");
+        }
+        HubLabeling labeling = new HubLabeling(vertexCount);
+        labeling.outOffsets = IntBuffer.allocate(vertexCount + 1);
+        labeling.outHubs = IntBuffer.allocate((int) outLabels.totalSize);
+        labeling.outDistances = DoubleBuffer.allocate((int) outLabels.totalSize);
+        labeling.inOffsets = IntBuffer.allocate(vertexCount + 1);
+        labeling.inHubs = IntBuffer.allocate((int) inLabels.totalSize);
+        labeling.inDistances = DoubleBuffer.allocate((int) inLabels.totalSize);
+        copyLabels(outLabels, labeling.outOffsets, labeling.outHubs, labeling.outDistances);
+        copyLabels(inLabels, labeling.inOffsets, labeling.inHubs, labeling.inDistances);
+        return labeling;
+    }
+
+    private static void copyLabels(LabelBuilder labels, IntBuffer offsets, IntBuffer hubs, DoubleBuffer distances) {
+        for (int v = 0; v < labels.sizes.length; v++) {
+            offsets.put(hubs.position());
+            hubs.put(labels.hubs[v], 0, labels.sizes[v]);
+            distances.put(labels.distances[v], 0, labels.sizes[v]);
+            // the builder is not needed anymore, so its memory can be released right away
+            labels.hubs[v] = null;
+            labels.distances[v] = null;
+        }
+        offsets.put(hubs.position());
+        offsets.flip();
+        hubs.flip();
+        distances.flip();
+    }
+
+    /**
+     * Dijkstra's algorithm from a single hub that does not continue through vertexes whose distance from the hub is
+     * already covered by the labels of hubs that were processed before.
+     */
+    private static class PrunedSearch {
+        private double[] distances;
+        private int[] touched;
+        private int touchedCount;
+        private IndexedMinHeap queue;
+        // distances between the current hub and earlier hubs, indexed by hub
+        private double[] hubDistances;
+
+        PrunedSearch(int vertexCount) {
+            this.distances = new double[vertexCount];
+            this.touched = new int[vertexCount];
+            this.queue = new IndexedMinHeap(vertexCount);
+            this.hubDistances = new double[vertexCount];
+            Arrays.fill(distances, Double.POSITIVE_INFINITY);
+            Arrays.fill(hubDistances, Double.POSITIVE_INFINITY);
+        }
+
+        /**
+         * @param hub id of the vertex from which the search starts
+         * @param rank position of the hub in the vertex ordering
+         * @param adjacency edges that are followed
+         * @param hubLabels labels that contain the distances of the hub to earlier hubs
+         * @param labels labels to which the hub is added
+         */
+        void run(int hub, int rank, Adjacency adjacency, LabelBuilder hubLabels, LabelBuilder labels) {
+            hubLabels.scatter(hubDistances, hub);
+
+            distances[hub] = 0.0;
+            touched[touchedCount++] = hub;
+            queue.insertOrDecrease(hub, 0.0);
+            while (!queue.isEmpty()) {
+                int v = queue.poll();
+                double distance = distances[v];
+                if (labels.query(hubDistances, v) <= distance) {
+                    continue;
+                }
+                labels.add(v, rank, distance);
+
+                for (int e = adjacency.offsets[v]; e < adjacency.offsets[v + 1]; e++) {
+                    int neighbor = adjacency.neighbors[e];
+                    double newDistance = distance + adjacency.weights[e];
+                    if (newDistance < distances[neighbor]) {
+                        if (distances[neighbor] == Double.POSITIVE_INFINITY) {
+                            touched[touchedCount++] = neighbor;
+                        }
+                        distances[neighbor] = newDistance;
+                        queue.insertOrDecrease(neighbor, newDistance);
+                    }
+                }
+            }
+
+            for (int i = 0; i < touchedCount; i++) {
+                distances[touched[i]] = Double.POSITIVE_INFINITY;
+            }
+            touchedCount = 0;
+            hubLabels.clear(hubDistances, hub);
+        }
+    }
+
+    /**
+     * @return The number of vertexes of the labeled graph
+     */
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    /**
+     * @return The number of (hub, distance) pairs in all labels
+     */
+    public long getLabelSize() {
+        return (long) outHubs.limit() + inHubs.limit();
+    }
+
+    /**
+     * A method that returns the distance between two vertexes.
+     * @param source id of the vertex at which the path starts
+     * @param target id of the vertex at which the path ends
+     * @return The sum of weights of the shortest path or {@code Double.POSITIVE_INFINITY} if the target is not
+     * reachable from the source
+     * @throws IllegalArgumentException if any of the ids does not belong to the graph
+     */
+    public double getDistance(int source, int target) throws IllegalArgumentException {
+        if (source < 0 || source >= vertexCount || target < 0 || target >= vertexCount) {
+            throw new IllegalArgumentException("Labeling does not contain the vertex given as an argument");
+        }
+        int i = outOffsets.get(source);
+        int outEnd = outOffsets.get(source + 1);
+        int j = inOffsets.get(target);
+        int inEnd = inOffsets.get(target + 1);
+
+        double best = Double.POSITIVE_INFINITY;
+        while (i < outEnd && j < inEnd) {
+            int outHub = outHubs.get(i);
+            int inHub = inHubs.get(j);
+            if (outHub == inHub) {
+                best = Math.min(best, outDistances.get(i) + inDistances.get(j));
+                i++;
+                j++;
+            } else if (outHub < inHub) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * A method that saves the labeling to a file: a header (a magic number, the number of vertexes and the sizes of
+     * out-labels and in-labels) followed by offsets, hubs and distances of out-labels and then of in-labels. All
+     * values are big-endian, and every array of distances starts at a multiple of 8 bytes.
+     * @param path path to the file. An existing file is replaced
+     * @throws IOException if the file cannot be written
+     */
+    public void save(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+            buffer.putInt(MAGIC).putInt(vertexCount).putInt(outHubs.limit()).putInt(inHubs.limit());
+
+            writeInts(channel, buffer, outOffsets);
+            writeInts(channel, buffer, outHubs);
+            writeDoubles(channel, buffer, outDistances);
+            writeInts(channel, buffer, inOffsets);
+            writeInts(channel, buffer, inHubs);
+            writeDoubles(channel, buffer, inDistances);
+
+            flush(channel, buffer);
+        }
+    }
+
+    private static void writeInts(FileChannel channel, ByteBuffer buffer, IntBuffer values) throws IOException {
+        for (int i = 0; i < values.limit(); i++) {
+            if (buffer.remaining() < Integer.BYTES) {
+                flush(channel, buffer);
+            }
+            buffer.putInt(values.get(i));
+        }
+    }
+
+    private static void writeDoubles(FileChannel channel, ByteBuffer buffer, DoubleBuffer values) throws IOException {
+        while ((channel.position() + buffer.position()) % Double.BYTES != 0) {
+            buffer.put((byte) 0);
+        }
+        for (int i = 0; i < values.limit(); i++) {
+            if (buffer.remaining() < Double.BYTES) {
+                flush(channel, buffer);
+            }
+            buffer.putDouble(values.get(i));
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * A method that loads a labeling saved by {@link #save(Path)}. The file is mapped into memory, so only the parts of
+     * the labels that are queried are read from the disk. The file must not be changed while the labeling is used.
+     * @param path path to the file
+     * @return The labeling
+     * @throws IOException if the file cannot be read or it does not contain a labeling
+     */
+    public static HubLabeling load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_BYTES) {
+                throw new IOException("File does not contain a hub labeling");
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            int vertexCount = header.getInt(Integer.BYTES);
+            int outSize = header.getInt(2 * Integer.BYTES);
+            int inSize = header.getInt(3 * Integer.BYTES);
+            if (header.getInt(0) != MAGIC || vertexCount < 0 || outSize < 0 || inSize < 0) {
+                throw new IOException("File does not contain a hub labeling");
+            }
+
+            HubLabeling labeling = new HubLabeling(vertexCount);
+            long position = HEADER_BYTES;
+            labeling.outOffsets = mapInts(channel, position, vertexCount + 1);
+            position += (vertexCount + 1L) * Integer.BYTES;
+            labeling.outHubs = mapInts(channel, position, outSize);
+            position = align(position + (long) outSize * Integer.BYTES);
+            labeling.outDistances = mapDoubles(channel, position, outSize);
+            position += (long) outSize * Double.BYTES;
+            labeling.inOffsets = mapInts(channel, position, vertexCount + 1);
+            position += (vertexCount + 1L) * Integer.BYTES;
+            labeling.inHubs = mapInts(channel, position, inSize);
+            position = align(position + (long) inSize * Integer.BYTES);
+            labeling.inDistances = mapDoubles(channel, position, inSize);
+            return labeling;
+        }
+    }
+
+    private static long align(long position) {
+        return (position + Double.BYTES - 1) / Double.BYTES * Double.BYTES;
+    }
+
+    private static IntBuffer mapInts(FileChannel channel, long position, int count) throws IOException {
+        return map(channel, position, (long) count * Integer.BYTES).asIntBuffer();
+    }
+
+    private static DoubleBuffer mapDoubles(FileChannel channel, long position, int count) throws IOException {
+        return map(channel, position, (long) count * Double.BYTES).asDoubleBuffer();
+    }
+
+    private static ByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+        if (position + size > channel.size()) {
+            throw new IOException("Hub labeling file is truncated");
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Hub labeling is too large to be mapped");
+        }
+        // the mapping stays valid after the channel is closed
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+    }
+}
@@ -0,0 +1,190 @@
+package ml.echelon133.graph;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Dijkstra's algorithm that works on vertex ids of a {@link IndexedGraph}. A single instance can run many searches
+ * one after another. Resetting the state of the previous search costs only as much as the number of vertexes that
+ * the previous search has reached, so searches that stop early stay cheap even on large graphs.
+ *
+ * Instances are not thread-safe, every thread needs its own instance.
+ */
+class IndexedDijkstra implements IndexedGraph.EdgeVisitor {
+
+    private IndexedGraph<?> graph;
+    private double[] distances;
+    private int[] previousEdges;
+    private int[] previousVertexes;
+    private boolean[] visited;
+    private int[] touched;
+    private int touchedCount;
+    private IndexedMinHeap queue;
+    private BitSet excludedVertexes;
+    private BitSet excludedEdges;
+    // edges whose flag for the region of the target is off are skipped ({@code null} if flags are not used)
+    private ArcFlags<?> arcFlags;
+    private int targetRegion;
+    // the vertex whose edges are being relaxed and its distance
+    private int visitedVertex;
+    private double visitedDistance;
+
+    IndexedDijkstra(IndexedGraph<?> graph) {
+        int vertexCount = graph.getVertexCount();
+        this.graph = graph;
+        this.distances = new double[vertexCount];
+        this.previousEdges = new int[vertexCount];
+        this.previousVertexes = new int[vertexCount];
+        this.visited = new boolean[vertexCount];
+        this.touched = new int[vertexCount];
+        this.queue = new IndexedMinHeap(vertexCount);
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        Arrays.fill(previousEdges, -1);
+        Arrays.fill(previousVertexes, -1);
+    }
+
+    /**
+     * Resets the state of the previous search and queues the start vertex.
+     * @param source The id of the start vertex
+     */
+    void start(int source) {
+        start(source, null, null);
+    }
+
+    /**
+     * Resets the state of the previous search and queues the start vertex. The search behaves as if the excluded
+     * vertexes and edges were removed from the graph, without making a copy of the graph.
+     * @param source The id of the start vertex
+     * @param excludedVertexes ids of vertexes that cannot be reached ({@code null} if there are none)
+     * @param excludedEdges ids of edges that cannot be used ({@code null} if there are none)
+     */
+    void start(int source, BitSet excludedVertexes, BitSet excludedEdges) {
+        this.excludedVertexes = excludedVertexes;
+        this.excludedEdges = excludedEdges;
+        this.arcFlags = null;
+
+        for (int i = 0; i < touchedCount; i++) {
+            int v = touched[i];
+            distances[v] = Double.POSITIVE_INFINITY;
+            previousEdges[v] = -1;
+            previousVertexes[v] = -1;
+            visited[v] = false;
+        }
+        touchedCount = 0;
+        queue.clear();
+
+        touched[touchedCount++] = source;
+        distances[source] = 0.0;
+        queue.insertOrDecrease(source, 0.0);
+    }
+
+    /**
+     * Resets the state of the previous search and queues the start vertex. The search follows only the edges whose
+     * arc flag for the region of the target is set, so distances are correct only for vertexes of that region.
+     * @param source The id of the start vertex
+     * @param target The id of the target vertex
+     * @param arcFlags arc flags computed for the graph of this search
+     */
+    void startTowards(int source, int target, ArcFlags<?> arcFlags) {
+        start(source);
+        this.arcFlags = arcFlags;
+        this.targetRegion = arcFlags.getRegion(target);
+    }
+
+    /**
+     * Visits the closest vertex that was not visited yet and relaxes its edges.
+     * @return The id of the visited vertex or {@code -1} if every reachable vertex has already been visited
+     */
+    int visitNext() {
+        if (queue.isEmpty()) {
+            return -1;
+        }
+        int v = queue.poll();
+        visited[v] = true;
+
+        visitedVertex = v;
+        visitedDistance = distances[v];
+        graph.forEachEdge(v, this);
+        return v;
+    }
+
+    /**
+     * Relaxes a single edge of the vertex that is being visited.
+     */
+    @Override
+    public void visit(int edgeId, int destination, double weight) {
+        if (visited[destination] || isExcluded(destination, edgeId)) {
+            return;
+        }
+        double newDistance = visitedDistance + weight;
+        if (newDistance < distances[destination]) {
+            if (distances[destination] == Double.POSITIVE_INFINITY) {
+                touched[touchedCount++] = destination;
+            }
+            distances[destination] = newDistance;
+            previousEdges[destination] = edgeId;
+            previousVertexes[destination] = visitedVertex;
+            queue.insertOrDecrease(destination, newDistance);
+        }
+    }
+
+    private boolean isExcluded(int vertex, int edge) {
+        return (excludedVertexes != null && excludedVertexes.get(vertex)) ||
+                (excludedEdges != null && excludedEdges.get(edge)) ||
+                (arcFlags != null && !arcFlags.isFlagged(edge, targetRegion));
+    }
+
+    /**
+     * Visits vertexes until the target vertex is visited.
+     * @param target The id of the target vertex
+     * @return {@code true} if the target was visited, {@code false} if it is not reachable
+     */
+    boolean visitUntil(int target) {
+        if (visited[target]) {
+            return true;
+        }
+        int v;
+        while ((v = visitNext()) != -1) {
+            if (v == target) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return The distance of the vertex that is going to be visited next or {@code Double.POSITIVE_INFINITY} if
+     * there is no such vertex
+     */
+    double peekDistance() {
+        return queue.isEmpty() ? Double.POSITIVE_INFINITY : queue.peekKey();
+    }
+
+    /**
+     * @param v The id of the vertex
+     * @return The currently known distance to the vertex ({@code Double.POSITIVE_INFINITY} if not reached)
+     */
+    double getDistance(int v) {
+        return distances[v];
+    }
+
+    /**
+     * @param v The id of the vertex
+     * @return The id of the last edge on the currently known path to the vertex ({@code -1} if there is none)
+     */
+    int getPreviousEdge(int v) {
+        return previousEdges[v];
+    }
+
+    /**
+     * @param v The id of the vertex
+     * @return The id of the vertex that comes before v on the currently known path ({@code -1} if there is none)
+     */
+    int getPreviousVertex(int v) {
+        return previousVertexes[v];
+    }
+
+    boolean isVisited(int v) {
+        return visited[v];
+    }
+}
@@ -0,0 +1,84 @@
+package ml.echelon133.graph;
+
+/**
+ * Base interface for read-only graphs whose vertexes and edges are identified by consecutive integer ids.
+ * Every vertex has an id from {@code 0} to {@code getVertexCount() - 1} and every edge an id from {@code 0} to
+ * {@code getEdgeCount() - 1}. Edges that start at the same vertex have consecutive ids, so all of the edges of a
+ * vertex are found between {@link #getEdgesStart(int)} (inclusive) and {@link #getEdgesEnd(int)} (exclusive).
+ *
+ * Searches that work on ids never need {@link Vertex} or {@link Edge} objects, they are only used to translate ids
+ * at the boundary of the API.
+ * @param <T> type of the value that represents weights of edges in the graph
+ */
+public interface IndexedGraph<T extends Number & Comparable<T>> {
+
+    /**
+     * Callback that receives edges of a vertex in {@link #forEachEdge(int, EdgeVisitor)}.
+     */
+    @FunctionalInterface
+    interface EdgeVisitor {
+        void visit(int edgeId, int destination, double weight);
+    }
+
+    /**
+     * @return The number of vertexes in the graph
+     */
+    int getVertexCount();
+
+    /**
+     * @return The number of edges in the graph
+     */
+    int getEdgeCount();
+
+    /**
+     * @param vertexId The id of the vertex
+     * @return The vertex with that id
+     */
+    Vertex<T> getVertex(int vertexId);
+
+    /**
+     * A method that returns the id of the vertex given as an argument.
+     * @param v The vertex to find
+     * @return The id of the vertex or {@code -1} if the vertex does not belong to the graph
+     */
+    int getVertexId(Vertex<T> v);
+
+    /**
+     * @param vertexId The id of the vertex
+     * @return The id of the first edge that starts at that vertex
+     */
+    int getEdgesStart(int vertexId);
+
+    /**
+     * @param vertexId The id of the vertex
+     * @return The id that comes right after the id of the last edge that starts at that vertex
+     */
+    int getEdgesEnd(int vertexId);
+
+    /**
+     * A method that passes every edge that starts at the given vertex to the visitor, in the order of edge ids. It is
+     * the fastest way of reading all edges of a vertex, because implementations that store edges in encoded form
+     * decode them only once.
+     * @param vertexId The id of the vertex
+     * @param visitor The visitor that receives the edges
+     */
+    void forEachEdge(int vertexId, EdgeVisitor visitor);
+
+    /**
+     * @param edgeId The id of the edge
+     * @return The id of the destination vertex of that edge
+     */
+    int getEdgeDestination(int edgeId);
+
+    /**
+     * @param edgeId The id of the edge
+     * @return The weight of that edge
+     */
+    double getEdgeWeight(int edgeId);
+
+    /**
+     * @param edgeId The id of the edge
+     * @return The edge with that id
+     */
+    Edge<T> getEdge(int edgeId);
+}
@@ -0,0 +1,121 @@
+package ml.echelon133.graph;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of vertex ids ordered by a {@code long} key, used by searches whose distances are exact integers
+ * (see {@link IntWeightedGraph} and {@link LongWeightedGraph}). It works exactly like {@link IndexedMinHeap}.
+ */
+class IndexedLongMinHeap {
+
+    private int[] heap;
+    private int[] positions;
+    private long[] keys;
+    private int size;
+
+    /**
+     * @param capacity The number of vertex ids (ids from {@code 0} to {@code capacity - 1} can be stored)
+     */
+    IndexedLongMinHeap(int capacity) {
+        this.heap = new int[capacity];
+        this.positions = new int[capacity];
+        this.keys = new long[capacity];
+        Arrays.fill(positions, -1);
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    boolean contains(int id) {
+        return positions[id] != -1;
+    }
+
+    /**
+     * Removes every element from the heap. The cost depends only on the number of removed elements.
+     */
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    /**
+     * Adds the id to the heap, or lowers its key if the id is already in the heap and the new key is smaller.
+     * @param id The id to add
+     * @param key The key of the id
+     */
+    void insertOrDecrease(int id, long key) {
+        int pos = positions[id];
+        if (pos == -1) {
+            pos = size++;
+            heap[pos] = id;
+            positions[id] = pos;
+        } else if (key >= keys[id]) {
+            return;
+        }
+        keys[id] = key;
+        siftUp(pos);
+    }
+
+    int peek() {
+        return heap[0];
+    }
+
+    long peekKey() {
+        return keys[heap[0]];
+    }
+
+    int poll() {
+        int min = heap[0];
+        positions[min] = -1;
+        size--;
+        if (size > 0) {
+            heap[0] = heap[size];
+            positions[heap[0]] = 0;
+            siftDown(0);
+        }
+        return min;
+    }
+
+    private void siftUp(int pos) {
+        int id = heap[pos];
+        long key = keys[id];
+        while (pos > 0) {
+            int parentPos = (pos - 1) >>> 1;
+            int parent = heap[parentPos];
+            if (keys[parent] <= key) {
+                break;
+            }
+            heap[pos] = parent;
+            positions[parent] = pos;
+            pos = parentPos;
+        }
+        heap[pos] = id;
+        positions[id] = pos;
+    }
+
+    private void siftDown(int pos) {
+        int id = heap[pos];
+        long key = keys[id];
+        while (true) {
+            int childPos = 2 * pos + 1;
+            if (childPos >= size) {
+                break;
+            }
+            if (childPos + 1 < size && keys[heap[childPos + 1]] < keys[heap[childPos]]) {
+                childPos++;
+            }
+            int child = heap[childPos];
+            if (keys[child] >= key) {
+                break;
+            }
+            heap[pos] = child;
+            positions[child] = pos;
+            pos = childPos;
+        }
+        heap[pos] = id;
+        positions[id] = pos;
+    }
+}
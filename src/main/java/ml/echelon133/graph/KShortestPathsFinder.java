@@ -0,0 +1,197 @@
+package ml.echelon133.graph;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Implementation of Yen's algorithm that finds k shortest loopless paths between two vertexes of a
+ * {@link IndexedGraph}. It is used by {@link ShortestPathSolver#kShortestPaths(Vertex, Vertex, int)}.
+ *
+ * Spur paths are found with {@link IndexedDijkstra} searches that exclude vertexes and edges through masks, so the
+ * graph is never copied. All spur searches that branch from the same path run in parallel. If the finder has
+ * {@link ArcFlags}, they prune the search of the first path. Spur searches do not use them, because flags are not valid
+ * in a graph with excluded vertexes and edges.
+ * @param <T> type of the value that represents weights of edges in the graph
+ */
+class KShortestPathsFinder<T extends Number & Comparable<T>> {
+
+    /**
+     * A path stored as a list of edge ids, together with its sum of weights computed in the snapshot.
+     */
+    private static class IndexedPath {
+        private List<Integer> edgeIds;
+        private double sumOfWeights;
+
+        IndexedPath(List<Integer> edgeIds, double sumOfWeights) {
+            this.edgeIds = edgeIds;
+            this.sumOfWeights = sumOfWeights;
+        }
+    }
+
+    private static final Comparator<IndexedPath> PATH_ORDER = Comparator
+            .comparingDouble((IndexedPath p) -> p.sumOfWeights)
+            .thenComparingInt(p -> p.edgeIds.size());
+
+    private IndexedGraph<T> graph;
+    private ArcFlags<T> arcFlags;
+    private ThreadLocal<IndexedDijkstra> searches;
+
+    KShortestPathsFinder(IndexedGraph<T> graph) {
+        this.graph = graph;
+        this.searches = ThreadLocal.withInitial(() -> new IndexedDijkstra(graph));
+    }
+
+    /**
+     * @param arcFlags arc flags whose graph is searched by the finder
+     */
+    KShortestPathsFinder(ArcFlags<T> arcFlags) {
+        this(arcFlags.getGraph());
+        this.arcFlags = arcFlags;
+    }
+
+    /**
+     * @return The graph searched by the finder
+     */
+    IndexedGraph<T> getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return The search of the current thread. Every thread reuses a single search instance for all of its queries
+     */
+    IndexedDijkstra getSearch() {
+        return searches.get();
+    }
+
+    /**
+     * Find up to k shortest loopless paths between two vertexes, ordered by increasing sum of weights.
+     * @param source The id of the first vertex of every path
+     * @param target The id of the last vertex of every path
+     * @param k The maximum number of paths to find
+     * @return The found paths (less than k if there are no more loopless paths)
+     */
+    List<GraphPath<T>> find(int source, int target, int k) {
+        List<IndexedPath> shortestPaths = new ArrayList<>();
+
+        IndexedPath firstPath = findFirstPath(source, target);
+        if (firstPath == null) {
+            return List.of();
+        }
+        shortestPaths.add(firstPath);
+
+        // candidates are deduplicated by their sequence of edges, because different spur searches often find the same path
+        PriorityQueue<IndexedPath> candidates = new PriorityQueue<>(PATH_ORDER);
+        Set<List<Integer>> knownPaths = new HashSet<>();
+        knownPaths.add(firstPath.edgeIds);
+
+        while (shortestPaths.size() < k) {
+            IndexedPath previousPath = shortestPaths.get(shortestPaths.size() - 1);
+
+            List<IndexedPath> spurPaths = IntStream.range(0, previousPath.edgeIds.size())
+                    .parallel()
+                    .mapToObj(spurIndex -> findSpurPath(previousPath, spurIndex, shortestPaths, source, target))
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
+
+            for (IndexedPath spurPath : spurPaths) {
+                if (knownPaths.add(spurPath.edgeIds)) {
+                    candidates.add(spurPath);
+                }
+            }
+
+            if (candidates.isEmpty()) {
+                break;
+            }
+            shortestPaths.add(candidates.remove());
+        }
+
+        return shortestPaths.stream().map(p -> toGraphPath(p, source)).collect(Collectors.toList());
+    }
+
+    /**
+     * A helper method that finds the shortest path that shares the first {@code spurIndex} edges (root path) with
+     * the previous path and then deviates from it.
+     * @return The whole path (root path and spur path) or {@code null} if there is no such path
+     */
+    private IndexedPath findSpurPath(IndexedPath previousPath, int spurIndex, List<IndexedPath> shortestPaths,
+                                     int source, int target) {
+        List<Integer> rootEdgeIds = previousPath.edgeIds.subList(0, spurIndex);
+
+        // vertexes of the root path (except the spur vertex) cannot be visited again, otherwise the path has a loop
+        BitSet excludedVertexes = new BitSet();
+        int spurVertex = source;
+        double rootSumOfWeights = 0.0;
+        for (int edgeId : rootEdgeIds) {
+            excludedVertexes.set(spurVertex);
+            spurVertex = graph.getEdgeDestination(edgeId);
+            rootSumOfWeights += graph.getEdgeWeight(edgeId);
+        }
+
+        // the spur path cannot start with the same edge as any already found path that has the same root path
+        BitSet excludedEdges = new BitSet();
+        for (IndexedPath p : shortestPaths) {
+            if (p.edgeIds.size() > spurIndex && p.edgeIds.subList(0, spurIndex).equals(rootEdgeIds)) {
+                excludedEdges.set(p.edgeIds.get(spurIndex));
+            }
+        }
+
+        IndexedPath spurPath = findPath(spurVertex, target, excludedVertexes, excludedEdges);
+        if (spurPath == null) {
+            return null;
+        }
+
+        List<Integer> edgeIds = new ArrayList<>(rootEdgeIds.size() + spurPath.edgeIds.size());
+        edgeIds.addAll(rootEdgeIds);
+        edgeIds.addAll(spurPath.edgeIds);
+        return new IndexedPath(edgeIds, rootSumOfWeights + spurPath.sumOfWeights);
+    }
+
+    /**
+     * A helper method that finds the shortest path between two vertexes, using arc flags if there are any.
+     * @return The found path or {@code null} if the target is not reachable
+     */
+    private IndexedPath findFirstPath(int source, int target) {
+        if (arcFlags == null) {
+            return findPath(source, target, null, null);
+        }
+        IndexedDijkstra search = getSearch();
+        search.startTowards(source, target, arcFlags);
+        return search.visitUntil(target) ? toIndexedPath(search, source, target) : null;
+    }
+
+    /**
+     * A helper method that finds the shortest path between two vertexes, skipping excluded vertexes and edges.
+     * @return The found path or {@code null} if the target is not reachable
+     */
+    private IndexedPath findPath(int source, int target, BitSet excludedVertexes, BitSet excludedEdges) {
+        IndexedDijkstra search = getSearch();
+        search.start(source, excludedVertexes, excludedEdges);
+        if (!search.visitUntil(target)) {
+            return null;
+        }
+        return toIndexedPath(search, source, target);
+    }
+
+    private static IndexedPath toIndexedPath(IndexedDijkstra search, int source, int target) {
+        List<Integer> edgeIds = new ArrayList<>();
+        for (int v = target; v != source; v = search.getPreviousVertex(v)) {
+            edgeIds.add(search.getPreviousEdge(v));
+        }
+        Collections.reverse(edgeIds);
+        return new IndexedPath(edgeIds, search.getDistance(target));
+    }
+
+    private GraphPath<T> toGraphPath(IndexedPath path, int source) {
+        List<Edge<T>> edges = new ArrayList<>(path.edgeIds.size());
+        List<Vertex<T>> vertexes = new ArrayList<>(path.edgeIds.size() + 1);
+        int v = source;
+        vertexes.add(graph.getVertex(v));
+        for (int edgeId : path.edgeIds) {
+            v = graph.getEdgeDestination(edgeId);
+            edges.add(graph.getEdge(edgeId));
+            vertexes.add(graph.getVertex(v));
+        }
+        return new GraphPath<>(vertexes, edges);
+    }
+}
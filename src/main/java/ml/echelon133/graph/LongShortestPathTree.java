@@ -0,0 +1,61 @@
+package ml.echelon133.graph;
+
+import java.math.BigDecimal;
+
+/**
+ * Result of a search on an {@link IntWeightedGraph} or a {@link LongWeightedGraph}, whose distances are exact
+ * {@code long} values. Distances of a graph with fixed point weights (see {@link LongWeightedGraph#getScale()}) are
+ * multiplied by {@code 10^getScale()}, {@link #getSumOfWeights(int)} returns them as exact decimal numbers.
+ */
+public final class LongShortestPathTree extends PrimitiveShortestPathTree {
+
+    /**
+     * Distance of vertexes that cannot be reached.
+     */
+    public static final long UNREACHABLE = Long.MAX_VALUE;
+
+    private long[] distances;
+    private int scale;
+
+    LongShortestPathTree(PrimitiveGraph graph, int source, long[] distances, int scale, int[] previousVertexes,
+                         int[] visitOrder, int visitedCount) {
+        super(graph, source, previousVertexes, visitOrder, visitedCount);
+        this.distances = distances;
+        this.scale = scale;
+    }
+
+    /**
+     * @return The number of decimal places of distances
+     */
+    public int getScale() {
+        return scale;
+    }
+
+    /**
+     * @param vertexId id of the vertex
+     * @return sum of weights of the shortest path from the source to the vertex, multiplied by {@code 10^getScale()},
+     * or {@link #UNREACHABLE}
+     */
+    public long getDistance(int vertexId) {
+        return distances[vertexId];
+    }
+
+    @Override
+    public boolean isReachable(int vertexId) {
+        return distances[vertexId] != UNREACHABLE;
+    }
+
+    /**
+     * @param vertexId id of the vertex
+     * @return sum of weights of the shortest path from the source to the vertex, with {@link #getScale()} decimal
+     * places, or {@code null} if the vertex cannot be reached
+     */
+    public BigDecimal getSumOfWeights(int vertexId) {
+        return isReachable(vertexId) ? getDistanceAsBigDecimal(vertexId) : null;
+    }
+
+    @Override
+    BigDecimal getDistanceAsBigDecimal(int vertexId) {
+        return BigDecimal.valueOf(distances[vertexId], scale);
+    }
+}
@@ -0,0 +1,223 @@
+package ml.echelon133.graph;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * Graph with {@code long} weights, stored in a primitive array, so edges need neither {@link Edge} objects nor boxed
+ * weights. Distances found by {@link #solveStartingFrom(int)} are exact {@code long} sums, a sum that does not fit
+ * in a {@code long} causes an {@link ArithmeticException}.
+ *
+ * Graphs can be converted from and to a generic {@link Graph} ({@link #of(Graph)} and {@link #toGraph()}), and
+ * results can be converted to the map returned by {@link ShortestPathSolver} (see
+ * {@link PrimitiveShortestPathTree#toResultMap(Graph)}).
+ *
+ * A graph with {@link BigDecimal} weights that have only a few decimal places can be stored as a graph with fixed
+ * point weights ({@link #ofScaled(Graph)}): every weight is multiplied by {@code 10^scale} and stored as a
+ * {@code long}, so paths are found in {@code long} arithmetic, but their sums of weights are still exact.
+ */
+public class LongWeightedGraph extends PrimitiveGraph {
+
+    // the number of digits of Long.MAX_VALUE
+    private static final int MAX_LONG_DIGITS = 19;
+
+    // weights are stored multiplied by 10^scale
+    private long[] weights = new long[0];
+    private int scale;
+
+    /**
+     * Creates a graph whose weights are whole numbers (its scale is {@code 0}).
+     */
+    public LongWeightedGraph() {
+    }
+
+    /**
+     * @param scale the number of decimal places of weights. Every weight is stored multiplied by {@code 10^scale}
+     * @throws IllegalArgumentException if the scale is negative
+     */
+    public LongWeightedGraph(int scale) throws IllegalArgumentException {
+        if (scale < 0) {
+            throw new IllegalArgumentException("Scale cannot be negative");
+        }
+        this.scale = scale;
+    }
+
+    /**
+     * A method that copies a generic graph. Ids of vertexes are their indexes in {@link Graph#getVertexes()}.
+     * @param graph graph to copy
+     * @return The copy of the graph
+     */
+    public static LongWeightedGraph of(Graph<Long> graph) {
+        LongWeightedGraph copy = new LongWeightedGraph();
+        copy.addVertexes(graph);
+        for (Edge<Long> e : graph.getEdges()) {
+            int source = copy.getVertexId(e.getSource().getName());
+            int destination = copy.getVertexId(e.getDestination().getName());
+            if (e.isDirected()) {
+                copy.addEdge(source, destination, e.getWeight());
+            } else {
+                copy.addUndirectedEdge(source, destination, e.getWeight());
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * A method that copies a graph with {@link BigDecimal} weights (e.g. a deserialized graph) into a graph with
+     * fixed point weights. The scale of the copy is the largest number of decimal places of a weight (trailing zeros
+     * are not counted), so every weight is stored exactly.
+     * @param graph graph to copy
+     * @return The copy of the graph
+     * @throws IllegalArgumentException if some weight multiplied by {@code 10^scale} does not fit in a {@code long}
+     */
+    public static LongWeightedGraph ofScaled(Graph<BigDecimal> graph) throws IllegalArgumentException {
+        int scale = 0;
+        for (Edge<BigDecimal> e : graph.getEdges()) {
+            scale = Math.max(scale, e.getWeight().stripTrailingZeros().scale());
+        }
+        // the number of digits of every scaled weight is checked first, because scaling a weight by a huge scale
+        // would create a huge number before it could be rejected
+        for (Edge<BigDecimal> e : graph.getEdges()) {
+            BigDecimal weight = e.getWeight().stripTrailingZeros();
+            if (weight.signum() != 0 && (long) weight.precision() - weight.scale() + scale > MAX_LONG_DIGITS) {
+                throw new IllegalArgumentException("Weights of the graph cannot be scaled to long values");
+            }
+        }
+
+        LongWeightedGraph copy = new LongWeightedGraph(scale);
+        copy.addVertexes(graph);
+        for (Edge<BigDecimal> e : graph.getEdges()) {
+            long scaledWeight;
+            try {
+                scaledWeight = e.getWeight().setScale(scale).unscaledValue().longValueExact();
+            } catch (ArithmeticException ex) {
+                throw new IllegalArgumentException("Weights of the graph cannot be scaled to long values");
+            }
+            int source = copy.getVertexId(e.getSource().getName());
+            int destination = copy.getVertexId(e.getDestination().getName());
+            if (e.isDirected()) {
+                copy.addEdge(source, destination, scaledWeight);
+            } else {
+                copy.addUndirectedEdge(source, destination, scaledWeight);
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * @return The number of decimal places of weights ({@code 0} if weights are whole numbers)
+     */
+    public int getScale() {
+        return scale;
+    }
+
+    @Override
+    void growWeights(int capacity) {
+        if (weights.length < capacity) {
+            weights = Arrays.copyOf(weights, capacity);
+        }
+    }
+
+    /**
+     * A method that adds a directed edge. The weight is given multiplied by {@code 10^getScale()}.
+     * @param source id of the vertex at which the edge starts
+     * @param destination id of the vertex at which the edge ends
+     * @param weight weight of the edge
+     * @return id of the edge
+     * @throws IllegalArgumentException if the weight is negative or any of the vertexes does not belong to the graph
+     */
+    public int addEdge(int source, int destination, long weight) throws IllegalArgumentException {
+        return addEdge(source, destination, weight, true);
+    }
+
+    /**
+     * A method that adds an edge that can be traversed in both directions. It is stored as two directed edges. The
+     * weight is given multiplied by {@code 10^getScale()}.
+     * @param v1 id of the first vertex
+     * @param v2 id of the second vertex
+     * @param weight weight of the edge
+     * @return id of the edge from {@code v1} to {@code v2}, the edge from {@code v2} to {@code v1} has the next id
+     * @throws IllegalArgumentException if the weight is negative or any of the vertexes does not belong to the graph
+     */
+    public int addUndirectedEdge(int v1, int v2, long weight) throws IllegalArgumentException {
+        return addEdge(v1, v2, weight, false);
+    }
+
+    private int addEdge(int source, int destination, long weight, boolean directed) throws IllegalArgumentException {
+        if (weight < 0) {
+            throw new IllegalArgumentException("Edge weight cannot be negative");
+        }
+        int edgeId = addEdges(source, destination, directed);
+        weights[edgeId] = weight;
+        if (!directed) {
+            weights[edgeId + 1] = weight;
+        }
+        return edgeId;
+    }
+
+    /**
+     * @param edgeId id of the edge
+     * @return weight of the edge, multiplied by {@code 10^getScale()}
+     */
+    public long getEdgeWeight(int edgeId) {
+        return weights[edgeId];
+    }
+
+    /**
+     * Find the shortest paths from the vertex given as an argument to every vertex that is reachable from it.
+     * @param source id of the vertex from which the paths start
+     * @return distances and previous vertexes of every vertex
+     * @throws IllegalArgumentException if the vertex does not belong to the graph
+     * @throws ArithmeticException if the sum of weights of a path does not fit in a {@code long}
+     */
+    public LongShortestPathTree solveStartingFrom(int source) throws IllegalArgumentException {
+        checkVertexId(source);
+        int vertexCount = getVertexCount();
+        long[] distances = new long[vertexCount];
+        int[] previousVertexes = new int[vertexCount];
+        int[] visitOrder = new int[vertexCount];
+        int visitedCount = 0;
+        Arrays.fill(distances, LongShortestPathTree.UNREACHABLE);
+        Arrays.fill(previousVertexes, -1);
+
+        IndexedLongMinHeap queue = new IndexedLongMinHeap(vertexCount);
+        distances[source] = 0;
+        queue.insertOrDecrease(source, 0);
+        while (!queue.isEmpty()) {
+            // weights are not negative, so a visited vertex never gets a shorter path and is never queued again
+            int v = queue.poll();
+            visitOrder[visitedCount++] = v;
+            long distance = distances[v];
+            for (int e = getFirstEdge(v); e != -1; e = getNextEdge(e)) {
+                int destination = getEdgeDestination(e);
+                long newDistance = Math.addExact(distance, weights[e]);
+                if (newDistance < distances[destination]) {
+                    distances[destination] = newDistance;
+                    previousVertexes[destination] = v;
+                    queue.insertOrDecrease(destination, newDistance);
+                }
+            }
+        }
+        return new LongShortestPathTree(this, source, distances, scale, previousVertexes, visitOrder, visitedCount);
+    }
+
+    /**
+     * A method that copies this graph into a generic graph. Vertexes of the copy are in the order of ids and weights
+     * are the stored values, multiplied by {@code 10^getScale()}.
+     * @return The copy of the graph
+     */
+    public Graph<Long> toGraph() {
+        GraphBuilder<Long> builder = toGraphBuilder();
+        int[] sources = getEdgeSources();
+        for (int e = 0; e < getEdgeCount(); e++) {
+            if (isUndirected(e)) {
+                builder.addUndirectedEdge(sources[e], getEdgeDestination(e), weights[e]);
+                // the second edge of the pair is a part of the same undirected edge
+                e++;
+            } else {
+                builder.addEdge(sources[e], getEdgeDestination(e), weights[e]);
+            }
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,574 @@
+package ml.echelon133.graph;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Read-only {@link IndexedGraph} that keeps all of its data (adjacency, weights and vertex names) outside of the Java
+ * heap, in direct {@link ByteBuffer}s. The heap usage of an instance does not depend on the size of the graph, which
+ * keeps garbage collection pauses short for very large graphs.
+ *
+ * {@link Vertex} and {@link Edge} objects are not stored, they are created only when {@link #getVertex(int)} or
+ * {@link #getEdge(int)} is called. Every call creates new objects, so vertexes of this graph are identified by their
+ * names ({@link #getVertexId(Vertex)} finds a vertex by its name). Weights are stored as {@code double} values.
+ *
+ * A graph is either copied from a graph on the heap by {@link #of(IndexedGraph)}, or created by a {@link Builder},
+ * which does not need a copy of the graph on the heap at all.
+ *
+ * The memory is released by {@link #close()}. A closed graph cannot be used anymore. Closing is not synchronized with
+ * readers: a graph must not be closed while other threads are still using it, because a thread that reads it during or
+ * after {@link #close()} (without a happens-before relation to it) is not guaranteed to get an exception, it might read
+ * freed memory and crash the JVM.
+ */
+public class OffHeapGraph implements IndexedGraph<Double>, AutoCloseable {
+
+    private static final int INT_BYTES = Integer.BYTES;
+    private static final int DOUBLE_BYTES = Double.BYTES;
+
+    private int vertexCount;
+    private int edgeCount;
+    private ByteBuffer edgeOffsets;
+    private ByteBuffer edgeDestinations;
+    private ByteBuffer edgeWeights;
+    private ByteBuffer nameOffsets;
+    private ByteBuffer names;
+    // open addressing hash table that maps vertex names to (vertexId + 1), 0 marks an empty slot
+    private ByteBuffer nameTable;
+    private int nameTableMask;
+
+    private OffHeapGraph(int vertexCount, int edgeCount) {
+        this.vertexCount = vertexCount;
+        this.edgeCount = edgeCount;
+    }
+
+    /**
+     * A method that copies a graph to off-heap memory.
+     * @param graph The graph to copy (e.g. a {@link CompactGraph} that was reordered)
+     * @return The off-heap copy of the graph
+     * @throws IllegalArgumentException if the graph is too large to be stored in direct buffers
+     */
+    public static OffHeapGraph of(IndexedGraph<?> graph) throws IllegalArgumentException {
+        int vertexCount = graph.getVertexCount();
+        int edgeCount = graph.getEdgeCount();
+
+        OffHeapGraph offHeapGraph = new OffHeapGraph(vertexCount, edgeCount);
+        offHeapGraph.edgeOffsets = allocate((vertexCount + 1L) * INT_BYTES);
+        offHeapGraph.edgeDestinations = allocate((long) edgeCount * INT_BYTES);
+        offHeapGraph.edgeWeights = allocate((long) edgeCount * DOUBLE_BYTES);
+        offHeapGraph.nameOffsets = allocate((vertexCount + 1L) * INT_BYTES);
+
+        // the first pass measures the names, so the buffer for them can be allocated once
+        long namesLength = 0;
+        for (int v = 0; v < vertexCount; v++) {
+            namesLength += graph.getVertex(v).getName().getBytes(StandardCharsets.UTF_8).length;
+        }
+        offHeapGraph.names = allocate(namesLength);
+
+        int namesPosition = 0;
+        for (int v = 0; v < vertexCount; v++) {
+            offHeapGraph.edgeOffsets.putInt(v * INT_BYTES, graph.getEdgesStart(v));
+            offHeapGraph.nameOffsets.putInt(v * INT_BYTES, namesPosition);
+            byte[] name = graph.getVertex(v).getName().getBytes(StandardCharsets.UTF_8);
+            offHeapGraph.names.position(namesPosition);
+            offHeapGraph.names.put(name);
+            namesPosition += name.length;
+        }
+        offHeapGraph.edgeOffsets.putInt(vertexCount * INT_BYTES, edgeCount);
+        offHeapGraph.nameOffsets.putInt(vertexCount * INT_BYTES, namesPosition);
+
+        // edges are read per vertex, because reading a single edge of some graphs (e.g. a CompressedGraph) decodes
+        // all edges of its vertex
+        ByteBuffer destinations = offHeapGraph.edgeDestinations;
+        ByteBuffer weights = offHeapGraph.edgeWeights;
+        for (int v = 0; v < vertexCount; v++) {
+            graph.forEachEdge(v, (e, destination, weight) -> {
+                destinations.putInt(e * INT_BYTES, destination);
+                weights.putDouble(e * DOUBLE_BYTES, weight);
+            });
+        }
+
+        offHeapGraph.buildNameTable();
+        return offHeapGraph;
+    }
+
+    /**
+     * A method that copies a graph to off-heap memory.
+     * @param graph The graph to copy
+     * @return The off-heap copy of the graph
+     * @throws IllegalArgumentException if the graph is too large to be stored in direct buffers
+     */
+    public static OffHeapGraph of(Graph<?> graph) throws IllegalArgumentException {
+        return of(CompactGraph.of(graph));
+    }
+
+    private static ByteBuffer allocate(long capacity) throws IllegalArgumentException {
+        if (capacity > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Graph is too large to be stored in off-heap buffers");
+        }
+        return ByteBuffer.allocateDirect((int) capacity).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Copies the buffer to a new buffer that has at least the required capacity, and releases the old buffer.
+     */
+    private static ByteBuffer grow(ByteBuffer buffer, long requiredCapacity) throws IllegalArgumentException {
+        if (requiredCapacity <= buffer.capacity()) {
+            return buffer;
+        }
+        long newCapacity = Math.max(requiredCapacity, Math.min((long) buffer.capacity() * 2, Integer.MAX_VALUE));
+        ByteBuffer grown = allocate(newCapacity);
+        ByteBuffer content = buffer.duplicate();
+        content.clear();
+        grown.put(content);
+        grown.clear();
+        free(buffer);
+        return grown;
+    }
+
+    private void buildNameTable() {
+        // keep the table at most half full, so probe sequences stay short
+        int capacity = Integer.highestOneBit(Math.max(vertexCount, 1) * 2 - 1) << 1;
+        nameTable = allocate((long) capacity * INT_BYTES);
+        nameTableMask = capacity - 1;
+
+        for (int v = 0; v < vertexCount; v++) {
+            insertName(nameTable, nameTableMask, names, nameOffsets, v);
+        }
+    }
+
+    private static void insertName(ByteBuffer nameTable, int mask, ByteBuffer names, ByteBuffer nameOffsets, int vertexId) {
+        int nameStart = nameOffsets.getInt(vertexId * INT_BYTES);
+        int nameEnd = nameOffsets.getInt((vertexId + 1) * INT_BYTES);
+        int slot = hashName(names, nameStart, nameEnd) & mask;
+        while (nameTable.getInt(slot * INT_BYTES) != 0) {
+            slot = (slot + 1) & mask;
+        }
+        nameTable.putInt(slot * INT_BYTES, vertexId + 1);
+    }
+
+    /**
+     * @return The id of the vertex with the given name or {@code -1} if the table does not contain it
+     */
+    private static int findName(ByteBuffer nameTable, int mask, ByteBuffer names, ByteBuffer nameOffsets, byte[] name) {
+        int hash = hashName(ByteBuffer.wrap(name), 0, name.length);
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int v = nameTable.getInt(slot * INT_BYTES) - 1;
+            if (v == -1 || nameEquals(names, nameOffsets, v, name)) {
+                return v;
+            }
+        }
+    }
+
+    /**
+     * FNV-1a hash of the name bytes.
+     */
+    private static int hashName(ByteBuffer buffer, int start, int end) {
+        int hash = 0x811C9DC5;
+        for (int i = start; i < end; i++) {
+            hash ^= buffer.get(i);
+            hash *= 0x01000193;
+        }
+        return hash;
+    }
+
+    /**
+     * Every accessor reads the buffers it needs through this method once, so a closed graph fails with the same
+     * exception instead of a {@link NullPointerException}. This is guaranteed only for the thread that closed the
+     * graph or threads that see the effects of {@link #close()} (see {@link OffHeapGraph}).
+     * @return The buffer given as an argument
+     * @throws IllegalStateException if the graph was closed
+     */
+    private static ByteBuffer open(ByteBuffer buffer) throws IllegalStateException {
+        if (buffer == null) {
+            throw new IllegalStateException("Graph is closed");
+        }
+        return buffer;
+    }
+
+    @Override
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    @Override
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * A method that returns the name of the vertex without creating a {@link Vertex} object.
+     * @param vertexId The id of the vertex
+     * @return The name of the vertex
+     */
+    public String getVertexName(int vertexId) {
+        ByteBuffer offsets = open(nameOffsets);
+        ByteBuffer bytes = open(names);
+        int nameStart = offsets.getInt(vertexId * INT_BYTES);
+        int nameEnd = offsets.getInt((vertexId + 1) * INT_BYTES);
+        byte[] name = new byte[nameEnd - nameStart];
+        for (int i = 0; i < name.length; i++) {
+            name[i] = bytes.get(nameStart + i);
+        }
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A method that creates a new {@link Vertex} object for the vertex with the given id. The created vertex has no
+     * edges, they are only available through the ids.
+     * @param vertexId The id of the vertex
+     * @return The new vertex object
+     */
+    @Override
+    public Vertex<Double> getVertex(int vertexId) {
+        return new Vertex<>(getVertexName(vertexId));
+    }
+
+    /**
+     * A method that finds the id of the vertex that has the same name as the vertex given as an argument.
+     * @param v The vertex to find
+     * @return The id of the vertex or {@code -1} if there is no vertex with that name
+     */
+    @Override
+    public int getVertexId(Vertex<Double> v) {
+        return getVertexId(v.getName());
+    }
+
+    /**
+     * A method that finds the id of the vertex with the given name.
+     * @param vName The name of the vertex
+     * @return The id of the vertex or {@code -1} if there is no vertex with that name
+     */
+    public int getVertexId(String vName) {
+        return findName(open(nameTable), nameTableMask, open(names), open(nameOffsets),
+                vName.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static boolean nameEquals(ByteBuffer names, ByteBuffer nameOffsets, int vertexId, byte[] name) {
+        int nameStart = nameOffsets.getInt(vertexId * INT_BYTES);
+        int nameEnd = nameOffsets.getInt((vertexId + 1) * INT_BYTES);
+        if (nameEnd - nameStart != name.length) {
+            return false;
+        }
+        for (int i = 0; i < name.length; i++) {
+            if (names.get(nameStart + i) != name[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int getEdgesStart(int vertexId) {
+        return open(edgeOffsets).getInt(vertexId * INT_BYTES);
+    }
+
+    @Override
+    public int getEdgesEnd(int vertexId) {
+        return open(edgeOffsets).getInt((vertexId + 1) * INT_BYTES);
+    }
+
+    @Override
+    public void forEachEdge(int vertexId, EdgeVisitor visitor) {
+        ByteBuffer offsets = open(edgeOffsets);
+        ByteBuffer destinations = open(edgeDestinations);
+        ByteBuffer weights = open(edgeWeights);
+        int end = offsets.getInt((vertexId + 1) * INT_BYTES);
+        for (int e = offsets.getInt(vertexId * INT_BYTES); e < end; e++) {
+            visitor.visit(e, destinations.getInt(e * INT_BYTES), weights.getDouble(e * DOUBLE_BYTES));
+        }
+    }
+
+    @Override
+    public int getEdgeDestination(int edgeId) {
+        return open(edgeDestinations).getInt(edgeId * INT_BYTES);
+    }
+
+    @Override
+    public double getEdgeWeight(int edgeId) {
+        return open(edgeWeights).getDouble(edgeId * DOUBLE_BYTES);
+    }
+
+    /**
+     * A method that creates a new {@link Edge} object (with new {@link Vertex} objects) for the edge with the given id.
+     * @param edgeId The id of the edge
+     * @return The new edge object
+     */
+    @Override
+    public Edge<Double> getEdge(int edgeId) {
+        // find the source vertex, which is the last vertex whose edges start at or before edgeId
+        int low = 0;
+        int high = vertexCount - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (getEdgesStart(middle) <= edgeId) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return new Edge<>(getVertex(low), getVertex(getEdgeDestination(edgeId)), getEdgeWeight(edgeId));
+    }
+
+    /**
+     * Builder that writes vertexes and edges straight into direct buffers, so a graph can be read from a file (e.g. by
+     * {@link ml.echelon133.graph.io.DimacsFormat#readOffHeapGraph}) without ever keeping it on the heap. Vertex names
+     * are looked up in an off-heap hash table, and edges are appended in any order and grouped by their source vertex
+     * only by {@link #build()}, which keeps the order in which edges of a vertex were added.
+     *
+     * The id of a vertex is the number of vertexes added before it. A builder builds only one graph.
+     */
+    public static class Builder {
+
+        private static final int INITIAL_CAPACITY = 16;
+
+        private int vertexCount;
+        private ByteBuffer names = allocate(INITIAL_CAPACITY);
+        private ByteBuffer nameOffsets = allocate(INITIAL_CAPACITY * INT_BYTES);
+        private ByteBuffer nameTable = allocate(INITIAL_CAPACITY * INT_BYTES);
+        private int nameTableMask = INITIAL_CAPACITY - 1;
+
+        // edges in the order of adding, an undirected edge is stored as an arc in each direction
+        private int arcCount;
+        private ByteBuffer arcSources = allocate(INITIAL_CAPACITY * INT_BYTES);
+        private ByteBuffer arcDestinations = allocate(INITIAL_CAPACITY * INT_BYTES);
+        private ByteBuffer arcWeights = allocate(INITIAL_CAPACITY * DOUBLE_BYTES);
+
+        /**
+         * A method that adds a vertex.
+         * @param name The name of the vertex, unique in the graph
+         * @return The id of the vertex
+         * @throws IllegalArgumentException if a vertex with that name was already added
+         * @throws IllegalStateException if the graph was already built
+         */
+        public int addVertex(String name) throws IllegalArgumentException, IllegalStateException {
+            checkIfNotBuilt();
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            if (findName(nameTable, nameTableMask, names, nameOffsets, bytes) != -1) {
+                throw new IllegalArgumentException("Vertex with that name already belongs to this graph");
+            }
+            return appendVertex(bytes);
+        }
+
+        /**
+         * A method that adds a vertex, unless a vertex with the same name was already added.
+         * @param name The name of the vertex
+         * @return The id of the new vertex or of the vertex that was already added
+         * @throws IllegalStateException if the graph was already built
+         */
+        public int addVertexIfAbsent(String name) throws IllegalStateException {
+            checkIfNotBuilt();
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            int id = findName(nameTable, nameTableMask, names, nameOffsets, bytes);
+            return (id != -1) ? id : appendVertex(bytes);
+        }
+
+        private int appendVertex(byte[] name) {
+            int namesStart = nameOffsets.getInt(vertexCount * INT_BYTES);
+            names = grow(names, (long) namesStart + name.length);
+            nameOffsets = grow(nameOffsets, (vertexCount + 2L) * INT_BYTES);
+            names.position(namesStart);
+            names.put(name);
+            names.clear();
+            nameOffsets.putInt(vertexCount * INT_BYTES, namesStart);
+            nameOffsets.putInt((vertexCount + 1) * INT_BYTES, namesStart + name.length);
+            int id = vertexCount++;
+
+            // keep the table at most half full, so probe sequences stay short
+            if ((long) vertexCount * 2 > nameTableMask + 1) {
+                int capacity = (nameTableMask + 1) * 2;
+                free(nameTable);
+                nameTable = allocate((long) capacity * INT_BYTES);
+                nameTableMask = capacity - 1;
+                for (int v = 0; v < vertexCount; v++) {
+                    insertName(nameTable, nameTableMask, names, nameOffsets, v);
+                }
+            } else {
+                insertName(nameTable, nameTableMask, names, nameOffsets, id);
+            }
+            return id;
+        }
+
+        /**
+         * A method that adds a directed edge between vertexes with given ids.
+         * @param sourceId The id of the source vertex
+         * @param destinationId The id of the destination vertex
+         * @param weight The weight value of the edge
+         * @return this builder
+         * @throws IllegalArgumentException if any of the vertexes was not added or the weight is negative or not finite
+         * @throws IllegalStateException if the graph was already built
+         */
+        public Builder addEdge(int sourceId, int destinationId, double weight)
+                throws IllegalArgumentException, IllegalStateException {
+            checkEdge(sourceId, destinationId, weight);
+            appendArc(sourceId, destinationId, weight);
+            return this;
+        }
+
+        /**
+         * A method that adds an undirected edge between vertexes with given ids (see {@link Graph#addUndirectedEdge}).
+         * @param v1Id The id of the first vertex
+         * @param v2Id The id of the second vertex
+         * @param weight The weight value of the edge
+         * @return this builder
+         * @throws IllegalArgumentException if any of the vertexes was not added or the weight is negative or not finite
+         * @throws IllegalStateException if the graph was already built
+         */
+        public Builder addUndirectedEdge(int v1Id, int v2Id, double weight)
+                throws IllegalArgumentException, IllegalStateException {
+            checkEdge(v1Id, v2Id, weight);
+            appendArc(v1Id, v2Id, weight);
+            if (v1Id != v2Id) {
+                appendArc(v2Id, v1Id, weight);
+            }
+            return this;
+        }
+
+        private void checkIfNotBuilt() throws IllegalStateException {
+            if (arcSources == null) {
+                throw new IllegalStateException("Graph was already built");
+            }
+        }
+
+        private void checkEdge(int sourceId, int destinationId, double weight) {
+            checkIfNotBuilt();
+            if (sourceId < 0 || sourceId >= vertexCount || destinationId < 0 || destinationId >= vertexCount) {
+                throw new IllegalArgumentException("Edge contains a vertex that does not belong to the graph");
+            }
+            if (weight < 0) {
+                throw new IllegalArgumentException("Edge weight cannot be negative");
+            }
+            if (!Double.isFinite(weight)) {
+                throw new IllegalArgumentException("Edge weight must be a finite number");
+            }
+        }
+
+        private void appendArc(int source, int destination, double weight) {
+            arcSources = grow(arcSources, (arcCount + 1L) * INT_BYTES);
+            arcDestinations = grow(arcDestinations, (arcCount + 1L) * INT_BYTES);
+            arcWeights = grow(arcWeights, (arcCount + 1L) * DOUBLE_BYTES);
+            arcSources.putInt(arcCount * INT_BYTES, source);
+            arcDestinations.putInt(arcCount * INT_BYTES, destination);
+            arcWeights.putDouble(arcCount * DOUBLE_BYTES, weight);
+            arcCount++;
+        }
+
+        /**
+         * @return Number of vertexes added so far
+         */
+        public int getVertexCount() {
+            return vertexCount;
+        }
+
+        /**
+         * @return Number of directed edges added so far (every undirected edge is counted twice)
+         */
+        public int getEdgeCount() {
+            return arcCount;
+        }
+
+        /**
+         * A method that creates the graph. Edges are sorted by their source vertex with a counting sort whose counters
+         * are also kept off the heap. Buffers of the builder are released or moved to the graph.
+         * @return The new graph
+         * @throws IllegalStateException if the graph was already built
+         */
+        public OffHeapGraph build() throws IllegalStateException {
+            checkIfNotBuilt();
+            ByteBuffer sources = arcSources;
+            ByteBuffer edgeOffsets = allocate((vertexCount + 1L) * INT_BYTES);
+            for (int a = 0; a < arcCount; a++) {
+                int position = (sources.getInt(a * INT_BYTES) + 1) * INT_BYTES;
+                edgeOffsets.putInt(position, edgeOffsets.getInt(position) + 1);
+            }
+            ByteBuffer filled = allocate((long) vertexCount * INT_BYTES);
+            for (int v = 0; v < vertexCount; v++) {
+                int start = edgeOffsets.getInt(v * INT_BYTES);
+                filled.putInt(v * INT_BYTES, start);
+                edgeOffsets.putInt((v + 1) * INT_BYTES, start + edgeOffsets.getInt((v + 1) * INT_BYTES));
+            }
+
+            ByteBuffer edgeDestinations = allocate((long) arcCount * INT_BYTES);
+            ByteBuffer edgeWeights = allocate((long) arcCount * DOUBLE_BYTES);
+            for (int a = 0; a < arcCount; a++) {
+                int source = sources.getInt(a * INT_BYTES);
+                int e = filled.getInt(source * INT_BYTES);
+                filled.putInt(source * INT_BYTES, e + 1);
+                edgeDestinations.putInt(e * INT_BYTES, arcDestinations.getInt(a * INT_BYTES));
+                edgeWeights.putDouble(e * DOUBLE_BYTES, arcWeights.getDouble(a * DOUBLE_BYTES));
+            }
+
+            OffHeapGraph graph = new OffHeapGraph(vertexCount, arcCount);
+            graph.edgeOffsets = edgeOffsets;
+            graph.edgeDestinations = edgeDestinations;
+            graph.edgeWeights = edgeWeights;
+            graph.names = names;
+            graph.nameOffsets = nameOffsets;
+            graph.nameTable = nameTable;
+            graph.nameTableMask = nameTableMask;
+
+            for (ByteBuffer buffer : new ByteBuffer[] {filled, arcSources, arcDestinations, arcWeights}) {
+                free(buffer);
+            }
+            names = null;
+            nameOffsets = null;
+            nameTable = null;
+            arcSources = null;
+            arcDestinations = null;
+            arcWeights = null;
+            return graph;
+        }
+    }
+
+    /**
+     * @return {@code true} if {@link #close()} was already called
+     */
+    public boolean isClosed() {
+        return edgeOffsets == null;
+    }
+
+    /**
+     * A method that releases the off-heap memory of the graph. Calling it more than once has no effect.
+     *
+     * Only calls of this method are synchronized with each other. It must not be called while other threads are
+     * still reading the graph, because they might read the memory after it is released, which can crash the JVM
+     * instead of throwing an exception.
+     */
+    @Override
+    public synchronized void close() {
+        if (isClosed()) {
+            return;
+        }
+        ByteBuffer[] buffers = {edgeOffsets, edgeDestinations, edgeWeights, nameOffsets, names, nameTable};
+
+        // references are removed first, so a closed graph fails with an exception instead of reading freed memory
+        edgeOffsets = null;
+        edgeDestinations = null;
+        edgeWeights = null;
+        nameOffsets = null;
+        names = null;
+        nameTable = null;
+
+        for (ByteBuffer buffer : buffers) {
+            free(buffer);
+        }
+    }
+
+    /**
+     * Releases the memory of a direct buffer right away. If the JVM does not allow it, the memory is released when the
+     * buffer is garbage collected.
+     */
+    private static void free(ByteBuffer buffer) {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            invokeCleaner.invoke(theUnsafe.get(null), buffer);
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            // the buffer is released by the garbage collector
+        }
+    }
+}
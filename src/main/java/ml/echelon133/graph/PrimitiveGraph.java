@@ -0,0 +1,203 @@
+package ml.echelon133.graph;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Base class of graphs whose weights are stored in primitive arrays ({@link IntWeightedGraph},
+ * {@link LongWeightedGraph} and {@link DoubleWeightedGraph}). Vertexes and edges are identified by ids, which are
+ * assigned in the order of adding, and there are no {@link Vertex} or {@link Edge} objects at all.
+ *
+ * Edges are stored in a forward star: every vertex keeps the id of its last added edge and every edge keeps the id of
+ * the edge that was added to the same vertex before it, so adding an edge never moves other edges. An undirected
+ * edge is stored as two directed edges with consecutive ids, the first of them starting at the source vertex.
+ *
+ * Instances are not thread-safe, a graph must not be changed while it is read by other threads.
+ */
+public abstract class PrimitiveGraph {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private String[] names = new String[INITIAL_CAPACITY];
+    private Map<String, Integer> vertexIds = new HashMap<>();
+    private int[] firstEdges = new int[INITIAL_CAPACITY];
+    private int vertexCount;
+
+    private int[] destinations = new int[INITIAL_CAPACITY];
+    private int[] nextEdges = new int[INITIAL_CAPACITY];
+    // first edges of the pairs of directed edges that represent undirected edges
+    private BitSet undirectedEdges = new BitSet();
+    private int edgeCount;
+
+    /**
+     * A method that adds a vertex to the graph.
+     * @param name name of the vertex, unique in the graph
+     * @return id of the added vertex
+     * @throws IllegalArgumentException if the graph already contains a vertex with that name
+     */
+    public int addVertex(String name) throws IllegalArgumentException {
+        if (vertexIds.containsKey(name)) {
+            throw new IllegalArgumentException("Vertex with that name already belongs to this graph");
+        }
+        if (vertexCount == names.length) {
+            names = Arrays.copyOf(names, vertexCount * 2);
+            firstEdges = Arrays.copyOf(firstEdges, vertexCount * 2);
+        }
+        names[vertexCount] = name;
+        firstEdges[vertexCount] = -1;
+        vertexIds.put(name, vertexCount);
+        return vertexCount++;
+    }
+
+    /**
+     * An internal helper method that stores the edges between two vertexes. Subclasses store the weight of every
+     * returned edge id.
+     * @param source id of the source vertex
+     * @param destination id of the destination vertex
+     * @param directed {@code false} if the edge can be traversed in both directions
+     * @return id of the first stored edge (an undirected edge also has the next id)
+     * @throws IllegalArgumentException if any of the vertexes does not belong to the graph
+     */
+    int addEdges(int source, int destination, boolean directed) throws IllegalArgumentException {
+        if (source < 0 || source >= vertexCount || destination < 0 || destination >= vertexCount) {
+            throw new IllegalArgumentException("Edge contains a vertex that does not belong to the graph");
+        }
+        int edgeId = addDirectedEdge(source, destination);
+        if (!directed) {
+            undirectedEdges.set(edgeId);
+            addDirectedEdge(destination, source);
+        }
+        return edgeId;
+    }
+
+    private int addDirectedEdge(int source, int destination) {
+        if (edgeCount == destinations.length) {
+            destinations = Arrays.copyOf(destinations, edgeCount * 2);
+            nextEdges = Arrays.copyOf(nextEdges, edgeCount * 2);
+        }
+        growWeights(destinations.length);
+        destinations[edgeCount] = destination;
+        nextEdges[edgeCount] = firstEdges[source];
+        firstEdges[source] = edgeCount;
+        return edgeCount++;
+    }
+
+    /**
+     * Makes sure that the weights of edges with ids smaller than {@code capacity} can be stored. Called before every
+     * edge is added, so it should only compare the capacity when there is enough space.
+     */
+    abstract void growWeights(int capacity);
+
+    /**
+     * @return Number of vertexes
+     */
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    /**
+     * @return Number of directed edges (every undirected edge is counted twice)
+     */
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * @param name name of the vertex
+     * @return id of the vertex or {@code -1} if the graph does not contain a vertex with that name
+     */
+    public int getVertexId(String name) {
+        Integer id = vertexIds.get(name);
+        return (id == null) ? -1 : id;
+    }
+
+    /**
+     * @param vertexId id of the vertex
+     * @return name of the vertex
+     */
+    public String getVertexName(int vertexId) {
+        return names[vertexId];
+    }
+
+    /**
+     * Edges of a vertex are iterated with {@code for (int e = getFirstEdge(v); e != -1; e = getNextEdge(e))}.
+     * @param vertexId id of the vertex
+     * @return id of the first edge that starts at the vertex or {@code -1} if there is none
+     */
+    public int getFirstEdge(int vertexId) {
+        return firstEdges[vertexId];
+    }
+
+    /**
+     * @param edgeId id of the edge
+     * @return id of the next edge that starts at the same vertex or {@code -1} if there is none
+     */
+    public int getNextEdge(int edgeId) {
+        return nextEdges[edgeId];
+    }
+
+    /**
+     * @param edgeId id of the edge
+     * @return id of the vertex at which the edge ends
+     */
+    public int getEdgeDestination(int edgeId) {
+        return destinations[edgeId];
+    }
+
+    /**
+     * @param edgeId id of the edge
+     * @return {@code true} if the edge is the first of the two directed edges that represent an undirected edge
+     */
+    boolean isUndirected(int edgeId) {
+        return undirectedEdges.get(edgeId);
+    }
+
+    /**
+     * An internal helper method that returns the id of the vertex at which the edge starts. Edges do not store their
+     * source, so the source is found by iterating over the edges of every vertex.
+     * @return ids of source vertexes of every edge
+     */
+    int[] getEdgeSources() {
+        int[] sources = new int[edgeCount];
+        for (int v = 0; v < vertexCount; v++) {
+            for (int e = firstEdges[v]; e != -1; e = nextEdges[e]) {
+                sources[e] = v;
+            }
+        }
+        return sources;
+    }
+
+    /**
+     * An internal helper method that checks whether the id belongs to a vertex of the graph.
+     * @throws IllegalArgumentException if there is no such vertex
+     */
+    void checkVertexId(int vertexId) throws IllegalArgumentException {
+        if (vertexId < 0 || vertexId >= vertexCount) {
+            throw new IllegalArgumentException("Graph does not contain the vertex given as an argument");
+        }
+    }
+
+    /**
+     * An internal helper method that adds every vertex of a generic graph, so ids of vertexes are their indexes in
+     * {@link Graph#getVertexes()}.
+     */
+    void addVertexes(Graph<?> graph) {
+        for (Vertex<?> v : graph.getVertexes()) {
+            addVertex(v.getName());
+        }
+    }
+
+    /**
+     * An internal helper method that creates a builder of a generic graph with the vertexes of this graph, whose edges
+     * are added by the caller. Vertexes of the built graph are in the order of ids.
+     */
+    <T extends Number & Comparable<T>> GraphBuilder<T> toGraphBuilder() {
+        GraphBuilder<T> builder = new GraphBuilder<>(vertexCount, edgeCount);
+        for (int v = 0; v < vertexCount; v++) {
+            builder.addVertex(names[v]);
+        }
+        return builder;
+    }
+}
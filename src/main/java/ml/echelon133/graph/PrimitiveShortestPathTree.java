@@ -0,0 +1,116 @@
+package ml.echelon133.graph;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.Map;
+
+/**
+ * Base class of the results of searches on a {@link PrimitiveGraph} ({@link LongShortestPathTree} and
+ * {@link DoubleShortestPathTree}). It stores the previous vertex of every reached vertex and the order in which
+ * vertexes were visited, subclasses store the distances.
+ */
+public abstract class PrimitiveShortestPathTree {
+
+    private PrimitiveGraph graph;
+    private int source;
+    private int[] previousVertexes;
+    private int[] visitOrder;
+    private int visitedCount;
+
+    PrimitiveShortestPathTree(PrimitiveGraph graph, int source, int[] previousVertexes, int[] visitOrder, int visitedCount) {
+        this.graph = graph;
+        this.source = source;
+        this.previousVertexes = previousVertexes;
+        this.visitOrder = visitOrder;
+        this.visitedCount = visitedCount;
+    }
+
+    /**
+     * @return Id of the vertex at which the search started
+     */
+    public int getSource() {
+        return source;
+    }
+
+    /**
+     * @return Number of vertexes that can be reached from the source (the source included)
+     */
+    public int getReachedCount() {
+        return visitedCount;
+    }
+
+    /**
+     * @param vertexId id of the vertex
+     * @return {@code true} if the vertex can be reached from the source
+     */
+    public abstract boolean isReachable(int vertexId);
+
+    /**
+     * @param vertexId id of the vertex
+     * @return id of the vertex that comes just before the vertex in its shortest path ({@code -1} if the vertex is
+     * the source or cannot be reached)
+     */
+    public int getPreviousVertex(int vertexId) {
+        return previousVertexes[vertexId];
+    }
+
+    /**
+     * @param vertexId id of the vertex
+     * @return ids of vertexes of the shortest path from the source to the vertex (both included), or an empty array if
+     * the vertex cannot be reached
+     */
+    public int[] getPath(int vertexId) {
+        if (!isReachable(vertexId)) {
+            return new int[0];
+        }
+        int length = 1;
+        for (int v = vertexId; v != source; v = previousVertexes[v]) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int i = length - 1, v = vertexId; i >= 0; i--, v = previousVertexes[v]) {
+            path[i] = v;
+        }
+        return path;
+    }
+
+    /**
+     * An internal helper method that returns the distance of a reached vertex as a {@link BigDecimal}.
+     */
+    abstract BigDecimal getDistanceAsBigDecimal(int vertexId);
+
+    /**
+     * Converts the tree to the map returned by {@link ShortestPathSolver#solveStartingFrom(Vertex)}, so results of a
+     * {@link PrimitiveGraph} can be passed to code that works with a generic {@link Graph}. Vertexes are found by
+     * their names.
+     * @param graph generic graph that contains vertexes with the same names (e.g. created by {@code toGraph()} of the
+     *              searched graph)
+     * @return map with the results of every reached vertex, ordered by increasing sum of weights
+     * @throws IllegalArgumentException if the graph does not contain a vertex that was reached
+     */
+    public <T extends Number & Comparable<T>> Map<Vertex<T>, VertexResult<T>> toResultMap(Graph<T> graph)
+            throws IllegalArgumentException {
+        @SuppressWarnings("unchecked")
+        Vertex<T>[] vertexes = (Vertex<T>[]) new Vertex[previousVertexes.length];
+        Map<Vertex<T>, VertexResult<T>> results = new LinkedHashMap<>();
+        for (int i = 0; i < visitedCount; i++) {
+            int v = visitOrder[i];
+            vertexes[v] = graph.findVertex(this.graph.getVertexName(v));
+            if (vertexes[v] == null) {
+                throw new IllegalArgumentException("Graph does not contain a vertex with the name " + this.graph.getVertexName(v));
+            }
+
+            // previous vertexes are visited earlier, so their results already exist
+            LinkedList<Vertex<T>> pathToVertex = new LinkedList<>();
+            int previous = previousVertexes[v];
+            if (previous != -1) {
+                pathToVertex.addAll(results.get(vertexes[previous]).getPathToVertex());
+                pathToVertex.addLast(vertexes[previous]);
+            }
+            Vertex<T> previousVertex = (previous == -1) ? null : vertexes[previous];
+            results.put(vertexes[v], new VertexResult<>(vertexes[v], previousVertex, getDistanceAsBigDecimal(v), pathToVertex));
+        }
+        return results;
+    }
+}
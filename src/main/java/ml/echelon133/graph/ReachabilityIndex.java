@@ -0,0 +1,329 @@
+package ml.echelon133.graph;
+
+import java.util.Arrays;
+
+/**
+ * Index of the strongly connected components of a graph, which tells whether one vertex can be reached from another
+ * without searching the graph. Two vertexes of the same component reach each other, so such queries take constant
+ * time. Other queries search the condensation of the graph (the acyclic graph of components), which is usually much
+ * smaller than the graph itself.
+ *
+ * Components are found by Tarjan's algorithm, which numbers them in reverse topological order: every component that
+ * can be reached from a component has a smaller number. Because of that a target whose component has a larger number
+ * than the component of the source is rejected at once, and the search of the condensation never enters components
+ * with a number smaller than the component of the target.
+ *
+ * The index describes the graph at the moment it was created ({@link #getGraphVersion()}). Instances are immutable
+ * and can be queried by many threads. Every thread reuses its own state of the search of the condensation, so queries
+ * do not allocate memory.
+ * @param <T> type of the value that represents weights of edges in the graph
+ */
+public class ReachabilityIndex<T extends Number & Comparable<T>> {
+
+    private IndexedGraph<T> graph;
+    private long graphVersion;
+    private int[] components;
+    private int componentCount;
+    private int[] condensationOffsets;
+    private int[] condensationSuccessors;
+    // vertex ids in topological order, created only when the graph is acyclic and the order is requested
+    private volatile int[] topologicalOrder;
+    private ThreadLocal<CondensationSearch> searches = ThreadLocal.withInitial(() -> new CondensationSearch(componentCount));
+
+    /**
+     * State of a search of the condensation. A component is visited by the current query if its mark is equal to the
+     * number of the query, so marks never have to be cleared.
+     */
+    private static class CondensationSearch {
+        private int[] visitedMarks;
+        private int[] stack;
+        private int queryCount;
+
+        CondensationSearch(int componentCount) {
+            this.visitedMarks = new int[componentCount];
+            this.stack = new int[componentCount];
+        }
+
+        /**
+         * @return The mark of the components visited by a new query
+         */
+        int nextQuery() {
+            queryCount++;
+            if (queryCount == 0) {
+                // marks of very old queries could be mistaken for the marks of new ones
+                Arrays.fill(visitedMarks, 0);
+                queryCount = 1;
+            }
+            return queryCount;
+        }
+    }
+
+    private ReachabilityIndex(IndexedGraph<T> graph, long graphVersion) {
+        this.graph = graph;
+        this.graphVersion = graphVersion;
+    }
+
+    /**
+     * A method that creates the index of the current version of the graph.
+     * @param graph graph to index
+     * @return The index
+     */
+    public static <T extends Number & Comparable<T>> ReachabilityIndex<T> of(Graph<T> graph) {
+        // the version is read first, so a change made while the index is created makes the index outdated
+        long version = graph.getVersion();
+        ReachabilityIndex<T> index = new ReachabilityIndex<>(CompactGraph.of(graph), version);
+        index.build();
+        return index;
+    }
+
+    /**
+     * A method that creates the index of a graph that does not change. Its {@link #getGraphVersion()} is {@code 0}.
+     * @param graph graph to index
+     * @return The index
+     */
+    public static <T extends Number & Comparable<T>> ReachabilityIndex<T> of(IndexedGraph<T> graph) {
+        ReachabilityIndex<T> index = new ReachabilityIndex<>(graph, 0);
+        index.build();
+        return index;
+    }
+
+    /**
+     * Destinations of all edges are read once through {@link IndexedGraph#forEachEdge(int, IndexedGraph.EdgeVisitor)},
+     * because reading a single edge is slow in some graphs (e.g. {@link CompressedGraph} decodes all edges of its
+     * source vertex).
+     */
+    private void build() {
+        int[] destinations = new int[graph.getEdgeCount()];
+        IndexedGraph.EdgeVisitor copyDestination = (edgeId, destination, weight) -> destinations[edgeId] = destination;
+        for (int v = 0; v < graph.getVertexCount(); v++) {
+            graph.forEachEdge(v, copyDestination);
+        }
+        findComponents(destinations);
+        buildCondensation(destinations);
+    }
+
+    /**
+     * Iterative version of Tarjan's algorithm, so deep graphs do not overflow the call stack. The explicit stack keeps
+     * the vertexes whose edges are being explored and the position of the next edge of each of them.
+     */
+    private void findComponents(int[] destinations) {
+        int vertexCount = graph.getVertexCount();
+        components = new int[vertexCount];
+        int[] discoveryIndexes = new int[vertexCount];
+        int[] lowLinks = new int[vertexCount];
+        // vertexes that were discovered, but whose component was not found yet
+        int[] componentStack = new int[vertexCount];
+        boolean[] onComponentStack = new boolean[vertexCount];
+        int componentStackSize = 0;
+        int[] callStack = new int[vertexCount];
+        int[] nextEdges = new int[vertexCount];
+        int callStackSize = 0;
+        int nextIndex = 1;
+
+        for (int root = 0; root < vertexCount; root++) {
+            if (discoveryIndexes[root] != 0) {
+                continue;
+            }
+            callStack[callStackSize++] = root;
+            nextEdges[root] = graph.getEdgesStart(root);
+            discoveryIndexes[root] = lowLinks[root] = nextIndex++;
+            componentStack[componentStackSize++] = root;
+            onComponentStack[root] = true;
+
+            while (callStackSize > 0) {
+                int v = callStack[callStackSize - 1];
+                if (nextEdges[v] < graph.getEdgesEnd(v)) {
+                    int w = destinations[nextEdges[v]++];
+                    if (discoveryIndexes[w] == 0) {
+                        // descend into w, the edges of v are continued when w is finished
+                        callStack[callStackSize++] = w;
+                        nextEdges[w] = graph.getEdgesStart(w);
+                        discoveryIndexes[w] = lowLinks[w] = nextIndex++;
+                        componentStack[componentStackSize++] = w;
+                        onComponentStack[w] = true;
+                    } else if (onComponentStack[w]) {
+                        lowLinks[v] = Math.min(lowLinks[v], discoveryIndexes[w]);
+                    }
+                    continue;
+                }
+
+                // all edges of v were explored
+                callStackSize--;
+                if (lowLinks[v] == discoveryIndexes[v]) {
+                    int w;
+                    do {
+                        w = componentStack[--componentStackSize];
+                        onComponentStack[w] = false;
+                        components[w] = componentCount;
+                    } while (w != v);
+                    componentCount++;
+                }
+                if (callStackSize > 0) {
+                    int parent = callStack[callStackSize - 1];
+                    lowLinks[parent] = Math.min(lowLinks[parent], lowLinks[v]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates the edges between components, without duplicates and without edges inside of a component.
+     */
+    private void buildCondensation(int[] destinations) {
+        int vertexCount = graph.getVertexCount();
+        // vertexes grouped by their component
+        int[] componentStarts = new int[componentCount + 1];
+        for (int v = 0; v < vertexCount; v++) {
+            componentStarts[components[v] + 1]++;
+        }
+        for (int c = 0; c < componentCount; c++) {
+            componentStarts[c + 1] += componentStarts[c];
+        }
+        int[] positions = componentStarts.clone();
+        int[] vertexesByComponent = new int[vertexCount];
+        for (int v = 0; v < vertexCount; v++) {
+            vertexesByComponent[positions[components[v]]++] = v;
+        }
+
+        condensationOffsets = new int[componentCount + 1];
+        int[] successors = new int[16];
+        int successorCount = 0;
+        // lastAddedFrom[c] is the component whose successors last included c
+        int[] lastAddedFrom = new int[componentCount];
+        Arrays.fill(lastAddedFrom, -1);
+
+        for (int c = 0; c < componentCount; c++) {
+            condensationOffsets[c] = successorCount;
+            for (int i = componentStarts[c]; i < componentStarts[c + 1]; i++) {
+                int v = vertexesByComponent[i];
+                for (int e = graph.getEdgesStart(v); e < graph.getEdgesEnd(v); e++) {
+                    int successor = components[destinations[e]];
+                    if (successor == c || lastAddedFrom[successor] == c) {
+                        continue;
+                    }
+                    lastAddedFrom[successor] = c;
+                    if (successorCount == successors.length) {
+                        successors = Arrays.copyOf(successors, successorCount * 2);
+                    }
+                    successors[successorCount++] = successor;
+                }
+            }
+        }
+        condensationOffsets[componentCount] = successorCount;
+        condensationSuccessors = Arrays.copyOf(successors, successorCount);
+    }
+
+    /**
+     * @return The version of the graph ({@link Graph#getVersion()}) that the index describes
+     */
+    public long getGraphVersion() {
+        return graphVersion;
+    }
+
+    /**
+     * @return The number of strongly connected components of the graph
+     */
+    public int getComponentCount() {
+        return componentCount;
+    }
+
+    /**
+     * @return {@code true} if the graph has no cycles, i.e. every strongly connected component is a single vertex
+     * (edges that start and end at the same vertex are not counted as cycles)
+     */
+    public boolean isAcyclic() {
+        return componentCount == graph.getVertexCount();
+    }
+
+    IndexedGraph<T> getGraph() {
+        return graph;
+    }
+
+    /**
+     * An internal helper method that returns the ids of vertexes of an acyclic graph in topological order, in which
+     * every edge leads to a vertex that comes later. Because components are numbered in reverse topological order,
+     * the vertex of component {@code c} is at position {@code getComponentCount() - 1 - c}.
+     * @throws IllegalStateException if the graph is not acyclic
+     */
+    int[] getTopologicalOrder() throws IllegalStateException {
+        if (!isAcyclic()) {
+            throw new IllegalStateException("Only an acyclic graph has a topological order");
+        }
+        int[] order = topologicalOrder;
+        if (order == null) {
+            order = new int[componentCount];
+            for (int v = 0; v < components.length; v++) {
+                order[componentCount - 1 - components[v]] = v;
+            }
+            topologicalOrder = order;
+        }
+        return order;
+    }
+
+    /**
+     * An internal helper method that returns the component of the vertex with the given id.
+     */
+    int getComponent(int vertexId) {
+        return components[vertexId];
+    }
+
+    private int getVertexId(Vertex<T> v) throws IllegalArgumentException {
+        int id = graph.getVertexId(v);
+        if (id == -1) {
+            throw new IllegalArgumentException("Index does not contain the vertex given as an argument");
+        }
+        return id;
+    }
+
+    /**
+     * A method that returns the number of the strongly connected component of the vertex. Every component that can
+     * be reached from a component has a smaller number.
+     * @param v vertex of the graph
+     * @return The number of the component, from {@code 0} to {@code getComponentCount() - 1}
+     * @throws IllegalArgumentException if the vertex does not belong to the indexed graph
+     */
+    public int getComponent(Vertex<T> v) throws IllegalArgumentException {
+        return components[getVertexId(v)];
+    }
+
+    /**
+     * A method that checks whether there is a path from the source to the target.
+     * @param source vertex at which the path starts
+     * @param target vertex at which the path ends
+     * @return {@code true} if the target can be reached from the source (every vertex can reach itself)
+     * @throws IllegalArgumentException if any of the vertexes does not belong to the indexed graph
+     */
+    public boolean isReachable(Vertex<T> source, Vertex<T> target) throws IllegalArgumentException {
+        int sourceComponent = components[getVertexId(source)];
+        int targetComponent = components[getVertexId(target)];
+        if (sourceComponent == targetComponent) {
+            return true;
+        }
+        if (targetComponent > sourceComponent) {
+            return false;
+        }
+
+        // depth-first search of components between the target and the source in the topological order
+        CondensationSearch search = searches.get();
+        int[] visitedMarks = search.visitedMarks;
+        int[] stack = search.stack;
+        int mark = search.nextQuery();
+        int stackSize = 0;
+        stack[stackSize++] = sourceComponent;
+        visitedMarks[sourceComponent] = mark;
+        while (stackSize > 0) {
+            int c = stack[--stackSize];
+            for (int i = condensationOffsets[c]; i < condensationOffsets[c + 1]; i++) {
+                int successor = condensationSuccessors[i];
+                if (successor == targetComponent) {
+                    return true;
+                }
+                if (successor > targetComponent && visitedMarks[successor] != mark) {
+                    visitedMarks[successor] = mark;
+                    stack[stackSize++] = successor;
+                }
+            }
+        }
+        return false;
+    }
+}
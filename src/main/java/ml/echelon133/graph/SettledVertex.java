@@ -0,0 +1,44 @@
+package ml.echelon133.graph;
+
+import java.math.BigDecimal;
+
+/**
+ * A vertex whose shortest path has been found, returned by
+ * {@link ShortestPathSolver#iterateStartingFrom(Vertex)}. Unlike {@link VertexResult} it does not contain the whole
+ * path, only the vertex that comes just before the settled vertex in that path.
+ * @param <T> type of the value that represents weights of edges in the graph
+ */
+public final class SettledVertex<T extends Number & Comparable<T>> {
+
+    private Vertex<T> vertex;
+    private BigDecimal sumOfWeights;
+    private Vertex<T> previousVertex;
+
+    SettledVertex(Vertex<T> vertex, BigDecimal sumOfWeights, Vertex<T> previousVertex) {
+        this.vertex = vertex;
+        this.sumOfWeights = sumOfWeights;
+        this.previousVertex = previousVertex;
+    }
+
+    /**
+     * @return The settled vertex
+     */
+    public Vertex<T> getVertex() {
+        return vertex;
+    }
+
+    /**
+     * @return The sum of weights of the shortest path from the start vertex to the settled vertex
+     */
+    public BigDecimal getSumOfWeights() {
+        return sumOfWeights;
+    }
+
+    /**
+     * @return The vertex that comes just before the settled vertex in its shortest path ({@code null} if the settled
+     * vertex is the start vertex)
+     */
+    public Vertex<T> getPreviousVertex() {
+        return previousVertex;
+    }
+}
@@ -0,0 +1,244 @@
+package ml.echelon133.graph;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Asynchronous executor of shortest path queries. Queries run on a fixed number of worker threads with a bounded
+ * queue, so bursts of queries cannot exhaust the memory of the service. When the queue is full, new queries are
+ * rejected right away.
+ *
+ * Identical queries (the same start vertex and the same {@link Graph#getVersion()}) that arrive while such a query
+ * is waiting or running are coalesced: the graph is solved once and every caller receives the same result map, which
+ * therefore must not be modified by callers.
+ *
+ * The graph must not be modified while queries are running.
+ * @param <T> type of the value that represents weights of edges in the graph
+ */
+public class ShortestPathService<T extends Number & Comparable<T>> implements AutoCloseable {
+
+    private static class QueryKey {
+        private Vertex<?> source;
+        private long graphVersion;
+
+        QueryKey(Vertex<?> source, long graphVersion) {
+            this.source = source;
+            this.graphVersion = graphVersion;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof QueryKey)) {
+                return false;
+            }
+            QueryKey other = (QueryKey) o;
+            return source == other.source && graphVersion == other.graphVersion;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(source) + Long.hashCode(graphVersion);
+        }
+    }
+
+    /**
+     * A query that was accepted, but has not finished yet. Its deadline is the latest deadline of all coalesced callers.
+     */
+    private static class PendingQuery<T extends Number & Comparable<T>> {
+        private CompletableFuture<Map<Vertex<T>, VertexResult<T>>> result = new CompletableFuture<>();
+        private AtomicLong deadlineNanos;
+        private long submittedAtNanos;
+
+        PendingQuery(long submittedAtNanos, long deadlineNanos) {
+            this.submittedAtNanos = submittedAtNanos;
+            this.deadlineNanos = new AtomicLong(deadlineNanos);
+        }
+    }
+
+    private Graph<T> graph;
+    private ThreadPoolExecutor executor;
+    private ThreadLocal<ShortestPathSolver<T>> solvers;
+    private ConcurrentMap<QueryKey, PendingQuery<T>> pendingQueries;
+
+    private LongAdder submittedCount = new LongAdder();
+    private LongAdder coalescedCount = new LongAdder();
+    private LongAdder rejectedCount = new LongAdder();
+    private LongAdder timedOutCount = new LongAdder();
+    private LongAdder completedCount = new LongAdder();
+    private LongAdder totalLatencyNanos = new LongAdder();
+    private AtomicLong maxLatencyNanos = new AtomicLong();
+
+    /**
+     * @param graph graph on which queries are solved
+     * @param threads number of worker threads
+     * @param queueCapacity maximum number of queries that wait for a free worker thread
+     * @throws IllegalArgumentException if {@code threads} or {@code queueCapacity} is not positive
+     */
+    public ShortestPathService(Graph<T> graph, int threads, int queueCapacity) throws IllegalArgumentException {
+        if (threads <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("Number of threads and queue capacity must be positive");
+        }
+        this.graph = graph;
+        this.solvers = ThreadLocal.withInitial(() -> new ShortestPathSolver<>(graph));
+        this.pendingQueries = new ConcurrentHashMap<>();
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        ThreadFactory threadFactory = r -> {
+            Thread t = new Thread(r, "shortest-path-service-" + threadCounter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Queue a query that finds the shortest paths from the vertex given as an argument (see
+     * {@link ShortestPathSolver#solveStartingFrom(Vertex)}).
+     * @param source vertex from which we want to calculate shortest paths
+     * @param timeout maximum time after which the caller stops waiting for the result. A query that has not started
+     *                before the deadline of all of its callers is not solved at all, and a query that is being solved
+     *                when the latest deadline known at its start passes is stopped
+     * @return future that completes with the result map. It completes exceptionally with a {@link TimeoutException}
+     * if the deadline passes, with a {@link RejectedExecutionException} if the queue is full or the service is closed,
+     * or with the exception thrown by the solver
+     */
+    public CompletableFuture<Map<Vertex<T>, VertexResult<T>>> solveStartingFrom(Vertex<T> source, Duration timeout) {
+        submittedCount.increment();
+        long now = System.nanoTime();
+        long deadline = now + timeout.toNanos();
+
+        QueryKey key = new QueryKey(source, graph.getVersion());
+        PendingQuery<T> query = new PendingQuery<>(now, deadline);
+        PendingQuery<T> existingQuery = pendingQueries.putIfAbsent(key, query);
+
+        if (existingQuery != null) {
+            coalescedCount.increment();
+            existingQuery.deadlineNanos.accumulateAndGet(deadline, (a, b) -> (b - a > 0) ? b : a);
+            query = existingQuery;
+        } else {
+            PendingQuery<T> newQuery = query;
+            newQuery.result.whenComplete((result, ex) -> pendingQueries.remove(key, newQuery));
+            try {
+                executor.execute(() -> run(newQuery, key, source));
+            } catch (RejectedExecutionException ex) {
+                // callers that already joined the query fail with the same exception
+                newQuery.result.completeExceptionally(ex);
+            }
+        }
+
+        // every caller gets its own future, so a timeout of one caller does not affect the others
+        return query.result.copy()
+                .orTimeout(Math.max(deadline - System.nanoTime(), 0L), TimeUnit.NANOSECONDS)
+                .whenComplete((result, ex) -> {
+                    Throwable cause = (ex instanceof CompletionException) ? ex.getCause() : ex;
+                    if (cause instanceof TimeoutException) {
+                        timedOutCount.increment();
+                    } else if (cause instanceof RejectedExecutionException) {
+                        rejectedCount.increment();
+                    }
+                });
+    }
+
+    private void run(PendingQuery<T> query, QueryKey key, Vertex<T> source) {
+        if (System.nanoTime() - query.deadlineNanos.get() > 0) {
+            query.result.completeExceptionally(new TimeoutException("Query deadline passed before the query was started"));
+            return;
+        }
+        ShortestPathTree<T> result = null;
+        Throwable failure = null;
+        try {
+            // the worker stops solving when the deadline passes, instead of computing a result that nobody waits for
+            SolveOptions options = SolveOptions.UNLIMITED.withDeadline(query.deadlineNanos.get());
+            result = solvers.get().solveStartingFrom(source, options);
+            if (!result.isComplete()) {
+                failure = new TimeoutException("Query deadline passed while the query was solved");
+            }
+        } catch (RuntimeException ex) {
+            failure = ex;
+        }
+
+        // counters are updated and the query stops accepting new callers before the future is completed, so callers
+        // woken by the future already see the counters of their query
+        pendingQueries.remove(key, query);
+        long latency = System.nanoTime() - query.submittedAtNanos;
+        completedCount.increment();
+        totalLatencyNanos.add(latency);
+        maxLatencyNanos.accumulateAndGet(latency, Math::max);
+
+        if (failure == null) {
+            query.result.complete(result);
+        } else {
+            query.result.completeExceptionally(failure);
+        }
+    }
+
+    /**
+     * @return Number of queries that wait for a free worker thread
+     */
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * @return Number of calls of {@link #solveStartingFrom(Vertex, Duration)}
+     */
+    public long getSubmittedCount() {
+        return submittedCount.sum();
+    }
+
+    /**
+     * @return Number of calls that joined an identical query instead of queueing a new one
+     */
+    public long getCoalescedCount() {
+        return coalescedCount.sum();
+    }
+
+    /**
+     * @return Number of calls that were rejected, because the queue was full or the service was closed (including
+     * calls that joined an identical query which was rejected)
+     */
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    /**
+     * @return Number of calls whose deadline passed before the result was ready
+     */
+    public long getTimedOutCount() {
+        return timedOutCount.sum();
+    }
+
+    /**
+     * @return Number of queries that were solved (successfully or not)
+     */
+    public long getCompletedCount() {
+        return completedCount.sum();
+    }
+
+    /**
+     * @return Sum of times between queueing and finishing of every solved query, in nanoseconds
+     */
+    public long getTotalLatencyNanos() {
+        return totalLatencyNanos.sum();
+    }
+
+    /**
+     * @return The longest time between queueing and finishing of a solved query, in nanoseconds
+     */
+    public long getMaxLatencyNanos() {
+        return maxLatencyNanos.get();
+    }
+
+    /**
+     * Stops accepting new queries. Queries that were already accepted are still solved.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
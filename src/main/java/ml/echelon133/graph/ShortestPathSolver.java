@@ -2,6 +2,11 @@ package ml.echelon133.graph;
 
 import java.math.BigDecimal;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Class that allows for finding shortest paths in weighted graphs.
@@ -9,119 +14,769 @@ import java.util.*;
  */
 public class ShortestPathSolver<T extends Number & Comparable<T>> {
 
-    private class VertexComparator implements Comparator<Vertex<T>> {
+    /**
+     * An entry of the work queue. It stores the sumOfWeights that the vertex had at the moment of being queued, because
+     * elements of a {@link PriorityQueue} must not change their priority while they are in the queue. Entries whose
+     * vertex has already been visited are outdated and skipped. Entries with equal sums of weights leave the queue in
+     * the order in which they were queued, so the order of visiting vertexes does not depend on the queue.
+     */
+    private static class QueueEntry {
+        private int vertexId;
+        private BigDecimal sumOfWeights;
+        private long sequence;
 
-        @Override
-        public int compare(Vertex<T> o1, Vertex<T> o2) {
-            // Comparator needs to always sort Vertex<T> elements in the PriorityQueue
-            // based on their sumOfWeights that is stored in VertexResult (value of resultMap)
-            BigDecimal o1SumOfWeights = resultMap.get(o1).getSumOfWeights();
-            BigDecimal o2SumOfWeights = resultMap.get(o2).getSumOfWeights();
-            return o1SumOfWeights.compareTo(o2SumOfWeights);
+        QueueEntry(int vertexId, BigDecimal sumOfWeights, long sequence) {
+            this.vertexId = vertexId;
+            this.sumOfWeights = sumOfWeights;
+            this.sequence = sequence;
         }
     }
 
     private Graph<T> graph;
-    private Set<Vertex<T>> visitedVertexes;
-    private PriorityQueue<Vertex<T>> workQueue;
-    private Map<Vertex<T>, VertexResult<T>> resultMap;
+    private IndexedGraph<T> snapshot;
+    // ids of visited vertexes in the resultTree
+    private BitSet visitedVertexes;
+    private PriorityQueue<QueueEntry> workQueue;
+    private long queuedCount;
+    private ShortestPathTree<T> resultTree;
+    // snapshot of the graph taken by the solver itself when no snapshot was given in the constructor
+    private IndexedGraph<T> takenSnapshot;
+    private long takenSnapshotVersion;
+    private ReachabilityIndex<T> reachabilityIndex;
+    private ArcFlags<T> arcFlags;
+    // searches of the snapshot, reused by queries until the snapshot changes
+    private KShortestPathsFinder<T> finder;
+    // state of acyclic searches, only the entries of reached vertexes are reset after every search
+    private BigDecimal[] acyclicSumsOfWeights;
+    private int[] acyclicLevels;
+    private int[] acyclicReached;
+    // search of a solver without a Graph and the ids that the vertexes visited by it have in the resultTree
+    private IndexedDijkstra indexedSearch;
+    private int[] treeIds;
+    private Vertex<T> indexedStart;
+    // incremented by every search, so iterators of previous searches can detect that their state was reset
+    private long searchCount;
 
     /**
      * @param graph graph on which we want to perform shortest path finding algorithm
      */
     public ShortestPathSolver(Graph<T> graph) {
         this.graph = graph;
-        this.visitedVertexes = new HashSet<>();
-        this.workQueue = new PriorityQueue<>(new VertexComparator());
-        this.resultMap = new HashMap<>();
+        this.visitedVertexes = new BitSet();
+        this.workQueue = new PriorityQueue<>(Comparator.comparing((QueueEntry e) -> e.sumOfWeights)
+                .thenComparingLong(e -> e.sequence));
+        this.resultTree = new ShortestPathTree<>();
     }
 
     /**
-     * An internal helper method that creates entries in the resultMap for vertexes
-     * that were processed by the {@link #solveStartingFrom(Vertex)} method.
-     * @param v vertex that might not have an entry in the resultMap
-     * @param startVertex set to {@code true} if we start our shortest path algorithm from this vertex
+     * @param graph graph on which we want to perform shortest path finding algorithm
+     * @param snapshot snapshot of the graph (e.g. a reordered {@link CompactGraph}) that is used by methods which work
+     *                 on an {@link IndexedGraph}, instead of taking a new snapshot every time the version of the
+     *                 graph changes. Those methods need it if the graph is {@link Graph#UNVERSIONED}. It must be kept
+     *                 up to date with the graph by the caller
      */
-    private void putVertexInResultMapIfNotContains(Vertex<T> v, boolean startVertex) {
-        if (!resultMap.containsKey(v)) {
-            VertexResult<T> vResult = new VertexResult<>(v);
+    public ShortestPathSolver(Graph<T> graph, IndexedGraph<T> snapshot) {
+        this(graph);
+        this.snapshot = snapshot;
+    }
 
-            if (startVertex) {
-                // vertex that we start from always has sumOfWeights equal to 0
-                vResult.setSumOfWeights(new BigDecimal(0));
-            }
-            resultMap.put(v, vResult);
+    /**
+     * @param graph graph on which we want to perform shortest path finding algorithm
+     * @param arcFlags arc flags of a snapshot of the graph. The snapshot is used by methods which work on an
+     *                 {@link IndexedGraph} (see {@link #ShortestPathSolver(Graph, IndexedGraph)}) and the flags prune
+     *                 the searches of {@link #shortestPath(Vertex, Vertex)}. They must be kept up to date with the
+     *                 graph by the caller
+     */
+    public ShortestPathSolver(Graph<T> graph, ArcFlags<T> arcFlags) {
+        this(graph, arcFlags.getGraph());
+        this.arcFlags = arcFlags;
+    }
+
+    /**
+     * Creates a solver that works only on an {@link IndexedGraph} (e.g. an {@link OffHeapGraph}), without any
+     * {@link Graph}. Every search runs on the indexed graph in {@code double} precision, and vertex objects are
+     * created only for the vertexes placed in results ({@link IndexedGraph#getVertex(int)}), except for the start
+     * vertex, which is the one given as an argument.
+     * @param snapshot graph on which we want to perform shortest path finding algorithm
+     */
+    public ShortestPathSolver(IndexedGraph<T> snapshot) {
+        this((Graph<T>) null);
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * An internal helper method that returns the snapshot given in the constructor or, if there is none, a snapshot of
+     * the current version of the graph. That snapshot is taken again only when the version of the graph changes.
+     * @return the snapshot or {@code null} if the graph is {@link Graph#UNVERSIONED} and no snapshot was given
+     */
+    private IndexedGraph<T> findSnapshot() {
+        if (snapshot != null) {
+            return snapshot;
+        }
+        // the version is read first, so a change made while the snapshot is taken makes the snapshot outdated
+        long version = graph.getVersion();
+        if (version == Graph.UNVERSIONED) {
+            return null;
+        }
+        if (takenSnapshot == null || takenSnapshotVersion != version) {
+            takenSnapshot = CompactGraph.of(graph);
+            takenSnapshotVersion = version;
+        }
+        return takenSnapshot;
+    }
+
+    /**
+     * An internal helper method that returns the snapshot (see {@link #findSnapshot()}).
+     * @throws IllegalStateException if the graph is {@link Graph#UNVERSIONED} and no snapshot was given
+     */
+    private IndexedGraph<T> getSnapshot() throws IllegalStateException {
+        IndexedGraph<T> indexedGraph = findSnapshot();
+        if (indexedGraph == null) {
+            throw new IllegalStateException(
+                    "This method requires a versioned graph or a snapshot given in the constructor");
         }
+        return indexedGraph;
     }
 
     /**
-     * An internal helper method that updates resultMap {@link VertexResult} state if there is a shorter path between
-     * v1 and v2 vertexes.
-     * @param v1
-     * @param v2
+     * An internal helper method that returns the finder of the snapshot. It is created again only when the snapshot
+     * changes, so its searches are reused by many queries.
      */
-    private void relax(Vertex<T> v1, Vertex<T> v2) {
-        // if v2 was not visited/relaxed yet, it is not present in resultMap
-        putVertexInResultMapIfNotContains(v2, false);
+    private KShortestPathsFinder<T> getFinder(IndexedGraph<T> indexedGraph) {
+        if (finder == null || finder.getGraph() != indexedGraph) {
+            finder = (arcFlags != null) ?
+                    new KShortestPathsFinder<>(arcFlags) : new KShortestPathsFinder<>(indexedGraph);
+        }
+        return finder;
+    }
 
-        VertexResult<T> v1Result = resultMap.get(v1);
-        VertexResult<T> v2Result = resultMap.get(v2);
+    /**
+     * An internal helper method that returns the reachability index of the snapshot (see {@link #findSnapshot()}).
+     * The index is created again only when the snapshot changes.
+     * @return the index or {@code null} if there is no snapshot
+     */
+    private ReachabilityIndex<T> findReachabilityIndex() {
+        IndexedGraph<T> indexedGraph = findSnapshot();
+        if (indexedGraph == null) {
+            return null;
+        }
+        if (reachabilityIndex == null || reachabilityIndex.getGraph() != indexedGraph) {
+            reachabilityIndex = ReachabilityIndex.of(indexedGraph);
+        }
+        return reachabilityIndex;
+    }
 
-        BigDecimal v1ToV2Weight = v1.getWeightTo(v2);
-        BigDecimal weightToV1 = v1Result.getSumOfWeights(); // weight from start vertex to v1
-        BigDecimal weightToV2 = v2Result.getSumOfWeights(); // weight from start vertex to v2
-        BigDecimal potentialNewPathWeight = v1ToV2Weight.add(weightToV1);
+    /**
+     * An internal helper method that returns the id of the vertex in the snapshot.
+     * @throws IllegalArgumentException if the snapshot does not contain the vertex
+     */
+    private int getVertexIdInSnapshot(IndexedGraph<T> snapshot, Vertex<T> v) throws IllegalArgumentException {
+        int id = snapshot.getVertexId(v);
+        if (id == -1) {
+            throw new IllegalArgumentException("Graph snapshot does not contain the vertex given as an argument");
+        }
+        return id;
+    }
+
+    /**
+     * An internal helper method that updates the resultTree if the edge given as an argument creates a shorter path
+     * to its destination vertex.
+     * @param v1Id id of the vertex that is currently being visited
+     * @param e edge that can be traversed from the v1 vertex
+     */
+    private void relax(int v1Id, Edge<T> e) {
+        Vertex<T> v2 = e.getOppositeVertex(resultTree.getVertex(v1Id));
+
+        // if v2 was not visited/relaxed yet, it is not present in resultTree
+        int v2Id = resultTree.getVertexId(v2);
+        if (v2Id == -1) {
+            v2Id = resultTree.addVertex(v2);
+        } else if (visitedVertexes.get(v2Id)) {
+            // the shortest path to a visited vertex is already known
+            return;
+        }
+
+        BigDecimal weightToV1 = resultTree.getSumOfWeights(v1Id); // weight from start vertex to v1
+        BigDecimal weightToV2 = resultTree.getSumOfWeights(v2Id); // weight from start vertex to v2
+        BigDecimal potentialNewPathWeight = e.getWeightAsBigDecimal().add(weightToV1);
 
         if (weightToV2 == null || weightToV2.compareTo(potentialNewPathWeight) > 0) {
             // null value of weightToV2 means that potentialNewPathWeight is guaranteed to be smaller than weightToV2
             // null value of getSumOfWeights is used to mark INFINITY weight value
+            resultTree.update(v2Id, potentialNewPathWeight, v1Id);
+
+            // queue v2 again with its new priority, the old entry becomes outdated
+            workQueue.add(new QueueEntry(v2Id, potentialNewPathWeight, queuedCount++));
+        }
+    }
+
+    /**
+     * An internal helper method that checks whether the vertex given as an argument belongs to the graph.
+     * @param v vertex to check
+     * @throws IllegalArgumentException if the vertex v does not belong to the graph
+     */
+    private void checkIfVertexBelongsToGraph(Vertex<T> v) throws IllegalArgumentException {
+        if (graph == null) {
+            // vertexes of a solver without a Graph are checked only against its snapshot
+            return;
+        }
+        if (graph.findVertex(v.getName()) != v) {
+            throw new IllegalArgumentException("Graph does not contain the vertex given as an argument");
+        }
+    }
+
+    /**
+     * An internal helper method that resets the state left by previous method calls and queues the start vertex.
+     * @param v vertex from which the search starts
+     * @throws IllegalArgumentException if the vertex v does not belong to the graph
+     */
+    private void startSearchFrom(Vertex<T> v) throws IllegalArgumentException {
+        // Maps returned by previous method calls belong to the caller, so they are not cleared but replaced
+        resultTree = new ShortestPathTree<>();
+        visitedVertexes.clear();
+        workQueue.clear();
+        searchCount++;
+
+        if (graph == null) {
+            int startId = getVertexIdInSnapshot(snapshot, v);
+            if (indexedSearch == null) {
+                indexedSearch = new IndexedDijkstra(snapshot);
+                treeIds = new int[snapshot.getVertexCount()];
+            }
+            indexedSearch.start(startId);
+            indexedStart = v;
+            return;
+        }
+
+        checkIfVertexBelongsToGraph(v);
+
+        // vertex that we start from always has sumOfWeights equal to 0
+        int startId = resultTree.addVertex(v);
+        resultTree.update(startId, new BigDecimal(0), -1);
+        workQueue.add(new QueueEntry(startId, resultTree.getSumOfWeights(startId), queuedCount++));
+    }
+
+    /**
+     * An internal helper method that returns the queue entry of the closest vertex that was not visited yet, without
+     * removing it from the queue.
+     * @return the closest queued vertex or {@code null} if every reachable vertex has already been visited
+     */
+    private QueueEntry peekClosestUnvisited() {
+        if (graph == null) {
+            double distance = indexedSearch.peekDistance();
+            return (distance == Double.POSITIVE_INFINITY) ? null : new QueueEntry(-1, BigDecimal.valueOf(distance), 0);
+        }
+        while (!workQueue.isEmpty() && visitedVertexes.get(workQueue.peek().vertexId)) {
+            workQueue.remove();
+        }
+        return workQueue.peek();
+    }
+
+    /**
+     * An internal helper method that visits the closest vertex that was not visited yet. At that moment the
+     * path to that vertex in the resultTree is final.
+     * @return id of the visited vertex or {@code -1} if every reachable vertex has already been visited
+     */
+    private int visitClosest() {
+        if (graph == null) {
+            return visitClosestInSnapshot();
+        }
+        QueueEntry closest = peekClosestUnvisited();
+        if (closest == null) {
+            return -1;
+        }
+        workQueue.remove();
+        visitedVertexes.set(closest.vertexId);
 
-            v2Result.setSumOfWeights(potentialNewPathWeight);
-            v2Result.setPreviousVertex(v1);
-            v2Result.copyAndUpdatePathToVertexFrom(v1Result);
+        for (Edge<T> e : resultTree.getVertex(closest.vertexId).getEdges()) {
+            relax(closest.vertexId, e);
+        }
+        return closest.vertexId;
+    }
 
-            // update the priority of v2 after updating its sumOfWeights value
-            // the simplest way to update priority in PriorityQueue is to remove an element and put it again
-            resultMap.remove(v2);
-            resultMap.put(v2, v2Result);
+    /**
+     * An internal helper method that visits the closest vertex of the snapshot of a solver without a {@link Graph}
+     * and places it in the resultTree. Vertexes are placed in the resultTree only when they are visited, so the
+     * previous vertex of a visited vertex is always already there.
+     * @return id of the visited vertex in the resultTree or {@code -1} if every reachable vertex has already been
+     * visited
+     */
+    private int visitClosestInSnapshot() {
+        int visited = indexedSearch.visitNext();
+        if (visited == -1) {
+            return -1;
         }
+        int previous = indexedSearch.getPreviousVertex(visited);
+        Vertex<T> vertex = (previous == -1) ? indexedStart : snapshot.getVertex(visited);
+        int visitedId = resultTree.addVertex(vertex);
+        treeIds[visited] = visitedId;
+        resultTree.update(visitedId, BigDecimal.valueOf(indexedSearch.getDistance(visited)),
+                (previous == -1) ? -1 : treeIds[previous]);
+        visitedVertexes.set(visitedId);
+        return visitedId;
     }
 
     /**
      * Find the shortest path from the vertex given as an argument to every other vertex that is in the graph and is
      * reachable from the v vertex.
+     *
+     * If the graph has no cycles (e.g. a dependency graph), the sums of weights are found by relaxing edges in
+     * topological order instead of using a priority queue. Whether the graph is acyclic is checked once per version of
+     * the graph (see {@link ReachabilityIndex#isAcyclic()}), and only if the solver takes its own snapshot of a
+     * versioned graph. Both ways return the same result.
      * @param v vertex from which we want to calculate shortest paths to every other vertex that is reachable from it
-     * @return map that contains information about paths to every vertex that is reachable from the v vertex
+     * @return map that contains information about paths to every vertex that is reachable from the v vertex (see
+     * {@link ShortestPathTree})
      * @throws IllegalArgumentException if the vertex v does not belong to the {@link Graph} that was given in the {@link #ShortestPathSolver(Graph)}
      */
-    public Map<Vertex<T>, VertexResult<T>> solveStartingFrom(Vertex<T> v) throws IllegalArgumentException {
+    public ShortestPathTree<T> solveStartingFrom(Vertex<T> v) throws IllegalArgumentException {
+        if (graph != null && snapshot == null) {
+            ReachabilityIndex<T> index = findReachabilityIndex();
+            if (index != null && index.isAcyclic()) {
+                return solveAcyclicStartingFrom(v, index);
+            }
+        }
+
         // Algorithm ref: https://en.wikipedia.org/wiki/Dijkstra%27s_algorithm
+        startSearchFrom(v);
 
-        // Clear any info from previous method calls
-        resultMap.clear();
-        visitedVertexes.clear();
+        while (visitClosest() != -1) {
+            // every call visits one more vertex, the loop ends when there are no reachable vertexes left
+        }
 
-        if (!graph.getVertexes().contains(v)) {
-            throw new IllegalArgumentException("Graph does not contain the vertex given as an argument");
+        return resultTree;
+    }
+
+    /**
+     * An internal helper method that finds the same resultTree as Dijkstra's algorithm in a graph without cycles.
+     *
+     * Sums of weights are found first, by relaxing edges of the snapshot in topological order. Dijkstra's algorithm
+     * visits vertexes in the order of increasing sum of weights, and vertexes with equal sums in the order in which
+     * they got that sum (see {@link QueueEntry}). Once the sums are known, that order only needs a queue for every
+     * distinct sum of weights, which is filled while vertexes are visited again in that order, and the edges of every
+     * visited vertex are relaxed exactly like {@link #relax(int, Edge)} does. This way every vertex is reached, gets
+     * its previous vertex and is placed in the resultTree at the same moment as it would be by Dijkstra's algorithm.
+     * @param v vertex from which the search starts
+     * @param index reachability index of the snapshot of an acyclic graph
+     */
+    private ShortestPathTree<T> solveAcyclicStartingFrom(Vertex<T> v, ReachabilityIndex<T> index) {
+        startSearchFrom(v);
+        workQueue.clear();
+
+        IndexedGraph<T> indexedGraph = index.getGraph();
+        int vertexCount = indexedGraph.getVertexCount();
+        if (acyclicSumsOfWeights == null || acyclicSumsOfWeights.length != vertexCount) {
+            acyclicSumsOfWeights = new BigDecimal[vertexCount];
+            acyclicLevels = new int[vertexCount];
+            acyclicReached = new int[vertexCount];
+        }
+        // sums of weights of vertexes that are not queued yet, null for every other vertex
+        BigDecimal[] sumsOfWeights = acyclicSumsOfWeights;
+        int[] reached = acyclicReached;
+        int reachedCount = 0;
+
+        try {
+            int[] order = index.getTopologicalOrder();
+            int startId = indexedGraph.getVertexId(v);
+            sumsOfWeights[startId] = resultTree.getSumOfWeights(0);
+            reached[reachedCount++] = startId;
+            for (int position = order.length - 1 - index.getComponent(startId); position < order.length; position++) {
+                int v1 = order[position];
+                BigDecimal weightToV1 = sumsOfWeights[v1];
+                if (weightToV1 == null) {
+                    // not reachable from the start vertex
+                    continue;
+                }
+                for (int e = indexedGraph.getEdgesStart(v1); e < indexedGraph.getEdgesEnd(v1); e++) {
+                    int v2 = indexedGraph.getEdgeDestination(e);
+                    BigDecimal potentialNewPathWeight = indexedGraph.getEdge(e).getWeightAsBigDecimal().add(weightToV1);
+                    if (sumsOfWeights[v2] == null) {
+                        reached[reachedCount++] = v2;
+                        sumsOfWeights[v2] = potentialNewPathWeight;
+                    } else if (sumsOfWeights[v2].compareTo(potentialNewPathWeight) > 0) {
+                        sumsOfWeights[v2] = potentialNewPathWeight;
+                    }
+                }
+            }
+
+            // every distinct sum of weights is a level, and levelEnds[level] is the next free slot of its queue
+            Integer[] byDistance = new Integer[reachedCount];
+            for (int i = 0; i < reachedCount; i++) {
+                byDistance[i] = reached[i];
+            }
+            Arrays.sort(byDistance, Comparator.comparing((Integer id) -> sumsOfWeights[id]));
+            int[] levelEnds = new int[reachedCount];
+            int levelCount = 0;
+            for (int i = 0; i < reachedCount; i++) {
+                if (i == 0 || sumsOfWeights[byDistance[i]].compareTo(sumsOfWeights[byDistance[i - 1]]) != 0) {
+                    levelEnds[levelCount++] = i;
+                }
+                acyclicLevels[byDistance[i]] = levelCount - 1;
+            }
+
+            // queues of all levels, one after another, contain ids of vertexes in the resultTree
+            int[] queues = new int[reachedCount];
+            queues[levelEnds[0]++] = 0;
+            sumsOfWeights[startId] = null;
+            for (int slot = 0; slot < reachedCount; slot++) {
+                int v1Id = queues[slot];
+                Vertex<T> v1 = resultTree.getVertex(v1Id);
+                BigDecimal weightToV1 = resultTree.getSumOfWeights(v1Id);
+                visitedVertexes.set(v1Id);
+
+                for (Edge<T> e : v1.getEdges()) {
+                    Vertex<T> v2 = e.getOppositeVertex(v1);
+                    int v2Id = resultTree.getVertexId(v2);
+                    if (v2Id == -1) {
+                        v2Id = resultTree.addVertex(v2);
+                    }
+                    int v2Index = indexedGraph.getVertexId(v2);
+                    BigDecimal weightToV2 = sumsOfWeights[v2Index];
+                    if (weightToV2 == null) {
+                        // already queued
+                        continue;
+                    }
+                    BigDecimal potentialNewPathWeight = e.getWeightAsBigDecimal().add(weightToV1);
+                    if (weightToV2.compareTo(potentialNewPathWeight) == 0) {
+                        // the first path with the final sum of weights is the one that Dijkstra's algorithm keeps
+                        resultTree.update(v2Id, potentialNewPathWeight, v1Id);
+                        queues[levelEnds[acyclicLevels[v2Index]]++] = v2Id;
+                        sumsOfWeights[v2Index] = null;
+                    }
+                }
+            }
+        } finally {
+            // only reached vertexes have to be reset, so a search does not cost time proportional to the whole graph
+            for (int i = 0; i < reachedCount; i++) {
+                sumsOfWeights[reached[i]] = null;
+            }
+        }
+        return resultTree;
+    }
+
+    /**
+     * Find the shortest path from the vertex given as an argument to every other vertex that is reachable from it,
+     * unless the search exceeds any of the limits of the options. A search that exceeds a limit stops before visiting
+     * the next vertex.
+     * @param v vertex from which we want to calculate shortest paths to every other vertex that is reachable from it
+     * @param options limits of the search
+     * @return map that contains information about paths to every vertex that is reachable from the v vertex. If the
+     * search was stopped, the map is not complete ({@link ShortestPathTree#isComplete()}) and it contains only the
+     * vertexes that were visited before that, in the order of increasing sum of weights
+     * @throws IllegalArgumentException if the vertex v does not belong to the {@link Graph} that was given in the {@link #ShortestPathSolver(Graph)}
+     */
+    public ShortestPathTree<T> solveStartingFrom(Vertex<T> v, SolveOptions options) throws IllegalArgumentException {
+        startSearchFrom(v);
+
+        long visitedCount = 0;
+        while (peekClosestUnvisited() != null) {
+            if (options.isExceeded(visitedCount)) {
+                // vertexes that were reached, but not visited, do not have their shortest paths yet
+                resultTree.retainOnly(visitedVertexes);
+                break;
+            }
+            visitClosest();
+            visitedCount++;
+        }
+
+        return resultTree;
+    }
+
+    /**
+     * Iterate over vertexes that are reachable from the vertex given as an argument, in the order of increasing sum of
+     * weights (the start vertex first). The search advances only when the next vertex is requested, so a caller that
+     * stops iterating early never visits the remaining vertexes, and no result map is built.
+     *
+     * The iterator uses the state of this solver. Calling any other search method of the solver ends the iteration:
+     * the iterator then throws {@link ConcurrentModificationException}.
+     * @param v vertex from which the search starts
+     * @return iterator of settled vertexes
+     * @throws IllegalArgumentException if the vertex v does not belong to the {@link Graph} that was given in the {@link #ShortestPathSolver(Graph)}
+     */
+    public Iterator<SettledVertex<T>> iterateStartingFrom(Vertex<T> v) throws IllegalArgumentException {
+        startSearchFrom(v);
+        long iteratedSearch = searchCount;
+
+        return new Iterator<>() {
+            private void checkSearch() {
+                if (searchCount != iteratedSearch) {
+                    throw new ConcurrentModificationException("Solver was used by another search during the iteration");
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                checkSearch();
+                return peekClosestUnvisited() != null;
+            }
+
+            @Override
+            public SettledVertex<T> next() {
+                checkSearch();
+                int visitedId = visitClosest();
+                if (visitedId == -1) {
+                    throw new NoSuchElementException();
+                }
+                int previousId = resultTree.getPreviousVertexId(visitedId);
+                return new SettledVertex<>(resultTree.getVertex(visitedId), resultTree.getSumOfWeights(visitedId),
+                        (previousId == -1) ? null : resultTree.getVertex(previousId));
+            }
+        };
+    }
+
+    /**
+     * A sequential {@link Stream} of the vertexes returned by {@link #iterateStartingFrom(Vertex)}. Short-circuiting
+     * operations (e.g. {@link Stream#limit(long)}, {@link Stream#takeWhile} or {@link Stream#findFirst()}) stop the
+     * search as soon as they stop pulling vertexes.
+     * @param v vertex from which the search starts
+     * @return stream of settled vertexes, ordered by increasing sum of weights
+     * @throws IllegalArgumentException if the vertex v does not belong to the {@link Graph} that was given in the {@link #ShortestPathSolver(Graph)}
+     */
+    public Stream<SettledVertex<T>> streamStartingFrom(Vertex<T> v) throws IllegalArgumentException {
+        Spliterator<SettledVertex<T>> spliterator = Spliterators.spliteratorUnknownSize(iterateStartingFrom(v),
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false);
+    }
+
+    /**
+     * Check whether there is a path from the source to the target, using a {@link ReachabilityIndex} of the graph
+     * that is kept by the solver until the version of the graph changes. A graph that is {@link Graph#UNVERSIONED}
+     * (and has no snapshot given in the constructor) is searched instead, because its index could not be reused.
+     * @param source vertex at which the path starts
+     * @param target vertex at which the path ends
+     * @return {@code true} if the target can be reached from the source
+     * @throws IllegalArgumentException if any of the vertexes does not belong to the {@link Graph} that was given in
+     * the {@link #ShortestPathSolver(Graph)}
+     */
+    public boolean isReachable(Vertex<T> source, Vertex<T> target) throws IllegalArgumentException {
+        checkIfVertexBelongsToGraph(source);
+        checkIfVertexBelongsToGraph(target);
+
+        ReachabilityIndex<T> index = findReachabilityIndex();
+        if (index == null) {
+            startSearchFrom(source);
+            return visitUntil(target) != -1;
+        }
+        return index.isReachable(source, target);
+    }
+
+    /**
+     * An internal helper method that visits vertexes until the target vertex is visited.
+     * @return id of the target vertex or {@code -1} if it cannot be reached
+     */
+    private int visitUntil(Vertex<T> target) {
+        int visitedId;
+        if (graph == null) {
+            // vertexes created by the snapshot are not the same objects as the target, so they are compared by ids
+            int targetId = getVertexIdInSnapshot(snapshot, target);
+            while ((visitedId = visitClosest()) != -1) {
+                if (indexedSearch.isVisited(targetId)) {
+                    return visitedId;
+                }
+            }
+            return -1;
+        }
+        while ((visitedId = visitClosest()) != -1) {
+            if (resultTree.getVertex(visitedId) == target) {
+                return visitedId;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Find the shortest path between two vertexes. The search stops as soon as the target is visited, and a target
+     * that cannot be reached from the source (see {@link #isReachable(Vertex, Vertex)}) is rejected before the search
+     * starts, unless the graph is {@link Graph#UNVERSIONED}.
+     * @param source vertex at which the path starts
+     * @param target vertex at which the path ends
+     * @return result of the target vertex or {@code null} if the target cannot be reached from the source
+     * @throws IllegalArgumentException if any of the vertexes does not belong to the {@link Graph} that was given in
+     * the {@link #ShortestPathSolver(Graph)}
+     */
+    public VertexResult<T> solveBetween(Vertex<T> source, Vertex<T> target) throws IllegalArgumentException {
+        startSearchFrom(source);
+        checkIfVertexBelongsToGraph(target);
+        ReachabilityIndex<T> index = findReachabilityIndex();
+        if (index != null && !index.isReachable(source, target)) {
+            return null;
+        }
+
+        int targetId = visitUntil(target);
+        return (targetId == -1) ? null : resultTree.getResult(targetId);
+    }
+
+    /**
+     * Find the shortest paths from the vertex given as an argument to every vertex whose sum of weights does not
+     * exceed {@code maxDistance}. The search stops as soon as the closest vertex that is left is further away than
+     * {@code maxDistance}, so vertexes outside of that radius are never visited.
+     * @param v vertex from which we want to calculate shortest paths
+     * @param maxDistance the maximum (inclusive) sum of weights of a path that is placed in the result
+     * @return map that contains information about paths to every vertex that is within {@code maxDistance} from the
+     * v vertex, ordered by increasing sum of weights
+     * @throws IllegalArgumentException if the vertex v does not belong to the {@link Graph} that was given in the
+     * {@link #ShortestPathSolver(Graph)} or {@code maxDistance} is negative
+     */
+    public Map<Vertex<T>, VertexResult<T>> solveWithin(Vertex<T> v, BigDecimal maxDistance) throws IllegalArgumentException {
+        if (maxDistance.signum() < 0) {
+            throw new IllegalArgumentException("Maximum distance cannot be negative");
+        }
+        startSearchFrom(v);
+
+        Map<Vertex<T>, VertexResult<T>> withinDistance = new LinkedHashMap<>();
+        QueueEntry closest = peekClosestUnvisited();
+        while (closest != null && closest.sumOfWeights.compareTo(maxDistance) <= 0) {
+            int visitedId = visitClosest();
+            withinDistance.put(resultTree.getVertex(visitedId), resultTree.getResult(visitedId));
+            closest = peekClosestUnvisited();
+        }
+        return withinDistance;
+    }
+
+    /**
+     * Find the shortest paths from the vertex given as an argument to the {@code k} closest vertexes that match the
+     * filter. The start vertex itself is also tested by the filter. The search stops as soon as the k-th matching
+     * vertex is visited.
+     * @param v vertex from which we want to calculate shortest paths
+     * @param k the maximum number of matching vertexes to find
+     * @param filter predicate that decides whether a visited vertex should be placed in the result
+     * @return map that contains information about paths to (at most) {@code k} closest matching vertexes, ordered
+     * by increasing sum of weights. It contains less than {@code k} elements only if there are not enough reachable
+     * matching vertexes
+     * @throws IllegalArgumentException if the vertex v does not belong to the {@link Graph} that was given in the
+     * {@link #ShortestPathSolver(Graph)} or {@code k} is not positive
+     */
+    public Map<Vertex<T>, VertexResult<T>> nearest(Vertex<T> v, int k, Predicate<Vertex<T>> filter) throws IllegalArgumentException {
+        if (k <= 0) {
+            throw new IllegalArgumentException("Number of searched vertexes must be positive");
         }
+        startSearchFrom(v);
 
-        workQueue.add(v);
-        putVertexInResultMapIfNotContains(v, true);
+        Map<Vertex<T>, VertexResult<T>> nearestMatching = new LinkedHashMap<>();
+        int visitedId;
+        while (nearestMatching.size() < k && (visitedId = visitClosest()) != -1) {
+            Vertex<T> visited = resultTree.getVertex(visitedId);
+            if (filter.test(visited)) {
+                nearestMatching.put(visited, resultTree.getResult(visitedId));
+            }
+        }
+        return nearestMatching;
+    }
+
+    /**
+     * Find the sums of weights of the shortest paths from every source vertex to every target vertex. Searches from
+     * different sources run in parallel on the common {@link ForkJoinPool}, and the search from a single source stops
+     * as soon as every target has been visited. Only the distances are kept, paths are not reconstructed.
+     *
+     * Distances are computed on an {@link IndexedGraph} snapshot of the graph in {@code double} precision. The solver
+     * keeps the snapshot until the version of the graph changes.
+     * @param sources vertexes from which the paths start (rows of the table)
+     * @param targets vertexes at which the paths end (columns of the table)
+     * @return table of distances ({@code Double.POSITIVE_INFINITY} marks unreachable targets)
+     * @throws IllegalArgumentException if any of the vertexes does not belong to the {@link Graph} that was given in
+     * the {@link #ShortestPathSolver(Graph)} or the table is too large to be stored
+     * @throws IllegalStateException if the graph is {@link Graph#UNVERSIONED} and no snapshot was given in the
+     * constructor
+     */
+    public DistanceTable<T> distanceTable(List<Vertex<T>> sources, List<Vertex<T>> targets) throws IllegalArgumentException, IllegalStateException {
+        sources.forEach(this::checkIfVertexBelongsToGraph);
+        targets.forEach(this::checkIfVertexBelongsToGraph);
 
-        while (!workQueue.isEmpty()) {
-            Vertex<T> minWeightVertex = workQueue.remove();
-            visitedVertexes.add(minWeightVertex);
-            putVertexInResultMapIfNotContains(minWeightVertex, false);
+        IndexedGraph<T> indexedGraph = getSnapshot();
+        KShortestPathsFinder<T> indexedFinder = getFinder(indexedGraph);
+        int[] sourceIds = sources.stream().mapToInt(v -> getVertexIdInSnapshot(indexedGraph, v)).toArray();
+        int[] targetIds = targets.stream().mapToInt(v -> getVertexIdInSnapshot(indexedGraph, v)).toArray();
 
-            for (Edge<T> e : minWeightVertex.getEdges()) {
-                relax(e.getSource(), e.getDestination());
+        // the same vertex might be given as a target more than once, but it is visited only once
+        boolean[] isTarget = new boolean[indexedGraph.getVertexCount()];
+        int distinctTargets = 0;
+        for (int targetId : targetIds) {
+            if (!isTarget[targetId]) {
+                isTarget[targetId] = true;
+                distinctTargets++;
+            }
+        }
+
+        long size = (long) sourceIds.length * targetIds.length;
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Distance table is too large to be stored");
+        }
+        double[] distances = new double[(int) size];
+        int remainingTargetsAtStart = distinctTargets;
+
+        // every worker reuses the search of its thread for many sources, instead of allocating one per source
+        int workers = Math.min(sourceIds.length, ForkJoinPool.getCommonPoolParallelism());
+        IntStream.range(0, workers).parallel().forEach(worker -> {
+            IndexedDijkstra search = indexedFinder.getSearch();
+            for (int row = worker; row < sourceIds.length; row += workers) {
+                search.start(sourceIds[row]);
 
-                if (!visitedVertexes.contains(e.getDestination())) {
-                    workQueue.add(e.getDestination());
+                int remainingTargets = remainingTargetsAtStart;
+                int visitedVertex;
+                while (remainingTargets > 0 && (visitedVertex = search.visitNext()) != -1) {
+                    if (isTarget[visitedVertex]) {
+                        remainingTargets--;
+                    }
+                }
+
+                int rowOffset = row * targetIds.length;
+                for (int column = 0; column < targetIds.length; column++) {
+                    int targetId = targetIds[column];
+                    distances[rowOffset + column] = search.isVisited(targetId) ?
+                            search.getDistance(targetId) : Double.POSITIVE_INFINITY;
                 }
             }
+        });
+
+        return new DistanceTable<>(List.copyOf(sources), List.copyOf(targets), distances);
+    }
+
+    /**
+     * Find the shortest path between two vertexes on an {@link IndexedGraph} snapshot of the graph, in {@code double}
+     * precision. If the solver was created with {@link ArcFlags}, the search follows only the edges that lead towards
+     * the region of the target, which makes it visit a much smaller part of the graph.
+     * @param source vertex at which the path starts
+     * @param target vertex at which the path ends
+     * @return the shortest path or {@code null} if the target cannot be reached from the source
+     * @throws IllegalArgumentException if any of the vertexes does not belong to the {@link Graph} that was given in
+     * the {@link #ShortestPathSolver(Graph)}
+     * @throws IllegalStateException if the graph is {@link Graph#UNVERSIONED} and no snapshot was given in the
+     * constructor
+     */
+    public GraphPath<T> shortestPath(Vertex<T> source, Vertex<T> target) throws IllegalArgumentException, IllegalStateException {
+        List<GraphPath<T>> paths = kShortestPaths(source, target, 1);
+        return paths.isEmpty() ? null : paths.get(0);
+    }
+
+    /**
+     * Find up to k shortest loopless paths between two vertexes using Yen's algorithm. The first path is always the
+     * shortest path, every next one is the shortest path that differs from all of the previous ones.
+     *
+     * Paths are found on an {@link IndexedGraph} snapshot of the graph, in {@code double} precision. The sum of
+     * weights of every returned {@link GraphPath} is computed exactly from the weights of its edges.
+     * @param source vertex at which every path starts
+     * @param target vertex at which every path ends
+     * @param k the maximum number of paths to find
+     * @return paths ordered by increasing sum of weights. The list has less than {@code k} elements if there are not
+     * enough loopless paths and it is empty if the target is not reachable from the source
+     * @throws IllegalArgumentException if any of the vertexes does not belong to the {@link Graph} that was given in
+     * the {@link #ShortestPathSolver(Graph)} or {@code k} is not positive
+     * @throws IllegalStateException if the graph is {@link Graph#UNVERSIONED} and no snapshot was given in the
+     * constructor
+     */
+    public List<GraphPath<T>> kShortestPaths(Vertex<T> source, Vertex<T> target, int k) throws IllegalArgumentException, IllegalStateException {
+        if (k <= 0) {
+            throw new IllegalArgumentException("Number of searched paths must be positive");
         }
+        checkIfVertexBelongsToGraph(source);
+        checkIfVertexBelongsToGraph(target);
 
-        return resultMap;
+        IndexedGraph<T> indexedGraph = getSnapshot();
+        // paths to an unreachable target do not exist, so the search is not even started
+        if (!findReachabilityIndex().isReachable(source, target)) {
+            return List.of();
+        }
+        return getFinder(indexedGraph)
+                .find(getVertexIdInSnapshot(indexedGraph, source), getVertexIdInSnapshot(indexedGraph, target), k);
     }
 }
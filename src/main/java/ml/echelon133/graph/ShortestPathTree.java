@@ -0,0 +1,229 @@
+package ml.echelon133.graph;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Result of {@link ShortestPathSolver#solveStartingFrom(Vertex)} that stores the shortest path tree in arrays: every
+ * reached vertex gets an id, and the sum of weights and the id of the previous vertex are kept at that id. Paths are
+ * not stored at all, they are rebuilt from the previous vertexes.
+ *
+ * The tree is a read-only {@link Map} from every reached vertex to its {@link VertexResult}. A {@link VertexResult}
+ * is created only when it is requested (e.g. by {@link #get(Object)} or by iterating over {@link #entrySet()}), so
+ * two calls return different, but equal in content, instances. Changing a returned {@link VertexResult} does not
+ * change the tree. Vertexes are compared by identity, and they are iterated in the order they were reached in.
+ *
+ * A search that was stopped by its {@link SolveOptions} returns a tree that is not complete ({@link #isComplete()}).
+ * Such a tree contains only the vertexes whose shortest paths were found before the search stopped.
+ * @param <T> type of the value that represents weights of edges in the graph
+ */
+public class ShortestPathTree<T extends Number & Comparable<T>> extends AbstractMap<Vertex<T>, VertexResult<T>> {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private Vertex<T>[] vertexes;
+    private BigDecimal[] sumsOfWeights;
+    private int[] previousVertexes;
+    private int size;
+    private boolean complete = true;
+
+    // open addressing table of vertex ids (incremented by one, so 0 marks an empty slot)
+    private int[] table;
+
+    private EntrySet entrySet;
+
+    @SuppressWarnings("unchecked")
+    ShortestPathTree() {
+        this.vertexes = (Vertex<T>[]) new Vertex[INITIAL_CAPACITY];
+        this.sumsOfWeights = new BigDecimal[INITIAL_CAPACITY];
+        this.previousVertexes = new int[INITIAL_CAPACITY];
+        this.table = new int[INITIAL_CAPACITY * 2];
+    }
+
+    private static int hash(Object v) {
+        int h = System.identityHashCode(v);
+        // identity hash codes are not spread evenly in their lowest bits
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * An internal helper method that returns the id of the vertex.
+     * @return id of the vertex or {@code -1} if the vertex was not reached
+     */
+    int getVertexId(Object v) {
+        int mask = table.length - 1;
+        for (int slot = hash(v) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            if (vertexes[table[slot] - 1] == v) {
+                return table[slot] - 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * An internal helper method that adds a vertex that was not reached before. Its sum of weights is infinite
+     * ({@code null}) and it has no previous vertex.
+     * @return id of the added vertex
+     */
+    int addVertex(Vertex<T> v) {
+        if (size == vertexes.length) {
+            grow();
+        }
+        int id = size++;
+        vertexes[id] = v;
+        previousVertexes[id] = -1;
+        insertIntoTable(id);
+        return id;
+    }
+
+    private void insertIntoTable(int id) {
+        int mask = table.length - 1;
+        int slot = hash(vertexes[id]) & mask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = id + 1;
+    }
+
+    private void grow() {
+        int capacity = vertexes.length * 2;
+        vertexes = Arrays.copyOf(vertexes, capacity);
+        sumsOfWeights = Arrays.copyOf(sumsOfWeights, capacity);
+        previousVertexes = Arrays.copyOf(previousVertexes, capacity);
+
+        // the table stays at most half full
+        table = new int[capacity * 2];
+        for (int id = 0; id < size; id++) {
+            insertIntoTable(id);
+        }
+    }
+
+    Vertex<T> getVertex(int id) {
+        return vertexes[id];
+    }
+
+    BigDecimal getSumOfWeights(int id) {
+        return sumsOfWeights[id];
+    }
+
+    int getPreviousVertexId(int id) {
+        return previousVertexes[id];
+    }
+
+    /**
+     * An internal helper method that stores a shorter path to the vertex.
+     * @param id id of the vertex
+     * @param sumOfWeights sum of weights of the path
+     * @param previousId id of the vertex that comes just before the vertex in the path, {@code -1} if there is none
+     */
+    void update(int id, BigDecimal sumOfWeights, int previousId) {
+        sumsOfWeights[id] = sumOfWeights;
+        previousVertexes[id] = previousId;
+    }
+
+    /**
+     * An internal helper method that creates the {@link VertexResult} of the vertex, rebuilding its path by walking
+     * back through the previous vertexes.
+     */
+    VertexResult<T> getResult(int id) {
+        LinkedList<Vertex<T>> pathToVertex = new LinkedList<>();
+        for (int previous = previousVertexes[id]; previous != -1; previous = previousVertexes[previous]) {
+            pathToVertex.addFirst(vertexes[previous]);
+        }
+        Vertex<T> previousVertex = pathToVertex.isEmpty() ? null : pathToVertex.getLast();
+        return new VertexResult<>(vertexes[id], previousVertex, sumsOfWeights[id], pathToVertex);
+    }
+
+    /**
+     * An internal helper method that removes every vertex whose id is not in the set and marks the tree as not
+     * complete. Previous vertexes of the remaining vertexes must remain as well.
+     */
+    void retainOnly(BitSet ids) {
+        int[] newIds = new int[size];
+        int newSize = 0;
+        for (int id = 0; id < size; id++) {
+            if (ids.get(id)) {
+                newIds[id] = newSize;
+                vertexes[newSize] = vertexes[id];
+                sumsOfWeights[newSize] = sumsOfWeights[id];
+                previousVertexes[newSize] = previousVertexes[id];
+                newSize++;
+            }
+        }
+        for (int id = 0; id < newSize; id++) {
+            if (previousVertexes[id] != -1) {
+                previousVertexes[id] = newIds[previousVertexes[id]];
+            }
+        }
+        Arrays.fill(vertexes, newSize, size, null);
+        Arrays.fill(sumsOfWeights, newSize, size, null);
+        size = newSize;
+
+        Arrays.fill(table, 0);
+        for (int id = 0; id < size; id++) {
+            insertIntoTable(id);
+        }
+        complete = false;
+    }
+
+    /**
+     * @return {@code true} if the search that created the tree has found every reachable vertex, {@code false} if it
+     * was stopped earlier by its {@link SolveOptions}
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return getVertexId(key) != -1;
+    }
+
+    @Override
+    public VertexResult<T> get(Object key) {
+        int id = getVertexId(key);
+        return (id == -1) ? null : getResult(id);
+    }
+
+    @Override
+    public Set<Entry<Vertex<T>, VertexResult<T>>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    private class EntrySet extends AbstractSet<Entry<Vertex<T>, VertexResult<T>>> {
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Iterator<Entry<Vertex<T>, VertexResult<T>>> iterator() {
+            return new Iterator<>() {
+                private int nextId = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return nextId < size;
+                }
+
+                @Override
+                public Entry<Vertex<T>, VertexResult<T>> next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    int id = nextId++;
+                    return new SimpleImmutableEntry<>(vertexes[id], getResult(id));
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package ml.echelon133.graph;
+
+import java.time.Duration;
+
+/**
+ * Limits of a single search of {@link ShortestPathSolver#solveStartingFrom(Vertex, SolveOptions)}. A search that
+ * exceeds any of its limits stops and returns the vertexes that it has already visited, in a
+ * {@link ShortestPathTree} that is not complete ({@link ShortestPathTree#isComplete()}).
+ *
+ * Instances are immutable, every {@code with} method returns a copy with one limit changed, so a single instance can
+ * be shared by many searches. {@link #UNLIMITED} has no limits.
+ */
+public final class SolveOptions {
+
+    // the clock is read only every this many visited vertexes, because reading it is much slower than a visit
+    static final int DEADLINE_CHECK_INTERVAL = 64;
+
+    /**
+     * Options without any limits.
+     */
+    public static final SolveOptions UNLIMITED = new SolveOptions(Long.MAX_VALUE, false, 0L, null);
+
+    private long maxVisitedVertexes;
+    private boolean hasDeadline;
+    private long deadlineNanos;
+    private CancellationToken cancellationToken;
+
+    private SolveOptions(long maxVisitedVertexes, boolean hasDeadline, long deadlineNanos,
+                         CancellationToken cancellationToken) {
+        this.maxVisitedVertexes = maxVisitedVertexes;
+        this.hasDeadline = hasDeadline;
+        this.deadlineNanos = deadlineNanos;
+        this.cancellationToken = cancellationToken;
+    }
+
+    /**
+     * @param maxVisitedVertexes the maximum number of vertexes whose shortest paths are found (the start vertex
+     *                           included)
+     * @return Copy of these options with the limit of visited vertexes
+     * @throws IllegalArgumentException if {@code maxVisitedVertexes} is not positive
+     */
+    public SolveOptions withMaxVisitedVertexes(long maxVisitedVertexes) throws IllegalArgumentException {
+        if (maxVisitedVertexes <= 0) {
+            throw new IllegalArgumentException("Maximum number of visited vertexes must be positive");
+        }
+        return new SolveOptions(maxVisitedVertexes, hasDeadline, deadlineNanos, cancellationToken);
+    }
+
+    /**
+     * @param deadlineNanos value of {@link System#nanoTime()} after which the search stops
+     * @return Copy of these options with the deadline
+     */
+    public SolveOptions withDeadline(long deadlineNanos) {
+        return new SolveOptions(maxVisitedVertexes, true, deadlineNanos, cancellationToken);
+    }
+
+    /**
+     * @param timeout time after which the search stops, counted from the call of this method
+     * @return Copy of these options with the deadline
+     */
+    public SolveOptions withTimeout(Duration timeout) {
+        return withDeadline(System.nanoTime() + timeout.toNanos());
+    }
+
+    /**
+     * @param cancellationToken token whose cancellation stops the search
+     * @return Copy of these options with the token
+     */
+    public SolveOptions withCancellationToken(CancellationToken cancellationToken) {
+        return new SolveOptions(maxVisitedVertexes, hasDeadline, deadlineNanos, cancellationToken);
+    }
+
+    /**
+     * @return The maximum number of visited vertexes ({@code Long.MAX_VALUE} if there is no limit)
+     */
+    public long getMaxVisitedVertexes() {
+        return maxVisitedVertexes;
+    }
+
+    /**
+     * @return {@code true} if the options have a deadline
+     */
+    public boolean hasDeadline() {
+        return hasDeadline;
+    }
+
+    /**
+     * @return The deadline as a value of {@link System#nanoTime()}, meaningful only if {@link #hasDeadline()}
+     */
+    public long getDeadlineNanos() {
+        return deadlineNanos;
+    }
+
+    /**
+     * @return The cancellation token or {@code null} if there is none
+     */
+    public CancellationToken getCancellationToken() {
+        return cancellationToken;
+    }
+
+    /**
+     * An internal helper method that checks whether the search has to stop before visiting the next vertex.
+     * @param visitedVertexes number of vertexes that the search has already visited
+     */
+    boolean isExceeded(long visitedVertexes) {
+        if (visitedVertexes >= maxVisitedVertexes) {
+            return true;
+        }
+        if (cancellationToken != null && cancellationToken.isCancelled()) {
+            return true;
+        }
+        return hasDeadline && visitedVertexes % DEADLINE_CHECK_INTERVAL == 0 && System.nanoTime() - deadlineNanos > 0;
+    }
+}
@@ -1,27 +1,50 @@
 package ml.echelon133.graph;
 
 import java.math.BigDecimal;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.Comparator;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.RandomAccess;
 
 /**
  * Concrete Vertex class. Instances of this class represent a vertex that can be added to a graph and then connected
  * with other vertexes using edges.
+ *
+ * Edges of the vertex are stored in a growable array. Every edge remembers its position in the arrays of its vertexes,
+ * so removing an edge moves the last edge into its place instead of shifting all edges after it. Because of that,
+ * removing an edge changes the order of the remaining edges.
  * @param <T> type that is going to be used to represent weight values of edges in the graph
  */
 public class Vertex<T extends Number & Comparable<T>> {
+
+    private static final int INITIAL_CAPACITY = 4;
+
     private String name;
-    private List<Edge<T>> edges;
+    private Edge<T>[] edges;
+    private int edgeCount;
+    private EdgeList edgeList = new EdgeList();
 
     /**
      * @param name Name identifier of the vertex. If we want to have many vertexes in our graph we need to make sure
      *             that the name is unique, otherwise we won't be able to add that vertex to the graph
      */
     public Vertex(String name) {
+        this(name, 0);
+    }
+
+    /**
+     * Creates a vertex whose array of edges has the given capacity, used when the number of edges of the vertex is
+     * known up front (see {@link GraphBuilder}).
+     * @param name Name identifier of the vertex
+     * @param expectedEdgeCount The initial capacity of the array of edges
+     */
+    @SuppressWarnings("unchecked")
+    Vertex(String name, int expectedEdgeCount) {
         this.name = name;
-        this.edges = new LinkedList<>();
+        this.edges = (Edge<T>[]) new Edge[expectedEdgeCount];
     }
 
     /**
@@ -32,11 +55,13 @@ public class Vertex<T extends Number & Comparable<T>> {
     }
 
     /**
-     * A method that returns a list of all of the edges in which this vertex is the source vertex
-     * @return a list of the edges in which this vertex is the source vertex
+     * A method that returns a list of all of the edges in which this vertex is the source vertex, and of all of the
+     * undirected edges that contain this vertex
+     * @return an unmodifiable view of the edges that can be traversed from this vertex. It reflects later changes of
+     * the edges of this vertex
      */
     public List<Edge<T>> getEdges() {
-        return edges;
+        return edgeList;
     }
 
     /**
@@ -47,9 +72,9 @@ public class Vertex<T extends Number & Comparable<T>> {
      */
     public BigDecimal getWeightTo(Vertex<T> dest) throws IllegalArgumentException {
         // find edge from this vertex to dest vertex with lowest weight
-        Optional<Edge<T>> lowestWeightEdge = edges
+        Optional<Edge<T>> lowestWeightEdge = edgeList
                 .stream()
-                .filter(e -> e.getDestination().equals(dest))
+                .filter(e -> e.getOppositeVertex(this).equals(dest))
                 .min(Comparator.comparing(Edge<T>::getWeight));
 
         if (lowestWeightEdge.isPresent()) {
@@ -61,11 +86,19 @@ public class Vertex<T extends Number & Comparable<T>> {
     }
 
     /** A method that adds an edge to this vertex's list of edges. That list should store only the edges in which our vertex is
-     * the source vertex.
+     * the source vertex, or undirected edges that contain our vertex. Edges of a vertex that belongs to a graph should
+     * be added through {@link Graph#addEdge(Edge)}, which also changes the version of the graph (see
+     * {@link Graph#getVersion()}).
      * @param e A standalone edge that has this vertex as its source (i.e. starts at this vertex)
      */
     public void addEdge(Edge<T> e) {
-        edges.add(e);
+        if (edgeCount == edges.length) {
+            edges = Arrays.copyOf(edges, Math.max(INITIAL_CAPACITY, edgeCount * 2));
+        }
+        edges[edgeCount] = e;
+        setPosition(e, edgeCount);
+        edgeCount++;
+        edgeList.changed();
     }
 
     /**
@@ -74,15 +107,78 @@ public class Vertex<T extends Number & Comparable<T>> {
      * @param weight The weight value of the new edge
      */
     public void addEdge(Vertex<T> dest, T weight) {
-        Edge<T> e = new Edge<>(this, dest, weight);
-        edges.add(e);
+        addEdge(new Edge<>(this, dest, weight));
     }
 
     /**
-     * A method that removes a specific edge from the list of edges that start at this vertex.
+     * A method that removes a specific edge from the list of edges that start at this vertex. The last edge of the
+     * list takes the place of the removed edge. Edges of a vertex that belongs to a graph should be removed through
+     * {@link Graph#removeEdge(Edge)}, which also changes the version of the graph (see {@link Graph#getVersion()}).
      * @param e The edge to remove
      */
     public void removeEdge(Edge<T> e) {
-        edges.remove(e);
+        int position = getPosition(e);
+        if (position == -1) {
+            return;
+        }
+        edgeCount--;
+        if (position != edgeCount) {
+            edges[position] = edges[edgeCount];
+            setPosition(edges[position], position);
+        }
+        edges[edgeCount] = null;
+        setPosition(e, -1);
+        edgeList.changed();
+    }
+
+    /**
+     * An internal helper method that finds the position of the edge in the array of edges. The position remembered by
+     * the edge is checked first, so the array is searched only if the edge was added to this vertex in an unusual way
+     * (e.g. to a vertex that is neither its source nor its destination).
+     * @return position of the edge or {@code -1} if this vertex does not have the edge
+     */
+    private int getPosition(Edge<T> e) {
+        int position = (e.getSource() == this) ? e.sourcePosition : e.destinationPosition;
+        if (position >= 0 && position < edgeCount && edges[position] == e) {
+            return position;
+        }
+        for (int i = 0; i < edgeCount; i++) {
+            if (edges[i] == e) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void setPosition(Edge<T> e, int position) {
+        if (e.getSource() == this) {
+            e.sourcePosition = position;
+        } else {
+            e.destinationPosition = position;
+        }
+    }
+
+    /**
+     * Read-only list view of the array of edges.
+     */
+    private class EdgeList extends AbstractList<Edge<T>> implements RandomAccess {
+
+        /**
+         * Makes iterators that were created before a change of the edges fail fast.
+         */
+        void changed() {
+            modCount++;
+        }
+
+        @Override
+        public Edge<T> get(int index) {
+            Objects.checkIndex(index, edgeCount);
+            return edges[index];
+        }
+
+        @Override
+        public int size() {
+            return edgeCount;
+        }
     }
 }
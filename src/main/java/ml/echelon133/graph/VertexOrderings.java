@@ -0,0 +1,182 @@
+package ml.echelon133.graph;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Helper class that computes vertex orderings used by {@link CompactGraph} reordering methods. Every method returns
+ * an array in which element {@code i} is the current id of the vertex that should get id {@code i}.
+ *
+ * Orderings based on neighborhood treat every edge as undirected, because for memory locality it does not matter in
+ * which direction an edge is followed.
+ */
+class VertexOrderings {
+
+    private VertexOrderings() {
+    }
+
+    /**
+     * Breadth-first order. Every connected component starts at its vertex with the lowest id.
+     */
+    static int[] breadthFirst(IndexedGraph<?> graph) {
+        int[][] neighbors = undirectedNeighbors(graph);
+        int[] order = new int[neighbors.length];
+        boolean[] queued = new boolean[neighbors.length];
+        int orderSize = 0;
+
+        for (int root = 0; root < neighbors.length; root++) {
+            if (!queued[root]) {
+                queued[root] = true;
+                order[orderSize++] = root;
+                orderSize = visitBreadthFirst(neighbors, order, queued, orderSize - 1, orderSize);
+            }
+        }
+        return order;
+    }
+
+    /**
+     * Reverse Cuthill-McKee order. Every connected component starts at its vertex with the lowest degree and
+     * neighbors of a vertex are queued in order of increasing degree. The whole order is then reversed.
+     */
+    static int[] reverseCuthillMcKee(IndexedGraph<?> graph) {
+        int[][] neighbors = undirectedNeighbors(graph);
+        int vertexCount = neighbors.length;
+        Comparator<Integer> byDegree = Comparator.comparingInt((Integer v) -> neighbors[v].length).thenComparingInt(v -> v);
+
+        for (int[] vertexNeighbors : neighbors) {
+            int[] sorted = Arrays.stream(vertexNeighbors).boxed().sorted(byDegree).mapToInt(Integer::intValue).toArray();
+            System.arraycopy(sorted, 0, vertexNeighbors, 0, sorted.length);
+        }
+        int[] roots = IntStream.range(0, vertexCount).boxed().sorted(byDegree).mapToInt(Integer::intValue).toArray();
+
+        int[] order = new int[vertexCount];
+        boolean[] queued = new boolean[vertexCount];
+        int orderSize = 0;
+        for (int root : roots) {
+            if (!queued[root]) {
+                queued[root] = true;
+                order[orderSize++] = root;
+                orderSize = visitBreadthFirst(neighbors, order, queued, orderSize - 1, orderSize);
+            }
+        }
+
+        for (int i = 0, j = vertexCount - 1; i < j; i++, j--) {
+            int tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
+        return order;
+    }
+
+    /**
+     * Order of vertexes along the Hilbert space-filling curve, so vertexes that are close to each other in the plane
+     * get close ids.
+     */
+    static <T extends Number & Comparable<T>> int[] hilbertCurve(IndexedGraph<T> graph,
+                                                                 ToDoubleFunction<Vertex<T>> x,
+                                                                 ToDoubleFunction<Vertex<T>> y) {
+        int vertexCount = graph.getVertexCount();
+        double[] xs = new double[vertexCount];
+        double[] ys = new double[vertexCount];
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int v = 0; v < vertexCount; v++) {
+            xs[v] = x.applyAsDouble(graph.getVertex(v));
+            ys[v] = y.applyAsDouble(graph.getVertex(v));
+            minX = Math.min(minX, xs[v]);
+            minY = Math.min(minY, ys[v]);
+            maxX = Math.max(maxX, xs[v]);
+            maxY = Math.max(maxY, ys[v]);
+        }
+
+        // coordinates are scaled to a 2^16 x 2^16 grid
+        int gridSize = 1 << 16;
+        double scaleX = (maxX > minX) ? (gridSize - 1) / (maxX - minX) : 0.0;
+        double scaleY = (maxY > minY) ? (gridSize - 1) / (maxY - minY) : 0.0;
+        long[] curveIndexes = new long[vertexCount];
+        for (int v = 0; v < vertexCount; v++) {
+            int gridX = (int) ((xs[v] - minX) * scaleX);
+            int gridY = (int) ((ys[v] - minY) * scaleY);
+            curveIndexes[v] = hilbertIndex(gridSize, gridX, gridY);
+        }
+
+        return IntStream.range(0, vertexCount).boxed()
+                .sorted(Comparator.comparingLong((Integer v) -> curveIndexes[v]).thenComparingInt(v -> v))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    /**
+     * Distance of the (x, y) point along the Hilbert curve that fills a square grid.
+     * Algorithm ref: https://en.wikipedia.org/wiki/Hilbert_curve
+     */
+    private static long hilbertIndex(int gridSize, int x, int y) {
+        long index = 0;
+        for (int s = gridSize / 2; s > 0; s /= 2) {
+            int rx = (x & s) > 0 ? 1 : 0;
+            int ry = (y & s) > 0 ? 1 : 0;
+            index += (long) s * s * ((3 * rx) ^ ry);
+
+            // rotate the quadrant
+            if (ry == 0) {
+                if (rx == 1) {
+                    x = s - 1 - x;
+                    y = s - 1 - y;
+                }
+                int tmp = x;
+                x = y;
+                y = tmp;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Visits vertexes in breadth-first order, treating the part of {@code order} between {@code head} and
+     * {@code orderSize} as the queue.
+     * @return The new size of the order
+     */
+    private static int visitBreadthFirst(int[][] neighbors, int[] order, boolean[] queued, int head, int orderSize) {
+        while (head < orderSize) {
+            int v = order[head++];
+            for (int neighbor : neighbors[v]) {
+                if (!queued[neighbor]) {
+                    queued[neighbor] = true;
+                    order[orderSize++] = neighbor;
+                }
+            }
+        }
+        return orderSize;
+    }
+
+    /**
+     * Neighbor lists of every vertex, where a neighbor is connected by an edge in any direction.
+     */
+    private static int[][] undirectedNeighbors(IndexedGraph<?> graph) {
+        int vertexCount = graph.getVertexCount();
+        int[] degrees = new int[vertexCount];
+        for (int v = 0; v < vertexCount; v++) {
+            int source = v;
+            graph.forEachEdge(v, (edgeId, dest, weight) -> {
+                degrees[source]++;
+                degrees[dest]++;
+            });
+        }
+
+        int[][] neighbors = new int[vertexCount][];
+        for (int v = 0; v < vertexCount; v++) {
+            neighbors[v] = new int[degrees[v]];
+        }
+        int[] filled = new int[vertexCount];
+        for (int v = 0; v < vertexCount; v++) {
+            int source = v;
+            graph.forEachEdge(v, (edgeId, dest, weight) -> {
+                neighbors[source][filled[source]++] = dest;
+                neighbors[dest][filled[dest]++] = source;
+            });
+        }
+        return neighbors;
+    }
+}
@@ -24,6 +24,16 @@ public class VertexResult<T extends Number & Comparable<T>> {
         this.pathToVertex = new LinkedList<>();
     }
 
+    /**
+     * Creates a result that is already computed (e.g. by a {@link ShortestPathTree}).
+     */
+    VertexResult(Vertex<T> sourceVertex, Vertex<T> previousVertex, BigDecimal sumOfWeights, LinkedList<Vertex<T>> pathToVertex) {
+        this.sourceVertex = sourceVertex;
+        this.previousVertex = previousVertex;
+        this.sumOfWeights = sumOfWeights;
+        this.pathToVertex = pathToVertex;
+    }
+
     /** Get the vertex that this {@link VertexResult} describes
      * @return The {@code sourceVertex}
      */
@@ -11,6 +11,7 @@ public class WeightedGraph<T extends Number & Comparable<T>> implements Graph<T>
     private List<Vertex<T>> vertexes;
     private Map<String, Vertex<T>> vertexHelperMap;
     private List<Edge<T>> edges;
+    private volatile long version;
 
     public WeightedGraph() {
         vertexes = new ArrayList<>();
@@ -18,6 +19,18 @@ public class WeightedGraph<T extends Number & Comparable<T>> implements Graph<T>
         vertexHelperMap = new HashMap<>();
     }
 
+    /**
+     * Creates a graph from vertexes and edges that were already validated and connected (see {@link GraphBuilder}).
+     */
+    WeightedGraph(List<Vertex<T>> vertexes, List<Edge<T>> edges) {
+        this.vertexes = vertexes;
+        this.edges = edges;
+        this.vertexHelperMap = new HashMap<>(Math.max(16, (int) (vertexes.size() / 0.75f) + 1));
+        for (Vertex<T> v : vertexes) {
+            vertexHelperMap.put(v.getName(), v);
+        }
+    }
+
     @Override
     public List<Vertex<T>> getVertexes() {
         return vertexes;
@@ -36,6 +49,7 @@ public class WeightedGraph<T extends Number & Comparable<T>> implements Graph<T>
         if (!vertexHelperMap.containsKey(v.getName())) {
             vertexes.add(v);
             vertexHelperMap.put(v.getName(), v);
+            version++;
         } else {
             throw new IllegalArgumentException("Vertex with that name already belongs to this graph");
         }
@@ -43,11 +57,19 @@ public class WeightedGraph<T extends Number & Comparable<T>> implements Graph<T>
 
     @Override
     public void removeVertex(Vertex<T> v) {
-        // Remove every edge from the graph that contains removed vertex
-        this.edges.removeIf(edge -> edge.isVertexInEdge(v));
+        // Remove every edge from the graph that contains removed vertex, also from the vertexes on its other end,
+        // which would otherwise still traverse it (e.g. an undirected edge or a directed edge that leads to v)
+        this.edges.removeIf(edge -> {
+            if (edge.isVertexInEdge(v)) {
+                detachEdge(edge);
+                return true;
+            }
+            return false;
+        });
 
         vertexes.remove(v);
         vertexHelperMap.remove(v.getName());
+        version++;
     }
 
     @Override
@@ -64,6 +86,13 @@ public class WeightedGraph<T extends Number & Comparable<T>> implements Graph<T>
         // The actual shortest path algorithm takes info about nearest vertexes from the source vertex.
         // Without the line below our algorithm will not 'see' any edges.
         source.addEdge(e);
+
+        // an undirected edge can also be traversed from its destination, but a loop is stored only once
+        Vertex<T> destination = e.getDestination();
+        if (!e.isDirected() && destination != source) {
+            destination.addEdge(e);
+        }
+        version++;
     }
 
     @Override
@@ -74,16 +103,36 @@ public class WeightedGraph<T extends Number & Comparable<T>> implements Graph<T>
         this.addEdge(e);
     }
 
+    @Override
+    public void addUndirectedEdge(Vertex<T> v1, Vertex<T> v2, T weight) throws IllegalArgumentException {
+        this.addEdge(new Edge<>(v1, v2, weight, false));
+    }
+
     @Override
     public void removeEdge(Edge<T> e) {
         edges.remove(e);
+        detachEdge(e);
+        version++;
+    }
 
+    /**
+     * Removes the edge from the vertexes that can traverse it.
+     */
+    private void detachEdge(Edge<T> e) {
         Vertex<T> source = e.getSource();
         source.removeEdge(e);
+        if (!e.isDirected()) {
+            e.getDestination().removeEdge(e);
+        }
     }
 
     @Override
     public Vertex<T> findVertex(String vName) {
         return vertexHelperMap.get(vName);
     }
+
+    @Override
+    public long getVersion() {
+        return version;
+    }
 }
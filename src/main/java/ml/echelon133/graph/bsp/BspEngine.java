@@ -0,0 +1,216 @@
+package ml.echelon133.graph.bsp;
+
+import ml.echelon133.graph.CompactGraph;
+import ml.echelon133.graph.Graph;
+import ml.echelon133.graph.IndexedGraph;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+/**
+ * Engine that runs a {@link VertexProgram} on every vertex of an {@link IndexedGraph} in bulk synchronous parallel
+ * supersteps (like Pregel). Vertex ids are split into ranges, called partitions, and in every superstep each
+ * partition is computed by a single worker of the pool, so the values of a partition are only changed by one thread
+ * at a time.
+ *
+ * Every partition has a mailbox with one slot per vertex. A message is combined with the slot of its destination
+ * (by keeping the minimum) with a compare-and-set loop, so workers never wait for each other while sending messages,
+ * and a vertex receives at most one message per superstep no matter how many were sent to it.
+ *
+ * Programs that find all shortest paths need about as many supersteps as the number of edges on the longest of
+ * those paths, so the engine is suited for graphs with a low diameter.
+ * @param <T> type of the value that represents weights of edges in the graph
+ */
+public class BspEngine<T extends Number & Comparable<T>> {
+
+    private static final long NO_MESSAGE = Double.doubleToRawLongBits(Double.POSITIVE_INFINITY);
+
+    /**
+     * A range of vertex ids with its mailboxes. Mailboxes of the current and the next superstep are swapped after
+     * every superstep.
+     */
+    static class Partition {
+        final int start;
+        final int end;
+        final boolean[] halted;
+        AtomicLongArray inbox;
+        AtomicLongArray nextInbox;
+        long sentMessages;
+
+        Partition(int start, int end) {
+            this.start = start;
+            this.end = end;
+            this.halted = new boolean[end - start];
+            this.inbox = createMailbox(end - start);
+            this.nextInbox = createMailbox(end - start);
+        }
+
+        private static AtomicLongArray createMailbox(int size) {
+            AtomicLongArray mailbox = new AtomicLongArray(size);
+            for (int i = 0; i < size; i++) {
+                mailbox.set(i, NO_MESSAGE);
+            }
+            return mailbox;
+        }
+    }
+
+    private IndexedGraph<T> graph;
+    private ForkJoinPool pool;
+    private int partitionSize;
+    private Partition[] partitions;
+    double[] values;
+
+    /**
+     * Creates an engine that works on a {@link CompactGraph} snapshot of the graph and uses one partition per worker
+     * of the common {@link ForkJoinPool}.
+     * @param graph graph on which programs are run
+     */
+    public BspEngine(Graph<T> graph) {
+        this(CompactGraph.of(graph), ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    /**
+     * @param graph graph on which programs are run
+     * @param pool pool whose workers compute the partitions
+     * @param partitionCount number of partitions. There are never more partitions than vertexes
+     * @throws IllegalArgumentException if {@code partitionCount} is not positive
+     */
+    public BspEngine(IndexedGraph<T> graph, ForkJoinPool pool, int partitionCount) throws IllegalArgumentException {
+        if (partitionCount <= 0) {
+            throw new IllegalArgumentException("Number of partitions must be positive");
+        }
+        this.graph = graph;
+        this.pool = pool;
+
+        int vertexCount = graph.getVertexCount();
+        this.partitionSize = Math.max(1, (vertexCount + partitionCount - 1) / partitionCount);
+        int actualPartitionCount = (vertexCount + partitionSize - 1) / partitionSize;
+        this.partitions = new Partition[actualPartitionCount];
+        for (int i = 0; i < actualPartitionCount; i++) {
+            partitions[i] = new Partition(i * partitionSize, Math.min(vertexCount, (i + 1) * partitionSize));
+        }
+    }
+
+    /**
+     * @return The graph on which programs are run. Results of {@link #run(VertexProgram)} are indexed by its vertex ids
+     */
+    public IndexedGraph<T> getGraph() {
+        return graph;
+    }
+
+    /**
+     * A method that runs the program until every vertex has voted to halt and no messages are left.
+     * @param program program to run
+     * @return The final values of vertexes, indexed by vertex ids
+     */
+    public double[] run(VertexProgram program) {
+        return run(program, Integer.MAX_VALUE);
+    }
+
+    /**
+     * A method that runs the program until every vertex has voted to halt and no messages are left, or until the
+     * maximum number of supersteps is reached. Only one program can be run by an engine at a time.
+     * @param program program to run
+     * @param maxSupersteps maximum number of supersteps
+     * @return The values of vertexes after the last superstep, indexed by vertex ids
+     * @throws IllegalArgumentException if {@code maxSupersteps} is not positive
+     */
+    public synchronized double[] run(VertexProgram program, int maxSupersteps) throws IllegalArgumentException {
+        if (maxSupersteps <= 0) {
+            throw new IllegalArgumentException("Maximum number of supersteps must be positive");
+        }
+        values = new double[graph.getVertexCount()];
+        for (int v = 0; v < values.length; v++) {
+            values[v] = program.getInitialValue(v);
+        }
+        for (Partition partition : partitions) {
+            Arrays.fill(partition.halted, false);
+        }
+
+        try {
+            for (int superstep = 0; superstep < maxSupersteps; superstep++) {
+                int currentSuperstep = superstep;
+                // joining the task is the barrier between supersteps
+                pool.submit(() -> IntStream.range(0, partitions.length).parallel()
+                        .forEach(p -> computePartition(partitions[p], program, currentSuperstep))).join();
+
+                long sentMessages = 0;
+                boolean allHalted = true;
+                for (Partition partition : partitions) {
+                    sentMessages += partition.sentMessages;
+                    allHalted &= isHalted(partition);
+                    AtomicLongArray delivered = partition.inbox;
+                    partition.inbox = partition.nextInbox;
+                    partition.nextInbox = delivered;
+                }
+                if (sentMessages == 0 && allHalted) {
+                    break;
+                }
+            }
+            return values;
+        } finally {
+            // messages that were not delivered before maxSupersteps are dropped, so the next run starts clean
+            for (Partition partition : partitions) {
+                for (int i = 0; i < partition.inbox.length(); i++) {
+                    partition.inbox.set(i, NO_MESSAGE);
+                    partition.nextInbox.set(i, NO_MESSAGE);
+                }
+            }
+            values = null;
+        }
+    }
+
+    private static boolean isHalted(Partition partition) {
+        for (boolean halted : partition.halted) {
+            if (!halted) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void computePartition(Partition partition, VertexProgram program, int superstep) {
+        VertexContext context = new VertexContext(this, partition);
+        partition.sentMessages = 0;
+        for (int i = 0; i < partition.halted.length; i++) {
+            long messageBits = partition.inbox.get(i);
+            boolean hasMessage = messageBits != NO_MESSAGE;
+            if (partition.halted[i] && !hasMessage) {
+                continue;
+            }
+            if (hasMessage) {
+                partition.inbox.set(i, NO_MESSAGE);
+            }
+            // a message wakes the vertex up
+            partition.halted[i] = false;
+            context.moveTo(partition.start + i, superstep);
+            program.compute(context, Double.longBitsToDouble(messageBits));
+        }
+    }
+
+    /**
+     * An internal helper method that combines the message with the message that is already waiting in the mailbox of
+     * the next superstep. Infinite and {@code NaN} messages are ignored.
+     */
+    void sendMessage(Partition sender, int destination, double message) {
+        if (destination < 0 || destination >= graph.getVertexCount()) {
+            throw new IllegalArgumentException("Message destination does not belong to the graph");
+        }
+        if (!(message < Double.POSITIVE_INFINITY)) {
+            // the mailbox could not tell such a message apart from no message at all
+            return;
+        }
+        sender.sentMessages++;
+        Partition receiver = partitions[destination / partitionSize];
+        int slot = destination - receiver.start;
+        long messageBits = Double.doubleToRawLongBits(message);
+
+        long currentBits = receiver.nextInbox.get(slot);
+        while (message < Double.longBitsToDouble(currentBits)
+                && !receiver.nextInbox.compareAndSet(slot, currentBits, messageBits)) {
+            currentBits = receiver.nextInbox.get(slot);
+        }
+    }
+}
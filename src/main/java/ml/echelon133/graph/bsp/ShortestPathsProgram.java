@@ -0,0 +1,59 @@
+package ml.echelon133.graph.bsp;
+
+import java.util.Arrays;
+
+/**
+ * Built-in {@link VertexProgram} that finds the sum of weights of the shortest path from the closest of the source
+ * vertexes to every vertex. With a single source it finds single source shortest paths.
+ *
+ * Every vertex sends its distance increased by the weight of the edge to its neighbours whenever its distance gets
+ * shorter. Unreachable vertexes keep {@code Double.POSITIVE_INFINITY}.
+ */
+public final class ShortestPathsProgram implements VertexProgram {
+
+    private int[] sortedSources;
+
+    private ShortestPathsProgram(int[] sources) {
+        this.sortedSources = sources.clone();
+        Arrays.sort(sortedSources);
+    }
+
+    /**
+     * @param source id of the vertex from which every path starts
+     * @return The program that finds the shortest paths from the source
+     */
+    public static ShortestPathsProgram singleSource(int source) {
+        return new ShortestPathsProgram(new int[] {source});
+    }
+
+    /**
+     * @param sources ids of the vertexes from which paths start
+     * @return The program that finds the shortest path from the closest source to every vertex
+     * @throws IllegalArgumentException if there are no sources
+     */
+    public static ShortestPathsProgram multiSource(int... sources) throws IllegalArgumentException {
+        if (sources.length == 0) {
+            throw new IllegalArgumentException("At least one source vertex is required");
+        }
+        return new ShortestPathsProgram(sources);
+    }
+
+    @Override
+    public double getInitialValue(int vertexId) {
+        return (Arrays.binarySearch(sortedSources, vertexId) >= 0) ? 0.0 : Double.POSITIVE_INFINITY;
+    }
+
+    @Override
+    public void compute(VertexContext context, double message) {
+        boolean improved = message < context.getValue();
+        if (improved) {
+            context.setValue(message);
+        }
+        // sources start sending in the first superstep
+        if (improved || (context.getSuperstep() == 0 && context.getValue() == 0.0)) {
+            double distance = context.getValue();
+            context.forEachEdge((edgeId, destination, weight) -> context.sendMessage(destination, distance + weight));
+        }
+        context.voteToHalt();
+    }
+}
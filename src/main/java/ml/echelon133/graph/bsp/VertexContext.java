@@ -0,0 +1,71 @@
+package ml.echelon133.graph.bsp;
+
+import ml.echelon133.graph.IndexedGraph;
+
+/**
+ * The vertex that is computed by a {@link VertexProgram}. A single context is reused by a partition for all of its
+ * vertexes, so it must not be kept after {@link VertexProgram#compute(VertexContext, double)} returns.
+ */
+public final class VertexContext {
+
+    private BspEngine<?> engine;
+    private BspEngine.Partition partition;
+    private int vertexId;
+    private int superstep;
+
+    VertexContext(BspEngine<?> engine, BspEngine.Partition partition) {
+        this.engine = engine;
+        this.partition = partition;
+    }
+
+    void moveTo(int vertexId, int superstep) {
+        this.vertexId = vertexId;
+        this.superstep = superstep;
+    }
+
+    /**
+     * @return The id of the computed vertex
+     */
+    public int getVertexId() {
+        return vertexId;
+    }
+
+    /**
+     * @return The number of the current superstep, starting from {@code 0}
+     */
+    public int getSuperstep() {
+        return superstep;
+    }
+
+    public double getValue() {
+        return engine.values[vertexId];
+    }
+
+    public void setValue(double value) {
+        engine.values[vertexId] = value;
+    }
+
+    /**
+     * A method that passes every edge that starts at the computed vertex to the visitor.
+     * @param visitor the visitor that receives the edges
+     */
+    public void forEachEdge(IndexedGraph.EdgeVisitor visitor) {
+        engine.getGraph().forEachEdge(vertexId, visitor);
+    }
+
+    /**
+     * A method that sends a message which is delivered in the next superstep.
+     * @param destination id of the vertex that receives the message
+     * @param message the message
+     */
+    public void sendMessage(int destination, double message) {
+        engine.sendMessage(partition, destination, message);
+    }
+
+    /**
+     * A method that deactivates the computed vertex. It becomes active again when it receives a message.
+     */
+    public void voteToHalt() {
+        partition.halted[vertexId - partition.start] = true;
+    }
+}
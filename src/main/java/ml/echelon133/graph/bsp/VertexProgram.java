@@ -0,0 +1,30 @@
+package ml.echelon133.graph.bsp;
+
+/**
+ * Program that is run by a {@link BspEngine} on every vertex of the graph, in a sequence of supersteps.
+ *
+ * In every superstep the engine calls {@link #compute(VertexContext, double)} on every vertex that is active, which
+ * means that it did not vote to halt in the previous superstep or it has received a message. Messages sent during a
+ * superstep are delivered in the next one, and all messages sent to the same vertex are combined into their minimum
+ * before they are delivered. The engine stops when every vertex has voted to halt and no messages are left.
+ */
+@FunctionalInterface
+public interface VertexProgram {
+
+    /**
+     * @param vertexId id of a vertex
+     * @return The value of the vertex before the first superstep
+     */
+    default double getInitialValue(int vertexId) {
+        return Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * A method that is called on an active vertex in every superstep. Implementations must not keep any state outside
+     * of the value of the vertex, because vertexes of different partitions are computed at the same time.
+     * @param context the vertex that is computed, through which its value can be changed and messages can be sent
+     * @param message minimum of all messages sent to the vertex in the previous superstep,
+     *                {@code Double.POSITIVE_INFINITY} if there were none
+     */
+    void compute(VertexContext context, double message);
+}
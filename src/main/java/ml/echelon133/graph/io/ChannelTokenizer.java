@@ -0,0 +1,256 @@
+package ml.echelon133.graph.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Line-based tokenizer that reads bytes from a channel into a reusable buffer. Lines and tokens are not copied, only
+ * tokens read by {@link #nextToken()} become strings, and numbers are parsed straight from the buffer.
+ */
+class ChannelTokenizer {
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private ReadableByteChannel channel;
+    // ' ' means that tokens are separated by any number of spaces and tabs
+    private byte separator;
+    private byte[] bytes = new byte[1 << 16];
+    private int dataEnd;
+    private boolean endOfInput;
+
+    private int nextLineStart;
+    private int lineEnd;
+    private int position;
+    private long lineNumber;
+
+    ChannelTokenizer(ReadableByteChannel channel, byte separator) {
+        this.channel = channel;
+        this.separator = separator;
+    }
+
+    /**
+     * Moves to the next line.
+     * @return {@code false} if there are no lines left
+     */
+    boolean nextLine() throws IOException {
+        int searchFrom = nextLineStart;
+        while (true) {
+            int newline = indexOfNewline(searchFrom);
+            if (newline != -1) {
+                position = nextLineStart;
+                lineEnd = newline;
+                nextLineStart = newline + 1;
+                break;
+            }
+            if (endOfInput) {
+                if (nextLineStart == dataEnd) {
+                    return false;
+                }
+                position = nextLineStart;
+                lineEnd = dataEnd;
+                nextLineStart = dataEnd;
+                break;
+            }
+            searchFrom = dataEnd - nextLineStart;
+            fill();
+        }
+        if (lineEnd > position && bytes[lineEnd - 1] == '\r') {
+            lineEnd--;
+        }
+        lineNumber++;
+        return true;
+    }
+
+    private int indexOfNewline(int from) {
+        for (int i = from; i < dataEnd; i++) {
+            if (bytes[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Moves the unread bytes to the beginning of the buffer and reads more bytes after them.
+     */
+    private void fill() throws IOException {
+        if (nextLineStart > 0) {
+            System.arraycopy(bytes, nextLineStart, bytes, 0, dataEnd - nextLineStart);
+            dataEnd -= nextLineStart;
+            nextLineStart = 0;
+        }
+        // a line that does not fit in the buffer makes it grow
+        if (dataEnd == bytes.length) {
+            bytes = Arrays.copyOf(bytes, bytes.length * 2);
+        }
+        int read = channel.read(ByteBuffer.wrap(bytes, dataEnd, bytes.length - dataEnd));
+        if (read == -1) {
+            endOfInput = true;
+        } else {
+            dataEnd += read;
+        }
+    }
+
+    long getLineNumber() {
+        return lineNumber;
+    }
+
+    private void skipSpaces() {
+        while (position < lineEnd && (bytes[position] == ' ' || bytes[position] == '\t')) {
+            position++;
+        }
+    }
+
+    /**
+     * @return {@code true} if the current line is empty or contains only spaces
+     */
+    boolean isBlankLine() {
+        skipSpaces();
+        return position == lineEnd;
+    }
+
+    /**
+     * @return The first byte of the next token, or {@code 0} if there are no tokens left in the line
+     */
+    byte peek() {
+        skipSpaces();
+        return (position < lineEnd) ? bytes[position] : 0;
+    }
+
+    boolean hasNextToken() {
+        return peek() != 0;
+    }
+
+    /**
+     * Finds the end of the token that starts at the current position, without trailing spaces.
+     */
+    private int tokenEnd() throws GraphFormatException {
+        skipSpaces();
+        int end = position;
+        if (separator == ' ') {
+            while (end < lineEnd && bytes[end] != ' ' && bytes[end] != '\t') {
+                end++;
+            }
+        } else {
+            while (end < lineEnd && bytes[end] != separator) {
+                end++;
+            }
+            while (end > position && (bytes[end - 1] == ' ' || bytes[end - 1] == '\t')) {
+                end--;
+            }
+        }
+        if (end == position) {
+            throw error("Missing value");
+        }
+        return end;
+    }
+
+    /**
+     * Moves past the token that ends at {@code end} and past the separator that follows it.
+     */
+    private void skipToken(int end) {
+        position = end;
+        skipSpaces();
+        if (separator != ' ' && position < lineEnd && bytes[position] == separator) {
+            position++;
+        }
+    }
+
+    String nextToken() throws GraphFormatException {
+        int end = tokenEnd();
+        String token = new String(bytes, position, end - position, StandardCharsets.UTF_8);
+        skipToken(end);
+        return token;
+    }
+
+    long nextLong() throws GraphFormatException {
+        int end = tokenEnd();
+        int i = position;
+        boolean negative = bytes[i] == '-';
+        if (negative || bytes[i] == '+') {
+            i++;
+        }
+        if (i == end || end - i > 18) {
+            throw error(String.format("Expected an integer but found '%s'", tokenAsString(end)));
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = bytes[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw error(String.format("Expected an integer but found '%s'", tokenAsString(end)));
+            }
+            value = value * 10 + digit;
+        }
+        skipToken(end);
+        return negative ? -value : value;
+    }
+
+    double nextDouble() throws GraphFormatException {
+        int end = tokenEnd();
+        double value = parseSimpleDecimal(position, end);
+        if (Double.isNaN(value)) {
+            // exponents and long mantissas are left to the JDK, which rounds them correctly
+            String token = tokenAsString(end);
+            try {
+                value = Double.parseDouble(token);
+            } catch (NumberFormatException ex) {
+                throw error(String.format("Expected a number but found '%s'", token));
+            }
+            if (!Double.isFinite(value)) {
+                // NaN, Infinity and numbers too large for a double are not valid weights
+                throw error(String.format("Expected a finite number but found '%s'", token));
+            }
+        }
+        skipToken(end);
+        return value;
+    }
+
+    /**
+     * Parses numbers like {@code -12.375} that have at most 15 digits. Such a mantissa and the power of ten are exact
+     * doubles, so a single division gives a correctly rounded result.
+     * @return The parsed number or {@code NaN} if the token has a different form
+     */
+    private double parseSimpleDecimal(int start, int end) {
+        int i = start;
+        boolean negative = bytes[i] == '-';
+        if (negative || bytes[i] == '+') {
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+        for (; i < end; i++) {
+            byte b = bytes[i];
+            if (b == '.' && fractionDigits == -1) {
+                fractionDigits = 0;
+            } else if (b >= '0' && b <= '9') {
+                mantissa = mantissa * 10 + (b - '0');
+                digits++;
+                if (fractionDigits != -1) {
+                    fractionDigits++;
+                }
+            } else {
+                return Double.NaN;
+            }
+        }
+        if (digits == 0 || digits > 15) {
+            return Double.NaN;
+        }
+        double value = (fractionDigits > 0) ? mantissa / POWERS_OF_TEN[fractionDigits] : mantissa;
+        return negative ? -value : value;
+    }
+
+    private String tokenAsString(int end) {
+        return new String(bytes, position, end - position, StandardCharsets.UTF_8);
+    }
+
+    GraphFormatException error(String msg) {
+        return new GraphFormatException(String.format("Line %d: %s", lineNumber, msg));
+    }
+}
@@ -0,0 +1,85 @@
+package ml.echelon133.graph.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writer that encodes text into a reusable buffer and writes the buffer to a channel when it is full.
+ */
+class ChannelWriter {
+
+    private WritableByteChannel channel;
+    private ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+
+    ChannelWriter(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    ChannelWriter write(String s) throws IOException {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c >= 0x80) {
+                // rare non-ASCII text is encoded by the JDK
+                return write(s.substring(i).getBytes(StandardCharsets.UTF_8));
+            }
+            ensureRemaining(1);
+            buffer.put((byte) c);
+        }
+        return this;
+    }
+
+    private ChannelWriter write(byte[] bytes) throws IOException {
+        for (int offset = 0; offset < bytes.length; ) {
+            ensureRemaining(1);
+            int length = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, length);
+            offset += length;
+        }
+        return this;
+    }
+
+    ChannelWriter write(char c) throws IOException {
+        ensureRemaining(1);
+        buffer.put((byte) c);
+        return this;
+    }
+
+    ChannelWriter write(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            return write(Long.toString(value));
+        }
+        ensureRemaining(20);
+        if (value < 0) {
+            buffer.put((byte) '-');
+            value = -value;
+        }
+        int start = buffer.position();
+        do {
+            buffer.put((byte) ('0' + value % 10));
+            value /= 10;
+        } while (value > 0);
+        // digits were written from the least significant one
+        for (int i = start, j = buffer.position() - 1; i < j; i++, j--) {
+            byte tmp = buffer.get(i);
+            buffer.put(i, buffer.get(j));
+            buffer.put(j, tmp);
+        }
+        return this;
+    }
+
+    private void ensureRemaining(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
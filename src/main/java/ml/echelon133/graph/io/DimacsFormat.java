@@ -0,0 +1,245 @@
+package ml.echelon133.graph.io;
+
+import ml.echelon133.graph.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Reader and writer of graphs in the DIMACS shortest path format ({@code .gr} files):
+ * <pre>
+ * c comment
+ * p sp [number of vertexes] [number of arcs]
+ * a [source] [destination] [weight]
+ * </pre>
+ * Vertexes are numbered from 1, and the name of a read vertex is its number. Weights are integers, so they are read
+ * as {@code long} values.
+ */
+public final class DimacsFormat {
+
+    // the number of arcs of the problem line is not trusted for more than this, the builder grows when arcs are added
+    private static final int MAX_ARC_CAPACITY_HINT = 1 << 20;
+
+    private DimacsFormat() {
+    }
+
+    /**
+     * A method that reads a DIMACS graph into a builder, so the caller can choose which graph to build.
+     * @param channel channel from which the graph is read. It is not closed
+     * @return The builder that contains all vertexes and arcs of the graph
+     * @throws IOException if the channel cannot be read
+     * @throws GraphFormatException if a line is not valid or the number of arcs differs from the problem line
+     */
+    public static GraphBuilder<Long> read(ReadableByteChannel channel) throws IOException {
+        GraphBuilderSink sink = new GraphBuilderSink();
+        read(channel, sink);
+        return sink.builder;
+    }
+
+    /**
+     * A method that reads a DIMACS file straight into an {@link OffHeapGraph}, so the graph is never stored on the heap.
+     * @param path path to the file
+     * @return The graph
+     * @throws IOException if the file cannot be read or it is not valid
+     */
+    public static OffHeapGraph readOffHeapGraph(Path path) throws IOException {
+        OffHeapGraph.Builder builder = new OffHeapGraph.Builder();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            read(channel, new ArcSink() {
+                @Override
+                public void start(int vertexCount, int arcCount) {
+                    for (long v = 1; v <= vertexCount; v++) {
+                        builder.addVertex(Long.toString(v));
+                    }
+                }
+
+                @Override
+                public void addArc(int source, int destination, long weight) {
+                    builder.addEdge(source, destination, weight);
+                }
+            });
+        }
+        return builder.build();
+    }
+
+    /**
+     * Receiver of the parsed graph, so the same parser fills builders of different graphs.
+     */
+    private interface ArcSink {
+        void start(int vertexCount, int arcCount);
+
+        void addArc(int source, int destination, long weight);
+    }
+
+    private static class GraphBuilderSink implements ArcSink {
+        private GraphBuilder<Long> builder;
+
+        @Override
+        public void start(int vertexCount, int arcCount) {
+            builder = new GraphBuilder<>(vertexCount, Math.min(arcCount, MAX_ARC_CAPACITY_HINT));
+            for (long v = 1; v <= vertexCount; v++) {
+                builder.addVertex(Long.toString(v));
+            }
+        }
+
+        @Override
+        public void addArc(int source, int destination, long weight) {
+            builder.addEdge(source, destination, weight);
+        }
+    }
+
+    private static void read(ReadableByteChannel channel, ArcSink sink) throws IOException {
+        ChannelTokenizer tokenizer = new ChannelTokenizer(channel, (byte) ' ');
+        boolean started = false;
+        long vertexCount = 0;
+        long declaredArcCount = 0;
+        long arcCount = 0;
+
+        while (tokenizer.nextLine()) {
+            if (tokenizer.isBlankLine()) {
+                continue;
+            }
+            String lineType = tokenizer.nextToken();
+            if (lineType.equals("c")) {
+                continue;
+            }
+
+            if (lineType.equals("p")) {
+                if (started) {
+                    throw tokenizer.error("Duplicate problem line");
+                }
+                tokenizer.nextToken(); // problem type, usually 'sp'
+                vertexCount = tokenizer.nextLong();
+                declaredArcCount = tokenizer.nextLong();
+                if (vertexCount < 0 || vertexCount > Integer.MAX_VALUE - 8
+                        || declaredArcCount < 0 || declaredArcCount > Integer.MAX_VALUE - 8) {
+                    throw tokenizer.error("Invalid number of vertexes or arcs");
+                }
+                sink.start((int) vertexCount, (int) declaredArcCount);
+                started = true;
+            } else if (lineType.equals("a")) {
+                if (!started) {
+                    throw tokenizer.error("Arc line before the problem line");
+                }
+                long source = tokenizer.nextLong();
+                long destination = tokenizer.nextLong();
+                long weight = tokenizer.nextLong();
+                if (source < 1 || source > vertexCount || destination < 1 || destination > vertexCount) {
+                    throw tokenizer.error("Arc contains a vertex that does not belong to the graph");
+                }
+                if (weight < 0) {
+                    throw tokenizer.error("Edge weight cannot be negative");
+                }
+                sink.addArc((int) source - 1, (int) destination - 1, weight);
+                arcCount++;
+            } else {
+                throw tokenizer.error(String.format("Unknown line type '%s'", lineType));
+            }
+            if (tokenizer.hasNextToken()) {
+                throw tokenizer.error("Too many values");
+            }
+        }
+
+        if (!started) {
+            throw new GraphFormatException("Missing problem line");
+        }
+        if (arcCount != declaredArcCount) {
+            String msg = String.format("Problem line declares %d arcs, but %d were found", declaredArcCount, arcCount);
+            throw new GraphFormatException(msg);
+        }
+    }
+
+    /**
+     * A method that reads a DIMACS file into a {@link WeightedGraph}.
+     * @param path path to the file
+     * @return The graph
+     * @throws IOException if the file cannot be read or it is not valid
+     */
+    public static WeightedGraph<Long> readGraph(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return read(channel).build();
+        }
+    }
+
+    /**
+     * A method that reads a DIMACS file into a {@link CompactGraph}, without creating a {@link Graph} first.
+     * @param path path to the file
+     * @return The graph
+     * @throws IOException if the file cannot be read or it is not valid
+     */
+    public static CompactGraph<Long> readCompactGraph(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return read(channel).buildCompact();
+        }
+    }
+
+    /**
+     * A method that writes the graph in the DIMACS format. Vertex {@code i} of {@link Graph#getVertexes()} gets number
+     * {@code i + 1}, vertex names are not written. An undirected edge is written as two arcs.
+     * @param graph graph to write
+     * @param channel channel to which the graph is written. It is not closed
+     * @throws IOException if the channel cannot be written
+     * @throws IllegalArgumentException if a weight is not an integer
+     */
+    public static void write(Graph<?> graph, WritableByteChannel channel) throws IOException, IllegalArgumentException {
+        Map<Vertex<?>, Integer> vertexIds = new IdentityHashMap<>(graph.getVertexes().size());
+        for (Vertex<?> v : graph.getVertexes()) {
+            vertexIds.put(v, vertexIds.size() + 1);
+        }
+
+        // the number of arcs is written before the arcs, and weights are validated before anything is written
+        long arcCount = 0;
+        long[] weights = new long[graph.getEdges().size()];
+        for (int i = 0; i < weights.length; i++) {
+            Edge<?> e = graph.getEdges().get(i);
+            weights[i] = toIntegerWeight(e.getWeightAsBigDecimal());
+            arcCount += (e.isDirected() || e.getSource() == e.getDestination()) ? 1 : 2;
+        }
+
+        ChannelWriter writer = new ChannelWriter(channel);
+        writer.write("p sp ").write(vertexIds.size()).write(' ').write(arcCount).write('\n');
+        for (int i = 0; i < weights.length; i++) {
+            Edge<?> e = graph.getEdges().get(i);
+            int source = vertexIds.get(e.getSource());
+            int destination = vertexIds.get(e.getDestination());
+            writeArc(writer, source, destination, weights[i]);
+            if (!e.isDirected() && source != destination) {
+                writeArc(writer, destination, source, weights[i]);
+            }
+        }
+        writer.flush();
+    }
+
+    /**
+     * A method that writes the graph to a DIMACS file (see {@link #write(Graph, WritableByteChannel)}).
+     * @param graph graph to write
+     * @param path path to the file. An existing file is replaced
+     * @throws IOException if the file cannot be written
+     * @throws IllegalArgumentException if a weight is not an integer
+     */
+    public static void write(Graph<?> graph, Path path) throws IOException, IllegalArgumentException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            write(graph, channel);
+        }
+    }
+
+    private static void writeArc(ChannelWriter writer, int source, int destination, long weight) throws IOException {
+        writer.write("a ").write(source).write(' ').write(destination).write(' ').write(weight).write('\n');
+    }
+
+    private static long toIntegerWeight(BigDecimal weight) throws IllegalArgumentException {
+        try {
+            return weight.longValueExact();
+        } catch (ArithmeticException ex) {
+            throw new IllegalArgumentException("DIMACS format supports only integer weights");
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package ml.echelon133.graph.io;
+
+import ml.echelon133.graph.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * Reader and writer of graphs stored as CSV edge lists. Every line describes one edge:
+ * <pre>
+ * source,destination,weight[,undirected]
+ * </pre>
+ * A line with only a vertex name adds a vertex without edges. Vertexes are added in the order of their first
+ * appearance. Empty lines and lines that start with {@code #} are skipped. Names are not quoted, so they cannot
+ * contain commas or line breaks, and spaces around values are ignored.
+ *
+ * Weights are read as {@code double} values.
+ */
+public final class EdgeListFormat {
+
+    private EdgeListFormat() {
+    }
+
+    /**
+     * A method that reads an edge list into a builder, so the caller can choose which graph to build.
+     * @param channel channel from which the edge list is read. It is not closed
+     * @return The builder that contains all vertexes and edges of the edge list
+     * @throws IOException if the channel cannot be read
+     * @throws GraphFormatException if a line is not valid
+     */
+    public static GraphBuilder<Double> read(ReadableByteChannel channel) throws IOException {
+        GraphBuilder<Double> builder = new GraphBuilder<>(0, 0);
+        ChannelTokenizer tokenizer = new ChannelTokenizer(channel, (byte) ',');
+
+        while (tokenizer.nextLine()) {
+            if (tokenizer.isBlankLine() || tokenizer.peek() == '#') {
+                continue;
+            }
+            int source = builder.addVertexIfAbsent(tokenizer.nextToken());
+            if (!tokenizer.hasNextToken()) {
+                continue;
+            }
+            int destination = builder.addVertexIfAbsent(tokenizer.nextToken());
+            double weight = tokenizer.nextDouble();
+            if (weight < 0) {
+                throw tokenizer.error("Edge weight cannot be negative");
+            }
+
+            boolean directed = true;
+            if (tokenizer.hasNextToken()) {
+                String direction = tokenizer.nextToken();
+                if (direction.equals("undirected")) {
+                    directed = false;
+                } else if (!direction.equals("directed")) {
+                    throw tokenizer.error(String.format("Expected 'directed' or 'undirected' but found '%s'", direction));
+                }
+            }
+            if (tokenizer.hasNextToken()) {
+                throw tokenizer.error("Too many values");
+            }
+
+            if (directed) {
+                builder.addEdge(source, destination, weight);
+            } else {
+                builder.addUndirectedEdge(source, destination, weight);
+            }
+        }
+        return builder;
+    }
+
+    /**
+     * A method that reads an edge list file into a {@link WeightedGraph}.
+     * @param path path to the edge list
+     * @return The graph
+     * @throws IOException if the file cannot be read or a line is not valid
+     */
+    public static WeightedGraph<Double> readGraph(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return read(channel).build();
+        }
+    }
+
+    /**
+     * A method that reads an edge list file into a {@link CompactGraph}, without creating a {@link Graph} first.
+     * @param path path to the edge list
+     * @return The graph
+     * @throws IOException if the file cannot be read or a line is not valid
+     */
+    public static CompactGraph<Double> readCompactGraph(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return read(channel).buildCompact();
+        }
+    }
+
+    /**
+     * A method that writes the graph as an edge list. Vertexes without edges are written first.
+     * @param graph graph to write
+     * @param channel channel to which the edge list is written. It is not closed
+     * @throws IOException if the channel cannot be written
+     * @throws IllegalArgumentException if a vertex name contains a comma or a line break
+     */
+    public static void write(Graph<?> graph, WritableByteChannel channel) throws IOException, IllegalArgumentException {
+        ChannelWriter writer = new ChannelWriter(channel);
+
+        Set<Vertex<?>> connectedVertexes = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Edge<?> e : graph.getEdges()) {
+            connectedVertexes.add(e.getSource());
+            connectedVertexes.add(e.getDestination());
+        }
+        for (Vertex<?> v : graph.getVertexes()) {
+            if (!connectedVertexes.contains(v)) {
+                writer.write(checkName(v.getName())).write('\n');
+            }
+        }
+
+        for (Edge<?> e : graph.getEdges()) {
+            writer.write(checkName(e.getSource().getName())).write(',')
+                    .write(checkName(e.getDestination().getName())).write(',');
+            Number weight = e.getWeight();
+            writer.write((weight instanceof BigDecimal) ? ((BigDecimal) weight).toPlainString() : weight.toString());
+            if (!e.isDirected()) {
+                writer.write(",undirected");
+            }
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    /**
+     * A method that writes the graph to an edge list file.
+     * @param graph graph to write
+     * @param path path to the edge list. An existing file is replaced
+     * @throws IOException if the file cannot be written
+     * @throws IllegalArgumentException if a vertex name contains a comma or a line break
+     */
+    public static void write(Graph<?> graph, Path path) throws IOException, IllegalArgumentException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            write(graph, channel);
+        }
+    }
+
+    private static String checkName(String name) throws IllegalArgumentException {
+        if (name.isBlank() || name.indexOf(',') != -1 || name.indexOf('\n') != -1 || name.indexOf('\r') != -1
+                || name.startsWith("#") || !name.strip().equals(name)) {
+            throw new IllegalArgumentException(String.format("Vertex name '%s' cannot be written in the edge list format", name));
+        }
+        return name;
+    }
+}
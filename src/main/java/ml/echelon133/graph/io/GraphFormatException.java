@@ -0,0 +1,13 @@
+package ml.echelon133.graph.io;
+
+import java.io.IOException;
+
+/**
+ * Exception thrown when the content of a graph file does not match its format.
+ */
+public class GraphFormatException extends IOException {
+
+    public GraphFormatException(String msg) {
+        super(msg);
+    }
+}
@@ -27,6 +27,11 @@ public class EdgeSerializer extends StdSerializer<Edge<?>> {
         // serializing actual weight with additional field that stores info about the type makes deserialization difficult
         // preserving the actual type does not seem crucial after considering the complexity of deserialization process
         gen.writeNumberField("weight", value.getWeightAsBigDecimal());
+
+        // edges are directed by default, so the flag is written only when it differs from the default
+        if (!value.isDirected()) {
+            gen.writeBooleanField("directed", false);
+        }
         gen.writeEndObject();
     }
 }
@@ -1,11 +1,15 @@
 package ml.echelon133.graph.json;
 
+import com.fasterxml.jackson.core.JsonLocation;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import ml.echelon133.graph.Edge;
 import ml.echelon133.graph.Graph;
 import ml.echelon133.graph.Vertex;
@@ -14,82 +18,241 @@ import ml.echelon133.graph.json.exception.*;
 
 import java.io.IOException;
 import java.math.BigDecimal;
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.Map;
+import java.util.*;
 
 /**
  * Deserializer of {@link Graph} objects.
+ *
+ * The document is read token by token, so limits set for untrusted input are checked while it is parsed, before
+ * the whole document is kept in memory. Limits are checked between tokens, so every single token (e.g. a vertex name)
+ * is buffered by the parser before it can be rejected. Documents from untrusted sources should be read through a
+ * {@link LimitedInputStream}, which stops the parser in the middle of a token ({@link GraphJsonCodec} does that).
+ *
+ * A document that contains the 'vertexes' or 'edges' field more than once is rejected (like by
+ * {@link ParallelGraphLoader}), because it is not clear which of the values describes the graph.
  */
 public class GraphDeserializer extends StdDeserializer<Graph<BigDecimal>> {
 
+    private static final Set<String> EDGE_FIELDS = Set.of("source", "destination", "weight", "directed");
+
+    private Integer maxVertexCount;
     private Integer maxEdgesCount;
+    private Integer maxNameLength;
+    private Long maxInputBytes;
 
     public GraphDeserializer(JavaType valueType) {
         super(valueType);
     }
 
     public GraphDeserializer(JavaType valueType, Integer maxEdgesCount) {
+        this(valueType, null, maxEdgesCount, null, null);
+    }
+
+    /**
+     * Every limit is optional, {@code null} means that there is no limit.
+     * @param valueType type of deserialized values
+     * @param maxVertexCount maximum number of vertexes of the graph
+     * @param maxEdgesCount maximum number of edges of the graph
+     * @param maxNameLength maximum number of characters of a vertex name. It is checked after the parser has read
+     *                      the whole name, so the memory used by a name is bounded only by the limit of the input
+     *                      stream (see {@link LimitedInputStream})
+     * @param maxInputBytes maximum size of the document, checked between tokens. Sources that do not count bytes
+     *                      (e.g. a {@code String}) count characters instead
+     */
+    public GraphDeserializer(JavaType valueType, Integer maxVertexCount, Integer maxEdgesCount,
+                             Integer maxNameLength, Long maxInputBytes) {
         super(valueType);
+        this.maxVertexCount = maxVertexCount;
         this.maxEdgesCount = maxEdgesCount;
+        this.maxNameLength = maxNameLength;
+        this.maxInputBytes = maxInputBytes;
     }
 
-    private void checkIfNodeExists(JsonNode node, String exceptionMessage) throws JsonProcessingException {
+    static void checkIfNodeExists(JsonNode node, String exceptionMessage) throws JsonProcessingException {
         if (node == null || node.isMissingNode()) {
             throw new MissingNodeException(exceptionMessage);
         }
     }
 
-    private void checkIfNodeIsArray(JsonNode node, String exceptionMessage) throws JsonProcessingException {
+    static void checkIfNodeIsArray(JsonNode node, String exceptionMessage) throws JsonProcessingException {
         if (!node.isArray()) {
             throw new NodeIsNotArrayException(exceptionMessage);
         }
     }
 
-    private void checkIfNodeIsText(JsonNode node, String exceptionMessage) throws JsonProcessingException {
+    static void checkIfNodeIsText(JsonNode node, String exceptionMessage) throws JsonProcessingException {
         if (!node.isTextual()) {
             throw new NodeIsNotTextualException(exceptionMessage);
         }
     }
 
-    private void checkIfNodeIsObject(JsonNode node, String exceptionMessage) throws JsonProcessingException {
+    static void checkIfNodeIsObject(JsonNode node, String exceptionMessage) throws JsonProcessingException {
         if (!node.isObject()) {
             throw new NodeIsNotObjectException(exceptionMessage);
         }
     }
 
-    private void checkIfNodeIsNumber(JsonNode node, String exceptionMessage) throws JsonProcessingException {
+    static void checkIfNodeIsNumber(JsonNode node, String exceptionMessage) throws JsonProcessingException {
         if (!node.isNumber()) {
             throw new NodeIsNotNumberException(exceptionMessage);
         }
     }
 
-    @Override
-    public Graph<BigDecimal> deserialize(JsonParser p, DeserializationContext ctxt) throws IOException, JsonProcessingException {
-        // we need this helper map to quickly find vertexes by their name (serialized edge refers to the vertex by its name)
-        Map<String, Vertex<BigDecimal>> vertexHelperMap = new HashMap<>();
+    static void checkIfNodeIsBoolean(JsonNode node, String exceptionMessage) throws JsonProcessingException {
+        if (!node.isBoolean()) {
+            throw new NodeIsNotBooleanException(exceptionMessage);
+        }
+    }
 
-        Graph<BigDecimal> outputGraph = new WeightedGraph<>();
+    /**
+     * Reconstructs a single element of the 'edges' array. The edge is not added to any graph.
+     * @param edgeElem element of the 'edges' array
+     * @param vertexHelperMap vertexes of the graph, by their names
+     * @return The reconstructed edge
+     * @throws JsonProcessingException if the element is not a valid edge of the graph
+     */
+    static Edge<BigDecimal> deserializeEdge(JsonNode edgeElem, Map<String, Vertex<BigDecimal>> vertexHelperMap)
+            throws JsonProcessingException {
+        checkIfNodeIsObject(edgeElem, "Edge element in 'edges' is not an object");
+
+        JsonNode sourceVertexElem = edgeElem.get("source");
+        JsonNode destinationVertexElem = edgeElem.get("destination");
+        JsonNode edgeWeightElem = edgeElem.get("weight");
+        JsonNode directedElem = edgeElem.get("directed");
+
+        checkIfNodeExists(sourceVertexElem, "Edge object does not contain 'source' field");
+        checkIfNodeExists(destinationVertexElem, "Edge object does not contain 'destination' field");
+        checkIfNodeExists(edgeWeightElem, "Edge object does not contain 'weight' field");
+
+        checkIfNodeIsText(sourceVertexElem, "Source vertex in Edge is not textual");
+        checkIfNodeIsText(destinationVertexElem, "Destination vertex in Edge is not textual");
+
+        // if a node can be represented as a number, then BigDecimal representation is also possible
+        checkIfNodeIsNumber(edgeWeightElem, "Weight cannot be deserialized as BigDecimal");
+
+        // 'directed' field is optional, edges without it are directed
+        boolean directed = true;
+        if (directedElem != null) {
+            checkIfNodeIsBoolean(directedElem, "Directed flag in Edge is not boolean");
+            directed = directedElem.booleanValue();
+        }
 
-        // main node (all fields are reachable from it)
-        JsonNode mainNode = p.getCodec().readTree(p);
+        String sourceVertexName = sourceVertexElem.textValue();
+        String destinationVertexName = destinationVertexElem.textValue();
+        BigDecimal weight = edgeWeightElem.decimalValue();
 
-        JsonNode vertexes = mainNode.get("vertexes");
-        JsonNode edges = mainNode.get("edges");
+        Vertex<BigDecimal> sourceVertex = vertexHelperMap.get(sourceVertexName);
+        Vertex<BigDecimal> destinationVertex = vertexHelperMap.get(destinationVertexName);
 
-        checkIfNodeExists(vertexes, "Missing 'vertexes' JSON node.");
-        checkIfNodeExists(edges, "Missing 'edges' JSON node.");
+        if (sourceVertex == null || destinationVertex == null) {
+            String msg = String.format("Edge '%s' references a vertex that is not present in 'vertexes'", edgeElem.toString());
+            throw new EdgeNullVertexException(msg);
+        }
+
+        try {
+            return new Edge<>(sourceVertex, destinationVertex, weight, directed);
+        } catch (IllegalArgumentException ex) {
+            throw new NegativeEdgeWeightException(ex.getMessage());
+        }
+    }
+
+    /**
+     * An internal helper method that fails if the parser has already read more input than allowed.
+     */
+    private void checkInputSize(JsonParser p) throws JsonProcessingException {
+        if (maxInputBytes == null) {
+            return;
+        }
+        JsonLocation location = p.getCurrentLocation();
+        // parsers of character sources (e.g. a String) do not count bytes, so characters are counted instead
+        long offset = (location.getByteOffset() != -1) ? location.getByteOffset() : location.getCharOffset();
+        if (offset > maxInputBytes) {
+            String msg = String.format("Cannot accept inputs larger than %d bytes", maxInputBytes);
+            throw new MaxInputSizeReachedException(msg);
+        }
+    }
+
+    private void checkNameLength(JsonParser p) throws IOException {
+        if (maxNameLength != null && p.getTextLength() > maxNameLength) {
+            String msg = String.format("Cannot accept vertex names longer than %d characters", maxNameLength);
+            throw new MaxNameLengthExceededException(msg);
+        }
+    }
+
+    /**
+     * An internal helper method that skips the value at the current token of the parser without keeping it in memory.
+     */
+    private void skipValue(JsonParser p) throws IOException {
+        JsonToken token = p.getCurrentToken();
+        if (token != JsonToken.START_OBJECT && token != JsonToken.START_ARRAY) {
+            return;
+        }
+        int depth = 1;
+        while (depth > 0) {
+            token = p.nextToken();
+            if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+                depth++;
+            } else if (token == JsonToken.END_OBJECT || token == JsonToken.END_ARRAY) {
+                depth--;
+            }
+            checkInputSize(p);
+        }
+    }
+
+    /**
+     * An internal helper method that reads a value of an edge field. Objects and arrays are never valid values of
+     * edge fields, so they are skipped and replaced with empty nodes of the same type.
+     */
+    private JsonNode readEdgeFieldValue(JsonParser p) throws IOException {
+        JsonToken token = p.getCurrentToken();
+        if (token == JsonToken.START_OBJECT) {
+            skipValue(p);
+            return JsonNodeFactory.instance.objectNode();
+        } else if (token == JsonToken.START_ARRAY) {
+            skipValue(p);
+            return JsonNodeFactory.instance.arrayNode();
+        } else if (token == JsonToken.VALUE_STRING) {
+            checkNameLength(p);
+        }
+        return p.readValueAsTree();
+    }
 
-        checkIfNodeIsArray(vertexes, "'vertexes' is not an array node.");
-        checkIfNodeIsArray(edges, "'edges' is not an array node.");
+    /**
+     * An internal helper method that reads an element of the 'edges' array. Only the fields of an edge are kept,
+     * other fields are skipped, so the memory used by an element does not depend on its size in the input.
+     */
+    private JsonNode readEdgeElement(JsonParser p) throws IOException {
+        if (p.getCurrentToken() != JsonToken.START_OBJECT) {
+            return readEdgeFieldValue(p);
+        }
+        ObjectNode edgeElem = JsonNodeFactory.instance.objectNode();
+        for (JsonToken token = p.nextToken(); token == JsonToken.FIELD_NAME; token = p.nextToken()) {
+            String fieldName = p.getCurrentName();
+            p.nextToken();
+            if (EDGE_FIELDS.contains(fieldName)) {
+                edgeElem.set(fieldName, readEdgeFieldValue(p));
+            } else {
+                skipValue(p);
+            }
+            checkInputSize(p);
+        }
+        return edgeElem;
+    }
 
-        // reconstructing vertexes
-        Iterator<JsonNode> vertexIter = vertexes.elements();
-        while (vertexIter.hasNext()) {
-            JsonNode vertexElem = vertexIter.next();
-            checkIfNodeIsText(vertexElem, "Vertex element in 'vertexes' is not textual");
+    private void readVertexes(JsonParser p, Graph<BigDecimal> outputGraph, Map<String, Vertex<BigDecimal>> vertexHelperMap)
+            throws IOException {
+        for (JsonToken token = p.nextToken(); token != JsonToken.END_ARRAY; token = p.nextToken()) {
+            checkInputSize(p);
+            if (token != JsonToken.VALUE_STRING) {
+                throw new NodeIsNotTextualException("Vertex element in 'vertexes' is not textual");
+            }
+            checkNameLength(p);
+            if (maxVertexCount != null && outputGraph.getVertexes().size() >= maxVertexCount) {
+                String msg = String.format("Cannot accept graphs that contain more than %d vertexes", maxVertexCount);
+                throw new MaxVertexCountReachedException(msg);
+            }
 
-            Vertex<BigDecimal> v = new Vertex<>(vertexElem.textValue());
+            Vertex<BigDecimal> v = new Vertex<>(p.getText());
 
             try {
                 outputGraph.addVertex(v);
@@ -99,59 +262,103 @@ public class GraphDeserializer extends StdDeserializer<Graph<BigDecimal>> {
             }
 
             // add every vertex to the map, this map will make reconstructing edges faster
-            vertexHelperMap.put(vertexElem.textValue(), v);
+            vertexHelperMap.put(v.getName(), v);
         }
+    }
 
-        // reconstructing edges
-        Integer edgeCounter = 0;
-        Iterator<JsonNode> edgesIter = edges.elements();
-        while (edgesIter.hasNext()) {
-            JsonNode edgeElem = edgesIter.next();
-            checkIfNodeIsObject(edgeElem, "Edge element in 'edges' is not an object");
+    private void addEdge(JsonNode edgeElem, Graph<BigDecimal> outputGraph, Map<String, Vertex<BigDecimal>> vertexHelperMap)
+            throws JsonProcessingException {
+        outputGraph.addEdge(deserializeEdge(edgeElem, vertexHelperMap));
+        checkEdgeCount(outputGraph.getEdges().size());
+    }
 
-            JsonNode sourceVertexElem = edgeElem.get("source");
-            JsonNode destinationVertexElem = edgeElem.get("destination");
-            JsonNode edgeWeightElem = edgeElem.get("weight");
+    private void checkEdgeCount(int edgeCount) throws JsonProcessingException {
+        // check boundaries only if we used a constructor that initializes maxEdgesCount
+        if (maxEdgesCount != null && edgeCount > maxEdgesCount) {
+            String msg = String.format("Cannot accept graphs that contain more than %d edges", maxEdgesCount);
+            throw new MaxEdgeCountReachedException(msg);
+        }
+    }
 
-            checkIfNodeExists(sourceVertexElem, "Edge object does not contain 'source' field");
-            checkIfNodeExists(destinationVertexElem, "Edge object does not contain 'destination' field");
-            checkIfNodeExists(edgeWeightElem, "Edge object does not contain 'weight' field");
+    /**
+     * Reads the graph token by token, so limits are enforced before the rejected part of the input is kept in memory.
+     * Only edges that come before 'vertexes' in the input have to be kept until the vertexes are known.
+     */
+    @Override
+    public Graph<BigDecimal> deserialize(JsonParser p, DeserializationContext ctxt) throws IOException, JsonProcessingException {
+        // we need this helper map to quickly find vertexes by their name (serialized edge refers to the vertex by its name)
+        Map<String, Vertex<BigDecimal>> vertexHelperMap = new HashMap<>();
 
-            checkIfNodeIsText(sourceVertexElem, "Source vertex in Edge is not textual");
-            checkIfNodeIsText(destinationVertexElem, "Destination vertex in Edge is not textual");
+        Graph<BigDecimal> outputGraph = new WeightedGraph<>();
 
-            // if a node can be represented as a number, then BigDecimal representation is also possible
-            checkIfNodeIsNumber(edgeWeightElem, "Weight cannot be deserialized as BigDecimal");
+        // fields of a value that is not an object are missing
+        if (p.getCurrentToken() != JsonToken.START_OBJECT) {
+            skipValue(p);
+            throw new MissingNodeException("Missing 'vertexes' JSON node.");
+        }
 
-            String sourceVertexName = sourceVertexElem.textValue();
-            String destinationVertexName = destinationVertexElem.textValue();
-            BigDecimal weight = edgeWeightElem.decimalValue();
+        boolean vertexesFound = false;
+        boolean vertexesIsArray = false;
+        boolean edgesFound = false;
+        boolean edgesIsArray = false;
+        // edges that come before 'vertexes' cannot be reconstructed yet
+        List<JsonNode> pendingEdges = new ArrayList<>();
 
-            Vertex<BigDecimal> sourceVertex = vertexHelperMap.get(sourceVertexName);
-            Vertex<BigDecimal> destinationVertex = vertexHelperMap.get(destinationVertexName);
+        for (JsonToken token = p.nextToken(); token == JsonToken.FIELD_NAME; token = p.nextToken()) {
+            String fieldName = p.getCurrentName();
+            JsonToken valueToken = p.nextToken();
+            checkInputSize(p);
 
-            if (sourceVertex == null || destinationVertex == null) {
-                String msg = String.format("Edge '%s' references a vertex that is not present in 'vertexes'", edgeElem.toString());
-                throw new EdgeNullVertexException(msg);
+            if ((fieldName.equals("vertexes") && vertexesFound) || (fieldName.equals("edges") && edgesFound)) {
+                throw new DuplicateNodeException(String.format("Duplicate '%s' JSON node.", fieldName));
             }
 
-            try {
-                Edge<BigDecimal> e = new Edge<>(sourceVertex, destinationVertex, weight);
-                outputGraph.addEdge(e);
-            } catch (IllegalArgumentException ex) {
-                throw new NegativeEdgeWeightException(ex.getMessage());
+            if (fieldName.equals("vertexes")) {
+                vertexesFound = true;
+                vertexesIsArray = valueToken == JsonToken.START_ARRAY;
+                if (vertexesIsArray) {
+                    readVertexes(p, outputGraph, vertexHelperMap);
+                } else {
+                    skipValue(p);
+                }
+            } else if (fieldName.equals("edges")) {
+                edgesFound = true;
+                edgesIsArray = valueToken == JsonToken.START_ARRAY;
+                if (!edgesIsArray || (vertexesFound && !vertexesIsArray)) {
+                    // the graph is already known to be invalid, so edges are not worth reading
+                    skipValue(p);
+                    continue;
+                }
+                for (JsonToken elemToken = p.nextToken(); elemToken != JsonToken.END_ARRAY; elemToken = p.nextToken()) {
+                    JsonNode edgeElem = readEdgeElement(p);
+                    checkInputSize(p);
+                    if (vertexesFound) {
+                        addEdge(edgeElem, outputGraph, vertexHelperMap);
+                    } else {
+                        pendingEdges.add(edgeElem);
+                        checkEdgeCount(pendingEdges.size());
+                    }
+                }
+            } else {
+                skipValue(p);
             }
+        }
 
-            // check boundaries only if we used the alternative constructor (that initializes maxEdgesCount)
-            if (maxEdgesCount != null) {
-                // if the code reached here, we have successfully added one edge
-                edgeCounter++;
+        if (!vertexesFound) {
+            throw new MissingNodeException("Missing 'vertexes' JSON node.");
+        }
+        if (!edgesFound) {
+            throw new MissingNodeException("Missing 'edges' JSON node.");
+        }
+        if (!vertexesIsArray) {
+            throw new NodeIsNotArrayException("'vertexes' is not an array node.");
+        }
+        if (!edgesIsArray) {
+            throw new NodeIsNotArrayException("'edges' is not an array node.");
+        }
 
-                if (edgeCounter > maxEdgesCount) {
-                    String msg = String.format("Cannot accept graphs that contain more than %d edges", maxEdgesCount);
-                    throw new MaxEdgeCountReachedException(msg);
-                }
-            }
+        for (JsonNode edgeElem : pendingEdges) {
+            addEdge(edgeElem, outputGraph, vertexHelperMap);
         }
 
         return outputGraph;
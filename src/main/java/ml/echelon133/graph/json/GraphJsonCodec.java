@@ -0,0 +1,170 @@
+package ml.echelon133.graph.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import ml.echelon133.graph.Edge;
+import ml.echelon133.graph.Graph;
+import ml.echelon133.graph.Vertex;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writer and reader of graphs in the JSON format of {@link GraphSerializer} and {@link GraphDeserializer}, which
+ * works directly on streams and channels, so the document never has to fit in a single {@code String}.
+ *
+ * The mapper, the writer and the reader are created once per codec, so serializers are resolved only once, not for
+ * every written graph. A codec can be shared by many threads.
+ */
+public class GraphJsonCodec {
+
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+    private static final int GZIP_MAGIC = 0x8B1F;
+
+    private int bufferSize;
+    private boolean gzip;
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private GraphReadLimits limits;
+
+    /**
+     * Creates a codec that writes uncompressed documents through a 64 KB buffer.
+     */
+    public GraphJsonCodec() {
+        this(DEFAULT_BUFFER_SIZE, false);
+    }
+
+    /**
+     * @param bufferSize size of the buffers used between the JSON parser or generator and the stream, in bytes
+     * @param gzip {@code true} if written documents should be compressed with GZIP
+     * @throws IllegalArgumentException if {@code bufferSize} is not positive
+     */
+    public GraphJsonCodec(int bufferSize, boolean gzip) throws IllegalArgumentException {
+        this(bufferSize, gzip, GraphReadLimits.UNLIMITED);
+    }
+
+    /**
+     * @param bufferSize size of the buffers used between the JSON parser or generator and the stream, in bytes
+     * @param gzip {@code true} if written documents should be compressed with GZIP
+     * @param maxEdgesCount maximum number of edges of a read graph (see {@link GraphDeserializer}), {@code null} if
+     *                      there is no limit
+     * @throws IllegalArgumentException if {@code bufferSize} is not positive
+     */
+    public GraphJsonCodec(int bufferSize, boolean gzip, Integer maxEdgesCount) throws IllegalArgumentException {
+        this(bufferSize, gzip, (maxEdgesCount == null)
+                ? GraphReadLimits.UNLIMITED
+                : GraphReadLimits.UNLIMITED.withMaxEdgesCount(maxEdgesCount));
+    }
+
+    /**
+     * @param bufferSize size of the buffers used between the JSON parser or generator and the stream, in bytes
+     * @param gzip {@code true} if written documents should be compressed with GZIP
+     * @param limits limits of read graphs. The size of compressed documents is counted after decompression
+     * @throws IllegalArgumentException if {@code bufferSize} is not positive
+     */
+    public GraphJsonCodec(int bufferSize, boolean gzip, GraphReadLimits limits) throws IllegalArgumentException {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size must be positive");
+        }
+        this.bufferSize = bufferSize;
+        this.gzip = gzip;
+        this.limits = limits;
+
+        ObjectMapper mapper = new ObjectMapper();
+        // streams belong to the caller, so they are not closed by the parser or the generator
+        mapper.getFactory().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        mapper.getFactory().disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+
+        JavaType vertexType = mapper.constructType(Vertex.class);
+        JavaType edgeType = mapper.constructType(Edge.class);
+        JavaType graphType = mapper.constructType(Graph.class);
+        SimpleModule module = new SimpleModule();
+        module.addSerializer(new VertexSerializer(vertexType));
+        module.addSerializer(new EdgeSerializer(edgeType));
+        module.addSerializer(new GraphSerializer(graphType));
+        module.addDeserializer(Graph.class, new GraphDeserializer(graphType, limits.getMaxVertexCount(),
+                limits.getMaxEdgesCount(), limits.getMaxNameLength(), limits.getMaxInputBytes()));
+        mapper.registerModule(module);
+
+        this.writer = mapper.writerFor(Graph.class);
+        this.reader = mapper.readerFor(mapper.getTypeFactory().constructParametricType(Graph.class, BigDecimal.class));
+    }
+
+    /**
+     * A method that writes the graph to the stream. The stream is flushed, but not closed.
+     * @param graph graph to write
+     * @param out stream to which the document is written
+     * @throws IOException if the stream cannot be written
+     */
+    public void write(Graph<?> graph, OutputStream out) throws IOException {
+        OutputStream nonClosingOut = new FilterOutputStream(out) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+        };
+
+        // closing the wrappers finishes the GZIP trailer and flushes the buffer, but leaves the caller's stream open
+        try (OutputStream target = gzip
+                ? new GZIPOutputStream(nonClosingOut, bufferSize)
+                : new BufferedOutputStream(nonClosingOut, bufferSize)) {
+            writer.writeValue(target, graph);
+        }
+    }
+
+    /**
+     * A method that writes the graph to the channel. The channel is not closed.
+     * @param graph graph to write
+     * @param channel channel to which the document is written
+     * @throws IOException if the channel cannot be written
+     */
+    public void write(Graph<?> graph, WritableByteChannel channel) throws IOException {
+        write(graph, Channels.newOutputStream(channel));
+    }
+
+    /**
+     * A method that reads a graph from the stream. GZIP compressed documents are recognized and decompressed, no matter
+     * how the codec was configured. The size limit of the codec is enforced on the decompressed document, while it is
+     * read (see {@link LimitedInputStream}). The stream is not closed.
+     * @param in stream from which the document is read
+     * @return The read graph
+     * @throws IOException if the stream cannot be read or it does not contain a valid graph
+     */
+    public Graph<BigDecimal> read(InputStream in) throws IOException {
+        BufferedInputStream bufferedIn = new BufferedInputStream(in, bufferSize);
+        bufferedIn.mark(2);
+        int magic = bufferedIn.read() | (bufferedIn.read() << 8);
+        bufferedIn.reset();
+
+        InputStream source = (magic == GZIP_MAGIC) ? new GZIPInputStream(bufferedIn, bufferSize) : bufferedIn;
+        if (limits.getMaxInputBytes() != null) {
+            source = new LimitedInputStream(source, limits.getMaxInputBytes());
+        }
+        return reader.readValue(source);
+    }
+
+    /**
+     * A method that reads a graph from the channel (see {@link #read(InputStream)}). The channel is not closed.
+     * @param channel channel from which the document is read
+     * @return The read graph
+     * @throws IOException if the channel cannot be read or it does not contain a valid graph
+     */
+    public Graph<BigDecimal> read(ReadableByteChannel channel) throws IOException {
+        return read(Channels.newInputStream(channel));
+    }
+}
@@ -0,0 +1,103 @@
+package ml.echelon133.graph.json;
+
+/**
+ * Limits of graphs read by {@link GraphJsonCodec} (see {@link GraphDeserializer}). A document that exceeds any of the
+ * limits is rejected while it is read.
+ *
+ * Instances are immutable, every {@code with} method returns a copy with one limit changed, so a single instance can
+ * be shared by many codecs. {@link #UNLIMITED} has no limits.
+ */
+public final class GraphReadLimits {
+
+    /**
+     * Limits that accept every graph.
+     */
+    public static final GraphReadLimits UNLIMITED = new GraphReadLimits(null, null, null, null);
+
+    private Integer maxVertexCount;
+    private Integer maxEdgesCount;
+    private Integer maxNameLength;
+    private Long maxInputBytes;
+
+    private GraphReadLimits(Integer maxVertexCount, Integer maxEdgesCount, Integer maxNameLength, Long maxInputBytes) {
+        this.maxVertexCount = maxVertexCount;
+        this.maxEdgesCount = maxEdgesCount;
+        this.maxNameLength = maxNameLength;
+        this.maxInputBytes = maxInputBytes;
+    }
+
+    private static void checkNotNegative(long limit, String name) throws IllegalArgumentException {
+        if (limit < 0) {
+            throw new IllegalArgumentException(String.format("Maximum %s cannot be negative", name));
+        }
+    }
+
+    /**
+     * @param maxVertexCount maximum number of vertexes of the graph
+     * @return Copy of these limits with the limit of vertexes
+     * @throws IllegalArgumentException if {@code maxVertexCount} is negative
+     */
+    public GraphReadLimits withMaxVertexCount(int maxVertexCount) throws IllegalArgumentException {
+        checkNotNegative(maxVertexCount, "number of vertexes");
+        return new GraphReadLimits(maxVertexCount, maxEdgesCount, maxNameLength, maxInputBytes);
+    }
+
+    /**
+     * @param maxEdgesCount maximum number of edges of the graph
+     * @return Copy of these limits with the limit of edges
+     * @throws IllegalArgumentException if {@code maxEdgesCount} is negative
+     */
+    public GraphReadLimits withMaxEdgesCount(int maxEdgesCount) throws IllegalArgumentException {
+        checkNotNegative(maxEdgesCount, "number of edges");
+        return new GraphReadLimits(maxVertexCount, maxEdgesCount, maxNameLength, maxInputBytes);
+    }
+
+    /**
+     * @param maxNameLength maximum number of characters of a vertex name
+     * @return Copy of these limits with the limit of name length
+     * @throws IllegalArgumentException if {@code maxNameLength} is negative
+     */
+    public GraphReadLimits withMaxNameLength(int maxNameLength) throws IllegalArgumentException {
+        checkNotNegative(maxNameLength, "name length");
+        return new GraphReadLimits(maxVertexCount, maxEdgesCount, maxNameLength, maxInputBytes);
+    }
+
+    /**
+     * @param maxInputBytes maximum size of the document in bytes. Compressed documents are counted after they are
+     *                      decompressed
+     * @return Copy of these limits with the limit of input size
+     * @throws IllegalArgumentException if {@code maxInputBytes} is negative
+     */
+    public GraphReadLimits withMaxInputBytes(long maxInputBytes) throws IllegalArgumentException {
+        checkNotNegative(maxInputBytes, "number of input bytes");
+        return new GraphReadLimits(maxVertexCount, maxEdgesCount, maxNameLength, maxInputBytes);
+    }
+
+    /**
+     * @return The maximum number of vertexes or {@code null} if there is no limit
+     */
+    public Integer getMaxVertexCount() {
+        return maxVertexCount;
+    }
+
+    /**
+     * @return The maximum number of edges or {@code null} if there is no limit
+     */
+    public Integer getMaxEdgesCount() {
+        return maxEdgesCount;
+    }
+
+    /**
+     * @return The maximum length of a vertex name or {@code null} if there is no limit
+     */
+    public Integer getMaxNameLength() {
+        return maxNameLength;
+    }
+
+    /**
+     * @return The maximum size of the document in bytes or {@code null} if there is no limit
+     */
+    public Long getMaxInputBytes() {
+        return maxInputBytes;
+    }
+}
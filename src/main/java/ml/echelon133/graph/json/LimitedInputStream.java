@@ -0,0 +1,106 @@
+package ml.echelon133.graph.json;
+
+import ml.echelon133.graph.json.exception.MaxInputSizeReachedException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Stream that fails as soon as more than the allowed number of bytes is read from the stream that it wraps.
+ *
+ * {@link GraphDeserializer} checks the size of the input only between tokens, after the parser has already buffered
+ * the whole token, so a single huge token (e.g. a vertex name) is kept in memory before it can be rejected. Reading
+ * the document through this stream stops the parser while the token is still being read. At most one byte more than
+ * the limit is ever read from the wrapped stream.
+ */
+public class LimitedInputStream extends FilterInputStream {
+
+    private long maxInputBytes;
+    private long readBytes;
+
+    /**
+     * @param in stream to read from
+     * @param maxInputBytes maximum number of bytes that can be read
+     * @throws IllegalArgumentException if {@code maxInputBytes} is negative
+     */
+    public LimitedInputStream(InputStream in, long maxInputBytes) throws IllegalArgumentException {
+        super(in);
+        if (maxInputBytes < 0) {
+            throw new IllegalArgumentException("Maximum number of input bytes cannot be negative");
+        }
+        this.maxInputBytes = maxInputBytes;
+    }
+
+    /**
+     * @return The number of bytes that were already read
+     */
+    public long getReadBytes() {
+        return readBytes;
+    }
+
+    /**
+     * An internal helper method that counts read bytes and fails if there are more of them than allowed.
+     */
+    private void count(long n) throws MaxInputSizeReachedException {
+        readBytes += n;
+        if (readBytes > maxInputBytes) {
+            String msg = String.format("Cannot accept inputs larger than %d bytes", maxInputBytes);
+            throw new MaxInputSizeReachedException(msg);
+        }
+    }
+
+    /**
+     * An internal helper method that caps the length of a read, so that the limit is exceeded by one byte at most.
+     */
+    private int cap(long len) {
+        return (int) Math.min(len, maxInputBytes - readBytes + 1);
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b != -1) {
+            count(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        int n = super.read(b, off, cap(len));
+        if (n > 0) {
+            count(n);
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(cap(n));
+        if (skipped > 0) {
+            count(skipped);
+        }
+        return skipped;
+    }
+
+    /**
+     * Marks are not supported, because bytes read again after a reset would be counted twice.
+     */
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public synchronized void mark(int readlimit) {
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        throw new IOException("Mark and reset are not supported");
+    }
+}
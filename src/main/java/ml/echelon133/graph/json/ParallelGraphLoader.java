@@ -0,0 +1,445 @@
+package ml.echelon133.graph.json;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ml.echelon133.graph.Edge;
+import ml.echelon133.graph.Graph;
+import ml.echelon133.graph.Vertex;
+import ml.echelon133.graph.WeightedGraph;
+import ml.echelon133.graph.json.exception.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Loader of graphs in the JSON format written by {@link GraphSerializer}, which parses the 'edges' array on many
+ * threads. It accepts the same documents as {@link GraphDeserializer} and throws the same exceptions with the same
+ * messages.
+ *
+ * The document is scanned once to find the 'vertexes' and 'edges' arrays and to split the 'edges' array into chunks
+ * of whole edge objects. Vertexes are reconstructed first, then the chunks are parsed in parallel on a
+ * {@link ForkJoinPool} and their edges are added to the graph in the order of the document. If many edges are
+ * invalid, the exception is thrown for the first of them.
+ *
+ * Files are memory-mapped in segments of at most 1 GB instead of being read onto the heap, so they can be larger than
+ * 2 GB. Chunks are parsed directly from the mapped memory, only the loaded graph itself is stored on the heap.
+ */
+public class ParallelGraphLoader {
+
+    private static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
+    private ForkJoinPool pool;
+    private int chunkSize;
+    private ObjectMapper mapper = new ObjectMapper();
+
+    /**
+     * Creates a loader that uses the common {@link ForkJoinPool} and chunks of about 1 MB.
+     */
+    public ParallelGraphLoader() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param pool pool on which the chunks of the 'edges' array are parsed
+     * @param chunkSize minimum size of a chunk in bytes. Every chunk except the last one ends at the first edge object
+     *                  that ends after this many bytes
+     * @throws IllegalArgumentException if {@code chunkSize} is not positive
+     */
+    public ParallelGraphLoader(ForkJoinPool pool, int chunkSize) throws IllegalArgumentException {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * A method that loads a graph from a file.
+     * @param path path to the JSON document
+     * @return The loaded graph
+     * @throws IOException if the file cannot be read or the document does not contain a valid graph
+     */
+    public Graph<BigDecimal> load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int segmentCount = (int) ((size + Document.SEGMENT_SIZE - 1) / Document.SEGMENT_SIZE);
+            ByteBuffer[] segments = new ByteBuffer[segmentCount];
+            for (int i = 0; i < segmentCount; i++) {
+                long segmentStart = (long) i * Document.SEGMENT_SIZE;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, segmentStart,
+                        Math.min(Document.SEGMENT_SIZE, size - segmentStart));
+            }
+            // mappings stay valid after the channel is closed
+            return load(new Document(segments, size));
+        }
+    }
+
+    /**
+     * A method that loads a graph from a JSON document encoded in UTF-8.
+     * @param json the JSON document
+     * @return The loaded graph
+     * @throws IOException if the document does not contain a valid graph
+     */
+    public Graph<BigDecimal> load(byte[] json) throws IOException {
+        int segmentCount = (int) ((json.length + (long) Document.SEGMENT_SIZE - 1) / Document.SEGMENT_SIZE);
+        ByteBuffer[] segments = new ByteBuffer[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            int segmentStart = i * Document.SEGMENT_SIZE;
+            int segmentLength = Math.min(Document.SEGMENT_SIZE, json.length - segmentStart);
+            segments[i] = ByteBuffer.wrap(json, segmentStart, segmentLength).slice();
+        }
+        return load(new Document(segments, json.length));
+    }
+
+    private Graph<BigDecimal> load(Document json) throws IOException {
+        DocumentScanner scanner = new DocumentScanner(json, chunkSize);
+        scanner.scan();
+
+        if (scanner.vertexesStart == -1) {
+            throw new MissingNodeException("Missing 'vertexes' JSON node.");
+        }
+        if (scanner.edgesStart == -1) {
+            throw new MissingNodeException("Missing 'edges' JSON node.");
+        }
+        if (json.get(scanner.vertexesStart) != '[') {
+            throw new NodeIsNotArrayException("'vertexes' is not an array node.");
+        }
+        if (json.get(scanner.edgesStart) != '[') {
+            throw new NodeIsNotArrayException("'edges' is not an array node.");
+        }
+
+        Graph<BigDecimal> outputGraph = new WeightedGraph<>();
+        Map<String, Vertex<BigDecimal>> vertexHelperMap = new ConcurrentHashMap<>();
+        loadVertexes(json, scanner.vertexesStart, scanner.vertexesEnd, outputGraph, vertexHelperMap);
+
+        List<ForkJoinTask<List<Edge<BigDecimal>>>> tasks = new ArrayList<>(scanner.chunks.size() / 2);
+        for (int i = 0; i < scanner.chunks.size(); i += 2) {
+            long chunkStart = scanner.chunks.get(i);
+            long chunkEnd = scanner.chunks.get(i + 1);
+            tasks.add(pool.submit(() -> loadEdges(json, chunkStart, chunkEnd, vertexHelperMap)));
+        }
+
+        // chunks are merged in the order of the document, so the first invalid edge is reported
+        for (ForkJoinTask<List<Edge<BigDecimal>>> task : tasks) {
+            List<Edge<BigDecimal>> edges;
+            try {
+                edges = task.join();
+            } catch (RuntimeException ex) {
+                tasks.forEach(t -> t.cancel(false));
+                // the pool might wrap the exception thrown by the task
+                Throwable cause = ex;
+                while (cause != null && !(cause instanceof UncheckedIOException)) {
+                    cause = cause.getCause();
+                }
+                if (cause == null) {
+                    throw ex;
+                }
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            for (Edge<BigDecimal> e : edges) {
+                outputGraph.addEdge(e);
+            }
+        }
+        return outputGraph;
+    }
+
+    private void loadVertexes(Document json, long start, long end, Graph<BigDecimal> outputGraph,
+                              Map<String, Vertex<BigDecimal>> vertexHelperMap) throws IOException {
+        try (JsonParser p = mapper.getFactory().createParser(json.openStream(start, end))) {
+            p.nextToken(); // START_ARRAY
+            for (JsonToken token = p.nextToken(); token != JsonToken.END_ARRAY; token = p.nextToken()) {
+                if (token != JsonToken.VALUE_STRING) {
+                    throw new NodeIsNotTextualException("Vertex element in 'vertexes' is not textual");
+                }
+                Vertex<BigDecimal> v = new Vertex<>(p.getText());
+                try {
+                    outputGraph.addVertex(v);
+                } catch (IllegalArgumentException ex) {
+                    String msg = String.format("Vertex with name %s already belongs to the graph", v.getName());
+                    throw new VertexAlreadyInGraphException(msg);
+                }
+                vertexHelperMap.put(v.getName(), v);
+            }
+        }
+    }
+
+    /**
+     * Parses a chunk that contains whole edge objects separated by commas.
+     */
+    private List<Edge<BigDecimal>> loadEdges(Document json, long start, long end,
+                                             Map<String, Vertex<BigDecimal>> vertexHelperMap) {
+        // the chunk is wrapped in brackets, so it can be parsed as an array
+        InputStream chunk = new SequenceInputStream(Collections.enumeration(List.of(
+                new ByteArrayInputStream(new byte[] {'['}),
+                json.openStream(start, end),
+                new ByteArrayInputStream(new byte[] {']'}))));
+
+        List<Edge<BigDecimal>> edges = new ArrayList<>();
+        try (JsonParser p = mapper.getFactory().createParser(chunk)) {
+            p.nextToken(); // START_ARRAY
+            for (JsonToken token = p.nextToken(); token != JsonToken.END_ARRAY; token = p.nextToken()) {
+                JsonNode edgeElem = p.readValueAsTree();
+                edges.add(GraphDeserializer.deserializeEdge(edgeElem, vertexHelperMap));
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return edges;
+    }
+
+    /**
+     * Read-only document stored in buffers of {@value #SEGMENT_SIZE} bytes (except the last one), which are addressed
+     * by {@code long} positions.
+     */
+    private static class Document {
+        private static final int SEGMENT_BITS = 30;
+        static final int SEGMENT_SIZE = 1 << SEGMENT_BITS;
+
+        private ByteBuffer[] segments;
+        private long length;
+
+        Document(ByteBuffer[] segments, long length) {
+            this.segments = segments;
+            this.length = length;
+        }
+
+        byte get(long position) {
+            return segments[(int) (position >>> SEGMENT_BITS)].get((int) (position & (SEGMENT_SIZE - 1)));
+        }
+
+        String getString(long start, long end) {
+            byte[] bytes = new byte[(int) (end - start)];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = get(start + i);
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * @return stream of the bytes between {@code start} (inclusive) and {@code end} (exclusive), which reads the
+         * buffers directly
+         */
+        InputStream openStream(long start, long end) {
+            return new InputStream() {
+                private long position = start;
+
+                @Override
+                public int read() {
+                    return (position < end) ? get(position++) & 0xFF : -1;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    if (len == 0) {
+                        return 0;
+                    }
+                    if (position >= end) {
+                        return -1;
+                    }
+                    ByteBuffer segment = segments[(int) (position >>> SEGMENT_BITS)].duplicate();
+                    int offsetInSegment = (int) (position & (SEGMENT_SIZE - 1));
+                    int count = (int) Math.min(Math.min(len, end - position), segment.limit() - offsetInSegment);
+                    segment.position(offsetInSegment);
+                    segment.get(b, off, count);
+                    position += count;
+                    return count;
+                }
+            };
+        }
+    }
+
+    /**
+     * Scanner that finds the values of top-level 'vertexes' and 'edges' fields, and splits the elements of the 'edges'
+     * array into chunks. It only tracks strings and nesting, the values are validated by the parsers of the chunks.
+     */
+    private static class DocumentScanner {
+        private Document json;
+        private int chunkSize;
+        private long position;
+
+        private long vertexesStart = -1;
+        private long vertexesEnd;
+        private long edgesStart = -1;
+        // start and end of every chunk
+        private List<Long> chunks = new ArrayList<>();
+
+        DocumentScanner(Document json, int chunkSize) {
+            this.json = json;
+            this.chunkSize = chunkSize;
+        }
+
+        void scan() throws JsonProcessingException {
+            skipWhitespace();
+            // fields of a document that is not an object are missing, like in GraphDeserializer
+            if (position == json.length || json.get(position) != '{') {
+                return;
+            }
+            position++;
+            skipWhitespace();
+            if (peek() == '}') {
+                return;
+            }
+
+            while (true) {
+                skipWhitespace();
+                if (peek() != '"') {
+                    throw error("Expected a field name");
+                }
+                long keyStart = position;
+                skipString();
+                String key = json.getString(keyStart + 1, position - 1);
+                skipWhitespace();
+                if (peek() != ':') {
+                    throw error("Expected ':'");
+                }
+                position++;
+                skipWhitespace();
+
+                if ((key.equals("vertexes") && vertexesStart != -1) || (key.equals("edges") && edgesStart != -1)) {
+                    // like in GraphDeserializer, a graph described twice is rejected
+                    throw new DuplicateNodeException(String.format("Duplicate '%s' JSON node.", key));
+                }
+
+                long valueStart = position;
+                if (key.equals("edges") && peek() == '[') {
+                    scanEdges();
+                } else {
+                    skipValue();
+                }
+                if (key.equals("vertexes")) {
+                    vertexesStart = valueStart;
+                    vertexesEnd = position;
+                } else if (key.equals("edges")) {
+                    edgesStart = valueStart;
+                }
+
+                skipWhitespace();
+                byte separator = peek();
+                position++;
+                if (separator == '}') {
+                    return;
+                }
+                if (separator != ',') {
+                    throw error("Expected ',' or '}'");
+                }
+            }
+        }
+
+        private void scanEdges() throws JsonProcessingException {
+            position++; // '['
+            int depth = 1;
+            long chunkStart = position;
+            while (depth > 0) {
+                byte b = peek();
+                if (b == '"') {
+                    skipString();
+                    continue;
+                }
+                if (b == '{' || b == '[') {
+                    depth++;
+                } else if (b == '}' || b == ']') {
+                    depth--;
+                } else if (b == ',' && depth == 1 && position - chunkStart >= chunkSize) {
+                    addChunk(chunkStart, position);
+                    chunkStart = position + 1;
+                }
+                position++;
+            }
+            addChunk(chunkStart, position - 1);
+        }
+
+        private void addChunk(long start, long end) {
+            for (long i = start; i < end; i++) {
+                if (!isWhitespace(json.get(i))) {
+                    chunks.add(start);
+                    chunks.add(end);
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Skips a string, an object or an array up to its closing character, or a scalar (number, {@code true},
+         * {@code false} or {@code null}) up to the next delimiter.
+         */
+        private void skipValue() throws JsonProcessingException {
+            int depth = 0;
+            while (true) {
+                byte b = peek();
+                if (b == '"') {
+                    skipString();
+                    if (depth == 0) {
+                        return;
+                    }
+                    continue;
+                }
+                if (depth == 0 && (b == ',' || b == '}' || b == ']' || isWhitespace(b))) {
+                    return;
+                }
+                position++;
+                if (b == '{' || b == '[') {
+                    depth++;
+                } else if (b == '}' || b == ']') {
+                    depth--;
+                    if (depth == 0) {
+                        return;
+                    }
+                }
+            }
+        }
+
+        private void skipString() throws JsonProcessingException {
+            position++; // opening quote
+            while (true) {
+                byte b = peek();
+                position++;
+                if (b == '\\') {
+                    position++;
+                } else if (b == '"') {
+                    return;
+                }
+            }
+        }
+
+        private void skipWhitespace() {
+            while (position < json.length && isWhitespace(json.get(position))) {
+                position++;
+            }
+        }
+
+        private static boolean isWhitespace(byte b) {
+            return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+        }
+
+        private byte peek() throws JsonProcessingException {
+            if (position >= json.length) {
+                throw error("Unexpected end of JSON input");
+            }
+            return json.get(position);
+        }
+
+        private JsonProcessingException error(String msg) {
+            return new JsonParseException(null, msg);
+        }
+    }
+}
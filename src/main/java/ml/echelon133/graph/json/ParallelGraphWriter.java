@@ -0,0 +1,153 @@
+package ml.echelon133.graph.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import ml.echelon133.graph.Edge;
+import ml.echelon133.graph.Graph;
+import ml.echelon133.graph.Vertex;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Writer of graphs in the JSON format of {@link GraphSerializer}, which serializes the 'edges' array on many threads.
+ * The written document is byte for byte the same as the document written by an {@link ObjectMapper} with
+ * {@link GraphSerializer}, {@link VertexSerializer} and {@link EdgeSerializer} (e.g. by {@link GraphJsonCodec}), so
+ * it can be read by {@link GraphDeserializer} and {@link ParallelGraphLoader}.
+ *
+ * Edges are divided into chunks of consecutive edges. Every chunk is serialized into its own buffer on a
+ * {@link ForkJoinPool}, and the buffers are written to the stream in the order of the edges. Only a few chunks per
+ * thread of the pool are serialized ahead of the stream, so the whole document is never kept in memory.
+ *
+ * The graph must not be modified while it is written.
+ */
+public class ParallelGraphWriter {
+
+    private static final int DEFAULT_CHUNK_SIZE = 1 << 14;
+    private static final int BUFFER_SIZE = 1 << 16;
+    // number of chunks per thread of the pool that can be serialized before they are written
+    private static final int CHUNKS_AHEAD_PER_THREAD = 2;
+
+    private ForkJoinPool pool;
+    private int chunkSize;
+    private ObjectMapper mapper = new ObjectMapper();
+
+    /**
+     * Creates a writer that uses the common {@link ForkJoinPool} and chunks of 16384 edges.
+     */
+    public ParallelGraphWriter() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param pool pool on which the chunks of the 'edges' array are serialized
+     * @param chunkSize number of edges in every chunk except the last one
+     * @throws IllegalArgumentException if {@code chunkSize} is not positive
+     */
+    public ParallelGraphWriter(ForkJoinPool pool, int chunkSize) throws IllegalArgumentException {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+
+        SimpleModule module = new SimpleModule();
+        module.addSerializer(new VertexSerializer(mapper.constructType(Vertex.class)));
+        module.addSerializer(new EdgeSerializer(mapper.constructType(Edge.class)));
+        mapper.registerModule(module);
+    }
+
+    /**
+     * A method that writes the graph to a file.
+     * @param graph graph to write
+     * @param path path of the file, which is created or truncated
+     * @throws IOException if the file cannot be written
+     */
+    public void write(Graph<?> graph, Path path) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path), BUFFER_SIZE)) {
+            write(graph, out);
+        }
+    }
+
+    /**
+     * A method that writes the graph to the stream. The stream is flushed, but not closed.
+     * @param graph graph to write
+     * @param out stream to which the document is written
+     * @throws IOException if the stream cannot be written
+     */
+    public void write(Graph<?> graph, OutputStream out) throws IOException {
+        List<? extends Edge<?>> edges = graph.getEdges();
+        if (!(edges instanceof RandomAccess)) {
+            // chunks are views of the list, so it has to be cheap to access by index
+            edges = new ArrayList<>(edges);
+        }
+
+        out.write("{\"vertexes\":".getBytes(StandardCharsets.UTF_8));
+        out.write(mapper.writeValueAsBytes(graph.getVertexes()));
+        out.write(",\"edges\":[".getBytes(StandardCharsets.UTF_8));
+
+        int maxTasks = Math.max(1, pool.getParallelism() * CHUNKS_AHEAD_PER_THREAD);
+        Deque<ForkJoinTask<byte[]>> tasks = new ArrayDeque<>(maxTasks);
+        int nextChunkStart = 0;
+        boolean first = true;
+        try {
+            while (nextChunkStart < edges.size() || !tasks.isEmpty()) {
+                while (nextChunkStart < edges.size() && tasks.size() < maxTasks) {
+                    List<? extends Edge<?>> chunk = edges.subList(nextChunkStart,
+                            Math.min(edges.size(), nextChunkStart + chunkSize));
+                    tasks.addLast(pool.submit(() -> serializeChunk(chunk)));
+                    nextChunkStart += chunk.size();
+                }
+
+                // every chunk is a serialized array, whose brackets are replaced by commas between the chunks
+                byte[] serializedChunk = join(tasks.removeFirst());
+                if (!first) {
+                    out.write(',');
+                }
+                out.write(serializedChunk, 1, serializedChunk.length - 2);
+                first = false;
+            }
+        } finally {
+            tasks.forEach(t -> t.cancel(false));
+        }
+
+        out.write("]}".getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private byte[] serializeChunk(List<? extends Edge<?>> chunk) {
+        try {
+            return mapper.writeValueAsBytes(chunk);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static byte[] join(ForkJoinTask<byte[]> task) throws IOException {
+        try {
+            return task.join();
+        } catch (RuntimeException ex) {
+            // the pool might wrap the exception thrown by the task
+            Throwable cause = ex;
+            while (cause != null && !(cause instanceof UncheckedIOException)) {
+                cause = cause.getCause();
+            }
+            if (cause == null) {
+                throw ex;
+            }
+            throw ((UncheckedIOException) cause).getCause();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package ml.echelon133.graph.json.exception;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+/**
+ * Exception thrown when graph JSON contains a node that is needed to deserialize a graph more than once, so it is not
+ * known which of its values describes the graph.
+ */
+public class DuplicateNodeException extends JsonProcessingException {
+
+    public DuplicateNodeException(String msg) {
+        super(msg);
+    }
+}
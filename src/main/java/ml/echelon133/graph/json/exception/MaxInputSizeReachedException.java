@@ -0,0 +1,10 @@
+package ml.echelon133.graph.json.exception;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+public class MaxInputSizeReachedException extends JsonProcessingException {
+
+    public MaxInputSizeReachedException(String msg) {
+        super(msg);
+    }
+}
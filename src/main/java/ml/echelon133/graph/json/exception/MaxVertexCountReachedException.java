@@ -0,0 +1,10 @@
+package ml.echelon133.graph.json.exception;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+public class MaxVertexCountReachedException extends JsonProcessingException {
+
+    public MaxVertexCountReachedException(String msg) {
+        super(msg);
+    }
+}
@@ -0,0 +1,13 @@
+package ml.echelon133.graph.json.exception;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+/**
+ * Exception thrown when a node that should be a boolean is not a boolean.
+ */
+public class NodeIsNotBooleanException extends JsonProcessingException {
+
+    public NodeIsNotBooleanException(String msg) {
+        super(msg);
+    }
+}
@@ -0,0 +1,102 @@
+package ml.echelon133.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ArcFlagsTest {
+
+    private static void assertSameDistances(ArcFlags<Integer> arcFlags) {
+        IndexedGraph<Integer> graph = arcFlags.getGraph();
+        IndexedDijkstra search = new IndexedDijkstra(graph);
+        IndexedDijkstra flaggedSearch = new IndexedDijkstra(graph);
+        for (int source = 0; source < graph.getVertexCount(); source++) {
+            search.start(source);
+            while (search.visitNext() != -1) {
+                // visit every reachable vertex
+            }
+            for (int target = 0; target < graph.getVertexCount(); target++) {
+                flaggedSearch.startTowards(source, target, arcFlags);
+                assertEquals(search.isVisited(target), flaggedSearch.visitUntil(target));
+                assertEquals(search.getDistance(target), flaggedSearch.getDistance(target));
+            }
+        }
+    }
+
+    @Test
+    public void flaggedSearchesFindShortestDistances() {
+        ArcFlags<Integer> arcFlags = ArcFlags.of(TestGraphStore.getRandomGraph(120, 350, 13), 8);
+
+        assertEquals(8, arcFlags.getRegionCount());
+        assertSameDistances(arcFlags);
+    }
+
+    @Test
+    public void flaggedSearchesWithCustomRegionsFindShortestDistances() {
+        CompactGraph<Integer> graph = CompactGraph.of(TestGraphStore.getRandomGraph(80, 200, 17));
+        int[] regions = new int[80];
+        for (int v = 0; v < regions.length; v++) {
+            regions[v] = v % 5;
+        }
+
+        assertSameDistances(ArcFlags.of(graph, regions));
+    }
+
+    @Test
+    public void edgesThatLeadAwayFromRegionAreNotFlagged() {
+        GraphBuilder<Integer> builder = new GraphBuilder<>(4, 3);
+        for (int i = 0; i < 4; i++) {
+            builder.addVertex("v" + i);
+        }
+        // v1 <- v0 -> v2 -> v3
+        builder.addEdges(new int[] {0, 0, 2}, new int[] {1, 2, 3}, List.of(1, 1, 1));
+        CompactGraph<Integer> graph = builder.buildCompact();
+        ArcFlags<Integer> arcFlags = ArcFlags.of(graph, new int[] {0, 1, 2, 2});
+
+        int edgeToV1 = graph.getEdgesStart(0);
+        int edgeToV2 = edgeToV1 + 1;
+        assertEquals(1, graph.getEdgeDestination(edgeToV1));
+        assertTrue(arcFlags.isFlagged(edgeToV1, 1));
+        assertFalse(arcFlags.isFlagged(edgeToV1, 2));
+        assertTrue(arcFlags.isFlagged(edgeToV2, 2));
+        assertFalse(arcFlags.isFlagged(edgeToV2, 1));
+    }
+
+    @Test
+    public void solverWithArcFlagsFindsShortestPath() {
+        Graph<Integer> graph = TestGraphStore.getIntegerTestGraph();
+        ShortestPathSolver<Integer> solver = new ShortestPathSolver<>(graph, ArcFlags.of(graph, 3));
+
+        for (Vertex<Integer> source : graph.getVertexes()) {
+            ShortestPathTree<Integer> expected = new ShortestPathSolver<>(graph).solveStartingFrom(source);
+            for (Vertex<Integer> target : graph.getVertexes()) {
+                GraphPath<Integer> path = solver.shortestPath(source, target);
+                if (expected.containsKey(target)) {
+                    assertEquals(0, expected.get(target).getSumOfWeights().compareTo(path.getSumOfWeights()));
+                } else {
+                    assertNull(path);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void invalidArgumentsCauseIllegalArgumentException() {
+        CompactGraph<Integer> graph = CompactGraph.of(TestGraphStore.getRandomGraph(3, 3, 1));
+        assertThrows(IllegalArgumentException.class, () -> ArcFlags.of(graph, 0));
+        assertThrows(IllegalArgumentException.class, () -> ArcFlags.of(graph, new int[] {0, 1}));
+        assertThrows(IllegalArgumentException.class, () -> ArcFlags.of(graph, new int[] {0, -1, 1}));
+    }
+
+    @Test
+    public void flagsThatDoNotFitInArrayCauseIllegalArgumentException() {
+        CompactGraph<Integer> graph = CompactGraph.of(TestGraphStore.getRandomGraph(3, 3, 1));
+
+        // the number of regions overflows an int and the number of flags overflows an array
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> ArcFlags.of(graph, new int[] {0, Integer.MAX_VALUE, 1}));
+        assertEquals("Flags of the graph are too large to be stored", ex.getMessage());
+    }
+}
@@ -0,0 +1,119 @@
+package ml.echelon133.graph;
+
+import ml.echelon133.graph.bsp.BspEngine;
+import ml.echelon133.graph.bsp.ShortestPathsProgram;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BspEngineTest {
+
+    @Test
+    public void singleSourceDistancesAreEqualToSolverDistances() {
+        Graph<Integer> graph = TestGraphStore.getRandomDirectedGraph(300, 1500, 7);
+        CompactGraph<Integer> compactGraph = CompactGraph.of(graph);
+        Vertex<Integer> source = graph.getVertexes().get(0);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            BspEngine<Integer> engine = new BspEngine<>(compactGraph, pool, 4);
+            double[] distances = engine.run(ShortestPathsProgram.singleSource(compactGraph.getVertexId(source)));
+
+            Map<Vertex<Integer>, VertexResult<Integer>> expected = new ShortestPathSolver<>(graph).solveStartingFrom(source);
+            for (int v = 0; v < compactGraph.getVertexCount(); v++) {
+                VertexResult<Integer> result = expected.get(compactGraph.getVertex(v));
+                if (result == null) {
+                    assertEquals(Double.POSITIVE_INFINITY, distances[v]);
+                } else {
+                    assertEquals(result.getSumOfWeights().doubleValue(), distances[v]);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void multiSourceDistancesAreDistancesToClosestSource() {
+        Graph<Integer> graph = new WeightedGraph<>();
+        Vertex<Integer> v1 = new Vertex<>("v1");
+        Vertex<Integer> v2 = new Vertex<>("v2");
+        Vertex<Integer> v3 = new Vertex<>("v3");
+        Vertex<Integer> v4 = new Vertex<>("v4");
+        Vertex<Integer> v5 = new Vertex<>("v5");
+        List.of(v1, v2, v3, v4, v5).forEach(graph::addVertex);
+        graph.addEdge(v1, v2, 10);
+        graph.addEdge(v2, v3, 10);
+        graph.addEdge(v4, v3, 3);
+        graph.addUndirectedEdge(v3, v5, 1);
+
+        BspEngine<Integer> engine = new BspEngine<>(graph);
+        IndexedGraph<Integer> indexedGraph = engine.getGraph();
+        double[] distances = engine.run(ShortestPathsProgram.multiSource(
+                indexedGraph.getVertexId(v1), indexedGraph.getVertexId(v4)));
+
+        assertEquals(0.0, distances[indexedGraph.getVertexId(v1)]);
+        assertEquals(10.0, distances[indexedGraph.getVertexId(v2)]);
+        assertEquals(3.0, distances[indexedGraph.getVertexId(v3)]);
+        assertEquals(0.0, distances[indexedGraph.getVertexId(v4)]);
+        assertEquals(4.0, distances[indexedGraph.getVertexId(v5)]);
+    }
+
+    @Test
+    public void runStopsAfterMaxSupersteps() {
+        GraphBuilder<Integer> builder = new GraphBuilder<>(4, 3);
+        for (int i = 0; i < 4; i++) {
+            builder.addVertex("v" + i);
+        }
+        builder.addEdges(new int[] {0, 1, 2}, new int[] {1, 2, 3}, List.of(1, 1, 1));
+        CompactGraph<Integer> graph = builder.buildCompact();
+
+        BspEngine<Integer> engine = new BspEngine<>(graph, ForkJoinPool.commonPool(), 2);
+        double[] distances = engine.run(ShortestPathsProgram.singleSource(0), 3);
+
+        // the message sent to the last vertex was never delivered
+        assertEquals(1.0, distances[1]);
+        assertEquals(2.0, distances[2]);
+        assertEquals(Double.POSITIVE_INFINITY, distances[3]);
+
+        // undelivered messages do not leak into the next run
+        double[] fullDistances = engine.run(ShortestPathsProgram.singleSource(3));
+        assertEquals(Double.POSITIVE_INFINITY, fullDistances[0]);
+        assertEquals(0.0, fullDistances[3]);
+    }
+
+    @Test
+    public void haltedVertexIsWokenUpByMessage() {
+        GraphBuilder<Integer> builder = new GraphBuilder<>(2, 1);
+        builder.addEdge(builder.addVertex("v0"), builder.addVertex("v1"), 5);
+        CompactGraph<Integer> graph = builder.buildCompact();
+
+        // every vertex counts the number of supersteps in which it was computed
+        double[] computations = new BspEngine<>(graph, ForkJoinPool.commonPool(), 2).run(
+                (context, message) -> {
+                    context.setValue((context.getSuperstep() == 0) ? 1 : context.getValue() + 1);
+                    if (context.getSuperstep() == 0) {
+                        context.forEachEdge((edgeId, destination, weight) -> context.sendMessage(destination, weight));
+                    }
+                    context.voteToHalt();
+                }
+        );
+
+        assertEquals(1.0, computations[0]);
+        assertEquals(2.0, computations[1]);
+    }
+
+    @Test
+    public void invalidArgumentsCauseIllegalArgumentException() {
+        CompactGraph<Integer> graph = new GraphBuilder<Integer>(0, 0).buildCompact();
+        assertThrows(IllegalArgumentException.class, () -> new BspEngine<>(graph, ForkJoinPool.commonPool(), 0));
+
+        BspEngine<Integer> engine = new BspEngine<>(graph, ForkJoinPool.commonPool(), 1);
+        assertThrows(IllegalArgumentException.class, () -> engine.run(ShortestPathsProgram.singleSource(0), 0));
+        assertThrows(IllegalArgumentException.class, ShortestPathsProgram::multiSource);
+    }
+}
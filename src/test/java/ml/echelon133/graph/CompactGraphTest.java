@@ -0,0 +1,115 @@
+package ml.echelon133.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompactGraphTest {
+
+    @Test
+    public void snapshotContainsAllVertexesAndEdges() {
+        Graph<Byte> byteGraph = TestGraphStore.getByteTestGraph();
+        CompactGraph<Byte> compactGraph = CompactGraph.of(byteGraph);
+
+        assertEquals(byteGraph.getVertexes().size(), compactGraph.getVertexCount());
+        assertEquals(byteGraph.getEdges().size(), compactGraph.getEdgeCount());
+
+        for (int v = 0; v < compactGraph.getVertexCount(); v++) {
+            Vertex<Byte> vertex = compactGraph.getVertex(v);
+            assertEquals(byteGraph.getVertexes().get(v), vertex);
+            assertEquals(v, compactGraph.getVertexId(vertex));
+            assertEquals(vertex.getEdges().size(), compactGraph.getEdgesEnd(v) - compactGraph.getEdgesStart(v));
+
+            for (int e = compactGraph.getEdgesStart(v); e < compactGraph.getEdgesEnd(v); e++) {
+                Edge<Byte> edge = compactGraph.getEdge(e);
+                assertEquals(vertex, edge.getSource());
+                assertEquals(edge.getDestination(), compactGraph.getVertex(compactGraph.getEdgeDestination(e)));
+                assertEquals(edge.getWeight().doubleValue(), compactGraph.getEdgeWeight(e));
+            }
+        }
+    }
+
+    @Test
+    public void vertexOutsideOfSnapshotHasNoId() {
+        CompactGraph<Byte> compactGraph = CompactGraph.of(TestGraphStore.getByteTestGraph());
+        assertEquals(-1, compactGraph.getVertexId(new Vertex<>("otherVertex")));
+    }
+
+    private static void assertSameGraph(CompactGraph<Integer> expected, CompactGraph<Integer> reordered) {
+        assertEquals(expected.getVertexCount(), reordered.getVertexCount());
+        assertEquals(expected.getEdgeCount(), reordered.getEdgeCount());
+
+        for (int v = 0; v < reordered.getVertexCount(); v++) {
+            int originalId = reordered.getOriginalVertexId(v);
+            assertEquals(expected.getVertex(originalId), reordered.getVertex(v));
+            assertEquals(expected.getEdgesEnd(originalId) - expected.getEdgesStart(originalId),
+                    reordered.getEdgesEnd(v) - reordered.getEdgesStart(v));
+
+            for (int e = reordered.getEdgesStart(v); e < reordered.getEdgesEnd(v); e++) {
+                Edge<Integer> edge = reordered.getEdge(e);
+                assertEquals(reordered.getVertex(v), edge.getSource());
+                assertEquals(edge.getDestination(), reordered.getVertex(reordered.getEdgeDestination(e)));
+            }
+        }
+    }
+
+    @Test
+    public void reorderingKeepsAllVertexesAndEdges() {
+        CompactGraph<Integer> compactGraph = CompactGraph.of(TestGraphStore.getIntegerTestGraph());
+
+        assertSameGraph(compactGraph, compactGraph.reorderBreadthFirst());
+        assertSameGraph(compactGraph, compactGraph.reorderReverseCuthillMcKee());
+        assertSameGraph(compactGraph, compactGraph.reorderByHilbertCurve(v -> v.getName().length(), v -> v.getName().hashCode()));
+        assertSameGraph(compactGraph, compactGraph.reorderBreadthFirst().reorderReverseCuthillMcKee());
+    }
+
+    @Test
+    public void breadthFirstOrderPutsNeighborsNextToEachOther() {
+        Graph<Integer> graph = new WeightedGraph<>();
+        Vertex<Integer> v1 = new Vertex<>("v1");
+        Vertex<Integer> v2 = new Vertex<>("v2");
+        Vertex<Integer> v3 = new Vertex<>("v3");
+        Vertex<Integer> v4 = new Vertex<>("v4");
+        List.of(v1, v2, v3, v4).forEach(graph::addVertex);
+        graph.addEdge(v1, v4, 1);
+        graph.addEdge(v4, v2, 1);
+        graph.addEdge(v2, v3, 1);
+
+        CompactGraph<Integer> reordered = CompactGraph.of(graph).reorderBreadthFirst();
+
+        assertEquals(v1, reordered.getVertex(0));
+        assertEquals(v4, reordered.getVertex(1));
+        assertEquals(v2, reordered.getVertex(2));
+        assertEquals(v3, reordered.getVertex(3));
+        assertEquals(3, reordered.getOriginalVertexId(1));
+    }
+
+    @Test
+    public void reorderThrowsExceptionWhenOrderIsNotPermutation() {
+        String expectedMsg = "Order must contain every vertex exactly once";
+        String receivedMsg = "";
+
+        try {
+            CompactGraph<Byte> compactGraph = CompactGraph.of(TestGraphStore.getByteTestGraph());
+            compactGraph.reorder(new int[] {0, 1, 2, 2, 4});
+        } catch (IllegalArgumentException ex) {
+            receivedMsg = ex.getMessage();
+        }
+
+        assertEquals(expectedMsg, receivedMsg);
+    }
+
+    @Test
+    public void solverGivesSameDistancesOnReorderedSnapshot() {
+        Graph<Integer> intGraph = TestGraphStore.getIntegerTestGraph();
+        CompactGraph<Integer> reordered = CompactGraph.of(intGraph).reorderReverseCuthillMcKee();
+
+        List<Vertex<Integer>> vertexes = intGraph.getVertexes();
+        DistanceTable<Integer> expected = new ShortestPathSolver<>(intGraph).distanceTable(vertexes, vertexes);
+        DistanceTable<Integer> received = new ShortestPathSolver<>(intGraph, reordered).distanceTable(vertexes, vertexes);
+
+        assertArrayEquals(expected.getDistances(), received.getDistances());
+    }
+}
@@ -0,0 +1,132 @@
+package ml.echelon133.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompressedGraphTest {
+
+    @Test
+    public void compressedCopyContainsAllVertexesAndEdges() {
+        CompactGraph<Integer> compactGraph = CompactGraph.of(TestGraphStore.getIntegerTestGraph()).reorderReverseCuthillMcKee();
+        CompressedGraph<Integer> compressedGraph = CompressedGraph.of(compactGraph);
+
+        assertEquals(compactGraph.getVertexCount(), compressedGraph.getVertexCount());
+        assertEquals(compactGraph.getEdgeCount(), compressedGraph.getEdgeCount());
+
+        for (int v = 0; v < compactGraph.getVertexCount(); v++) {
+            Vertex<Integer> vertex = compactGraph.getVertex(v);
+            assertSame(vertex, compressedGraph.getVertex(v));
+            assertEquals(v, compressedGraph.getVertexId(vertex));
+            assertEquals(compactGraph.getEdgesStart(v), compressedGraph.getEdgesStart(v));
+            assertEquals(compactGraph.getEdgesEnd(v), compressedGraph.getEdgesEnd(v));
+
+            int previousDestination = -1;
+            for (int e = compressedGraph.getEdgesStart(v); e < compressedGraph.getEdgesEnd(v); e++) {
+                Edge<Integer> edge = compressedGraph.getEdge(e);
+                assertSame(vertex, edge.getSource());
+                assertSame(edge.getDestination(), compressedGraph.getVertex(compressedGraph.getEdgeDestination(e)));
+                assertEquals(edge.getWeight().doubleValue(), compressedGraph.getEdgeWeight(e));
+
+                // edges of a vertex are sorted by destination
+                assertTrue(previousDestination <= compressedGraph.getEdgeDestination(e));
+                previousDestination = compressedGraph.getEdgeDestination(e);
+            }
+        }
+        assertEquals(-1, compressedGraph.getVertexId(new Vertex<>("otherVertex")));
+    }
+
+    @Test
+    public void forEachEdgeVisitsSameEdgesAsEdgeIds() {
+        CompressedGraph<Byte> compressedGraph = CompressedGraph.of(CompactGraph.of(TestGraphStore.getByteTestGraph()));
+
+        for (int v = 0; v < compressedGraph.getVertexCount(); v++) {
+            List<Integer> visited = new ArrayList<>();
+            compressedGraph.forEachEdge(v, (edgeId, dest, weight) -> {
+                assertEquals(compressedGraph.getEdgeDestination(edgeId), dest);
+                assertEquals(compressedGraph.getEdgeWeight(edgeId), weight);
+                visited.add(edgeId);
+            });
+            assertEquals(compressedGraph.getEdgesEnd(v) - compressedGraph.getEdgesStart(v), visited.size());
+        }
+    }
+
+    @Test
+    public void solverGivesSameDistancesOnCompressedGraph() {
+        Graph<Integer> intGraph = TestGraphStore.getIntegerTestGraph();
+        List<Vertex<Integer>> vertexes = intGraph.getVertexes();
+        CompressedGraph<Integer> compressedGraph = CompressedGraph.of(CompactGraph.of(intGraph).reorderBreadthFirst());
+
+        DistanceTable<Integer> expected = new ShortestPathSolver<>(intGraph).distanceTable(vertexes, vertexes);
+        DistanceTable<Integer> received = new ShortestPathSolver<>(intGraph, compressedGraph).distanceTable(vertexes, vertexes);
+
+        assertArrayEquals(expected.getDistances(), received.getDistances());
+    }
+
+    @Test
+    public void weightsWithoutDictionaryAreStoredExactly() {
+        // more distinct weights than the dictionary can hold
+        int vertexCount = CompressedGraph.MAX_DICTIONARY_SIZE + 10;
+        Graph<Double> graph = new WeightedGraph<>();
+        List<Vertex<Double>> vertexes = new ArrayList<>(vertexCount);
+        for (int i = 0; i < vertexCount; i++) {
+            Vertex<Double> v = new Vertex<>("v" + i);
+            vertexes.add(v);
+            graph.addVertex(v);
+        }
+        for (int i = 1; i < vertexCount; i++) {
+            graph.addEdge(vertexes.get(i - 1), vertexes.get(i), i + 0.1);
+        }
+
+        CompactGraph<Double> compactGraph = CompactGraph.of(graph);
+        CompressedGraph<Double> compressedGraph = CompressedGraph.of(compactGraph);
+        for (int e = 0; e < compactGraph.getEdgeCount(); e++) {
+            assertEquals(compactGraph.getEdgeWeight(e), compressedGraph.getEdgeWeight(e));
+            assertEquals(compactGraph.getEdgeDestination(e), compressedGraph.getEdgeDestination(e));
+        }
+    }
+
+    @Test
+    public void edgesAreCreatedWhenVertexesHaveNoEdgeLists() {
+        GraphBuilder<Integer> builder = new GraphBuilder<>(3, 3);
+        builder.addVertex("v1");
+        builder.addVertex("v2");
+        builder.addVertex("v3");
+        builder.addEdge(0, 1, 7).addEdge(1, 2, 3).addEdge(0, 2, 7);
+
+        CompressedGraph<Integer> compressedGraph = CompressedGraph.of(builder.buildCompact());
+        for (int e = 0; e < compressedGraph.getEdgeCount(); e++) {
+            Edge<Integer> edge = compressedGraph.getEdge(e);
+            assertEquals(compressedGraph.getEdgeWeight(e), edge.getWeight().doubleValue());
+            assertEquals(compressedGraph.getVertex(compressedGraph.getEdgeDestination(e)), edge.getDestination());
+        }
+        assertEquals(Integer.valueOf(3), compressedGraph.getEdge(compressedGraph.getEdgesStart(1)).getWeight());
+
+        try (OffHeapGraph offHeapGraph = OffHeapGraph.of(TestGraphStore.getIntegerTestGraph())) {
+            CompressedGraph<Double> compressedOffHeapGraph = CompressedGraph.of(offHeapGraph);
+            for (int e = 0; e < compressedOffHeapGraph.getEdgeCount(); e++) {
+                Edge<Double> edge = compressedOffHeapGraph.getEdge(e);
+                assertEquals(compressedOffHeapGraph.getEdgeWeight(e), edge.getWeight().doubleValue());
+            }
+        }
+    }
+
+    @Test
+    public void edgesWithoutDictionaryAreCreatedWithWeightsOfSourceType() {
+        int vertexCount = CompressedGraph.MAX_DICTIONARY_SIZE + 10;
+        GraphBuilder<Long> builder = new GraphBuilder<>(vertexCount, vertexCount);
+        for (int i = 0; i < vertexCount; i++) {
+            builder.addVertex("v" + i);
+        }
+        for (int i = 1; i < vertexCount; i++) {
+            builder.addEdge(i - 1, i, (long) i);
+        }
+
+        CompressedGraph<Long> compressedGraph = CompressedGraph.of(builder.buildCompact());
+        Edge<Long> edge = compressedGraph.getEdge(compressedGraph.getEdgesStart(100));
+        assertEquals(Long.valueOf(101), edge.getWeight());
+    }
+}
@@ -0,0 +1,119 @@
+package ml.echelon133.graph;
+
+import ml.echelon133.graph.io.DimacsFormat;
+import ml.echelon133.graph.io.GraphFormatException;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DimacsFormatTest {
+
+    private static GraphBuilder<Long> read(String dimacs) throws IOException {
+        return DimacsFormat.read(Channels.newChannel(new ByteArrayInputStream(dimacs.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Test
+    public void dimacsGraphIsRead() throws Exception {
+        String dimacs = "c example graph\n" +
+                "p sp 3 3\n" +
+                "a 1 2 10\n" +
+                "a 2 3  5\n" +
+                "c comment between arcs\n" +
+                "a 3 1\t7\n";
+
+        WeightedGraph<Long> graph = read(dimacs).build();
+
+        assertEquals(3, graph.getVertexes().size());
+        assertEquals(3, graph.getEdges().size());
+        assertEquals("3", graph.getEdges().get(1).getDestination().getName());
+        assertEquals(Long.valueOf(7), graph.getEdges().get(2).getWeight());
+
+        CompactGraph<Long> compactGraph = read(dimacs).buildCompact();
+        assertEquals(3, compactGraph.getEdgeCount());
+        assertEquals(1, compactGraph.getEdgeDestination(compactGraph.getEdgesStart(0)));
+    }
+
+    @Test
+    public void invalidFileCausesGraphFormatException() {
+        GraphFormatException ex = assertThrows(GraphFormatException.class, () -> read("a 1 2 3\n"));
+        assertEquals("Line 1: Arc line before the problem line", ex.getMessage());
+
+        ex = assertThrows(GraphFormatException.class, () -> read("p sp 2 1\na 1 3 1\n"));
+        assertEquals("Line 2: Arc contains a vertex that does not belong to the graph", ex.getMessage());
+
+        ex = assertThrows(GraphFormatException.class, () -> read("p sp 2 2\na 1 2 1\n"));
+        assertEquals("Problem line declares 2 arcs, but 1 were found", ex.getMessage());
+
+        ex = assertThrows(GraphFormatException.class, () -> read("p sp 2 1\na 1 2 1.5\n"));
+        assertEquals("Line 2: Expected an integer but found '1.5'", ex.getMessage());
+
+        ex = assertThrows(GraphFormatException.class, () -> read("c only comments\n"));
+        assertEquals("Missing problem line", ex.getMessage());
+
+        // the declared number of arcs is not allocated up front, so a short file cannot exhaust the memory
+        ex = assertThrows(GraphFormatException.class, () -> read("p sp 2 2000000000\na 1 2 1\n"));
+        assertEquals("Problem line declares 2000000000 arcs, but 1 were found", ex.getMessage());
+    }
+
+    @Test
+    public void writtenGraphHasSameDistances() throws Exception {
+        Graph<Integer> intGraph = TestGraphStore.getIntegerTestGraph();
+        intGraph.addUndirectedEdge(intGraph.getVertexes().get(0), intGraph.getVertexes().get(2), 1);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        DimacsFormat.write(intGraph, Channels.newChannel(output));
+        WeightedGraph<Long> graph = read(output.toString(StandardCharsets.UTF_8)).build();
+
+        List<Vertex<Integer>> vertexes = intGraph.getVertexes();
+        List<Vertex<Long>> readVertexes = graph.getVertexes();
+        DistanceTable<Integer> expected = new ShortestPathSolver<>(intGraph).distanceTable(vertexes, vertexes);
+        DistanceTable<Long> received = new ShortestPathSolver<>(graph).distanceTable(readVertexes, readVertexes);
+
+        assertArrayEquals(expected.getDistances(), received.getDistances());
+    }
+
+    @Test
+    public void dimacsFileIsReadIntoOffHeapGraph() throws Exception {
+        Graph<Integer> intGraph = TestGraphStore.getIntegerTestGraph();
+        Path file = Files.createTempFile("graph", ".gr");
+        try {
+            DimacsFormat.write(intGraph, file);
+
+            try (OffHeapGraph graph = DimacsFormat.readOffHeapGraph(file)) {
+                List<Vertex<Integer>> vertexes = intGraph.getVertexes();
+                List<Vertex<Double>> readVertexes = new ArrayList<>();
+                for (int i = 1; i <= vertexes.size(); i++) {
+                    readVertexes.add(new Vertex<>(Integer.toString(i)));
+                }
+                DistanceTable<Integer> expected = new ShortestPathSolver<>(intGraph).distanceTable(vertexes, vertexes);
+                DistanceTable<Double> received = new ShortestPathSolver<>(graph).distanceTable(readVertexes, readVertexes);
+
+                assertEquals(intGraph.getEdges().size(), graph.getEdgeCount());
+                assertArrayEquals(expected.getDistances(), received.getDistances());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void fractionalWeightCannotBeWritten() {
+        Graph<Double> graph = new WeightedGraph<>();
+        Vertex<Double> v1 = new Vertex<>("v1");
+        graph.addVertex(v1);
+        graph.addEdge(v1, v1, 0.5);
+
+        assertThrows(IllegalArgumentException.class, () -> DimacsFormat.write(graph, Channels.newChannel(new ByteArrayOutputStream())));
+    }
+}
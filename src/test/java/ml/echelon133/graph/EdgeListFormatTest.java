@@ -0,0 +1,112 @@
+package ml.echelon133.graph;
+
+import ml.echelon133.graph.io.EdgeListFormat;
+import ml.echelon133.graph.io.GraphFormatException;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EdgeListFormatTest {
+
+    private static WeightedGraph<Double> read(String edgeList) throws IOException {
+        return EdgeListFormat.read(Channels.newChannel(new ByteArrayInputStream(edgeList.getBytes(StandardCharsets.UTF_8)))).build();
+    }
+
+    @Test
+    public void edgeListIsRead() throws Exception {
+        String edgeList = "# source,destination,weight\n" +
+                "v1,v2,10\n" +
+                "\n" +
+                " v2 , v3 , 0.25 \r\n" +
+                "v3,v1,1e3,undirected\n" +
+                "v4\n" +
+                "v4,v1,2.5,directed";
+
+        WeightedGraph<Double> graph = read(edgeList);
+
+        assertEquals(4, graph.getVertexes().size());
+        assertEquals(4, graph.getEdges().size());
+        Edge<Double> e2 = graph.getEdges().get(1);
+        assertEquals("v2", e2.getSource().getName());
+        assertEquals("v3", e2.getDestination().getName());
+        assertEquals(0.25, e2.getWeight().doubleValue());
+        assertEquals(1000.0, graph.getEdges().get(2).getWeight().doubleValue());
+        assertFalse(graph.getEdges().get(2).isDirected());
+        assertTrue(graph.getEdges().get(3).isDirected());
+    }
+
+    @Test
+    public void invalidLineCausesGraphFormatException() {
+        GraphFormatException ex = assertThrows(GraphFormatException.class, () -> read("v1,v2,1\nv1,v2,abc\n"));
+        assertEquals("Line 2: Expected a number but found 'abc'", ex.getMessage());
+
+        ex = assertThrows(GraphFormatException.class, () -> read("v1,v2,-1\n"));
+        assertEquals("Line 1: Edge weight cannot be negative", ex.getMessage());
+
+        ex = assertThrows(GraphFormatException.class, () -> read("v1,,1\n"));
+        assertEquals("Line 1: Missing value", ex.getMessage());
+
+        ex = assertThrows(GraphFormatException.class, () -> read("v1,v2,1,sideways\n"));
+        assertEquals("Line 1: Expected 'directed' or 'undirected' but found 'sideways'", ex.getMessage());
+    }
+
+    @Test
+    public void nonFiniteWeightCausesGraphFormatException() {
+        GraphFormatException ex = assertThrows(GraphFormatException.class, () -> read("v1,v2,1\nv1,v2,NaN\n"));
+        assertEquals("Line 2: Expected a finite number but found 'NaN'", ex.getMessage());
+
+        ex = assertThrows(GraphFormatException.class, () -> read("v1,v2,Infinity\n"));
+        assertEquals("Line 1: Expected a finite number but found 'Infinity'", ex.getMessage());
+
+        ex = assertThrows(GraphFormatException.class, () -> read("v1,v2,1\n\nv1,v2,1e400\n"));
+        assertEquals("Line 3: Expected a finite number but found '1e400'", ex.getMessage());
+    }
+
+    @Test
+    public void writtenGraphIsReadBack() throws Exception {
+        Graph<Integer> intGraph = TestGraphStore.getIntegerTestGraph();
+        intGraph.addVertex(new Vertex<>("isolatedVertex"));
+        intGraph.addUndirectedEdge(intGraph.getVertexes().get(0), intGraph.getVertexes().get(1), 7);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        EdgeListFormat.write(intGraph, Channels.newChannel(output));
+        WeightedGraph<Double> graph = read(output.toString(StandardCharsets.UTF_8));
+
+        assertEquals(intGraph.getVertexes().size(), graph.getVertexes().size());
+        assertEquals(intGraph.getEdges().size(), graph.getEdges().size());
+        for (int i = 0; i < intGraph.getEdges().size(); i++) {
+            Edge<Integer> expected = intGraph.getEdges().get(i);
+            Edge<Double> received = graph.getEdges().get(i);
+            assertEquals(expected.getSource().getName(), received.getSource().getName());
+            assertEquals(expected.getDestination().getName(), received.getDestination().getName());
+            assertEquals(expected.getWeight().doubleValue(), received.getWeight().doubleValue());
+            assertEquals(expected.isDirected(), received.isDirected());
+        }
+        assertNotNull(graph.findVertex("isolatedVertex"));
+    }
+
+    @Test
+    public void longLinesAreRead() throws Exception {
+        String longName = "v".repeat(200_000);
+        WeightedGraph<Double> graph = read("v1," + longName + ",1\n" + longName + ",v1,2\n");
+
+        assertEquals(List.of("v1", longName), List.of(graph.getVertexes().get(0).getName(), graph.getVertexes().get(1).getName()));
+        assertEquals(2, graph.getEdges().size());
+    }
+
+    @Test
+    public void vertexNameWithCommaCannotBeWritten() {
+        Graph<Integer> graph = new WeightedGraph<>();
+        graph.addVertex(new Vertex<>("a,b"));
+
+        assertThrows(IllegalArgumentException.class, () -> EdgeListFormat.write(graph, Channels.newChannel(new ByteArrayOutputStream())));
+    }
+}
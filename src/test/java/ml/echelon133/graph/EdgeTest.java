@@ -159,4 +159,21 @@ public class EdgeTest {
         assertFalse(e2.isVertexInEdge(v1));
         assertFalse(e2.isVertexInEdge(v2));
     }
+
+    @Test
+    public void getOppositeVertexTraversesUndirectedEdgesInBothDirections() {
+        Vertex<Integer> v1 = new Vertex<>("v1");
+        Vertex<Integer> v2 = new Vertex<>("v2");
+
+        Edge<Integer> directed = new Edge<>(v1, v2, 10);
+        Edge<Integer> undirected = new Edge<>(v1, v2, 10, false);
+
+        assertTrue(directed.isDirected());
+        assertSame(v2, directed.getOppositeVertex(v1));
+        assertSame(v2, directed.getOppositeVertex(v2));
+
+        assertFalse(undirected.isDirected());
+        assertSame(v2, undirected.getOppositeVertex(v1));
+        assertSame(v1, undirected.getOppositeVertex(v2));
+    }
 }
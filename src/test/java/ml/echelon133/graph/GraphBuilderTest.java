@@ -0,0 +1,108 @@
+package ml.echelon133.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GraphBuilderTest {
+
+    @Test
+    public void builtGraphContainsAllVertexesAndEdges() {
+        GraphBuilder<Integer> builder = new GraphBuilder<>(3, 3);
+        int v1 = builder.addVertex("v1");
+        int v2 = builder.addVertex("v2");
+        builder.addEdge(v1, v2, 10);
+        // v3 is referred to before it is added
+        builder.addEdge("v2", "v3", 20);
+        builder.addVertex("v3");
+        builder.addUndirectedEdge("v3", "v1", 5);
+
+        WeightedGraph<Integer> graph = builder.build();
+
+        assertEquals(3, graph.getVertexes().size());
+        assertEquals(3, graph.getEdges().size());
+        Vertex<Integer> vertex1 = graph.findVertex("v1");
+        Vertex<Integer> vertex2 = graph.findVertex("v2");
+        Vertex<Integer> vertex3 = graph.findVertex("v3");
+        assertEquals(2, vertex1.getEdges().size());
+        assertEquals(1, vertex2.getEdges().size());
+        assertEquals(1, vertex3.getEdges().size());
+        assertSame(vertex3, vertex2.getEdges().get(0).getDestination());
+        assertFalse(vertex3.getEdges().get(0).isDirected());
+
+        Map<Vertex<Integer>, VertexResult<Integer>> result = new ShortestPathSolver<>(graph).solveStartingFrom(vertex2);
+        assertEquals(new BigDecimal(25), result.get(vertex1).getSumOfWeights());
+    }
+
+    @Test
+    public void compactGraphHasSameDistancesAsBuiltGraph() {
+        GraphBuilder<Integer> builder = new GraphBuilder<>(0, 0);
+        for (int i = 0; i < 5; i++) {
+            builder.addVertex("v" + i);
+        }
+        builder.addEdges(new int[] {0, 1, 2, 3}, new int[] {1, 2, 3, 4}, List.of(1, 2, 3, 4));
+        builder.addUndirectedEdge(4, 0, 7);
+        builder.addEdge(0, 0, 1);
+
+        WeightedGraph<Integer> graph = builder.build();
+        CompactGraph<Integer> compactGraph = builder.buildCompact();
+        assertEquals(CompactGraph.of(graph).getEdgeCount(), compactGraph.getEdgeCount());
+
+        List<Vertex<Integer>> vertexes = graph.getVertexes();
+        List<Vertex<Integer>> compactVertexes = List.of(compactGraph.getVertex(0), compactGraph.getVertex(1),
+                compactGraph.getVertex(2), compactGraph.getVertex(3), compactGraph.getVertex(4));
+        DistanceTable<Integer> expected = new ShortestPathSolver<>(graph).distanceTable(vertexes, vertexes);
+        DistanceTable<Integer> received = new ShortestPathSolver<>(compactGraph).distanceTable(compactVertexes, compactVertexes);
+
+        assertArrayEquals(expected.getDistances(), received.getDistances());
+    }
+
+    @Test
+    public void buildingInvalidGraphThrowsException() {
+        GraphBuilder<Integer> duplicateVertexes = new GraphBuilder<>(2, 0);
+        duplicateVertexes.addVertex("v1");
+        duplicateVertexes.addVertex("v1");
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, duplicateVertexes::build);
+        assertEquals("Vertex with that name already belongs to this graph", ex.getMessage());
+
+        GraphBuilder<Integer> missingVertex = new GraphBuilder<>(1, 1);
+        missingVertex.addVertex("v1");
+        missingVertex.addEdge("v1", "v2", 1);
+        ex = assertThrows(IllegalArgumentException.class, missingVertex::buildCompact);
+        assertEquals("Edge contains a vertex that does not belong to the graph", ex.getMessage());
+
+        // the edge becomes valid once the vertex is added
+        missingVertex.addVertex("v2");
+        assertEquals(1, missingVertex.build().getEdges().size());
+
+        GraphBuilder<Integer> negativeWeight = new GraphBuilder<>(1, 1);
+        negativeWeight.addVertex("v1");
+        negativeWeight.addEdge(0, 0, -1);
+        ex = assertThrows(IllegalArgumentException.class, negativeWeight::build);
+        assertEquals("Edge weight cannot be negative", ex.getMessage());
+    }
+
+    @Test
+    public void negativeIdsAreNotResolvedToNamedVertexes() {
+        GraphBuilder<Integer> builder = new GraphBuilder<>(2, 2);
+        builder.addVertex("v1");
+        // refers to v2 by name before it is added, which uses the first placeholder internally
+        builder.addEdge("v1", "v2", 1);
+        builder.addVertex("v2");
+        builder.addEdge(0, -2, 1);
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, builder::build);
+        assertEquals("Edge contains a vertex that does not belong to the graph", ex.getMessage());
+
+        GraphBuilder<Integer> bulkBuilder = new GraphBuilder<>(2, 2);
+        bulkBuilder.addVertex("v1");
+        bulkBuilder.addEdge("v1", "v2", 1);
+        bulkBuilder.addVertex("v2");
+        bulkBuilder.addEdges(new int[] {-2}, new int[] {0}, List.of(1));
+        ex = assertThrows(IllegalArgumentException.class, bulkBuilder::buildCompact);
+        assertEquals("Edge contains a vertex that does not belong to the graph", ex.getMessage());
+    }
+}
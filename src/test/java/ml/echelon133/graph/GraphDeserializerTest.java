@@ -4,12 +4,19 @@ import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 import ml.echelon133.graph.json.GraphDeserializer;
+import ml.echelon133.graph.json.LimitedInputStream;
+import ml.echelon133.graph.json.ParallelGraphLoader;
+import ml.echelon133.graph.json.exception.DuplicateNodeException;
+import ml.echelon133.graph.json.exception.MaxInputSizeReachedException;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -18,7 +25,11 @@ public class GraphDeserializerTest {
 
     private static JavaType graphBigDecimalType;
     private static ObjectMapper mapper;
+    private static ObjectMapper limitedMapper;
     private static Integer maxEdgesCount = 3;
+    private static Integer maxVertexCount = 2;
+    private static Integer maxNameLength = 5;
+    private static Long maxInputBytes = 200L;
 
     @BeforeAll
     public static void setup() {
@@ -34,6 +45,22 @@ public class GraphDeserializerTest {
         module.addDeserializer(Graph.class, new GraphDeserializer(graphType, maxEdgesCount));
 
         mapper.registerModule(module);
+
+        // use the GraphDeserializer constructor that takes all limits
+        SimpleModule limitedModule = new SimpleModule();
+        limitedModule.addDeserializer(Graph.class,
+                new GraphDeserializer(graphType, maxVertexCount, maxEdgesCount, maxNameLength, maxInputBytes));
+        limitedMapper = new ObjectMapper();
+        limitedMapper.registerModule(limitedModule);
+    }
+
+    private static String readWithLimits(String json) {
+        try {
+            limitedMapper.readValue(json, graphBigDecimalType);
+        } catch (IOException ex) {
+            return ex.getMessage();
+        }
+        return "";
     }
 
     @Test
@@ -321,6 +348,27 @@ public class GraphDeserializerTest {
         assertEquals(expectedMessage, receivedMessage);
     }
 
+    @Test
+    public void duplicateTopLevelNodeCausesDuplicateNodeException() {
+        String vertexes = "\"vertexes\": [\"v1\", \"v2\"]";
+        String edges = "\"edges\": [{\"source\" : \"v1\", \"destination\" : \"v2\", \"weight\" : 10}]";
+        ParallelGraphLoader loader = new ParallelGraphLoader();
+        Map<String, String> expectedMessages = Map.of(
+                "{" + vertexes + ", " + edges + ", " + vertexes + "}", "Duplicate 'vertexes' JSON node.",
+                "{" + edges + ", " + vertexes + ", " + edges + "}", "Duplicate 'edges' JSON node.");
+
+        for (Map.Entry<String, String> entry : expectedMessages.entrySet()) {
+            String json = entry.getKey();
+            DuplicateNodeException ex = assertThrows(DuplicateNodeException.class,
+                    () -> mapper.readValue(json, graphBigDecimalType));
+            assertEquals(entry.getValue(), ex.getMessage());
+            // documents loaded in parallel follow the same rule
+            ex = assertThrows(DuplicateNodeException.class,
+                    () -> loader.load(json.getBytes(StandardCharsets.UTF_8)));
+            assertEquals(entry.getValue(), ex.getMessage());
+        }
+    }
+
     @Test
     public void graphContainingDuplicateVertexesCausesVertexAlreadyInGraphException() {
         String receivedMessage = "";
@@ -337,4 +385,134 @@ public class GraphDeserializerTest {
 
         assertEquals(expectedMessage, receivedMessage);
     }
+
+    @Test
+    public void edgeObjectDirectedFlagNotBooleanCausesNodeIsNotBooleanException() {
+        String expectedMessage = "Directed flag in Edge is not boolean";
+        String receivedMessage = "";
+
+        String json = "{\"vertexes\": [\"v1\", \"v2\"], \"edges\": [{\"source\" : \"v1\", \"destination\" : \"v2\", \"weight\" : 1, \"directed\" : \"no\"}]}";
+
+        try {
+            Graph<BigDecimal> graph = mapper.readValue(json, graphBigDecimalType);
+        } catch (IOException ex) {
+            receivedMessage = ex.getMessage();
+        }
+
+        assertEquals(expectedMessage, receivedMessage);
+    }
+
+    @Test
+    public void graphWithinAllLimitsDeserializesCorrectly() throws IOException {
+        String json = "{\"vertexes\": [\"v1\", \"v2\"], \"unknown\": {\"a\": [1, 2]}, " +
+                      "\"edges\": [{\"source\":\"v1\",\"destination\":\"v2\",\"weight\":20,\"note\":[true]}]}";
+
+        Graph<BigDecimal> graph = limitedMapper.readValue(json, graphBigDecimalType);
+
+        assertEquals(2, graph.getVertexes().size());
+        assertEquals(1, graph.getEdges().size());
+        assertEquals(new BigDecimal(20), graph.getEdges().get(0).getWeight());
+    }
+
+    @Test
+    public void edgesBeforeVertexesDeserializeCorrectly() throws IOException {
+        String json = "{\"edges\": [{\"source\":\"v1\",\"destination\":\"v2\",\"weight\":20}], " +
+                      "\"vertexes\": [\"v1\", \"v2\"]}";
+
+        Graph<BigDecimal> graph = mapper.readValue(json, graphBigDecimalType);
+
+        assertEquals(2, graph.getVertexes().size());
+        assertEquals(1, graph.getEdges().size());
+        assertEquals("v2", graph.getEdges().get(0).getDestination().getName());
+    }
+
+    @Test
+    public void graphContainingNumberOfVertexesAboveMaxVertexCountCausesMaxVertexCountReachedException() {
+        String json = "{\"vertexes\": [\"v1\", \"v2\", \"v3\"], \"edges\": []}";
+
+        String expectedMessage = String.format("Cannot accept graphs that contain more than %d vertexes", maxVertexCount);
+
+        assertEquals(expectedMessage, readWithLimits(json));
+    }
+
+    @Test
+    public void vertexNameLongerThanMaxNameLengthCausesMaxNameLengthExceededException() {
+        String json = "{\"vertexes\": [\"v1\", \"vertex2\"], \"edges\": []}";
+
+        String expectedMessage = String.format("Cannot accept vertex names longer than %d characters", maxNameLength);
+
+        assertEquals(expectedMessage, readWithLimits(json));
+    }
+
+    @Test
+    public void edgeVertexNameLongerThanMaxNameLengthCausesMaxNameLengthExceededException() {
+        String json = "{\"edges\": [{\"source\":\"vertex1\",\"destination\":\"v2\",\"weight\":20}], " +
+                      "\"vertexes\": [\"v1\", \"v2\"]}";
+
+        String expectedMessage = String.format("Cannot accept vertex names longer than %d characters", maxNameLength);
+
+        assertEquals(expectedMessage, readWithLimits(json));
+    }
+
+    @Test
+    public void edgesBeforeVertexesAboveMaxEdgesCountCauseMaxEdgeCountReachedException() {
+        String edge = "{\"source\":\"v1\",\"destination\":\"v2\",\"weight\":1}";
+        String json = "{\"edges\": [" + String.join(",", edge, edge, edge, edge) + "], \"vertexes\": []}";
+
+        String expectedMessage = String.format("Cannot accept graphs that contain more than %d edges", maxEdgesCount);
+
+        assertEquals(expectedMessage, readWithLimits(json));
+    }
+
+    @Test
+    public void inputLargerThanMaxInputBytesCausesMaxInputSizeReachedException() {
+        // the unknown field is never kept in memory, but it still counts towards the size of the input
+        String padding = "[" + "0,".repeat(200) + "0]";
+        String json = "{\"padding\": " + padding + ", \"vertexes\": [], \"edges\": []}";
+
+        String expectedMessage = String.format("Cannot accept inputs larger than %d bytes", maxInputBytes);
+
+        assertEquals(expectedMessage, readWithLimits(json));
+    }
+
+    @Test
+    public void inputLargerThanMaxInputBytesReadFromBytesCausesMaxInputSizeReachedException() {
+        String padding = "x".repeat(300);
+        byte[] json = ("{\"padding\": \"" + padding + "\", \"vertexes\": [], \"edges\": []}").getBytes();
+
+        String receivedMessage = "";
+        try {
+            limitedMapper.readValue(json, graphBigDecimalType);
+        } catch (IOException ex) {
+            receivedMessage = ex.getMessage();
+        }
+
+        assertEquals(String.format("Cannot accept inputs larger than %d bytes", maxInputBytes), receivedMessage);
+    }
+
+    @Test
+    public void limitedInputStreamStopsParserInsideHugeName() {
+        byte[] json = ("{\"vertexes\": [\"" + "x".repeat(1 << 20) + "\"], \"edges\": []}").getBytes();
+        ByteArrayInputStream source = new ByteArrayInputStream(json);
+        LimitedInputStream limitedSource = new LimitedInputStream(source, maxInputBytes);
+
+        MaxInputSizeReachedException ex = assertThrows(MaxInputSizeReachedException.class,
+                () -> limitedMapper.readValue(limitedSource, graphBigDecimalType));
+
+        assertEquals(String.format("Cannot accept inputs larger than %d bytes", maxInputBytes), ex.getMessage());
+        // the name was not read as a whole
+        assertEquals(maxInputBytes + 1, limitedSource.getReadBytes());
+        assertEquals(json.length - maxInputBytes - 1, source.available());
+    }
+
+    @Test
+    public void inputWithinLimitOfLimitedInputStreamIsRead() throws IOException {
+        byte[] json = "{\"vertexes\": [\"v1\", \"v2\"], \"edges\": []}".getBytes();
+
+        Graph<BigDecimal> graph = limitedMapper.readValue(new LimitedInputStream(new ByteArrayInputStream(json),
+                json.length), graphBigDecimalType);
+
+        assertEquals(2, graph.getVertexes().size());
+        assertThrows(IllegalArgumentException.class, () -> new LimitedInputStream(new ByteArrayInputStream(json), -1));
+    }
 }
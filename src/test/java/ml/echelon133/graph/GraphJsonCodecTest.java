@@ -0,0 +1,134 @@
+package ml.echelon133.graph;
+
+import ml.echelon133.graph.json.GraphJsonCodec;
+import ml.echelon133.graph.json.GraphReadLimits;
+import ml.echelon133.graph.json.exception.MaxEdgeCountReachedException;
+import ml.echelon133.graph.json.exception.MaxInputSizeReachedException;
+import ml.echelon133.graph.json.exception.MaxNameLengthExceededException;
+import ml.echelon133.graph.json.exception.MaxVertexCountReachedException;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GraphJsonCodecTest {
+
+    private static void assertSameGraph(Graph<Integer> expected, Graph<BigDecimal> received) {
+        assertEquals(expected.getVertexes().size(), received.getVertexes().size());
+        assertEquals(expected.getEdges().size(), received.getEdges().size());
+        for (int i = 0; i < expected.getVertexes().size(); i++) {
+            assertEquals(expected.getVertexes().get(i).getName(), received.getVertexes().get(i).getName());
+        }
+        for (int i = 0; i < expected.getEdges().size(); i++) {
+            Edge<Integer> expectedEdge = expected.getEdges().get(i);
+            Edge<BigDecimal> receivedEdge = received.getEdges().get(i);
+            assertEquals(expectedEdge.getSource().getName(), receivedEdge.getSource().getName());
+            assertEquals(expectedEdge.getDestination().getName(), receivedEdge.getDestination().getName());
+            assertEquals(expectedEdge.getWeightAsBigDecimal(), receivedEdge.getWeightAsBigDecimal());
+        }
+    }
+
+    @Test
+    public void graphIsWrittenAndReadThroughStreams() throws Exception {
+        Graph<Integer> intGraph = TestGraphStore.getIntegerTestGraph();
+        GraphJsonCodec codec = new GraphJsonCodec();
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        codec.write(intGraph, output);
+
+        assertEquals('{', output.toByteArray()[0]);
+        assertSameGraph(intGraph, codec.read(new ByteArrayInputStream(output.toByteArray())));
+    }
+
+    @Test
+    public void gzipCompressedGraphIsWrittenAndReadThroughChannels() throws Exception {
+        Graph<Integer> intGraph = TestGraphStore.getIntegerTestGraph();
+        GraphJsonCodec gzipCodec = new GraphJsonCodec(128, true);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        gzipCodec.write(intGraph, Channels.newChannel(output));
+        byte[] written = output.toByteArray();
+
+        // GZIP magic bytes
+        assertEquals((byte) 0x1F, written[0]);
+        assertEquals((byte) 0x8B, written[1]);
+
+        // compression is recognized by every codec
+        assertSameGraph(intGraph, new GraphJsonCodec().read(Channels.newChannel(new ByteArrayInputStream(written))));
+    }
+
+    @Test
+    public void outputStreamIsNotClosed() throws Exception {
+        boolean[] closed = new boolean[1];
+        OutputStream output = new ByteArrayOutputStream() {
+            @Override
+            public void close() throws IOException {
+                closed[0] = true;
+            }
+        };
+
+        new GraphJsonCodec(16, true).write(TestGraphStore.getByteTestGraph(), output);
+        new GraphJsonCodec(16, false).write(TestGraphStore.getByteTestGraph(), output);
+
+        assertFalse(closed[0]);
+    }
+
+    @Test
+    public void maxEdgesCountIsEnforcedWhileReading() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new GraphJsonCodec().write(TestGraphStore.getIntegerTestGraph(), output);
+
+        GraphJsonCodec limitedCodec = new GraphJsonCodec(1024, false, 1);
+        assertThrows(MaxEdgeCountReachedException.class, () -> limitedCodec.read(new ByteArrayInputStream(output.toByteArray())));
+    }
+
+    @Test
+    public void allLimitsAreEnforcedWhileReading() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new GraphJsonCodec().write(TestGraphStore.getIntegerTestGraph(), output);
+        byte[] written = output.toByteArray();
+
+        GraphJsonCodec vertexLimitedCodec = new GraphJsonCodec(1024, false, GraphReadLimits.UNLIMITED.withMaxVertexCount(1));
+        assertThrows(MaxVertexCountReachedException.class, () -> vertexLimitedCodec.read(new ByteArrayInputStream(written)));
+
+        GraphJsonCodec nameLimitedCodec = new GraphJsonCodec(1024, false, GraphReadLimits.UNLIMITED.withMaxNameLength(1));
+        assertThrows(MaxNameLengthExceededException.class, () -> nameLimitedCodec.read(new ByteArrayInputStream(written)));
+
+        GraphJsonCodec sizeLimitedCodec = new GraphJsonCodec(1024, false,
+                GraphReadLimits.UNLIMITED.withMaxInputBytes(written.length - 1));
+        assertThrows(MaxInputSizeReachedException.class, () -> sizeLimitedCodec.read(new ByteArrayInputStream(written)));
+
+        GraphReadLimits exactLimits = GraphReadLimits.UNLIMITED
+                .withMaxVertexCount(TestGraphStore.getIntegerTestGraph().getVertexes().size())
+                .withMaxEdgesCount(TestGraphStore.getIntegerTestGraph().getEdges().size())
+                .withMaxInputBytes(written.length);
+        assertSameGraph(TestGraphStore.getIntegerTestGraph(),
+                new GraphJsonCodec(1024, false, exactLimits).read(new ByteArrayInputStream(written)));
+
+        assertThrows(IllegalArgumentException.class, () -> GraphReadLimits.UNLIMITED.withMaxInputBytes(-1));
+    }
+
+    @Test
+    public void sizeOfCompressedDocumentIsCountedAfterDecompression() throws Exception {
+        ByteArrayOutputStream plainOutput = new ByteArrayOutputStream();
+        new GraphJsonCodec().write(TestGraphStore.getIntegerTestGraph(), plainOutput);
+        ByteArrayOutputStream gzipOutput = new ByteArrayOutputStream();
+        new GraphJsonCodec(1024, true).write(TestGraphStore.getIntegerTestGraph(), gzipOutput);
+        byte[] compressed = gzipOutput.toByteArray();
+        assertTrue(compressed.length < plainOutput.size());
+
+        // the compressed document fits the limit, the decompressed one does not
+        GraphJsonCodec limitedCodec = new GraphJsonCodec(1024, false,
+                GraphReadLimits.UNLIMITED.withMaxInputBytes(plainOutput.size() - 1));
+        MaxInputSizeReachedException ex = assertThrows(MaxInputSizeReachedException.class,
+                () -> limitedCodec.read(new ByteArrayInputStream(compressed)));
+        assertEquals(String.format("Cannot accept inputs larger than %d bytes", plainOutput.size() - 1), ex.getMessage());
+    }
+}
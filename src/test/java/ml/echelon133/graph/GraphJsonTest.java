@@ -397,4 +397,25 @@ public class GraphJsonTest {
             assertEquals(bDecimalOrgEdge.getWeight().doubleValue(), bDecimalEdge.getWeightAsBigDecimal().doubleValue());
         }
     }
+
+    @Test
+    public void serializeAndDeserializeUndirectedEdgesTest() throws Exception {
+        Graph<Integer> graph = new WeightedGraph<>();
+        Vertex<Integer> v1 = new Vertex<>("v1");
+        Vertex<Integer> v2 = new Vertex<>("v2");
+        graph.addVertex(v1);
+        graph.addVertex(v2);
+        graph.addUndirectedEdge(v1, v2, 5);
+        graph.addEdge(v1, v2, 7);
+
+        String serialized = mapper.writeValueAsString(graph);
+        assertEquals("{\"vertexes\":[\"v1\",\"v2\"],\"edges\":[" +
+                "{\"source\":\"v1\",\"destination\":\"v2\",\"weight\":5,\"directed\":false}," +
+                "{\"source\":\"v1\",\"destination\":\"v2\",\"weight\":7}]}", serialized);
+
+        Graph<BigDecimal> deserializedGraph = mapper.readValue(serialized, graphBigDecimalType);
+        assertEquals(false, deserializedGraph.getEdges().get(0).isDirected());
+        assertEquals(true, deserializedGraph.getEdges().get(1).isDirected());
+        assertEquals(1, deserializedGraph.findVertex("v2").getEdges().size());
+    }
 }
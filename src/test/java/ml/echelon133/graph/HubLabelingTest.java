@@ -0,0 +1,98 @@
+package ml.echelon133.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HubLabelingTest {
+
+    private static void assertSameDistances(IndexedGraph<Integer> graph, HubLabeling labeling) {
+        IndexedDijkstra search = new IndexedDijkstra(graph);
+        for (int source = 0; source < graph.getVertexCount(); source++) {
+            search.start(source);
+            while (search.visitNext() != -1) {
+                // visit every reachable vertex
+            }
+            for (int target = 0; target < graph.getVertexCount(); target++) {
+                assertEquals(search.getDistance(target), labeling.getDistance(source, target));
+            }
+        }
+    }
+
+    @Test
+    public void labelingDistancesAreEqualToDijkstraDistances() {
+        CompactGraph<Integer> graph = TestGraphStore.getRandomCompactGraph(150, 400, 3);
+        HubLabeling labeling = HubLabeling.of(graph);
+
+        assertEquals(150, labeling.getVertexCount());
+        assertSameDistances(graph, labeling);
+        // pruning keeps the labels much smaller than a full distance matrix
+        assertTrue(labeling.getLabelSize() < 2L * 150 * 150);
+    }
+
+    @Test
+    public void labelingWithCustomOrderHasSameDistances() {
+        CompactGraph<Integer> graph = TestGraphStore.getRandomCompactGraph(60, 150, 5);
+        int[] order = new int[60];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = order.length - 1 - i;
+        }
+
+        assertSameDistances(graph, HubLabeling.of(graph, order));
+    }
+
+    @Test
+    public void labelingOfGraphUsesIndexesOfVertexes() {
+        Graph<Integer> graph = TestGraphStore.getIntegerTestGraph();
+        HubLabeling labeling = HubLabeling.of(graph);
+
+        Vertex<Integer> v1 = graph.findVertex("intVertex1");
+        Vertex<Integer> v2 = graph.findVertex("intVertex2");
+        double expected = new ShortestPathSolver<>(graph).solveStartingFrom(v1).get(v2).getSumOfWeights().doubleValue();
+        assertEquals(expected, labeling.getDistance(graph.getVertexes().indexOf(v1), graph.getVertexes().indexOf(v2)));
+    }
+
+    @Test
+    public void loadedLabelingHasSameDistances() throws IOException {
+        CompactGraph<Integer> graph = TestGraphStore.getRandomCompactGraph(100, 300, 11);
+        HubLabeling labeling = HubLabeling.of(graph);
+
+        Path file = Files.createTempFile("labeling", ".hl");
+        try {
+            labeling.save(file);
+            HubLabeling loaded = HubLabeling.load(file);
+
+            assertEquals(labeling.getVertexCount(), loaded.getVertexCount());
+            assertEquals(labeling.getLabelSize(), loaded.getLabelSize());
+            assertSameDistances(graph, loaded);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void fileWithoutLabelingCausesIOException() throws IOException {
+        Path file = Files.createTempFile("labeling", ".hl");
+        try {
+            Files.write(file, new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16});
+            assertThrows(IOException.class, () -> HubLabeling.load(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void invalidArgumentsCauseIllegalArgumentException() {
+        CompactGraph<Integer> graph = TestGraphStore.getRandomCompactGraph(3, 3, 1);
+        assertThrows(IllegalArgumentException.class, () -> HubLabeling.of(graph, new int[] {0, 1}));
+        assertThrows(IllegalArgumentException.class, () -> HubLabeling.of(graph, new int[] {0, 1, 1}));
+
+        HubLabeling labeling = HubLabeling.of(graph);
+        assertThrows(IllegalArgumentException.class, () -> labeling.getDistance(0, 3));
+        assertThrows(IllegalArgumentException.class, () -> labeling.getDistance(-1, 0));
+    }
+}
@@ -0,0 +1,212 @@
+package ml.echelon133.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OffHeapGraphTest {
+
+    @Test
+    public void offHeapCopyContainsAllVertexesAndEdges() {
+        CompactGraph<Integer> compactGraph = CompactGraph.of(TestGraphStore.getIntegerTestGraph());
+
+        try (OffHeapGraph offHeapGraph = OffHeapGraph.of(compactGraph)) {
+            assertEquals(compactGraph.getVertexCount(), offHeapGraph.getVertexCount());
+            assertEquals(compactGraph.getEdgeCount(), offHeapGraph.getEdgeCount());
+
+            for (int v = 0; v < compactGraph.getVertexCount(); v++) {
+                String name = compactGraph.getVertex(v).getName();
+                assertEquals(name, offHeapGraph.getVertex(v).getName());
+                assertEquals(v, offHeapGraph.getVertexId(name));
+                assertEquals(compactGraph.getEdgesStart(v), offHeapGraph.getEdgesStart(v));
+                assertEquals(compactGraph.getEdgesEnd(v), offHeapGraph.getEdgesEnd(v));
+            }
+            for (int e = 0; e < compactGraph.getEdgeCount(); e++) {
+                assertEquals(compactGraph.getEdgeDestination(e), offHeapGraph.getEdgeDestination(e));
+                assertEquals(compactGraph.getEdgeWeight(e), offHeapGraph.getEdgeWeight(e));
+
+                Edge<Double> edge = offHeapGraph.getEdge(e);
+                assertEquals(compactGraph.getEdge(e).getSource().getName(), edge.getSource().getName());
+                assertEquals(compactGraph.getEdge(e).getDestination().getName(), edge.getDestination().getName());
+            }
+            assertEquals(-1, offHeapGraph.getVertexId("otherVertex"));
+        }
+    }
+
+    @Test
+    public void solverGivesSameDistancesOnOffHeapGraph() {
+        Graph<Integer> intGraph = TestGraphStore.getIntegerTestGraph();
+        List<Vertex<Integer>> vertexes = intGraph.getVertexes();
+        DistanceTable<Integer> expected = new ShortestPathSolver<>(intGraph).distanceTable(vertexes, vertexes);
+
+        try (OffHeapGraph offHeapGraph = OffHeapGraph.of(intGraph)) {
+            List<Vertex<Double>> offHeapVertexes = vertexes.stream()
+                    .map(v -> new Vertex<Double>(v.getName()))
+                    .collect(Collectors.toList());
+            ShortestPathSolver<Double> sps = new ShortestPathSolver<>(offHeapGraph);
+            DistanceTable<Double> received = sps.distanceTable(offHeapVertexes, offHeapVertexes);
+
+            assertArrayEquals(expected.getDistances(), received.getDistances());
+        }
+    }
+
+    @Test
+    public void solverWithoutGraphGivesSameResultsOnOffHeapGraph() {
+        Graph<Integer> intGraph = TestGraphStore.getIntegerTestGraph();
+        Vertex<Integer> intStart = intGraph.findVertex("intVertex1");
+        ShortestPathTree<Integer> expected = new ShortestPathSolver<>(intGraph).solveStartingFrom(intStart);
+
+        try (OffHeapGraph offHeapGraph = OffHeapGraph.of(intGraph)) {
+            ShortestPathSolver<Double> sps = new ShortestPathSolver<>(offHeapGraph);
+            Vertex<Double> start = new Vertex<>("intVertex1");
+            ShortestPathTree<Double> received = sps.solveStartingFrom(start);
+
+            assertEquals(expected.size(), received.size());
+            assertSame(start, received.getVertex(0));
+            for (Map.Entry<Vertex<Double>, VertexResult<Double>> entry : received.entrySet()) {
+                Vertex<Integer> intVertex = intGraph.findVertex(entry.getKey().getName());
+                assertEquals(0, expected.get(intVertex).getSumOfWeights().compareTo(entry.getValue().getSumOfWeights()));
+            }
+
+            for (Vertex<Integer> intTarget : intGraph.getVertexes()) {
+                Vertex<Double> target = new Vertex<>(intTarget.getName());
+                VertexResult<Double> between = sps.solveBetween(start, target);
+                assertEquals(0, expected.get(intTarget).getSumOfWeights().compareTo(between.getSumOfWeights()));
+                assertEquals(expected.get(intTarget).getPathToVertex().size(), between.getPathToVertex().size());
+            }
+
+            Map<Vertex<Double>, VertexResult<Double>> nearest = sps.nearest(start, 3, v -> true);
+            assertEquals(3, nearest.size());
+            assertEquals(List.of(0.0, 1000.0, 1200.0), nearest.values().stream()
+                    .map(result -> result.getSumOfWeights().doubleValue())
+                    .collect(Collectors.toList()));
+            assertEquals(3, sps.solveWithin(start, new BigDecimal(1200)).size());
+            assertEquals(expected.size(), sps.streamStartingFrom(start).count());
+        }
+    }
+
+    @Test
+    public void closedGraphCannotBeUsed() {
+        String expectedMsg = "Graph is closed";
+        String receivedMsg = "";
+
+        OffHeapGraph offHeapGraph = OffHeapGraph.of(TestGraphStore.getByteTestGraph());
+        offHeapGraph.close();
+        offHeapGraph.close();
+        assertTrue(offHeapGraph.isClosed());
+
+        try {
+            offHeapGraph.getVertex(0);
+        } catch (IllegalStateException ex) {
+            receivedMsg = ex.getMessage();
+        }
+
+        assertEquals(expectedMsg, receivedMsg);
+    }
+
+    @Test
+    public void everyAccessorOfClosedGraphThrowsIllegalStateException() {
+        OffHeapGraph offHeapGraph = OffHeapGraph.of(TestGraphStore.getByteTestGraph());
+        offHeapGraph.close();
+
+        List<Runnable> accessors = List.of(
+                () -> offHeapGraph.getVertexName(0),
+                () -> offHeapGraph.getVertexId("byteVertex1"),
+                () -> offHeapGraph.getEdgesStart(0),
+                () -> offHeapGraph.getEdgesEnd(0),
+                () -> offHeapGraph.forEachEdge(0, (edgeId, destination, weight) -> {}),
+                () -> offHeapGraph.getEdgeDestination(0),
+                () -> offHeapGraph.getEdgeWeight(0),
+                () -> offHeapGraph.getEdge(0));
+        for (Runnable accessor : accessors) {
+            IllegalStateException ex = assertThrows(IllegalStateException.class, accessor::run);
+            assertEquals("Graph is closed", ex.getMessage());
+        }
+        assertEquals(5, offHeapGraph.getVertexCount());
+    }
+
+    @Test
+    public void builtGraphIsEqualToCopiedGraph() {
+        Graph<Integer> intGraph = TestGraphStore.getIntegerTestGraph();
+        CompactGraph<Integer> compactGraph = CompactGraph.of(intGraph);
+
+        OffHeapGraph.Builder builder = new OffHeapGraph.Builder();
+        // edges are added in reverse order, the builder groups them by their source
+        for (Vertex<Integer> v : intGraph.getVertexes()) {
+            builder.addVertex(v.getName());
+        }
+        for (int e = intGraph.getEdges().size() - 1; e >= 0; e--) {
+            Edge<Integer> edge = intGraph.getEdges().get(e);
+            builder.addEdge(builder.addVertexIfAbsent(edge.getSource().getName()),
+                    builder.addVertexIfAbsent(edge.getDestination().getName()), edge.getWeight());
+        }
+        assertEquals(intGraph.getVertexes().size(), builder.getVertexCount());
+
+        try (OffHeapGraph builtGraph = builder.build()) {
+            assertEquals(compactGraph.getVertexCount(), builtGraph.getVertexCount());
+            assertEquals(compactGraph.getEdgeCount(), builtGraph.getEdgeCount());
+            for (int v = 0; v < compactGraph.getVertexCount(); v++) {
+                String name = compactGraph.getVertex(v).getName();
+                assertEquals(name, builtGraph.getVertexName(v));
+                assertEquals(v, builtGraph.getVertexId(name));
+                assertEquals(compactGraph.getEdgesEnd(v) - compactGraph.getEdgesStart(v),
+                        builtGraph.getEdgesEnd(v) - builtGraph.getEdgesStart(v));
+            }
+
+            List<Vertex<Double>> vertexes = intGraph.getVertexes().stream()
+                    .map(v -> new Vertex<Double>(v.getName()))
+                    .collect(Collectors.toList());
+            DistanceTable<Integer> expected = new ShortestPathSolver<>(intGraph)
+                    .distanceTable(intGraph.getVertexes(), intGraph.getVertexes());
+            DistanceTable<Double> received = new ShortestPathSolver<>(builtGraph).distanceTable(vertexes, vertexes);
+            assertArrayEquals(expected.getDistances(), received.getDistances());
+        }
+
+        assertThrows(IllegalStateException.class, () -> builder.addVertex("otherVertex"));
+        assertThrows(IllegalStateException.class, builder::build);
+    }
+
+    @Test
+    public void builderGrowsBuffersAndStoresUndirectedEdgesInBothDirections() {
+        OffHeapGraph.Builder builder = new OffHeapGraph.Builder();
+        for (int i = 0; i < 1000; i++) {
+            builder.addVertex("vertex" + i);
+        }
+        for (int i = 1; i < 1000; i++) {
+            builder.addUndirectedEdge(i - 1, i, 1.5);
+        }
+        builder.addUndirectedEdge(5, 5, 1.0);
+
+        try (OffHeapGraph graph = builder.build()) {
+            assertEquals(1000, graph.getVertexCount());
+            assertEquals(2 * 999 + 1, graph.getEdgeCount());
+            for (int i = 0; i < 1000; i++) {
+                assertEquals(i, graph.getVertexId("vertex" + i));
+            }
+            int vertex = graph.getVertexId("vertex500");
+            assertEquals(2, graph.getEdgesEnd(vertex) - graph.getEdgesStart(vertex));
+            assertEquals(1.5, graph.getEdgeWeight(graph.getEdgesStart(vertex)));
+        }
+    }
+
+    @Test
+    public void builderRejectsInvalidVertexesAndEdges() {
+        OffHeapGraph.Builder builder = new OffHeapGraph.Builder();
+        builder.addVertex("v1");
+        builder.addVertex("v2");
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> builder.addVertex("v1"));
+        assertEquals("Vertex with that name already belongs to this graph", ex.getMessage());
+        ex = assertThrows(IllegalArgumentException.class, () -> builder.addEdge(0, 2, 1.0));
+        assertEquals("Edge contains a vertex that does not belong to the graph", ex.getMessage());
+        ex = assertThrows(IllegalArgumentException.class, () -> builder.addEdge(0, 1, -1.0));
+        assertEquals("Edge weight cannot be negative", ex.getMessage());
+        ex = assertThrows(IllegalArgumentException.class, () -> builder.addEdge(0, 1, Double.NaN));
+        assertEquals("Edge weight must be a finite number", ex.getMessage());
+    }
+}
@@ -0,0 +1,145 @@
+package ml.echelon133.graph;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import ml.echelon133.graph.json.EdgeSerializer;
+import ml.echelon133.graph.json.GraphSerializer;
+import ml.echelon133.graph.json.ParallelGraphLoader;
+import ml.echelon133.graph.json.VertexSerializer;
+import ml.echelon133.graph.json.exception.EdgeNullVertexException;
+import ml.echelon133.graph.json.exception.MissingNodeException;
+import ml.echelon133.graph.json.exception.NegativeEdgeWeightException;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelGraphLoaderTest {
+
+    private static ObjectMapper mapper;
+    // small chunks, so even the test graphs are split into many of them
+    private static ParallelGraphLoader loader = new ParallelGraphLoader(ForkJoinPool.commonPool(), 16);
+
+    @BeforeAll
+    public static void setup() {
+        SimpleModule module = new SimpleModule();
+        mapper = new ObjectMapper();
+
+        JavaType vertexType = mapper.constructType(Vertex.class);
+        JavaType edgeType = mapper.constructType(Edge.class);
+        JavaType graphType = mapper.constructType(Graph.class);
+
+        module.addSerializer(new VertexSerializer(vertexType));
+        module.addSerializer(new EdgeSerializer(edgeType));
+        module.addSerializer(new GraphSerializer(graphType));
+        mapper.registerModule(module);
+    }
+
+    private static Graph<BigDecimal> load(String json) throws IOException {
+        return loader.load(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void loadedGraphIsIdenticalToSerializedGraph() throws Exception {
+        Graph<Integer> intGraph = TestGraphStore.getIntegerTestGraph();
+        intGraph.addUndirectedEdge(intGraph.getVertexes().get(0), intGraph.getVertexes().get(1), 3);
+
+        Graph<BigDecimal> loadedGraph = loader.load(mapper.writeValueAsBytes(intGraph));
+
+        assertEquals(intGraph.getVertexes().size(), loadedGraph.getVertexes().size());
+        assertEquals(intGraph.getEdges().size(), loadedGraph.getEdges().size());
+        for (int i = 0; i < intGraph.getVertexes().size(); i++) {
+            assertEquals(intGraph.getVertexes().get(i).getName(), loadedGraph.getVertexes().get(i).getName());
+        }
+        for (int i = 0; i < intGraph.getEdges().size(); i++) {
+            Edge<Integer> expected = intGraph.getEdges().get(i);
+            Edge<BigDecimal> received = loadedGraph.getEdges().get(i);
+            assertEquals(expected.getSource().getName(), received.getSource().getName());
+            assertEquals(expected.getDestination().getName(), received.getDestination().getName());
+            assertEquals(expected.getWeightAsBigDecimal(), received.getWeightAsBigDecimal());
+            assertEquals(expected.isDirected(), received.isDirected());
+        }
+    }
+
+    @Test
+    public void graphIsLoadedFromMappedFile() throws Exception {
+        Graph<Integer> intGraph = TestGraphStore.getIntegerTestGraph();
+        Path file = Files.createTempFile("graph", ".json");
+        try {
+            Files.write(file, mapper.writeValueAsBytes(intGraph));
+            Graph<BigDecimal> loadedGraph = loader.load(file);
+
+            assertEquals(intGraph.getVertexes().size(), loadedGraph.getVertexes().size());
+            assertEquals(intGraph.getEdges().size(), loadedGraph.getEdges().size());
+            for (int i = 0; i < intGraph.getEdges().size(); i++) {
+                assertEquals(intGraph.getEdges().get(i).getWeightAsBigDecimal(), loadedGraph.getEdges().get(i).getWeight());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void fieldsCanBeInAnyOrder() throws Exception {
+        String json = "{\"edges\": [{\"source\": \"v1\", \"destination\": \"v2\", \"weight\": 1.5}], " +
+                "\"other\": {\"a\": [1, \"]\"]}, \"vertexes\": [\"v1\", \"v2\"]}";
+
+        Graph<BigDecimal> graph = load(json);
+
+        assertEquals(2, graph.getVertexes().size());
+        assertEquals(new BigDecimal("1.5"), graph.getEdges().get(0).getWeight());
+    }
+
+    @Test
+    public void scalarFieldsOfAnyLengthAreSkipped() throws Exception {
+        String json = "{\"version\":12, \"ratio\": -1.25e+10 ,\"valid\":true,\"invalid\":false,\"other\":null," +
+                "\"name\":\"graph\",\"vertexes\":[\"v1\",\"v2\"],\"count\":1234567," +
+                "\"edges\":[{\"source\":\"v1\",\"destination\":\"v2\",\"weight\":10}],\"last\":null}";
+
+        Graph<BigDecimal> graph = load(json);
+
+        assertEquals(2, graph.getVertexes().size());
+        assertEquals(new BigDecimal("10"), graph.getEdges().get(0).getWeight());
+    }
+
+    @Test
+    public void emptyGraphIsLoaded() throws Exception {
+        Graph<BigDecimal> graph = load("{\"vertexes\": [], \"edges\": [ ]}");
+
+        assertEquals(0, graph.getVertexes().size());
+        assertEquals(0, graph.getEdges().size());
+    }
+
+    @Test
+    public void missingNodeCausesMissingNodeException() {
+        MissingNodeException ex = assertThrows(MissingNodeException.class, () -> load("{\"vertexes\": []}"));
+        assertEquals("Missing 'edges' JSON node.", ex.getMessage());
+    }
+
+    @Test
+    public void firstInvalidEdgeOfDocumentIsReported() {
+        String edgeContent = "{\"source\":\"v1\",\"destination\":\"v3\",\"weight\":20}";
+        String json = "{\"vertexes\": [\"v1\", \"v2\"], \"edges\": [" +
+                "{\"source\":\"v1\",\"destination\":\"v2\",\"weight\":20}," +
+                "{\"source\":\"v2\",\"destination\":\"v1\",\"weight\":20}," +
+                edgeContent + "," +
+                "{\"source\":\"v1\",\"destination\":\"v2\",\"weight\":-1}]}";
+
+        EdgeNullVertexException ex = assertThrows(EdgeNullVertexException.class, () -> load(json));
+        assertEquals(String.format("Edge '%s' references a vertex that is not present in 'vertexes'", edgeContent), ex.getMessage());
+
+        String negativeJson = "{\"vertexes\": [\"v1\", \"v2\"], \"edges\": [{\"source\":\"v1\",\"destination\":\"v2\",\"weight\":-1}]}";
+        NegativeEdgeWeightException negativeEx = assertThrows(NegativeEdgeWeightException.class, () -> load(negativeJson));
+        assertEquals("Edge weight cannot be negative", negativeEx.getMessage());
+    }
+}
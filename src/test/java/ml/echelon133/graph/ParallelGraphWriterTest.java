@@ -0,0 +1,77 @@
+package ml.echelon133.graph;
+
+import ml.echelon133.graph.json.GraphJsonCodec;
+import ml.echelon133.graph.json.ParallelGraphLoader;
+import ml.echelon133.graph.json.ParallelGraphWriter;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelGraphWriterTest {
+
+    private static byte[] writeSequentially(Graph<?> graph) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new GraphJsonCodec().write(graph, out);
+        return out.toByteArray();
+    }
+
+    private static byte[] writeInParallel(Graph<?> graph, int chunkSize) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new ParallelGraphWriter(ForkJoinPool.commonPool(), chunkSize).write(graph, out);
+        return out.toByteArray();
+    }
+
+    @Test
+    public void documentIsEqualToSequentiallyWrittenDocument() throws IOException {
+        Graph<Integer> graph = TestGraphStore.getRandomGraph(200, 1000, 17);
+        byte[] expected = writeSequentially(graph);
+
+        for (int chunkSize : new int[] {1, 7, 1000, 5000}) {
+            assertArrayEquals(expected, writeInParallel(graph, chunkSize));
+        }
+        assertArrayEquals(writeSequentially(TestGraphStore.getDoubleTestGraph()),
+                writeInParallel(TestGraphStore.getDoubleTestGraph(), 2));
+    }
+
+    @Test
+    public void graphWithoutEdgesIsWritten() throws IOException {
+        Graph<Integer> graph = TestGraphStore.getRandomGraph(3, 0, 1);
+        assertArrayEquals(writeSequentially(graph), writeInParallel(graph, 4));
+        assertArrayEquals(writeSequentially(new WeightedGraph<Integer>()), writeInParallel(new WeightedGraph<Integer>(), 4));
+    }
+
+    @Test
+    public void writtenFileCanBeLoaded() throws IOException {
+        Graph<Integer> graph = TestGraphStore.getRandomGraph(100, 400, 23);
+        Path file = Files.createTempFile("graph", ".json");
+        try {
+            new ParallelGraphWriter().write(graph, file);
+            Graph<BigDecimal> loaded = new ParallelGraphLoader().load(file);
+
+            assertEquals(graph.getVertexes().size(), loaded.getVertexes().size());
+            assertEquals(graph.getEdges().size(), loaded.getEdges().size());
+            for (int i = 0; i < graph.getEdges().size(); i++) {
+                Edge<Integer> expected = graph.getEdges().get(i);
+                Edge<BigDecimal> received = loaded.getEdges().get(i);
+                assertEquals(expected.getSource().getName(), received.getSource().getName());
+                assertEquals(expected.getDestination().getName(), received.getDestination().getName());
+                assertEquals(expected.getWeightAsBigDecimal(), received.getWeight());
+                assertEquals(expected.isDirected(), received.isDirected());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void chunkSizeMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> new ParallelGraphWriter(ForkJoinPool.commonPool(), 0));
+    }
+}
@@ -0,0 +1,198 @@
+package ml.echelon133.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PrimitiveGraphTest {
+
+    @Test
+    public void intGraphResultsAreEqualToSolverResults() {
+        Graph<Integer> graph = TestGraphStore.getRandomGraph(100, 300, 9);
+        IntWeightedGraph intGraph = IntWeightedGraph.of(graph);
+        ShortestPathSolver<Integer> sps = new ShortestPathSolver<>(graph);
+
+        for (int source = 0; source < intGraph.getVertexCount(); source += 7) {
+            Vertex<Integer> sourceVertex = graph.getVertexes().get(source);
+            Map<Vertex<Integer>, VertexResult<Integer>> expected = sps.solveStartingFrom(sourceVertex, SolveOptions.UNLIMITED);
+            LongShortestPathTree tree = intGraph.solveStartingFrom(source);
+
+            assertEquals(expected.size(), tree.getReachedCount());
+            for (int v = 0; v < intGraph.getVertexCount(); v++) {
+                VertexResult<Integer> result = expected.get(graph.getVertexes().get(v));
+                if (result == null) {
+                    assertFalse(tree.isReachable(v));
+                    assertEquals(LongShortestPathTree.UNREACHABLE, tree.getDistance(v));
+                    assertEquals(0, tree.getPath(v).length);
+                } else {
+                    assertEquals(result.getSumOfWeights(), new BigDecimal(tree.getDistance(v)));
+                    int[] path = tree.getPath(v);
+                    assertEquals(source, path[0]);
+                    assertEquals(v, path[path.length - 1]);
+                }
+            }
+
+            // the adapted result map contains the same vertexes and sums of weights
+            Map<Vertex<Integer>, VertexResult<Integer>> adapted = tree.toResultMap(graph);
+            assertEquals(expected.size(), adapted.size());
+            for (Map.Entry<Vertex<Integer>, VertexResult<Integer>> entry : expected.entrySet()) {
+                VertexResult<Integer> adaptedResult = adapted.get(entry.getKey());
+                assertEquals(entry.getValue().getSumOfWeights(), adaptedResult.getSumOfWeights());
+                assertEquals(adaptedResult.getPreviousVertex(),
+                        adaptedResult.getPathToVertex().isEmpty() ? null : adaptedResult.getPathToVertex().getLast());
+            }
+        }
+    }
+
+    @Test
+    public void longGraphFindsPathsWithLargeWeights() {
+        LongWeightedGraph graph = new LongWeightedGraph();
+        int v0 = graph.addVertex("v0");
+        int v1 = graph.addVertex("v1");
+        int v2 = graph.addVertex("v2");
+        graph.addEdge(v0, v1, 1L << 60);
+        graph.addUndirectedEdge(v1, v2, 3);
+        graph.addEdge(v0, v2, (1L << 60) + 5);
+
+        LongShortestPathTree tree = graph.solveStartingFrom(v0);
+
+        assertEquals((1L << 60) + 3, tree.getDistance(v2));
+        assertEquals(v1, tree.getPreviousVertex(v2));
+        assertArrayEquals(new int[] {v0, v1, v2}, tree.getPath(v2));
+        // the undirected edge can be traversed back
+        assertEquals(3, graph.solveStartingFrom(v2).getDistance(v1));
+
+        graph.addEdge(v2, graph.addVertex("v3"), Long.MAX_VALUE);
+        assertThrows(ArithmeticException.class, () -> graph.solveStartingFrom(v0));
+    }
+
+    @Test
+    public void doubleGraphFindsShortestDistances() {
+        DoubleWeightedGraph graph = new DoubleWeightedGraph();
+        int v0 = graph.addVertex("v0");
+        int v1 = graph.addVertex("v1");
+        int v2 = graph.addVertex("v2");
+        graph.addEdge(v0, v1, 0.5);
+        graph.addEdge(v1, v2, 0.25);
+        graph.addEdge(v0, v2, 1.0);
+
+        DoubleShortestPathTree tree = graph.solveStartingFrom(v0);
+
+        assertEquals(0.75, tree.getDistance(v2));
+        assertEquals(v1, tree.getPreviousVertex(v2));
+        assertEquals(Double.POSITIVE_INFINITY, graph.solveStartingFrom(v2).getDistance(v0));
+        assertFalse(graph.solveStartingFrom(v2).isReachable(v0));
+    }
+
+    @Test
+    public void graphConvertedToGenericGraphHasSameEdges() {
+        Graph<Integer> graph = TestGraphStore.getIntegerTestGraph();
+        Graph<Integer> converted = IntWeightedGraph.of(graph).toGraph();
+
+        assertEquals(graph.getVertexes().size(), converted.getVertexes().size());
+        assertEquals(graph.getEdges().size(), converted.getEdges().size());
+        for (Vertex<Integer> v : graph.getVertexes()) {
+            Map<Vertex<Integer>, VertexResult<Integer>> expected = new ShortestPathSolver<>(graph).solveStartingFrom(v);
+            Map<Vertex<Integer>, VertexResult<Integer>> result =
+                    new ShortestPathSolver<>(converted).solveStartingFrom(converted.findVertex(v.getName()));
+            assertEquals(expected.size(), result.size());
+            for (Map.Entry<Vertex<Integer>, VertexResult<Integer>> entry : expected.entrySet()) {
+                assertEquals(entry.getValue().getSumOfWeights(),
+                        result.get(converted.findVertex(entry.getKey().getName())).getSumOfWeights());
+            }
+        }
+    }
+
+    @Test
+    public void invalidArgumentsCauseIllegalArgumentException() {
+        IntWeightedGraph intGraph = new IntWeightedGraph();
+        int v0 = intGraph.addVertex("v0");
+        assertThrows(IllegalArgumentException.class, () -> intGraph.addVertex("v0"));
+        assertThrows(IllegalArgumentException.class, () -> intGraph.addEdge(v0, v0, -1));
+        assertThrows(IllegalArgumentException.class, () -> intGraph.addEdge(v0, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> intGraph.solveStartingFrom(1));
+
+        DoubleWeightedGraph doubleGraph = new DoubleWeightedGraph();
+        int d0 = doubleGraph.addVertex("v0");
+        assertThrows(IllegalArgumentException.class, () -> doubleGraph.addEdge(d0, d0, Double.NaN));
+
+        Graph<Integer> otherGraph = new WeightedGraph<>();
+        List.of(new Vertex<Integer>("other")).forEach(otherGraph::addVertex);
+        assertThrows(IllegalArgumentException.class, () -> intGraph.solveStartingFrom(v0).toResultMap(otherGraph));
+    }
+
+    @Test
+    public void scaledGraphFindsExactSumsOfDecimalWeights() {
+        Random random = new Random(3);
+        GraphBuilder<BigDecimal> builder = new GraphBuilder<>(50, 150);
+        for (int i = 0; i < 50; i++) {
+            builder.addVertex("v" + i);
+        }
+        for (int i = 0; i < 150; i++) {
+            // weights with up to 3 decimal places, some of them with trailing zeros
+            BigDecimal weight = BigDecimal.valueOf(random.nextInt(100000), 3).setScale(3 + random.nextInt(2));
+            builder.addEdge(random.nextInt(50), random.nextInt(50), weight);
+        }
+        Graph<BigDecimal> graph = builder.build();
+
+        LongWeightedGraph scaledGraph = LongWeightedGraph.ofScaled(graph);
+        assertEquals(3, scaledGraph.getScale());
+
+        ShortestPathSolver<BigDecimal> sps = new ShortestPathSolver<>(graph);
+        for (int source = 0; source < 50; source += 5) {
+            Map<Vertex<BigDecimal>, VertexResult<BigDecimal>> expected =
+                    sps.solveStartingFrom(graph.getVertexes().get(source), SolveOptions.UNLIMITED);
+            LongShortestPathTree tree = scaledGraph.solveStartingFrom(source);
+            Map<Vertex<BigDecimal>, VertexResult<BigDecimal>> adapted = tree.toResultMap(graph);
+
+            assertEquals(expected.size(), adapted.size());
+            for (int v = 0; v < 50; v++) {
+                VertexResult<BigDecimal> result = expected.get(graph.getVertexes().get(v));
+                if (result == null) {
+                    assertNull(tree.getSumOfWeights(v));
+                } else {
+                    assertEquals(0, result.getSumOfWeights().compareTo(tree.getSumOfWeights(v)));
+                    assertEquals(0, result.getSumOfWeights().compareTo(
+                            adapted.get(graph.getVertexes().get(v)).getSumOfWeights()));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void graphWithWeightsThatDoNotFitCausesIllegalArgumentException() {
+        Graph<BigDecimal> graph = new WeightedGraph<>();
+        Vertex<BigDecimal> v1 = new Vertex<>("v1");
+        Vertex<BigDecimal> v2 = new Vertex<>("v2");
+        List.of(v1, v2).forEach(graph::addVertex);
+        graph.addEdge(v1, v2, new BigDecimal("1000000000000"));
+        graph.addEdge(v2, v1, new BigDecimal("0.0000001"));
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> LongWeightedGraph.ofScaled(graph));
+        assertEquals("Weights of the graph cannot be scaled to long values", ex.getMessage());
+
+        // weights with a huge scale are rejected without being scaled
+        Graph<BigDecimal> tinyGraph = new WeightedGraph<>();
+        Vertex<BigDecimal> t1 = new Vertex<>("t1");
+        Vertex<BigDecimal> t2 = new Vertex<>("t2");
+        List.of(t1, t2).forEach(tinyGraph::addVertex);
+        tinyGraph.addEdge(t1, t2, new BigDecimal("1e-999999999"));
+        tinyGraph.addEdge(t2, t1, BigDecimal.ONE);
+        assertThrows(IllegalArgumentException.class, () -> LongWeightedGraph.ofScaled(tinyGraph));
+
+        // a whole number with a negative scale is stored without decimal places
+        Graph<BigDecimal> wholeGraph = new WeightedGraph<>();
+        Vertex<BigDecimal> w1 = new Vertex<>("w1");
+        Vertex<BigDecimal> w2 = new Vertex<>("w2");
+        List.of(w1, w2).forEach(wholeGraph::addVertex);
+        wholeGraph.addEdge(w1, w2, new BigDecimal("1E+3"));
+        LongWeightedGraph scaledGraph = LongWeightedGraph.ofScaled(wholeGraph);
+        assertEquals(0, scaledGraph.getScale());
+        assertEquals(1000, scaledGraph.solveStartingFrom(0).getDistance(1));
+    }
+}
@@ -0,0 +1,114 @@
+package ml.echelon133.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReachabilityIndexTest {
+
+    @Test
+    public void reachabilityIsEqualToReachabilityOfSearch() {
+        Graph<Integer> graph = TestGraphStore.getRandomDirectedGraph(80, 100, 13);
+        List<Vertex<Integer>> vertexes = graph.getVertexes();
+
+        ReachabilityIndex<Integer> index = ReachabilityIndex.of(graph);
+        ShortestPathSolver<Integer> sps = new ShortestPathSolver<>(graph);
+        for (Vertex<Integer> source : vertexes) {
+            Map<Vertex<Integer>, VertexResult<Integer>> reached = sps.solveStartingFrom(source);
+            for (Vertex<Integer> target : vertexes) {
+                assertEquals(reached.containsKey(target), index.isReachable(source, target));
+            }
+        }
+    }
+
+    @Test
+    public void indexOfCompressedGraphIsEqualToIndexOfGraph() {
+        Graph<Integer> graph = TestGraphStore.getRandomGraph(120, 200, 29);
+        CompactGraph<Integer> compactGraph = CompactGraph.of(graph);
+        List<Vertex<Integer>> vertexes = graph.getVertexes();
+
+        ReachabilityIndex<Integer> expected = ReachabilityIndex.of(compactGraph);
+        ReachabilityIndex<Integer> received = ReachabilityIndex.of(CompressedGraph.of(compactGraph));
+
+        // compressed edges are sorted by their destination, so components might be numbered differently
+        assertEquals(expected.getComponentCount(), received.getComponentCount());
+        for (Vertex<Integer> source : vertexes) {
+            // queries of the same thread reuse the state of the search
+            for (Vertex<Integer> target : vertexes) {
+                assertEquals(expected.isReachable(source, target), received.isReachable(source, target));
+            }
+        }
+    }
+
+    @Test
+    public void componentsAreNumberedInReverseTopologicalOrder() {
+        Graph<Integer> graph = new WeightedGraph<>();
+        Vertex<Integer> v1 = new Vertex<>("v1");
+        Vertex<Integer> v2 = new Vertex<>("v2");
+        Vertex<Integer> v3 = new Vertex<>("v3");
+        Vertex<Integer> v4 = new Vertex<>("v4");
+        List.of(v1, v2, v3, v4).forEach(graph::addVertex);
+        graph.addEdge(v1, v2, 1);
+        graph.addEdge(v2, v1, 1);
+        graph.addEdge(v2, v3, 1);
+        graph.addUndirectedEdge(v3, v4, 1);
+
+        ReachabilityIndex<Integer> index = ReachabilityIndex.of(graph);
+
+        assertEquals(2, index.getComponentCount());
+        assertEquals(index.getComponent(v1), index.getComponent(v2));
+        assertEquals(index.getComponent(v3), index.getComponent(v4));
+        assertTrue(index.getComponent(v1) > index.getComponent(v3));
+        assertTrue(index.isReachable(v1, v4));
+        assertFalse(index.isReachable(v4, v1));
+        assertEquals(graph.getVersion(), index.getGraphVersion());
+        assertFalse(index.isAcyclic());
+        assertThrows(IllegalStateException.class, index::getTopologicalOrder);
+    }
+
+    @Test
+    public void topologicalOrderOfAcyclicGraphPlacesSourcesBeforeDestinations() {
+        CompactGraph<Integer> graph = CompactGraph.of(TestGraphStore.getRandomAcyclicGraph(100, 300, 21));
+
+        ReachabilityIndex<Integer> index = ReachabilityIndex.of(graph);
+        assertTrue(index.isAcyclic());
+
+        int[] positions = new int[100];
+        int[] order = index.getTopologicalOrder();
+        for (int i = 0; i < order.length; i++) {
+            positions[order[i]] = i;
+        }
+        for (int v = 0; v < 100; v++) {
+            for (int e = graph.getEdgesStart(v); e < graph.getEdgesEnd(v); e++) {
+                assertTrue(positions[v] < positions[graph.getEdgeDestination(e)]);
+            }
+        }
+    }
+
+    @Test
+    public void longPathDoesNotOverflowStack() {
+        GraphBuilder<Integer> builder = new GraphBuilder<>(200000, 200000);
+        for (int i = 0; i < 200000; i++) {
+            builder.addVertex("v" + i);
+        }
+        for (int i = 1; i < 200000; i++) {
+            builder.addEdge(i - 1, i, 1);
+        }
+        builder.addEdge(199999, 0, 1);
+        CompactGraph<Integer> graph = builder.buildCompact();
+
+        ReachabilityIndex<Integer> index = ReachabilityIndex.of(graph);
+
+        assertEquals(1, index.getComponentCount());
+        assertTrue(index.isReachable(graph.getVertex(199999), graph.getVertex(5)));
+    }
+
+    @Test
+    public void vertexOutsideOfGraphCausesIllegalArgumentException() {
+        ReachabilityIndex<Integer> index = ReachabilityIndex.of(TestGraphStore.getIntegerTestGraph());
+        assertThrows(IllegalArgumentException.class, () -> index.getComponent(new Vertex<>("otherVertex")));
+    }
+}
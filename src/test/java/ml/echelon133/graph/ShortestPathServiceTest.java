@@ -0,0 +1,160 @@
+package ml.echelon133.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShortestPathServiceTest {
+
+    /**
+     * Graph with a start vertex that blocks the worker thread that visits it, until the latch is released.
+     */
+    private static Graph<Integer> getBlockingGraph(CountDownLatch latch) {
+        Graph<Integer> graph = new WeightedGraph<>();
+        Vertex<Integer> blocking = new Vertex<>("blocking") {
+            @Override
+            public List<Edge<Integer>> getEdges() {
+                try {
+                    latch.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.getEdges();
+            }
+        };
+        Vertex<Integer> v1 = new Vertex<>("v1");
+        Vertex<Integer> v2 = new Vertex<>("v2");
+        List.of(blocking, v1, v2).forEach(graph::addVertex);
+        graph.addEdge(blocking, v1, 10);
+        graph.addEdge(v1, v2, 5);
+        return graph;
+    }
+
+    @Test
+    public void serviceReturnsSameResultsAsSolver() throws Exception {
+        Graph<Byte> byteGraph = TestGraphStore.getByteTestGraph();
+        Vertex<Byte> startVertex = byteGraph.findVertex("byteVertex1");
+
+        try (ShortestPathService<Byte> service = new ShortestPathService<>(byteGraph, 2, 10)) {
+            Map<Vertex<Byte>, VertexResult<Byte>> resultMap =
+                    service.solveStartingFrom(startVertex, Duration.ofSeconds(10)).get();
+
+            assertEquals(5, resultMap.size());
+            assertEquals(new BigDecimal("47"), resultMap.get(byteGraph.findVertex("byteVertex4")).getSumOfWeights());
+            assertEquals(1, service.getCompletedCount());
+        }
+    }
+
+    @Test
+    public void countersAreUpdatedWhenResultIsReturned() throws Exception {
+        Graph<Byte> byteGraph = TestGraphStore.getByteTestGraph();
+
+        try (ShortestPathService<Byte> service = new ShortestPathService<>(byteGraph, 4, 100)) {
+            for (int i = 1; i <= 50; i++) {
+                Vertex<Byte> startVertex = byteGraph.getVertexes().get(i % byteGraph.getVertexes().size());
+                service.solveStartingFrom(startVertex, Duration.ofSeconds(10)).get();
+
+                // the counters of a query are updated before its caller is woken up
+                assertEquals(i, service.getCompletedCount());
+                assertTrue(service.getMaxLatencyNanos() > 0);
+            }
+        }
+    }
+
+    @Test
+    public void identicalQueriesAreCoalesced() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        Graph<Integer> graph = getBlockingGraph(latch);
+        Vertex<Integer> blocking = graph.findVertex("blocking");
+
+        try (ShortestPathService<Integer> service = new ShortestPathService<>(graph, 1, 10)) {
+            CompletableFuture<Map<Vertex<Integer>, VertexResult<Integer>>> first =
+                    service.solveStartingFrom(blocking, Duration.ofSeconds(10));
+            CompletableFuture<Map<Vertex<Integer>, VertexResult<Integer>>> second =
+                    service.solveStartingFrom(blocking, Duration.ofSeconds(10));
+            latch.countDown();
+
+            assertSame(first.get(), second.get());
+            assertEquals(1, service.getCoalescedCount());
+            assertEquals(2, service.getSubmittedCount());
+        }
+    }
+
+    @Test
+    public void queriesAreRejectedWhenQueueIsFull() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        Graph<Integer> graph = getBlockingGraph(latch);
+
+        try (ShortestPathService<Integer> service = new ShortestPathService<>(graph, 1, 1)) {
+            CompletableFuture<?> running = service.solveStartingFrom(graph.findVertex("blocking"), Duration.ofSeconds(10));
+            // wait until the worker thread takes the first query from the queue
+            while (service.getQueueDepth() != 0) {
+                Thread.sleep(1);
+            }
+            CompletableFuture<?> queued = service.solveStartingFrom(graph.findVertex("v1"), Duration.ofSeconds(10));
+            CompletableFuture<?> rejected = service.solveStartingFrom(graph.findVertex("v2"), Duration.ofSeconds(10));
+
+            assertEquals(1, service.getQueueDepth());
+            try {
+                rejected.get();
+                fail("Query should have been rejected");
+            } catch (ExecutionException ex) {
+                assertTrue(ex.getCause() instanceof RejectedExecutionException);
+            }
+            assertEquals(1, service.getRejectedCount());
+
+            latch.countDown();
+            running.get();
+            queued.get();
+        }
+    }
+
+    @Test
+    public void queryFailsWhenDeadlinePasses() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        Graph<Integer> graph = getBlockingGraph(latch);
+
+        try (ShortestPathService<Integer> service = new ShortestPathService<>(graph, 1, 10)) {
+            CompletableFuture<?> result = service.solveStartingFrom(graph.findVertex("blocking"), Duration.ofMillis(10));
+            try {
+                result.get();
+                fail("Query should have timed out");
+            } catch (ExecutionException ex) {
+                assertTrue(ex.getCause() instanceof TimeoutException);
+            }
+            latch.countDown();
+            assertEquals(1, service.getTimedOutCount());
+        }
+    }
+
+    @Test
+    public void everyCallerOfRejectedQueryIsCountedAsRejected() throws Exception {
+        Graph<Byte> byteGraph = TestGraphStore.getByteTestGraph();
+        Vertex<Byte> startVertex = byteGraph.findVertex("byteVertex1");
+        ShortestPathService<Byte> service = new ShortestPathService<>(byteGraph, 1, 1);
+        service.close();
+
+        // concurrent callers might join a query before it is rejected, every one of them fails
+        int callers = 64;
+        List<CompletableFuture<?>> results = new CopyOnWriteArrayList<>();
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < callers; i++) {
+            threads.execute(() -> results.add(service.solveStartingFrom(startVertex, Duration.ofSeconds(10))));
+        }
+        threads.shutdown();
+        assertTrue(threads.awaitTermination(10, TimeUnit.SECONDS));
+
+        for (CompletableFuture<?> result : results) {
+            ExecutionException ex = assertThrows(ExecutionException.class, result::get);
+            assertTrue(ex.getCause() instanceof RejectedExecutionException);
+        }
+        assertEquals(callers, service.getSubmittedCount());
+        assertEquals(callers, service.getRejectedCount());
+    }
+}
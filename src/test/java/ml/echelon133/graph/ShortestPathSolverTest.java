@@ -2,9 +2,19 @@ package ml.echelon133.graph;
 
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -485,4 +495,520 @@ public class ShortestPathSolverTest {
             }
         }
     }
+
+    @Test
+    public void solveWithinReturnsOnlyVertexesInsideTheRadius() {
+        Graph<Byte> byteGraph = TestGraphStore.getByteTestGraph();
+        ShortestPathSolver<Byte> sps = new ShortestPathSolver<>(byteGraph);
+
+        Vertex<Byte> startVertex = byteGraph.findVertex("byteVertex1");
+
+        // Expected values are written in a comment of TestGraphStore.getByteTestGraph() method
+        Map<Vertex<Byte>, VertexResult<Byte>> resultMap = sps.solveWithin(startVertex, new BigDecimal("11"));
+
+        List<Vertex<Byte>> expectedOrder = List.of(
+                byteGraph.findVertex("byteVertex1"),
+                byteGraph.findVertex("byteVertex5"),
+                byteGraph.findVertex("byteVertex3"));
+        assertEquals(expectedOrder, List.copyOf(resultMap.keySet()));
+        assertEquals(new BigDecimal("11"), resultMap.get(byteGraph.findVertex("byteVertex3")).getSumOfWeights());
+    }
+
+    @Test
+    public void solveWithinThrowsExceptionWhenMaxDistanceIsNegative() {
+        String expectedMsg = "Maximum distance cannot be negative";
+        String receivedMsg = "";
+
+        try {
+            Graph<Byte> byteGraph = TestGraphStore.getByteTestGraph();
+            ShortestPathSolver<Byte> sps = new ShortestPathSolver<>(byteGraph);
+            sps.solveWithin(byteGraph.findVertex("byteVertex1"), new BigDecimal("-1"));
+        } catch (IllegalArgumentException ex) {
+            receivedMsg = ex.getMessage();
+        }
+
+        assertEquals(expectedMsg, receivedMsg);
+    }
+
+    @Test
+    public void nearestReturnsClosestMatchingVertexes() {
+        Graph<Byte> byteGraph = TestGraphStore.getByteTestGraph();
+        ShortestPathSolver<Byte> sps = new ShortestPathSolver<>(byteGraph);
+
+        Vertex<Byte> startVertex = byteGraph.findVertex("byteVertex1");
+
+        // byteVertex1 and byteVertex5 are closer, but they do not match the filter
+        Map<Vertex<Byte>, VertexResult<Byte>> resultMap = sps.nearest(startVertex, 2,
+                v -> !v.getName().equals("byteVertex1") && !v.getName().equals("byteVertex5"));
+
+        List<Vertex<Byte>> expectedOrder = List.of(
+                byteGraph.findVertex("byteVertex3"),
+                byteGraph.findVertex("byteVertex2"));
+        assertEquals(expectedOrder, List.copyOf(resultMap.keySet()));
+        assertEquals(new BigDecimal("14"), resultMap.get(byteGraph.findVertex("byteVertex2")).getSumOfWeights());
+    }
+
+    @Test
+    public void nearestReturnsLessVertexesWhenNotEnoughAreReachable() {
+        Graph<Byte> byteGraph = TestGraphStore.getByteTestGraph();
+        ShortestPathSolver<Byte> sps = new ShortestPathSolver<>(byteGraph);
+
+        Vertex<Byte> startVertex = byteGraph.findVertex("byteVertex1");
+        Map<Vertex<Byte>, VertexResult<Byte>> resultMap = sps.nearest(startVertex, 10, v -> true);
+
+        assertEquals(5, resultMap.size());
+    }
+
+    @Test
+    public void distanceTableContainsSameDistancesAsSolveStartingFrom() {
+        Graph<Integer> intGraph = TestGraphStore.getIntegerTestGraph();
+        ShortestPathSolver<Integer> sps = new ShortestPathSolver<>(intGraph);
+
+        List<Vertex<Integer>> vertexes = intGraph.getVertexes();
+        DistanceTable<Integer> table = sps.distanceTable(vertexes, vertexes);
+
+        for (int row = 0; row < vertexes.size(); row++) {
+            Map<Vertex<Integer>, VertexResult<Integer>> resultMap = sps.solveStartingFrom(vertexes.get(row));
+
+            for (int column = 0; column < vertexes.size(); column++) {
+                VertexResult<Integer> expected = resultMap.get(vertexes.get(column));
+                double expectedDistance = (expected == null) ?
+                        Double.POSITIVE_INFINITY : expected.getSumOfWeights().doubleValue();
+                assertEquals(expectedDistance, table.getDistance(row, column));
+            }
+        }
+    }
+
+    @Test
+    public void distanceTableMarksUnreachableTargetsWithInfinity() {
+        Graph<Integer> graph = new WeightedGraph<>();
+        Vertex<Integer> v1 = new Vertex<>("v1");
+        Vertex<Integer> v2 = new Vertex<>("v2");
+        Vertex<Integer> v3 = new Vertex<>("v3");
+        List.of(v1, v2, v3).forEach(graph::addVertex);
+        graph.addEdge(v1, v2, 7);
+
+        ShortestPathSolver<Integer> sps = new ShortestPathSolver<>(graph);
+        DistanceTable<Integer> table = sps.distanceTable(List.of(v1, v2), List.of(v2, v3, v2));
+
+        assertEquals(7.0, table.getDistance(0, 0));
+        assertEquals(Double.POSITIVE_INFINITY, table.getDistance(0, 1));
+        assertEquals(7.0, table.getDistance(0, 2));
+        assertEquals(0.0, table.getDistance(1, 0));
+        assertEquals(Double.POSITIVE_INFINITY, table.getDistance(1, 1));
+    }
+
+    @Test
+    public void distanceTableThatDoesNotFitInArrayCausesIllegalArgumentException() {
+        Graph<Integer> graph = TestGraphStore.getIntegerTestGraph();
+        ShortestPathSolver<Integer> sps = new ShortestPathSolver<>(graph);
+        // a list that repeats the same vertex, without storing it that many times
+        List<Vertex<Integer>> vertexes = Collections.nCopies(1 << 16, graph.findVertex("intVertex1"));
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> sps.distanceTable(vertexes, vertexes));
+        assertEquals("Distance table is too large to be stored", ex.getMessage());
+    }
+
+    @Test
+    public void distanceOutsideOfTableCausesIllegalArgumentException() {
+        Graph<Integer> graph = TestGraphStore.getIntegerTestGraph();
+        List<Vertex<Integer>> vertexes = graph.getVertexes();
+        DistanceTable<Integer> table = new ShortestPathSolver<>(graph)
+                .distanceTable(vertexes.subList(0, 2), vertexes.subList(0, 3));
+
+        assertThrows(IllegalArgumentException.class, () -> table.getDistance(0, 3));
+        assertThrows(IllegalArgumentException.class, () -> table.getDistance(2, 0));
+        assertThrows(IllegalArgumentException.class, () -> table.getDistance(-1, 0));
+        assertEquals(table.getDistances()[5], table.getDistance(1, 2));
+    }
+
+    @Test
+    public void distanceTableIsWrittenInRowMajorOrder() throws IOException {
+        Graph<Byte> byteGraph = TestGraphStore.getByteTestGraph();
+        ShortestPathSolver<Byte> sps = new ShortestPathSolver<>(byteGraph);
+
+        List<Vertex<Byte>> sources = List.of(byteGraph.findVertex("byteVertex1"));
+        List<Vertex<Byte>> targets = List.of(byteGraph.findVertex("byteVertex2"), byteGraph.findVertex("byteVertex4"));
+        DistanceTable<Byte> table = sps.distanceTable(sources, targets);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        table.writeTo(out);
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(1, in.readInt());
+        assertEquals(2, in.readInt());
+        assertEquals(14.0, in.readDouble());
+        assertEquals(47.0, in.readDouble());
+        assertEquals(-1, in.read());
+    }
+
+    @Test
+    public void kShortestPathsReturnsLooplessPathsInOrder() {
+        Graph<Integer> graph = new WeightedGraph<>();
+        Vertex<Integer> a = new Vertex<>("a");
+        Vertex<Integer> b = new Vertex<>("b");
+        Vertex<Integer> c = new Vertex<>("c");
+        Vertex<Integer> d = new Vertex<>("d");
+        List.of(a, b, c, d).forEach(graph::addVertex);
+        graph.addEdge(a, b, 1);
+        graph.addEdge(a, c, 2);
+        graph.addEdge(b, d, 1);
+        graph.addEdge(c, d, 1);
+        graph.addEdge(a, d, 5);
+        graph.addEdge(b, c, 1);
+        graph.addEdge(c, a, 1);
+
+        ShortestPathSolver<Integer> sps = new ShortestPathSolver<>(graph);
+        List<GraphPath<Integer>> paths = sps.kShortestPaths(a, d, 10);
+
+        assertEquals(4, paths.size());
+        assertEquals(List.of(a, b, d), paths.get(0).getVertexes());
+        assertEquals(List.of(a, c, d), paths.get(1).getVertexes());
+        assertEquals(List.of(a, b, c, d), paths.get(2).getVertexes());
+        assertEquals(List.of(a, d), paths.get(3).getVertexes());
+        assertEquals(new BigDecimal("2"), paths.get(0).getSumOfWeights());
+        assertEquals(new BigDecimal("3"), paths.get(1).getSumOfWeights());
+        assertEquals(new BigDecimal("3"), paths.get(2).getSumOfWeights());
+        assertEquals(new BigDecimal("5"), paths.get(3).getSumOfWeights());
+
+        assertEquals(2, sps.kShortestPaths(a, d, 2).size());
+    }
+
+    @Test
+    public void kShortestPathsDistinguishesParallelEdges() {
+        Graph<Byte> byteGraph = TestGraphStore.getByteTestGraph();
+        ShortestPathSolver<Byte> sps = new ShortestPathSolver<>(byteGraph);
+
+        Vertex<Byte> v1 = byteGraph.findVertex("byteVertex1");
+        Vertex<Byte> v2 = byteGraph.findVertex("byteVertex2");
+        List<GraphPath<Byte>> paths = sps.kShortestPaths(v1, v2, 3);
+
+        // v1 -> v5 -> v2 (14), v1 -> v2 (20), v1 -> v2 (127)
+        assertEquals(3, paths.size());
+        assertEquals(new BigDecimal("14"), paths.get(0).getSumOfWeights());
+        assertEquals(new BigDecimal("20"), paths.get(1).getSumOfWeights());
+        assertEquals(new BigDecimal("127"), paths.get(2).getSumOfWeights());
+        assertEquals(List.of(v1, v2), paths.get(2).getVertexes());
+    }
+
+    @Test
+    public void kShortestPathsReturnsEmptyListWhenTargetIsNotReachable() {
+        Graph<Integer> graph = new WeightedGraph<>();
+        Vertex<Integer> v1 = new Vertex<>("v1");
+        Vertex<Integer> v2 = new Vertex<>("v2");
+        List.of(v1, v2).forEach(graph::addVertex);
+
+        ShortestPathSolver<Integer> sps = new ShortestPathSolver<>(graph);
+        assertEquals(List.of(), sps.kShortestPaths(v1, v2, 3));
+    }
+
+    @Test
+    public void kShortestPathsSeesChangesOfGraphBetweenQueries() {
+        Graph<Integer> graph = new WeightedGraph<>();
+        Vertex<Integer> v1 = new Vertex<>("v1");
+        Vertex<Integer> v2 = new Vertex<>("v2");
+        Vertex<Integer> v3 = new Vertex<>("v3");
+        List.of(v1, v2, v3).forEach(graph::addVertex);
+        graph.addEdge(v1, v2, 10);
+
+        ShortestPathSolver<Integer> sps = new ShortestPathSolver<>(graph);
+        assertEquals(new BigDecimal("10"), sps.shortestPath(v1, v2).getSumOfWeights());
+        // the same snapshot is reused by queries of the same version of the graph
+        assertEquals(new BigDecimal("10"), sps.shortestPath(v1, v2).getSumOfWeights());
+        assertEquals(List.of(), sps.kShortestPaths(v1, v3, 2));
+
+        graph.addEdge(v1, v3, 1);
+        graph.addEdge(v3, v2, 1);
+
+        List<GraphPath<Integer>> paths = sps.kShortestPaths(v1, v2, 2);
+        assertEquals(List.of(v1, v3, v2), paths.get(0).getVertexes());
+        assertEquals(List.of(v1, v2), paths.get(1).getVertexes());
+        assertEquals(1, sps.distanceTable(List.of(v1), List.of(v3)).getDistances()[0]);
+    }
+
+    @Test
+    public void undirectedEdgesAreTraversedInBothDirections() {
+        Graph<Integer> graph = new WeightedGraph<>();
+        Vertex<Integer> v1 = new Vertex<>("v1");
+        Vertex<Integer> v2 = new Vertex<>("v2");
+        Vertex<Integer> v3 = new Vertex<>("v3");
+        List.of(v1, v2, v3).forEach(graph::addVertex);
+        graph.addUndirectedEdge(v1, v2, 4);
+        graph.addUndirectedEdge(v2, v3, 6);
+
+        ShortestPathSolver<Integer> sps = new ShortestPathSolver<>(graph);
+        Map<Vertex<Integer>, VertexResult<Integer>> fromV3 = sps.solveStartingFrom(v3);
+        assertEquals(new BigDecimal(10), fromV3.get(v1).getSumOfWeights());
+        assertEquals(List.of(v3, v2), fromV3.get(v1).getPathToVertex());
+
+        // indexed methods see an undirected edge as two arcs
+        DistanceTable<Integer> table = sps.distanceTable(List.of(v1, v3), List.of(v1, v3));
+        assertEquals(10.0, table.getDistance(0, 1));
+        assertEquals(10.0, table.getDistance(1, 0));
+    }
+
+    @Test
+    public void solveBetweenReturnsResultOfTarget() {
+        Graph<Integer> graph = TestGraphStore.getIntegerTestGraph();
+        ShortestPathSolver<Integer> sps = new ShortestPathSolver<>(graph);
+        Vertex<Integer> v1 = graph.findVertex("intVertex1");
+        Vertex<Integer> v2 = graph.findVertex("intVertex2");
+
+        VertexResult<Integer> expected = sps.solveStartingFrom(v1).get(v2);
+        VertexResult<Integer> received = sps.solveBetween(v1, v2);
+
+        assertEquals(expected.getSumOfWeights(), received.getSumOfWeights());
+        assertEquals(expected.getPathToVertex(), received.getPathToVertex());
+    }
+
+    @Test
+    public void solveBetweenReturnsNullWhenTargetIsNotReachable() {
+        Graph<Integer> graph = new WeightedGraph<>();
+        Vertex<Integer> v1 = new Vertex<>("v1");
+        Vertex<Integer> v2 = new Vertex<>("v2");
+        Vertex<Integer> v3 = new Vertex<>("v3");
+        List.of(v1, v2, v3).forEach(graph::addVertex);
+        graph.addEdge(v1, v2, 1);
+        graph.addEdge(v3, v2, 1);
+
+        ShortestPathSolver<Integer> sps = new ShortestPathSolver<>(graph);
+        assertNull(sps.solveBetween(v1, v3));
+        assertFalse(sps.isReachable(v1, v3));
+        assertTrue(sps.isReachable(v3, v2));
+
+        // the index follows changes of the graph
+        graph.addEdge(v2, v3, 1);
+        assertTrue(sps.isReachable(v1, v3));
+        assertEquals(new BigDecimal(2), sps.solveBetween(v1, v3).getSumOfWeights());
+    }
+
+    /**
+     * Graph implemented outside of the library, which relies on the default methods of {@link Graph}.
+     */
+    private static class DelegatingGraph<T extends Number & Comparable<T>> implements Graph<T> {
+        private Graph<T> graph = new WeightedGraph<>();
+
+        @Override
+        public List<Vertex<T>> getVertexes() {
+            return graph.getVertexes();
+        }
+
+        @Override
+        public List<Edge<T>> getEdges() {
+            return graph.getEdges();
+        }
+
+        @Override
+        public void addVertex(Vertex<T> v) throws IllegalArgumentException {
+            graph.addVertex(v);
+        }
+
+        @Override
+        public void removeVertex(Vertex<T> v) {
+            graph.removeVertex(v);
+        }
+
+        @Override
+        public void addEdge(Edge<T> e) throws IllegalArgumentException {
+            graph.addEdge(e);
+        }
+
+        @Override
+        public void addEdge(Vertex<T> source, Vertex<T> destination, T weight) throws IllegalArgumentException {
+            graph.addEdge(source, destination, weight);
+        }
+
+        @Override
+        public void removeEdge(Edge<T> e) {
+            graph.removeEdge(e);
+        }
+
+        @Override
+        public Vertex<T> findVertex(String vName) {
+            return graph.findVertex(vName);
+        }
+    }
+
+    @Test
+    public void graphThatUsesDefaultMethodsCanBeSolved() {
+        Graph<Integer> graph = new DelegatingGraph<>();
+        Vertex<Integer> v1 = new Vertex<>("v1");
+        Vertex<Integer> v2 = new Vertex<>("v2");
+        List.of(v1, v2).forEach(graph::addVertex);
+        assertEquals(Graph.UNVERSIONED, graph.getVersion());
+
+        ShortestPathSolver<Integer> sps = new ShortestPathSolver<>(graph);
+        assertFalse(sps.isReachable(v1, v2));
+
+        graph.addEdge(v1, v2, 1);
+        assertTrue(sps.isReachable(v1, v2));
+        assertEquals(new BigDecimal(1), sps.solveBetween(v1, v2).getSumOfWeights());
+
+        assertThrows(UnsupportedOperationException.class, () -> graph.addUndirectedEdge(v1, v2, 1));
+    }
+
+    @Test
+    public void unversionedGraphNeedsSnapshotForIndexedSearches() {
+        Graph<Integer> graph = new DelegatingGraph<>();
+        Vertex<Integer> v1 = new Vertex<>("v1");
+        Vertex<Integer> v2 = new Vertex<>("v2");
+        List.of(v1, v2).forEach(graph::addVertex);
+        graph.addEdge(v1, v2, 3);
+
+        ShortestPathSolver<Integer> sps = new ShortestPathSolver<>(graph);
+        assertThrows(IllegalStateException.class, () -> sps.distanceTable(List.of(v1), List.of(v2)));
+        assertThrows(IllegalStateException.class, () -> sps.shortestPath(v1, v2));
+
+        ShortestPathSolver<Integer> withSnapshot = new ShortestPathSolver<>(graph, CompactGraph.of(graph));
+        assertEquals(3.0, withSnapshot.distanceTable(List.of(v1), List.of(v2)).getDistance(0, 0));
+        assertEquals(new BigDecimal(3), withSnapshot.shortestPath(v1, v2).getSumOfWeights());
+    }
+
+    @Test
+    public void solveBetweenThrowsExceptionWhenTargetDoesNotBelongToGraph() {
+        Graph<Integer> graph = TestGraphStore.getIntegerTestGraph();
+        ShortestPathSolver<Integer> sps = new ShortestPathSolver<>(graph);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> sps.solveBetween(graph.findVertex("intVertex1"), new Vertex<>("otherVertex")));
+    }
+
+    @Test
+    public void solveStartingFromStopsAfterMaxVisitedVertexes() {
+        Graph<Integer> graph = TestGraphStore.getIntegerTestGraph();
+        Vertex<Integer> v1 = graph.findVertex("intVertex1");
+        ShortestPathSolver<Integer> sps = new ShortestPathSolver<>(graph);
+        ShortestPathTree<Integer> fullResult = sps.solveStartingFrom(v1);
+
+        ShortestPathTree<Integer> partialResult = sps.solveStartingFrom(v1, SolveOptions.UNLIMITED.withMaxVisitedVertexes(3));
+
+        assertTrue(fullResult.isComplete());
+        assertFalse(partialResult.isComplete());
+        assertEquals(3, partialResult.size());
+        // visited vertexes have their final shortest paths
+        for (Map.Entry<Vertex<Integer>, VertexResult<Integer>> entry : partialResult.entrySet()) {
+            VertexResult<Integer> expected = fullResult.get(entry.getKey());
+            assertEquals(expected.getSumOfWeights(), entry.getValue().getSumOfWeights());
+            assertEquals(expected.getPathToVertex(), entry.getValue().getPathToVertex());
+        }
+        // the search that is not limited by its options is complete
+        assertTrue(sps.solveStartingFrom(v1, SolveOptions.UNLIMITED.withMaxVisitedVertexes(100)).isComplete());
+    }
+
+    @Test
+    public void solveStartingFromStopsWhenCancelledOrDeadlinePassed() {
+        Graph<Integer> graph = TestGraphStore.getIntegerTestGraph();
+        Vertex<Integer> v1 = graph.findVertex("intVertex1");
+        ShortestPathSolver<Integer> sps = new ShortestPathSolver<>(graph);
+
+        CancellationToken token = new CancellationToken();
+        token.cancel();
+        ShortestPathTree<Integer> cancelledResult = sps.solveStartingFrom(v1, SolveOptions.UNLIMITED.withCancellationToken(token));
+        assertFalse(cancelledResult.isComplete());
+        assertEquals(0, cancelledResult.size());
+
+        ShortestPathTree<Integer> lateResult = sps.solveStartingFrom(v1, SolveOptions.UNLIMITED.withDeadline(System.nanoTime() - 1));
+        assertFalse(lateResult.isComplete());
+        assertFalse(lateResult.containsKey(v1));
+    }
+
+    @Test
+    public void solveOptionsThrowExceptionWhenMaxVisitedVertexesIsNotPositive() {
+        assertThrows(IllegalArgumentException.class, () -> SolveOptions.UNLIMITED.withMaxVisitedVertexes(0));
+    }
+
+    @Test
+    public void iterateStartingFromReturnsVertexesInOrderOfSumOfWeights() {
+        Graph<Integer> graph = TestGraphStore.getIntegerTestGraph();
+        Vertex<Integer> v1 = graph.findVertex("intVertex1");
+        ShortestPathSolver<Integer> sps = new ShortestPathSolver<>(graph);
+        ShortestPathTree<Integer> fullResult = sps.solveStartingFrom(v1);
+
+        Iterator<SettledVertex<Integer>> iterator = sps.iterateStartingFrom(v1);
+        SettledVertex<Integer> first = iterator.next();
+        assertSame(v1, first.getVertex());
+        assertNull(first.getPreviousVertex());
+
+        int count = 1;
+        BigDecimal previousSum = first.getSumOfWeights();
+        while (iterator.hasNext()) {
+            SettledVertex<Integer> settled = iterator.next();
+            VertexResult<Integer> expected = fullResult.get(settled.getVertex());
+            assertEquals(expected.getSumOfWeights(), settled.getSumOfWeights());
+            assertSame(expected.getPreviousVertex(), settled.getPreviousVertex());
+            assertTrue(previousSum.compareTo(settled.getSumOfWeights()) <= 0);
+            previousSum = settled.getSumOfWeights();
+            count++;
+        }
+        assertEquals(fullResult.size(), count);
+        assertThrows(NoSuchElementException.class, iterator::next);
+    }
+
+    @Test
+    public void streamStartingFromVisitsOnlyPulledVertexes() {
+        Graph<Integer> graph = TestGraphStore.getIntegerTestGraph();
+        Vertex<Integer> v1 = graph.findVertex("intVertex1");
+        ShortestPathSolver<Integer> sps = new ShortestPathSolver<>(graph);
+
+        List<SettledVertex<Integer>> closest = sps.streamStartingFrom(v1).limit(2).collect(Collectors.toList());
+        List<Vertex<Integer>> expected = sps.streamStartingFrom(v1).map(SettledVertex::getVertex).collect(Collectors.toList());
+
+        assertEquals(2, closest.size());
+        assertEquals(expected.subList(0, 2), List.of(closest.get(0).getVertex(), closest.get(1).getVertex()));
+    }
+
+    @Test
+    public void iteratorThrowsExceptionAfterAnotherSearch() {
+        Graph<Integer> graph = TestGraphStore.getIntegerTestGraph();
+        Vertex<Integer> v1 = graph.findVertex("intVertex1");
+        ShortestPathSolver<Integer> sps = new ShortestPathSolver<>(graph);
+
+        Iterator<SettledVertex<Integer>> iterator = sps.iterateStartingFrom(v1);
+        iterator.next();
+        sps.solveStartingFrom(v1);
+
+        assertThrows(ConcurrentModificationException.class, iterator::hasNext);
+    }
+
+    @Test
+    public void solveStartingFromAcyclicGraphChoosesSamePathsAsDijkstra() {
+        for (long seed = 0; seed < 5; seed++) {
+            // many edges with small weights create many equally short paths
+            Graph<Integer> graph = TestGraphStore.getRandomAcyclicGraph(40, 400, seed);
+            List<Vertex<Integer>> vertexes = graph.getVertexes();
+            ShortestPathSolver<Integer> sps = new ShortestPathSolver<>(graph);
+
+            for (Vertex<Integer> source : vertexes) {
+                ShortestPathTree<Integer> acyclicResult = sps.solveStartingFrom(source);
+                // the options make the solver use Dijkstra's algorithm
+                ShortestPathTree<Integer> expected = sps.solveStartingFrom(source, SolveOptions.UNLIMITED);
+
+                assertEquals(List.copyOf(expected.keySet()), List.copyOf(acyclicResult.keySet()));
+                for (Map.Entry<Vertex<Integer>, VertexResult<Integer>> entry : expected.entrySet()) {
+                    VertexResult<Integer> vertexResult = acyclicResult.get(entry.getKey());
+                    assertEquals(entry.getValue().getSumOfWeights(), vertexResult.getSumOfWeights());
+                    assertSame(entry.getValue().getPreviousVertex(), vertexResult.getPreviousVertex());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void solveStartingFromAcyclicGraphIsEqualToSearchWithOptions() {
+        Graph<Integer> graph = TestGraphStore.getRandomAcyclicGraph(60, 200, 7);
+        ShortestPathSolver<Integer> sps = new ShortestPathSolver<>(graph);
+
+        for (Vertex<Integer> source : graph.getVertexes()) {
+            // both searches use Dijkstra's algorithm, so they choose the same paths and order vertexes the same way
+            ShortestPathTree<Integer> expected = sps.solveStartingFrom(source, SolveOptions.UNLIMITED);
+            ShortestPathTree<Integer> result = sps.solveStartingFrom(source);
+
+            assertEquals(List.copyOf(expected.keySet()), List.copyOf(result.keySet()));
+            for (Map.Entry<Vertex<Integer>, VertexResult<Integer>> entry : expected.entrySet()) {
+                assertEquals(entry.getValue().getSumOfWeights(), result.get(entry.getKey()).getSumOfWeights());
+                assertSame(entry.getValue().getPreviousVertex(), result.get(entry.getKey()).getPreviousVertex());
+            }
+        }
+    }
 }
@@ -0,0 +1,105 @@
+package ml.echelon133.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShortestPathTreeTest {
+
+    private static Graph<Integer> getPathGraph(int vertexCount) {
+        Graph<Integer> graph = new WeightedGraph<>();
+        List<Vertex<Integer>> vertexes = new ArrayList<>();
+        for (int i = 0; i < vertexCount; i++) {
+            Vertex<Integer> v = new Vertex<>("v" + i);
+            graph.addVertex(v);
+            vertexes.add(v);
+        }
+        for (int i = 1; i < vertexCount; i++) {
+            graph.addEdge(vertexes.get(i - 1), vertexes.get(i), i);
+        }
+        return graph;
+    }
+
+    @Test
+    public void resultsAreRebuiltFromPreviousVertexes() {
+        Graph<Integer> graph = getPathGraph(100);
+        Vertex<Integer> v0 = graph.findVertex("v0");
+
+        ShortestPathTree<Integer> tree = new ShortestPathSolver<>(graph).solveStartingFrom(v0);
+
+        assertEquals(100, tree.size());
+        for (int i = 0; i < 100; i++) {
+            VertexResult<Integer> result = tree.get(graph.findVertex("v" + i));
+            assertEquals(new BigDecimal(i * (i + 1) / 2), result.getSumOfWeights());
+            assertEquals(i, result.getPathToVertex().size());
+            if (i > 0) {
+                assertSame(graph.findVertex("v" + (i - 1)), result.getPreviousVertex());
+                assertSame(result.getPreviousVertex(), result.getPathToVertex().getLast());
+                assertSame(v0, result.getPathToVertex().getFirst());
+            } else {
+                assertNull(result.getPreviousVertex());
+            }
+        }
+    }
+
+    @Test
+    public void unreachedVertexesAreNotInTheTree() {
+        Graph<Integer> graph = getPathGraph(3);
+        Vertex<Integer> v1 = graph.findVertex("v1");
+
+        ShortestPathTree<Integer> tree = new ShortestPathSolver<>(graph).solveStartingFrom(v1);
+
+        assertEquals(2, tree.size());
+        assertFalse(tree.containsKey(graph.findVertex("v0")));
+        assertNull(tree.get(graph.findVertex("v0")));
+        // vertexes are compared by identity, like the vertexes of a graph
+        assertFalse(tree.containsKey(new Vertex<Integer>("v1")));
+        assertFalse(tree.containsKey("v1"));
+    }
+
+    @Test
+    public void entriesAreIteratedInTheOrderVertexesWereReachedIn() {
+        Graph<Integer> graph = getPathGraph(20);
+
+        ShortestPathTree<Integer> tree = new ShortestPathSolver<>(graph).solveStartingFrom(graph.findVertex("v0"));
+
+        int i = 0;
+        for (Map.Entry<Vertex<Integer>, VertexResult<Integer>> entry : tree.entrySet()) {
+            assertEquals("v" + i, entry.getKey().getName());
+            assertSame(entry.getKey(), entry.getValue().getSourceVertex());
+            i++;
+        }
+        assertEquals(20, i);
+    }
+
+    @Test
+    public void treeCanBeCopiedToAnotherMap() {
+        Graph<Integer> graph = getPathGraph(2);
+        Vertex<Integer> v0 = graph.findVertex("v0");
+
+        ShortestPathTree<Integer> tree = new ShortestPathSolver<>(graph).solveStartingFrom(v0);
+        Map<Vertex<Integer>, VertexResult<Integer>> copy = new HashMap<>(tree);
+
+        assertEquals(tree.keySet(), copy.keySet());
+        assertEquals(new BigDecimal(1), copy.get(graph.findVertex("v1")).getSumOfWeights());
+    }
+
+    @Test
+    public void treeCannotBeModified() {
+        Graph<Integer> graph = getPathGraph(2);
+        Vertex<Integer> v0 = graph.findVertex("v0");
+
+        ShortestPathTree<Integer> tree = new ShortestPathSolver<>(graph).solveStartingFrom(v0);
+
+        assertThrows(UnsupportedOperationException.class, () -> tree.put(v0, new VertexResult<>(v0)));
+        assertThrows(UnsupportedOperationException.class, () -> tree.remove(v0));
+        assertThrows(UnsupportedOperationException.class, () -> tree.entrySet().iterator().remove());
+        assertEquals(2, tree.size());
+    }
+}
@@ -3,6 +3,7 @@ package ml.echelon133.graph;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.List;
+import java.util.Random;
 
 public class TestGraphStore {
 
@@ -295,4 +296,53 @@ public class TestGraphStore {
 
         return graph;
     }
+
+    /*
+    Random graphs for tests that compare results of two algorithms. The same seed always gives the same graph.
+    About a quarter of the edges of a random graph is undirected, weights are between 0 and 49.
+     */
+    public static Graph<Integer> getRandomGraph(int vertexCount, int edgeCount, long seed) {
+        return getRandomGraphBuilder(vertexCount, edgeCount, seed, true).build();
+    }
+
+    public static CompactGraph<Integer> getRandomCompactGraph(int vertexCount, int edgeCount, long seed) {
+        return getRandomGraphBuilder(vertexCount, edgeCount, seed, true).buildCompact();
+    }
+
+    // every edge of a directed random graph is directed
+    public static Graph<Integer> getRandomDirectedGraph(int vertexCount, int edgeCount, long seed) {
+        return getRandomGraphBuilder(vertexCount, edgeCount, seed, false).build();
+    }
+
+    // every edge of an acyclic random graph goes from a vertex to a vertex with a greater number
+    public static Graph<Integer> getRandomAcyclicGraph(int vertexCount, int edgeCount, long seed) {
+        Random random = new Random(seed);
+        GraphBuilder<Integer> builder = new GraphBuilder<>(vertexCount, edgeCount);
+        for (int i = 0; i < vertexCount; i++) {
+            builder.addVertex("v" + i);
+        }
+        for (int i = 0; i < edgeCount; i++) {
+            int source = random.nextInt(vertexCount - 1);
+            int destination = source + 1 + random.nextInt(vertexCount - 1 - source);
+            builder.addEdge(source, destination, random.nextInt(50));
+        }
+        return builder.build();
+    }
+
+    private static GraphBuilder<Integer> getRandomGraphBuilder(int vertexCount, int edgeCount, long seed,
+                                                               boolean withUndirectedEdges) {
+        Random random = new Random(seed);
+        GraphBuilder<Integer> builder = new GraphBuilder<>(vertexCount, edgeCount);
+        for (int i = 0; i < vertexCount; i++) {
+            builder.addVertex("v" + i);
+        }
+        for (int i = 0; i < edgeCount; i++) {
+            if (withUndirectedEdges && random.nextInt(4) == 0) {
+                builder.addUndirectedEdge(random.nextInt(vertexCount), random.nextInt(vertexCount), random.nextInt(50));
+            } else {
+                builder.addEdge(random.nextInt(vertexCount), random.nextInt(vertexCount), random.nextInt(50));
+            }
+        }
+        return builder;
+    }
 }
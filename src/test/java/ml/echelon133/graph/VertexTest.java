@@ -4,6 +4,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -79,4 +81,50 @@ public class VertexTest {
         testVertex.removeEdge(e1);
         assertTrue(testVertex.getEdges().isEmpty());
     }
+
+    @Test
+    public void removeEdgeKeepsRemainingEdges() {
+        Vertex<Integer> destVertex = new Vertex<>("v2");
+        List<Edge<Integer>> addedEdges = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Edge<Integer> e = new Edge<>(testVertex, destVertex, i);
+            addedEdges.add(e);
+            testVertex.addEdge(e);
+        }
+
+        testVertex.removeEdge(addedEdges.remove(3));
+        testVertex.removeEdge(addedEdges.remove(0));
+        testVertex.removeEdge(addedEdges.remove(7));
+        // an edge that is not in the list is ignored
+        testVertex.removeEdge(new Edge<>(testVertex, destVertex, 1));
+
+        assertEquals(7, testVertex.getEdges().size());
+        assertTrue(testVertex.getEdges().containsAll(addedEdges));
+    }
+
+    @Test
+    public void undirectedEdgeIsRemovedFromBothVertexes() {
+        Vertex<Integer> destVertex = new Vertex<>("v2");
+        Edge<Integer> directed = new Edge<>(destVertex, testVertex, 5);
+        Edge<Integer> undirected = new Edge<>(testVertex, destVertex, 10, false);
+        destVertex.addEdge(directed);
+        testVertex.addEdge(undirected);
+        destVertex.addEdge(undirected);
+
+        testVertex.removeEdge(undirected);
+        destVertex.removeEdge(undirected);
+
+        assertTrue(testVertex.getEdges().isEmpty());
+        assertEquals(List.of(directed), destVertex.getEdges());
+    }
+
+    @Test
+    public void edgesCannotBeModifiedThroughList() {
+        Vertex<Integer> destVertex = new Vertex<>("v2");
+        testVertex.addEdge(destVertex, 10);
+
+        assertThrows(UnsupportedOperationException.class, () -> testVertex.getEdges().clear());
+        assertThrows(UnsupportedOperationException.class, () -> testVertex.getEdges().add(new Edge<>(testVertex, destVertex, 5)));
+        assertEquals(1, testVertex.getEdges().size());
+    }
 }
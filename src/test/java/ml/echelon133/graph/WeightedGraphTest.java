@@ -190,6 +190,28 @@ public class WeightedGraphTest {
         assertFalse(graph.getEdges().contains(e6));
     }
 
+    @Test
+    public void removingVertexRemovesItsEdgesFromOtherVertexes() {
+        Graph<Integer> graph = new WeightedGraph<>();
+
+        Vertex<Integer> v1 = new Vertex<>("v1");
+        Vertex<Integer> v2 = new Vertex<>("v2");
+        Vertex<Integer> v3 = new Vertex<>("v3");
+        List.of(v1, v2, v3).forEach(graph::addVertex);
+
+        graph.addEdge(v1, v2, 1);
+        graph.addEdge(v1, v3, 2);
+        graph.addUndirectedEdge(v2, v3, 3);
+
+        graph.removeVertex(v3);
+
+        // neither a directed edge that leads to v3 nor an undirected edge of v3 can be traversed anymore
+        assertEquals(1, graph.getEdges().size());
+        assertEquals(graph.getEdges(), v1.getEdges());
+        assertEquals(0, v2.getEdges().size());
+        assertNull(new ShortestPathSolver<>(graph).solveStartingFrom(v1).get(v3));
+    }
+
     @Test
     public void findVertexWorks() {
         Graph<Integer> graph = new WeightedGraph<>();
@@ -231,4 +253,47 @@ public class WeightedGraphTest {
         assertNull(foundV1);
         assertNull(foundV2);
     }
+
+    @Test
+    public void versionChangesWhenGraphIsModified() {
+        Vertex<Long> v1 = new Vertex<>("v1");
+        Vertex<Long> v2 = new Vertex<>("v2");
+
+        long version = testGraph.getVersion();
+        testGraph.addVertex(v1);
+        testGraph.addVertex(v2);
+        assertNotEquals(version, testGraph.getVersion());
+
+        version = testGraph.getVersion();
+        testGraph.addEdge(v1, v2, 10L);
+        assertNotEquals(version, testGraph.getVersion());
+
+        version = testGraph.getVersion();
+        testGraph.removeEdge(testGraph.getEdges().get(0));
+        assertNotEquals(version, testGraph.getVersion());
+
+        version = testGraph.getVersion();
+        testGraph.findVertex("v1");
+        assertEquals(version, testGraph.getVersion());
+    }
+
+    @Test
+    public void undirectedEdgeIsStoredOnceAndBelongsToBothVertexes() {
+        Vertex<Long> v1 = new Vertex<>("v1");
+        Vertex<Long> v2 = new Vertex<>("v2");
+        List.of(v1, v2).forEach(v -> testGraph.addVertex(v));
+
+        testGraph.addUndirectedEdge(v1, v2, 10L);
+        Edge<Long> e = testGraph.getEdges().get(0);
+
+        assertEquals(1, testGraph.getEdges().size());
+        assertFalse(e.isDirected());
+        assertSame(e, v1.getEdges().get(0));
+        assertSame(e, v2.getEdges().get(0));
+
+        testGraph.removeEdge(e);
+        assertEquals(0, testGraph.getEdges().size());
+        assertEquals(0, v1.getEdges().size());
+        assertEquals(0, v2.getEdges().size());
+    }
 }